@@ -1,12 +1,23 @@
 package co.edu.uniquindio.gohost.controller;
 
+import co.edu.uniquindio.gohost.dto.CursorPageDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.ActualizacionLoteDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.ActualizacionLoteResDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.AlojamientoCreatedDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.AlojamientoResDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.BusquedaFacetadaDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.CalendarioDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.ClusterMapaDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.CrearAlojDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.DisponibilidadLoteDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.DisponibilidadLoteResDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.EditAlojDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.FiltroBusquedaDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.AlojamientoGeoDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.FiltroAvanzadoDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.FiltroGeoDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.MetricasAlojamientoDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.PuntoMetricasDTO;
 import co.edu.uniquindio.gohost.model.Alojamiento;
 import co.edu.uniquindio.gohost.security.AuthenticationHelper;
 import co.edu.uniquindio.gohost.service.AlojamientoService;
@@ -113,6 +124,16 @@ public class AlojamientoController {
         return service.listar(PageRequest.of(page, size));
     }
 
+    /**
+     * Lista por cursor (keyset). Se activa enviando {@code ?cursor=} (vacío en la primera página);
+     * las siguientes se piden con el valor {@code next} de la respuesta anterior.
+     */
+    @GetMapping(params = "cursor")
+    public CursorPageDTO<AlojamientoResDTO> listarPorCursor(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "10") int size) {
+        return service.listarPorCursor(cursor, size);
+    }
+
     /** Lista alojamientos del anfitrión autenticado. */
     @PreAuthorize("hasRole('ANFITRION')")
     @GetMapping("/anfitrion")
@@ -129,6 +150,25 @@ public class AlojamientoController {
         return service.obtener(id);
     }
 
+    /**
+     * Noches bloqueadas de un alojamiento en [desde, hasta) como tramos (público, para el widget de reserva).
+     */
+    @GetMapping("/{id}/calendario")
+    public CalendarioDTO calendario(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return service.calendario(id, desde, hasta);
+    }
+
+    /**
+     * Disponibilidad de muchas estadías en una sola llamada (p. ej. las tarjetas de una página de resultados).
+     */
+    @PostMapping("/disponibilidad")
+    public DisponibilidadLoteResDTO disponibilidad(@Valid @RequestBody DisponibilidadLoteDTO lote) {
+        return service.disponibilidadLote(lote);
+    }
+
     /** Actualiza parcialmente un alojamiento. */
     @PreAuthorize("hasRole('ANFITRION')")
     @PatchMapping("/{id}")
@@ -137,6 +177,14 @@ public class AlojamientoController {
         return service.actualizarConValidaciones(id, dto, anfitrionId);
     }
 
+    /** Cambia precio, capacidad y/o activación de varios alojamientos propios en una sola petición. */
+    @PreAuthorize("hasRole('ANFITRION')")
+    @PatchMapping("/lote")
+    public ActualizacionLoteResDTO actualizarEnLote(@Valid @RequestBody ActualizacionLoteDTO lote, HttpServletRequest request) {
+        UUID anfitrionId = authHelper.getAuthenticatedUserId(request);
+        return service.actualizarEnLote(lote, anfitrionId);
+    }
+
     /** Búsqueda con filtros (ciudad, capacidad) y paginación. */
     @PostMapping("/search")
     public Page<AlojamientoResDTO> buscar(@RequestBody FiltroBusquedaDTO f) {
@@ -145,12 +193,41 @@ public class AlojamientoController {
         return service.buscar(f.ciudad(), f.capacidad(), PageRequest.of(page, size));
     }
 
+    /** Búsqueda con filtros paginada por cursor ({@code ?cursor=}); {@code page} del cuerpo se ignora. */
+    @PostMapping(value = "/search", params = "cursor")
+    public CursorPageDTO<AlojamientoResDTO> buscarPorCursor(@RequestBody FiltroBusquedaDTO f,
+                                                            @RequestParam(required = false) String cursor) {
+        int size = f.size() == null ? 10 : f.size();
+        return service.buscarPorCursor(f.ciudad(), f.capacidad(), cursor, size);
+    }
+
+    /** Búsqueda geográfica: "cerca de mí" (centro + radio) o viewport del mapa (caja lat/lon). */
+    @PostMapping("/search/geo")
+    public List<AlojamientoGeoDTO> buscarGeo(@Valid @RequestBody FiltroGeoDTO filtro) {
+        return service.buscarGeo(filtro);
+    }
+
+    /**
+     * Clusters del mapa para la tesela z/x/y (esquema de los mapas web):
+     * centroide, cantidad y precio mínimo por celda, con tamaño acotado en cualquier zoom.
+     */
+    @GetMapping("/mapa/{z}/{x}/{y}")
+    public List<ClusterMapaDTO> clustersMapa(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        return service.clustersDeTesela(z, x, y);
+    }
+
     /** Búsqueda avanzada con múltiples filtros (fechas, precios, servicios). */
     @PostMapping("/search/advanced")
     public Page<AlojamientoResDTO> busquedaAvanzada(@Valid @RequestBody FiltroAvanzadoDTO filtro) {
         return service.busquedaAvanzada(filtro);
     }
 
+    /** Búsqueda avanzada con facetas (precios, capacidades, servicios) para la barra de filtros. */
+    @PostMapping(value = "/search/advanced", params = "facetas=true")
+    public BusquedaFacetadaDTO busquedaFacetada(@Valid @RequestBody FiltroAvanzadoDTO filtro) {
+        return service.busquedaFacetada(filtro);
+    }
+
     /** Obtiene todas las ciudades disponibles para búsqueda predictiva. */
     @GetMapping("/ciudades")
     public List<String> obtenerCiudades() {
@@ -187,4 +264,19 @@ public class AlojamientoController {
         return service.obtenerMetricasPorAnfitrion(anfitrionId, fechaInicio, fechaFin);
     }
 
+    /**
+     * Serie de tiempo de métricas del anfitrión autenticado para gráficas (por día, semana o mes).
+     */
+    @PreAuthorize("hasRole('ANFITRION')")
+    @GetMapping("/metricas/serie")
+    public List<PuntoMetricasDTO> serieMetricas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "dia") String agrupacion,
+            @RequestParam(required = false) UUID alojamientoId,
+            HttpServletRequest request) {
+        UUID anfitrionId = authHelper.getAuthenticatedUserId(request);
+        return service.serieMetricasPorAnfitrion(anfitrionId, alojamientoId, fechaInicio, fechaFin, agrupacion);
+    }
+
 }
@@ -7,7 +7,6 @@ import co.edu.uniquindio.gohost.model.Rol;
 import co.edu.uniquindio.gohost.model.Usuario;
 import co.edu.uniquindio.gohost.security.JWTUtils;   // Utilidad JWT correcta
 import co.edu.uniquindio.gohost.service.UsuarioService;
-import co.edu.uniquindio.gohost.service.mail.EmailRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -29,7 +28,6 @@ public class AuthController {
 
     private final UsuarioService usuarios;  // Servicio de dominio para usuarios
     private final JWTUtils jwtUtils;        // Utilidad para generar/validar JWT
-    private final co.edu.uniquindio.gohost.service.mail.MailService mailService;
 
     /**
      * Registra un nuevo usuario con rol HUESPED por defecto.
@@ -55,8 +53,7 @@ public class AuthController {
                 .rol(Rol.HUESPED)
                 .activo(true)
                 .build();
-        var created = usuarios.crear(u);
-        try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.bienvenidaHuesped(created)); } catch (Exception ignored) {}
+        var created = usuarios.registrar(u);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
     /**
@@ -83,8 +80,7 @@ public class AuthController {
                 .rol(Rol.ANFITRION)
                 .activo(true)
                 .build();
-        var created = usuarios.crear(u);
-        try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.bienvenidaAnfitrion(created)); } catch (Exception ignored) {}
+        var created = usuarios.registrar(u);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
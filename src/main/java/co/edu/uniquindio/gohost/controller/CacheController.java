@@ -0,0 +1,34 @@
+package co.edu.uniquindio.gohost.controller;
+
+import co.edu.uniquindio.gohost.dto.EstadisticasCacheDTO;
+import co.edu.uniquindio.gohost.service.cache.CacheAlojamientos;
+import co.edu.uniquindio.gohost.service.idempotencia.Idempotencia;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Observabilidad de las cachés en memoria (aciertos, fallos, expulsiones, invalidaciones).
+ */
+@RestController
+@RequestMapping("/api/admin/caches")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheAlojamientos cacheAlojamientos;
+    private final Idempotencia idempotencia;
+
+    /** Contadores de todas las cachés. */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public List<EstadisticasCacheDTO> estadisticas() {
+        List<EstadisticasCacheDTO> todas = new ArrayList<>(cacheAlojamientos.estadisticas());
+        todas.add(idempotencia.estadisticas());
+        return todas;
+    }
+}
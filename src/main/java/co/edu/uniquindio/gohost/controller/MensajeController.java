@@ -4,6 +4,7 @@ import co.edu.uniquindio.gohost.dto.mensajeDtos.CrearMensajeDTO;
 import co.edu.uniquindio.gohost.dto.mensajeDtos.MensajeResDTO;
 import co.edu.uniquindio.gohost.security.AuthenticationHelper;
 import co.edu.uniquindio.gohost.service.MensajeService;
+import co.edu.uniquindio.gohost.service.idempotencia.Idempotencia;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -22,12 +23,17 @@ public class MensajeController {
 
     private final MensajeService mensajes;
     private final AuthenticationHelper authHelper;
+    private final Idempotencia idempotencia;
 
+    /** Con cabecera {@code Idempotency-Key} los reintentos repiten la respuesta sin duplicar el mensaje. */
     @PostMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<MensajeResDTO> enviar(HttpServletRequest request, @RequestBody CrearMensajeDTO dto) {
+    public ResponseEntity<MensajeResDTO> enviar(HttpServletRequest request,
+                                                @RequestHeader(value = Idempotencia.CABECERA, required = false) String clave,
+                                                @RequestBody CrearMensajeDTO dto) {
         UUID remitenteId = authHelper.getAuthenticatedUserId(request);
-        MensajeResDTO res = mensajes.enviar(remitenteId, dto);
+        MensajeResDTO res = idempotencia.ejecutar(remitenteId, clave, "POST /api/mensajes", dto,
+                MensajeResDTO.class, () -> mensajes.enviar(remitenteId, dto));
         return ResponseEntity.ok(res);
     }
 
@@ -1,12 +1,18 @@
 package co.edu.uniquindio.gohost.controller;
 
+import co.edu.uniquindio.gohost.dto.CursorPageDTO;
 import co.edu.uniquindio.gohost.dto.reservaDtos.ActualizarReservaDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.BloqueoResDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.CrearBloqueoDTO;
 import co.edu.uniquindio.gohost.dto.reservaDtos.CrearReservaDTO;
 import co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO;
 import co.edu.uniquindio.gohost.model.EstadoReserva;
 import co.edu.uniquindio.gohost.security.AuthenticationHelper;
+import co.edu.uniquindio.gohost.service.BloqueoReservaService;
 import co.edu.uniquindio.gohost.service.ReservaService;
+import co.edu.uniquindio.gohost.service.idempotencia.Idempotencia;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -17,6 +23,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -31,21 +38,73 @@ public class ReservaController {
     @Autowired
     private ReservaService service;
 
+    @Autowired
+    private BloqueoReservaService bloqueos;
+
     @Autowired
     private AuthenticationHelper authHelper;
 
+    @Autowired
+    private Idempotencia idempotencia;
+
     /**
      * Crear una reserva para el huésped autenticado.
      * Devuelve DTO para evitar exponer entidades y prevenir LazyInitializationException.
+     * Con cabecera {@code Idempotency-Key} los reintentos repiten la respuesta sin crear otra reserva.
      */
     @PostMapping
     @PreAuthorize("hasRole('HUESPED')")
-    public ResponseEntity<ReservaResDTO> crear(HttpServletRequest request, @RequestBody CrearReservaDTO dto) {
+    public ResponseEntity<ReservaResDTO> crear(HttpServletRequest request,
+                                               @RequestHeader(value = Idempotencia.CABECERA, required = false) String clave,
+                                               @RequestBody CrearReservaDTO dto) {
         UUID huespedId = authHelper.getAuthenticatedUserId(request);
-        ReservaResDTO reserva = service.crearConDTO(huespedId, dto);
+        ReservaResDTO reserva = idempotencia.ejecutar(huespedId, clave, "POST /api/reservas", dto,
+                ReservaResDTO.class, () -> service.crearConDTO(huespedId, dto));
         return ResponseEntity.ok(reserva);
     }
 
+    /**
+     * Bloquear fechas unos minutos mientras el huésped completa el checkout.
+     * Nadie más puede reservarlas ni bloquearlas hasta que el bloqueo se confirme, se libere o venza.
+     */
+    @PostMapping("/bloqueos")
+    @PreAuthorize("hasRole('HUESPED')")
+    public ResponseEntity<BloqueoResDTO> bloquear(HttpServletRequest request, @Valid @RequestBody CrearBloqueoDTO dto) {
+        UUID huespedId = authHelper.getAuthenticatedUserId(request);
+        return ResponseEntity.ok(bloqueos.crear(huespedId, dto));
+    }
+
+    /**
+     * Bloqueos vigentes del huésped autenticado.
+     */
+    @GetMapping("/bloqueos")
+    @PreAuthorize("hasRole('HUESPED')")
+    public ResponseEntity<List<BloqueoResDTO>> misBloqueos(HttpServletRequest request) {
+        UUID huespedId = authHelper.getAuthenticatedUserId(request);
+        return ResponseEntity.ok(bloqueos.listarVigentes(huespedId));
+    }
+
+    /**
+     * Convertir un bloqueo vigente en reserva.
+     */
+    @PostMapping("/bloqueos/{id}/confirmar")
+    @PreAuthorize("hasRole('HUESPED')")
+    public ResponseEntity<ReservaResDTO> confirmarBloqueo(HttpServletRequest request, @PathVariable UUID id) {
+        UUID huespedId = authHelper.getAuthenticatedUserId(request);
+        return ResponseEntity.ok(bloqueos.confirmar(huespedId, id));
+    }
+
+    /**
+     * Liberar un bloqueo antes de que venza.
+     */
+    @DeleteMapping("/bloqueos/{id}")
+    @PreAuthorize("hasRole('HUESPED')")
+    public ResponseEntity<Void> liberarBloqueo(HttpServletRequest request, @PathVariable UUID id) {
+        UUID huespedId = authHelper.getAuthenticatedUserId(request);
+        bloqueos.liberar(huespedId, id);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Listar reservas del huésped autenticado como DTO con filtros y ordenamiento.
      */
@@ -65,6 +124,24 @@ public class ReservaController {
         return ResponseEntity.ok(reservas);
     }
 
+    /**
+     * Listar reservas del huésped autenticado por cursor (keyset). Se activa con {@code ?cursor=}
+     * (vacío en la primera página); las siguientes se piden con el {@code next} recibido.
+     */
+    @GetMapping(value = "/mias", params = "cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageDTO<ReservaResDTO>> deMisReservasPorCursor(
+            HttpServletRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) EstadoReserva estado) {
+
+        UUID huespedId = authHelper.getAuthenticatedUserId(request);
+        return ResponseEntity.ok(service.listarPorHuespedPorCursor(huespedId, fechaInicio, fechaFin, estado, cursor, size));
+    }
+
     /**
      * Listar reservas de los alojamientos del anfitrión autenticado como DTO.
      */
@@ -78,6 +155,18 @@ public class ReservaController {
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * Listar reservas de los alojamientos del anfitrión autenticado por cursor ({@code ?cursor=}).
+     */
+    @GetMapping(value = "/anfitrion", params = "cursor")
+    @PreAuthorize("hasRole('ANFITRION')")
+    public ResponseEntity<CursorPageDTO<ReservaResDTO>> deMisAlojamientosPorCursor(HttpServletRequest request,
+                                                                                   @RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(defaultValue = "10") int size) {
+        UUID anfitrionId = authHelper.getAuthenticatedUserId(request);
+        return ResponseEntity.ok(service.listarPorAnfitrionPorCursor(anfitrionId, cursor, size));
+    }
+
     /**
      * Listar reservas de un alojamiento específico del anfitrión autenticado.
      */
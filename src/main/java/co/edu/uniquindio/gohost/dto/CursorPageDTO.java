@@ -0,0 +1,36 @@
+package co.edu.uniquindio.gohost.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página para paginación por cursor (keyset).
+ * {@code next} es opaco: el cliente lo reenvía como {@code ?cursor=} para pedir la siguiente página;
+ * es null cuando no hay más resultados.
+ */
+public record CursorPageDTO<T>(
+        List<T> content,
+        int size,
+        String next
+) {
+
+    /**
+     * Construye la página a partir de {@code size + 1} filas leídas:
+     * si sobra una, hay página siguiente y el cursor se toma de la última fila devuelta.
+     */
+    public static <E, T> CursorPageDTO<T> de(List<E> filas, int size,
+                                             Function<E, T> mapper,
+                                             Function<E, String> cursorDe) {
+        return deLote(filas, size, pagina -> pagina.stream().map(mapper).toList(), cursorDe);
+    }
+
+    /** Igual que {@link #de} pero mapeando la página completa de una vez (hidratación en lote). */
+    public static <E, T> CursorPageDTO<T> deLote(List<E> filas, int size,
+                                                 Function<List<E>, List<T>> mapper,
+                                                 Function<E, String> cursorDe) {
+        boolean hayMas = filas.size() > size;
+        List<E> pagina = hayMas ? filas.subList(0, size) : filas;
+        String next = hayMas ? cursorDe.apply(pagina.get(pagina.size() - 1)) : null;
+        return new CursorPageDTO<>(mapper.apply(pagina), size, next);
+    }
+}
@@ -0,0 +1,16 @@
+package co.edu.uniquindio.gohost.dto;
+
+/**
+ * Contadores de una caché en memoria.
+ *
+ * @param expulsiones entradas descartadas por tamaño o por TTL vencido
+ */
+public record EstadisticasCacheDTO(
+        String nombre,
+        int entradas,
+        int maxEntradas,
+        long aciertos,
+        long fallos,
+        long expulsiones,
+        long invalidaciones
+) {}
@@ -0,0 +1,17 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Cambios de precio, capacidad y activación para varios alojamientos del anfitrión
+ * (p. ej. un ajuste de temporada) en una sola petición.
+ */
+public record ActualizacionLoteDTO(
+        @NotEmpty(message = "Debe enviar al menos un cambio")
+        @Size(max = 500, message = "Máximo 500 cambios por lote")
+        List<@Valid CambioAlojamientoDTO> cambios
+) {}
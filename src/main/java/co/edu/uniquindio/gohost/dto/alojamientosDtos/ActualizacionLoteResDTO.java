@@ -0,0 +1,12 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import java.util.List;
+
+/**
+ * Resultado de una actualización por lote; {@code resultados} va en el orden de los cambios recibidos.
+ */
+public record ActualizacionLoteResDTO(
+        int total,
+        int actualizados,
+        List<ResultadoCambioDTO> resultados
+) {}
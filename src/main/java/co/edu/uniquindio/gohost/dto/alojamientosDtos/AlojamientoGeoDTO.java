@@ -0,0 +1,12 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+/**
+ * Resultado de búsqueda geográfica: el alojamiento, su posición y
+ * la distancia (km) al centro de la búsqueda.
+ */
+public record AlojamientoGeoDTO(
+        AlojamientoResDTO alojamiento,
+        double latitud,
+        double longitud,
+        double distanciaKm
+) {}
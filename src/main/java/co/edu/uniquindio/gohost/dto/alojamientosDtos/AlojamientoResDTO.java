@@ -1,6 +1,7 @@
 package co.edu.uniquindio.gohost.dto.alojamientosDtos;
 
 import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -9,6 +10,8 @@ import java.util.UUID;
 /**
  * DTO de lectura para devolver alojamientos sin proxies ni entidades JPA.
  * Se usa solo en los endpoints que listan o buscan.
+ * {@code resaltado} solo viene en la búsqueda por texto: fragmento de título/descripción
+ * con los términos encontrados entre {@code <mark>} y {@code </mark>}.
  */
 public record AlojamientoResDTO(
         UUID id,
@@ -19,5 +22,18 @@ public record AlojamientoResDTO(
         List<String> fotos,
         List<ServicioAlojamiento> servicios,
         String ciudad,
-        UUID anfitrionId
-) {}
\ No newline at end of file
+        UUID anfitrionId,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String resaltado
+) {
+
+    public AlojamientoResDTO(UUID id, String titulo, String descripcion, BigDecimal precioNoche, Integer capacidad,
+                             List<String> fotos, List<ServicioAlojamiento> servicios, String ciudad, UUID anfitrionId) {
+        this(id, titulo, descripcion, precioNoche, capacidad, fotos, servicios, ciudad, anfitrionId, null);
+    }
+
+    /** Copia con el fragmento resaltado de la búsqueda por texto. */
+    public AlojamientoResDTO conResaltado(String resaltado) {
+        return new AlojamientoResDTO(id, titulo, descripcion, precioNoche, capacidad, fotos, servicios, ciudad, anfitrionId, resaltado);
+    }
+}
@@ -0,0 +1,11 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import org.springframework.data.domain.Page;
+
+/**
+ * Respuesta de la búsqueda avanzada con facetas: la página de resultados y las facetas del filtro.
+ */
+public record BusquedaFacetadaDTO(
+        Page<AlojamientoResDTO> resultados,
+        FacetasDTO facetas
+) {}
@@ -0,0 +1,17 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Calendario de disponibilidad de un alojamiento en [desde, hasta), codificado por tramos
+ * (run-length): solo se envían los tramos de noches bloqueadas, en orden.
+ */
+public record CalendarioDTO(
+        UUID alojamientoId,
+        LocalDate desde,
+        LocalDate hasta,
+        int nochesBloqueadas,
+        List<RangoBloqueadoDTO> bloqueos
+) {}
@@ -0,0 +1,33 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Cambio de un alojamiento dentro de una actualización por lote. Igual que en el PATCH individual,
+ * solo se aplican los campos no nulos.
+ */
+public record CambioAlojamientoDTO(
+        @NotNull(message = "El ID del alojamiento es obligatorio")
+        UUID id,
+
+        /** Precio por noche (opcional). Debe ser > 0 si viene */
+        @Positive(message = "El precio debe ser mayor que cero")
+        BigDecimal precioNoche,
+
+        /** Capacidad (opcional). Debe ser > 0 si viene */
+        @Positive(message = "La capacidad debe ser mayor que cero")
+        Integer capacidad,
+
+        /** Activación/desactivación (opcional) */
+        Boolean activo
+) {
+
+    /** No trae ningún campo para cambiar. */
+    public boolean sinCambios() {
+        return precioNoche == null && capacidad == null && activo == null;
+    }
+}
@@ -0,0 +1,13 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import java.math.BigDecimal;
+
+/**
+ * Grupo de alojamientos de una celda del mapa: centroide, cantidad y precio mínimo por noche.
+ */
+public record ClusterMapaDTO(
+        double latitud,
+        double longitud,
+        long cantidad,
+        BigDecimal precioMinimo
+) {}
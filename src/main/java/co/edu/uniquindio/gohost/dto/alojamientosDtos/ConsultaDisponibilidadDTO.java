@@ -0,0 +1,26 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** Una consulta de disponibilidad: alojamiento y estadía [checkIn, checkOut). */
+public record ConsultaDisponibilidadDTO(
+        @NotNull(message = "El ID del alojamiento es obligatorio")
+        UUID alojamientoId,
+
+        @NotNull(message = "La fecha de check-in es obligatoria")
+        LocalDate checkIn,
+
+        @NotNull(message = "La fecha de check-out es obligatoria")
+        LocalDate checkOut
+) {
+
+    /**
+     * Mismas reglas que al crear una reserva: al menos una noche y sin fechas pasadas.
+     */
+    public boolean rangoValido(LocalDate hoy) {
+        return checkOut.isAfter(checkIn) && !checkIn.isBefore(hoy);
+    }
+}
@@ -0,0 +1,13 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import java.math.BigDecimal;
+
+/**
+ * Intervalo del histograma de precios [desde, hasta) con la cantidad de alojamientos
+ * (la última cubeta incluye {@code hasta}).
+ */
+public record CubetaPrecioDTO(
+        BigDecimal desde,
+        BigDecimal hasta,
+        long cantidad
+) {}
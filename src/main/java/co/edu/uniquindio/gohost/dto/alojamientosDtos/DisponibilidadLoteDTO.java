@@ -0,0 +1,16 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Lote de consultas de disponibilidad (p. ej. todas las tarjetas de una página de resultados).
+ */
+public record DisponibilidadLoteDTO(
+        @NotEmpty(message = "Debe enviar al menos una consulta")
+        @Size(max = 500, message = "Máximo 500 consultas por lote")
+        List<@Valid ConsultaDisponibilidadDTO> consultas
+) {}
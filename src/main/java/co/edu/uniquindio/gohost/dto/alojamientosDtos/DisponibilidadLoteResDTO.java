@@ -0,0 +1,11 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+/**
+ * Resultado de un lote de disponibilidad. {@code mapa} tiene un carácter por consulta, en el
+ * orden recibido: '1' disponible, '0' ocupado o rango inválido (vacío o en el pasado).
+ */
+public record DisponibilidadLoteResDTO(
+        int total,
+        int disponibles,
+        String mapa
+) {}
@@ -0,0 +1,17 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facetas de una búsqueda avanzada para construir la barra de filtros:
+ * histograma de precios, conteo por capacidad y por servicio sobre el conjunto filtrado.
+ */
+public record FacetasDTO(
+        long total,
+        List<CubetaPrecioDTO> precios,
+        Map<Integer, Long> capacidades,
+        Map<ServicioAlojamiento, Long> servicios
+) {}
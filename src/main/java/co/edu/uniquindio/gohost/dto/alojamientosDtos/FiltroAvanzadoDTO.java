@@ -1,8 +1,10 @@
 package co.edu.uniquindio.gohost.dto.alojamientosDtos;
 
 import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -10,7 +12,11 @@ import java.util.List;
 
 /**
  * DTO para filtros avanzados de búsqueda de alojamientos.
- * Incluye filtros por ciudad, fechas, precio, servicios y paginación.
+ * Incluye filtros por ciudad, texto libre, fechas, precio, servicios, orden y paginación.
+ * Con {@code q} se busca en título y descripción (texto completo en español) y, sin otro
+ * orden, los resultados se ordenan por coincidencia y traen un fragmento resaltado.
+ * Con {@code orden = "relevancia"} los resultados se ordenan por puntaje (calificación,
+ * precio frente a la mediana de la ciudad, cercanía a latitud/longitud si se indican y antigüedad).
  */
 public record FiltroAvanzadoDTO(
         // Filtro por ciudad (búsqueda predictiva)
@@ -36,17 +42,34 @@ public record FiltroAvanzadoDTO(
         
         // Paginación
         Integer page,
-        Integer size
+        Integer size,
+
+        // Orden: null (por defecto) o "relevancia"
+        String orden,
+
+        // Punto de referencia opcional para el orden por relevancia
+        @DecimalMin(value = "-90.0", message = "Latitud inválida")
+        @DecimalMax(value = "90.0", message = "Latitud inválida")
+        Double latitud,
+
+        @DecimalMin(value = "-180.0", message = "Longitud inválida")
+        @DecimalMax(value = "180.0", message = "Longitud inválida")
+        Double longitud,
+
+        // Texto libre sobre título y descripción
+        @Size(max = 200, message = "La búsqueda no puede superar 200 caracteres")
+        String q
 ) {
     
     /**
-     * Valida que las fechas sean coherentes.
+     * Valida que las fechas sean coherentes: la salida debe ser posterior a la entrada
+     * (una estadía ocupa al menos una noche).
      */
     public boolean fechasValidas() {
         if (fechaInicio == null || fechaFin == null) {
             return true; // Si no se especifican fechas, no hay restricción
         }
-        return !fechaInicio.isAfter(fechaFin);
+        return fechaFin.isAfter(fechaInicio);
     }
     
     /**
@@ -66,6 +89,13 @@ public record FiltroAvanzadoDTO(
         return fechaInicio != null && fechaFin != null;
     }
     
+    /**
+     * Indica si hay texto libre que buscar.
+     */
+    public boolean tieneTexto() {
+        return q != null && !q.isBlank();
+    }
+
     /**
      * Indica si se debe filtrar por precio.
      */
@@ -79,4 +109,25 @@ public record FiltroAvanzadoDTO(
     public boolean tieneFiltroServicios() {
         return servicios != null && !servicios.isEmpty();
     }
+
+    /**
+     * Valida que el orden sea uno de los soportados.
+     */
+    public boolean ordenValido() {
+        return orden == null || orden.isBlank() || ordenPorRelevancia();
+    }
+
+    /**
+     * Indica si se deben ordenar los resultados por relevancia.
+     */
+    public boolean ordenPorRelevancia() {
+        return "relevancia".equalsIgnoreCase(orden == null ? null : orden.trim());
+    }
+
+    /**
+     * Indica si hay punto de referencia para puntuar por distancia.
+     */
+    public boolean tieneReferencia() {
+        return latitud != null && longitud != null;
+    }
 }
\ No newline at end of file
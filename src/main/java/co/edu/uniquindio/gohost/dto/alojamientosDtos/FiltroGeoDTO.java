@@ -0,0 +1,82 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * DTO para búsqueda geográfica de alojamientos.
+ * Dos modos (excluyentes):
+ *  - Radio: {@code latitud}, {@code longitud} y {@code radioKm} ("cerca de mí").
+ *  - Caja: {@code latMin}, {@code latMax}, {@code lonMin}, {@code lonMax} (viewport del mapa).
+ * Los resultados se ordenan por distancia al centro (del radio o de la caja).
+ */
+public record FiltroGeoDTO(
+        // Modo radio
+        @DecimalMin(value = "-90.0", message = "Latitud inválida")
+        @DecimalMax(value = "90.0", message = "Latitud inválida")
+        Double latitud,
+
+        @DecimalMin(value = "-180.0", message = "Longitud inválida")
+        @DecimalMax(value = "180.0", message = "Longitud inválida")
+        Double longitud,
+
+        @DecimalMin(value = "0.0", inclusive = false, message = "El radio debe ser mayor a 0")
+        @DecimalMax(value = "500.0", message = "El radio máximo es 500 km")
+        Double radioKm,
+
+        // Modo caja
+        @DecimalMin(value = "-90.0", message = "Latitud inválida")
+        @DecimalMax(value = "90.0", message = "Latitud inválida")
+        Double latMin,
+
+        @DecimalMin(value = "-90.0", message = "Latitud inválida")
+        @DecimalMax(value = "90.0", message = "Latitud inválida")
+        Double latMax,
+
+        @DecimalMin(value = "-180.0", message = "Longitud inválida")
+        @DecimalMax(value = "180.0", message = "Longitud inválida")
+        Double lonMin,
+
+        @DecimalMin(value = "-180.0", message = "Longitud inválida")
+        @DecimalMax(value = "180.0", message = "Longitud inválida")
+        Double lonMax,
+
+        // Máximo de resultados (los K más cercanos)
+        @Min(value = 1, message = "El límite debe ser al menos 1")
+        @Max(value = 200, message = "El límite máximo es 200")
+        Integer limite
+) {
+
+    /**
+     * Indica si la búsqueda es por radio.
+     */
+    public boolean esRadio() {
+        return latitud != null && longitud != null && radioKm != null;
+    }
+
+    /**
+     * Indica si la búsqueda es por caja (viewport).
+     */
+    public boolean esCaja() {
+        return latMin != null && latMax != null && lonMin != null && lonMax != null;
+    }
+
+    /**
+     * Valida que venga exactamente un modo y que la caja sea coherente.
+     */
+    public boolean valido() {
+        if (esRadio() == esCaja()) {
+            return false;
+        }
+        return esRadio() || (latMin <= latMax && lonMin <= lonMax);
+    }
+
+    /**
+     * Límite efectivo de resultados.
+     */
+    public int limiteEfectivo() {
+        return limite == null ? 50 : limite;
+    }
+}
@@ -0,0 +1,18 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Punto de la serie de métricas de un anfitrión: inicio del periodo (día, semana o mes)
+ * y totales del periodo. {@code promedioCalificacion} es null si no hubo reseñas.
+ */
+public record PuntoMetricasDTO(
+        LocalDate periodo,
+        long nochesReservadas,
+        BigDecimal ingresos,
+        long reservas,
+        long cancelaciones,
+        long resenas,
+        Double promedioCalificacion
+) {}
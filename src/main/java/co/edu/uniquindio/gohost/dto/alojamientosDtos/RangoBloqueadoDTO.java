@@ -0,0 +1,12 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import java.time.LocalDate;
+
+/**
+ * Tramo de noches bloqueadas consecutivas [desde, hasta): {@code hasta} es el primer día libre
+ * (puede ser día de check-in de otra reserva).
+ */
+public record RangoBloqueadoDTO(
+        LocalDate desde,
+        LocalDate hasta
+) {}
@@ -0,0 +1,10 @@
+package co.edu.uniquindio.gohost.dto.alojamientosDtos;
+
+import java.util.UUID;
+
+/** Resultado de un cambio del lote: {@code mensaje} explica el rechazo cuando no se aplicó. */
+public record ResultadoCambioDTO(
+        UUID id,
+        boolean actualizado,
+        String mensaje
+) {}
@@ -0,0 +1,17 @@
+package co.edu.uniquindio.gohost.dto.reservaDtos;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bloqueo temporal de fechas: se confirma con POST /api/reservas/bloqueos/{id}/confirmar antes de {@code expiraEn}.
+ */
+public record BloqueoResDTO(
+        UUID id,
+        UUID alojamientoId,
+        LocalDate checkIn,
+        LocalDate checkOut,
+        Integer numeroHuespedes,
+        LocalDateTime expiraEn
+) {}
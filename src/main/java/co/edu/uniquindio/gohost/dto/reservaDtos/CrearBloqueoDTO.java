@@ -0,0 +1,26 @@
+package co.edu.uniquindio.gohost.dto.reservaDtos;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** Bloquear fechas durante el checkout; {@code minutos} es opcional (por defecto app.bloqueos.minutos). **/
+public record CrearBloqueoDTO(
+        @NotNull(message = "El ID del alojamiento es obligatorio")
+        UUID alojamientoId,
+
+        @NotNull(message = "La fecha de check-in es obligatoria")
+        LocalDate checkIn,
+
+        @NotNull(message = "La fecha de check-out es obligatoria")
+        LocalDate checkOut,
+
+        @NotNull(message = "El número de huéspedes es obligatorio")
+        @Min(value = 1, message = "El número de huéspedes debe ser al menos 1")
+        Integer numeroHuespedes,
+
+        @Min(value = 1, message = "El bloqueo debe durar al menos 1 minuto")
+        Integer minutos
+) {}
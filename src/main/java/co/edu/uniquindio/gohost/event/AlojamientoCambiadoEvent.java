@@ -0,0 +1,55 @@
+package co.edu.uniquindio.gohost.event;
+
+import co.edu.uniquindio.gohost.model.Alojamiento;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Evento publicado por {@code AlojamientoServiceImpl} cada vez que un alojamiento se crea,
+ * se edita o se elimina (soft delete).
+ *
+ * {@code ciudadAnterior}/{@code ciudad} son la ciudad con la que el alojamiento cuenta como
+ * activo antes y después del cambio: null si no existía, estaba inactivo o no tenía ciudad.
+ * El resto de campos es el estado actual (coordenadas y precio), suficiente para que
+ * cada índice en memoria reemplace su entrada sin releer todos los alojamientos.
+ */
+public record AlojamientoCambiadoEvent(
+        UUID alojamientoId,
+        String ciudadAnterior,
+        String ciudad,
+        boolean activo,
+        Double latitud,
+        Double longitud,
+        BigDecimal precioNoche
+) {
+
+    /** Evento para un alojamiento recién creado. */
+    public static AlojamientoCambiadoEvent creado(Alojamiento a) {
+        return modificado(a, null);
+    }
+
+    /** Evento para un alojamiento existente, dada su ciudad activa previa al cambio. */
+    public static AlojamientoCambiadoEvent modificado(Alojamiento a, String ciudadAnterior) {
+        var d = a.getDireccion();
+        return new AlojamientoCambiadoEvent(
+                a.getId(), ciudadAnterior, ciudadActiva(a),
+                Boolean.TRUE.equals(a.getActivo()),
+                d == null ? null : d.getLatitud(),
+                d == null ? null : d.getLongitud(),
+                a.getPrecioNoche());
+    }
+
+    /** El alojamiento está activo y tiene coordenadas (aparece en el mapa). */
+    public boolean ubicado() {
+        return activo && latitud != null && longitud != null;
+    }
+
+    /** Ciudad con la que el alojamiento aparece en búsquedas, o null si no está activo. */
+    public static String ciudadActiva(Alojamiento a) {
+        if (!Boolean.TRUE.equals(a.getActivo()) || a.getDireccion() == null) {
+            return null;
+        }
+        return a.getDireccion().getCiudad();
+    }
+}
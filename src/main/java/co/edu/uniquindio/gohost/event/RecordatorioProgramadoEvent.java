@@ -0,0 +1,13 @@
+package co.edu.uniquindio.gohost.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento publicado por {@code RecordatorioServiceImpl} al crear un recordatorio, para que el
+ * despachador lo agende en memoria en cuanto la transacción se confirma.
+ */
+public record RecordatorioProgramadoEvent(
+        UUID recordatorioId,
+        LocalDateTime fechaProgramada
+) {}
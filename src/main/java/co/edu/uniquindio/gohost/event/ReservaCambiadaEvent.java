@@ -0,0 +1,55 @@
+package co.edu.uniquindio.gohost.event;
+
+import co.edu.uniquindio.gohost.model.EstadoReserva;
+import co.edu.uniquindio.gohost.model.Reserva;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Evento publicado por {@code ReservaServiceImpl} cada vez que una reserva se crea,
+ * cambia de fechas/estado o se cancela.
+ *
+ * Lleva el rango y estado anteriores (nulos en una creación) y los actuales,
+ * para que los índices en memoria puedan actualizarse sin volver a consultar la BD.
+ */
+public record ReservaCambiadaEvent(
+        UUID reservaId,
+        UUID alojamientoId,
+        LocalDate checkInAnterior,
+        LocalDate checkOutAnterior,
+        EstadoReserva estadoAnterior,
+        LocalDate checkIn,
+        LocalDate checkOut,
+        EstadoReserva estado
+) {
+
+    /** Evento para una reserva recién creada. */
+    public static ReservaCambiadaEvent creada(Reserva r) {
+        return new ReservaCambiadaEvent(
+                r.getId(), r.getAlojamiento().getId(),
+                null, null, null,
+                r.getCheckIn(), r.getCheckOut(), r.getEstado());
+    }
+
+    /** Evento para una reserva existente, dados sus valores previos al cambio. */
+    public static ReservaCambiadaEvent modificada(Reserva r,
+                                                  LocalDate checkInAnterior,
+                                                  LocalDate checkOutAnterior,
+                                                  EstadoReserva estadoAnterior) {
+        return new ReservaCambiadaEvent(
+                r.getId(), r.getAlojamiento().getId(),
+                checkInAnterior, checkOutAnterior, estadoAnterior,
+                r.getCheckIn(), r.getCheckOut(), r.getEstado());
+    }
+
+    /** La reserva bloqueaba noches antes del cambio (existía y no estaba CANCELADA). */
+    public boolean activaAntes() {
+        return estadoAnterior != null && estadoAnterior != EstadoReserva.CANCELADA;
+    }
+
+    /** La reserva bloquea noches después del cambio. */
+    public boolean activaAhora() {
+        return estado != null && estado != EstadoReserva.CANCELADA;
+    }
+}
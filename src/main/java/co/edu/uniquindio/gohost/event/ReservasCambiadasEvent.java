@@ -0,0 +1,31 @@
+package co.edu.uniquindio.gohost.event;
+
+import co.edu.uniquindio.gohost.model.EstadoReserva;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evento publicado por {@code ReservaServiceImpl} tras un cambio de estado por lotes
+ * (un UPDATE ... RETURNING): todas las reservas pasaron de {@code estadoAnterior} a
+ * {@code estado} sin cambiar de fechas.
+ *
+ * Un solo evento por lote permite a las métricas aplicar sus deltas con una sentencia por tabla;
+ * {@code cambios} trae el detalle de cada reserva para los índices en memoria.
+ */
+public record ReservasCambiadasEvent(
+        EstadoReserva estadoAnterior,
+        EstadoReserva estado,
+        List<ReservaCambiadaEvent> cambios
+) {
+
+    /** IDs de las reservas del lote. */
+    public List<UUID> reservaIds() {
+        return cambios.stream().map(ReservaCambiadaEvent::reservaId).toList();
+    }
+
+    /** Alojamientos con al menos una reserva en el lote (sin repetir). */
+    public List<UUID> alojamientoIds() {
+        return cambios.stream().map(ReservaCambiadaEvent::alojamientoId).distinct().toList();
+    }
+}
@@ -82,6 +82,15 @@ public class Alojamiento {
     @Builder.Default
     private List<ServicioAlojamiento> servicios = new ArrayList<>();
 
+    /**
+     * Copia de {@link #servicios} como máscara de bits (ver {@link ServicioAlojamiento#bit()}).
+     * Permite filtrar por servicios en SQL sin unir alojamiento_servicios.
+     * Se mantiene sincronizada desde los métodos de servicios y antes de cada persist/update.
+     */
+    @Column(name = "servicios_mask", nullable = false)
+    @Builder.Default
+    private Long serviciosMask = 0L;
+
     @Column(nullable = false)
     @Builder.Default
     private Boolean activo = true;
@@ -98,6 +107,17 @@ public class Alojamiento {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
 
+    @PrePersist
+    @PreUpdate
+    void sincronizarServiciosMask() {
+        this.serviciosMask = ServicioAlojamiento.mascara(servicios);
+    }
+
+    public void setServicios(List<ServicioAlojamiento> servicios) {
+        this.servicios = servicios;
+        sincronizarServiciosMask();
+    }
+
     // Métodos de conveniencia
     public String getCiudad() {
         return direccion != null ? direccion.getCiudad() : null;
@@ -134,12 +154,14 @@ public class Alojamiento {
     public void agregarServicio(ServicioAlojamiento servicio) {
         if (servicio != null && !this.servicios.contains(servicio)) {
             this.servicios.add(servicio);
+            sincronizarServiciosMask();
         }
     }
 
     public void eliminarServicio(ServicioAlojamiento servicio) {
         if (servicio != null) {
             this.servicios.remove(servicio);
+            sincronizarServiciosMask();
         }
     }
 
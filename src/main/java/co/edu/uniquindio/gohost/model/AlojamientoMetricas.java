@@ -0,0 +1,49 @@
+package co.edu.uniquindio.gohost.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Resumen de métricas de un alojamiento (tabla {@code alojamiento_metricas}).
+ * Se mantiene con incrementos atómicos desde las reservas y comentarios
+ * (ver {@code AlojamientoMetricasRepository}); no se edita por JPA.
+ */
+@Entity
+@Table(name = "alojamiento_metricas")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AlojamientoMetricas {
+
+    @Id
+    @Column(name = "alojamiento_id")
+    private UUID alojamientoId;
+
+    @Column(name = "total_reservas", nullable = false)
+    private long totalReservas;
+
+    @Column(name = "reservas_completadas", nullable = false)
+    private long reservasCompletadas;
+
+    @Column(name = "reservas_canceladas", nullable = false)
+    private long reservasCanceladas;
+
+    @Column(name = "ingresos_totales", nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresosTotales;
+
+    @Column(name = "suma_calificaciones", nullable = false)
+    private long sumaCalificaciones;
+
+    @Column(name = "total_calificaciones", nullable = false)
+    private long totalCalificaciones;
+
+    @Column(name = "actualizado_en", nullable = false)
+    private LocalDateTime actualizadoEn;
+
+    /** Promedio de calificaciones (0 si no hay). */
+    public double promedioCalificacion() {
+        return totalCalificaciones == 0 ? 0.0 : (double) sumaCalificaciones / totalCalificaciones;
+    }
+}
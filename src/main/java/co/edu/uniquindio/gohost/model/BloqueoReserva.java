@@ -0,0 +1,54 @@
+package co.edu.uniquindio.gohost.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bloqueo temporal de fechas de un alojamiento mientras el huésped completa la reserva
+ * (tabla {@code bloqueo_reserva}). Vigente mientras {@code expiraEn} esté en el futuro.
+ */
+@Entity
+@Table(name = "bloqueo_reserva")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class BloqueoReserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Column(name = "alojamiento_id", nullable = false)
+    private UUID alojamientoId;
+
+    @Column(name = "huesped_id", nullable = false)
+    private UUID huespedId;
+
+    @Column(name = "check_in", nullable = false)
+    private LocalDate checkIn;
+
+    @Column(name = "check_out", nullable = false)
+    private LocalDate checkOut;
+
+    @Column(name = "numero_huespedes", nullable = false)
+    private Integer numeroHuespedes;
+
+    @Column(name = "expira_en", nullable = false)
+    private LocalDateTime expiraEn;
+
+    @Column(name = "creado_en", nullable = false)
+    @Builder.Default
+    private LocalDateTime creadoEn = LocalDateTime.now();
+
+    public boolean vigente(LocalDateTime ahora) {
+        return expiraEn.isAfter(ahora);
+    }
+}
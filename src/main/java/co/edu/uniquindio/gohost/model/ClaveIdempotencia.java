@@ -0,0 +1,46 @@
+package co.edu.uniquindio.gohost.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Respuesta guardada de una petición con {@code Idempotency-Key} (tabla {@code clave_idempotencia}).
+ * Se escribe con consultas nativas desde {@code ClaveIdempotenciaRepository}; no se edita por JPA.
+ */
+@Entity
+@Table(name = "clave_idempotencia")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ClaveIdempotencia {
+
+    @EmbeddedId
+    private Id id;
+
+    @Column(name = "operacion", nullable = false, length = 100)
+    private String operacion;
+
+    /** SHA-256 de la operación y el cuerpo de la petición. */
+    @Column(name = "huella", nullable = false, length = 64)
+    private String huella;
+
+    /** Respuesta serializada en JSON. */
+    @Column(name = "respuesta", columnDefinition = "TEXT")
+    private String respuesta;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+
+    @Embeddable
+    @Getter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+    public static class Id implements Serializable {
+
+        @Column(name = "usuario_id", nullable = false)
+        private UUID usuarioId;
+
+        @Column(name = "clave", nullable = false, length = 255)
+        private String clave;
+    }
+}
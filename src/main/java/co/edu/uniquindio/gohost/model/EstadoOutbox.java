@@ -0,0 +1,16 @@
+package co.edu.uniquindio.gohost.model;
+
+/**
+ * Estados de un correo en la bandeja de salida ({@link MensajeOutbox}).
+ */
+public enum EstadoOutbox {
+
+    /** En espera de envío (o de reintento tras un fallo) */
+    PENDIENTE,
+
+    /** Entregado al proveedor de correo */
+    ENVIADO,
+
+    /** Se agotaron los reintentos */
+    FALLIDO
+}
@@ -1,4 +1,4 @@
 
 package co.edu.uniquindio.gohost.model;
-/** Estados de una reserva **/
-public enum EstadoReserva { PENDIENTE, CONFIRMADA, CANCELADA }
+/** Estados de una reserva (COMPLETADA: la estadía ya terminó) **/
+public enum EstadoReserva { PENDIENTE, CONFIRMADA, CANCELADA, COMPLETADA }
@@ -0,0 +1,69 @@
+package co.edu.uniquindio.gohost.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Correo en la bandeja de salida (tabla {@code outbox}).
+ * Se guarda en la transacción del cambio que lo origina y lo envía el despachador en segundo plano.
+ */
+@Entity
+@Table(name = "outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class MensajeOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Column(name = "destinatario", nullable = false, length = 320)
+    private String destinatario;
+
+    @Column(name = "asunto", length = 500)
+    private String asunto;
+
+    @Column(name = "html", columnDefinition = "TEXT")
+    private String html;
+
+    @Column(name = "remitente", length = 320)
+    private String remitente;
+
+    @Column(name = "cc", length = 1000)
+    private String cc;
+
+    @Column(name = "bcc", length = 1000)
+    private String bcc;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    @Builder.Default
+    private EstadoOutbox estado = EstadoOutbox.PENDIENTE;
+
+    @Column(name = "intentos", nullable = false)
+    @Builder.Default
+    private int intentos = 0;
+
+    @Column(name = "ultimo_error", columnDefinition = "TEXT")
+    private String ultimoError;
+
+    @Column(name = "creado_en", nullable = false)
+    @Builder.Default
+    private LocalDateTime creadoEn = LocalDateTime.now();
+
+    /** Cuándo puede reclamarse: ahora al encolar, fin del arriendo al reclamar, próximo reintento tras un fallo. */
+    @Column(name = "disponible_en", nullable = false)
+    @Builder.Default
+    private LocalDateTime disponibleEn = LocalDateTime.now();
+
+    @Column(name = "enviado_en")
+    private LocalDateTime enviadoEn;
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -46,6 +47,11 @@ public class Reserva {
     @Column(name = "numero_huespedes", nullable = false)
     private Integer numeroHuespedes;
 
+    /** Precio por noche pactado al crear la reserva (base de los ingresos en las métricas). */
+    @NotNull
+    @Column(name = "precio_noche", nullable = false, precision = 10, scale = 2)
+    private BigDecimal precioNoche;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "estado", nullable = false)
     @Builder.Default
@@ -1,7 +1,12 @@
 package co.edu.uniquindio.gohost.model;
 
+import java.util.Collection;
+
 /**
  * Enum que representa los servicios/amenidades disponibles en un alojamiento.
+ *
+ * Cada valor ocupa el bit {@code ordinal()} de la columna {@code alojamientos.servicios_mask}.
+ * Agregar valores nuevos SIEMPRE al final (y como máximo 63) para no alterar las máscaras guardadas.
  */
 public enum ServicioAlojamiento {
     WIFI("WiFi"),
@@ -38,4 +43,22 @@ public enum ServicioAlojamiento {
     public String getDescripcion() {
         return descripcion;
     }
+
+    /** Bit que representa este servicio dentro de la máscara. */
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /** Máscara con los bits de todos los servicios dados (0 si es nula o vacía). */
+    public static long mascara(Collection<ServicioAlojamiento> servicios) {
+        long mascara = 0L;
+        if (servicios != null) {
+            for (ServicioAlojamiento s : servicios) {
+                if (s != null) {
+                    mascara |= s.bit();
+                }
+            }
+        }
+        return mascara;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,354 @@
+package co.edu.uniquindio.gohost.repository;
+
+import co.edu.uniquindio.gohost.model.AlojamientoMetricas;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio del resumen {@link AlojamientoMetricas} y de los cubos diarios
+ * ({@code alojamiento_metricas_diarias}, ver V10).
+ * Los incrementos del resumen se insertan en {@code alojamiento_metricas_pendientes} (V17) y
+ * {@link #consolidarPendientes} los suma después; los de los cubos son UPSERT con incrementos
+ * (sin leer antes). Ambos deben ejecutarse dentro de la transacción que cambia la reserva o
+ * crea el comentario.
+ */
+public interface AlojamientoMetricasRepository extends JpaRepository<AlojamientoMetricas, UUID> {
+
+    /**
+     * Deja pendientes los deltas de reservas del alojamiento de la reserva. {@code nochesCompletadas}
+     * (con signo) se multiplica por el precio por noche pactado en la reserva para acumular ingresos.
+     * Es un INSERT sin conflicto: no espera a otras transacciones del mismo alojamiento.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_pendientes
+               (alojamiento_id, total_reservas, reservas_completadas, reservas_canceladas, ingresos_totales)
+        SELECT r.alojamiento_id, :total, :completadas, :canceladas, :nochesCompletadas * r.precio_noche
+          FROM reserva r
+         WHERE r.id = :reservaId
+        """, nativeQuery = true)
+    void acumularReservas(@Param("reservaId") UUID reservaId,
+                          @Param("total") long total,
+                          @Param("completadas") long completadas,
+                          @Param("canceladas") long canceladas,
+                          @Param("nochesCompletadas") long nochesCompletadas);
+
+    /**
+     * Igual que {@link #acumularReservas} para un lote de reservas con el mismo cambio de estado,
+     * en una sola sentencia: una fila pendiente por alojamiento con los deltas multiplicados por
+     * sus reservas y las noches del lote.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_pendientes
+               (alojamiento_id, total_reservas, reservas_completadas, reservas_canceladas, ingresos_totales)
+        SELECT r.alojamiento_id, 0, :completadas * COUNT(*), :canceladas * COUNT(*),
+               :signoIngresos * SUM((r.check_out - r.check_in) * r.precio_noche)
+          FROM reserva r
+         WHERE r.id IN (:reservaIds)
+         GROUP BY r.alojamiento_id
+        """, nativeQuery = true)
+    void acumularReservasLote(@Param("reservaIds") Collection<UUID> reservaIds,
+                              @Param("completadas") long completadas,
+                              @Param("canceladas") long canceladas,
+                              @Param("signoIngresos") long signoIngresos);
+
+    /** Deja pendiente una calificación nueva. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_pendientes (alojamiento_id, suma_calificaciones, total_calificaciones)
+        VALUES (:alojamientoId, :calificacion, 1)
+        """, nativeQuery = true)
+    void acumularCalificacion(@Param("alojamientoId") UUID alojamientoId,
+                              @Param("calificacion") int calificacion);
+
+    /**
+     * Suma al resumen los incrementos pendientes (un agregado por alojamiento) y los borra en la
+     * misma sentencia. Con varios nodos a la vez, el DELETE de uno espera las filas que borra el
+     * otro y las salta, así ningún incremento se suma dos veces.
+     * @return alojamientos actualizados
+     */
+    @Modifying
+    @Query(value = """
+        WITH pendientes AS (
+            DELETE FROM alojamiento_metricas_pendientes
+            RETURNING alojamiento_id, total_reservas, reservas_completadas, reservas_canceladas,
+                      ingresos_totales, suma_calificaciones, total_calificaciones
+        )
+        INSERT INTO alojamiento_metricas AS m
+               (alojamiento_id, total_reservas, reservas_completadas, reservas_canceladas, ingresos_totales,
+                suma_calificaciones, total_calificaciones, actualizado_en)
+        SELECT alojamiento_id, SUM(total_reservas), SUM(reservas_completadas), SUM(reservas_canceladas),
+               SUM(ingresos_totales), SUM(suma_calificaciones), SUM(total_calificaciones), now()
+          FROM pendientes
+         GROUP BY alojamiento_id
+        ON CONFLICT (alojamiento_id) DO UPDATE SET
+               total_reservas = m.total_reservas + EXCLUDED.total_reservas,
+               reservas_completadas = m.reservas_completadas + EXCLUDED.reservas_completadas,
+               reservas_canceladas = m.reservas_canceladas + EXCLUDED.reservas_canceladas,
+               ingresos_totales = m.ingresos_totales + EXCLUDED.ingresos_totales,
+               suma_calificaciones = m.suma_calificaciones + EXCLUDED.suma_calificaciones,
+               total_calificaciones = m.total_calificaciones + EXCLUDED.total_calificaciones,
+               actualizado_en = now()
+        """, nativeQuery = true)
+    int consolidarPendientes();
+
+    /**
+     * Recalcula todo el resumen desde reservas y comentarios (un agregado por tabla).
+     * Red de seguridad nocturna; los ingresos usan el precio pactado en cada reserva, el
+     * mismo que los incrementos, así ambos coinciden aunque el alojamiento cambie de precio.
+     * Descarta en la misma sentencia (misma instantánea) los incrementos pendientes que ya
+     * están reflejados en lo que lee; los que confirmen después se consolidan normalmente.
+     */
+    @Modifying
+    @Query(value = """
+        WITH descartados AS (
+            DELETE FROM alojamiento_metricas_pendientes
+        )
+        INSERT INTO alojamiento_metricas AS m
+               (alojamiento_id, total_reservas, reservas_completadas, reservas_canceladas, ingresos_totales,
+                suma_calificaciones, total_calificaciones, actualizado_en)
+        SELECT a.id,
+               COALESCE(r.total, 0), COALESCE(r.completadas, 0), COALESCE(r.canceladas, 0), COALESCE(r.ingresos, 0),
+               COALESCE(c.suma, 0), COALESCE(c.total, 0), now()
+          FROM alojamientos a
+          LEFT JOIN (SELECT r.alojamiento_id,
+                            COUNT(*) AS total,
+                            COUNT(*) FILTER (WHERE r.estado = 'COMPLETADA') AS completadas,
+                            COUNT(*) FILTER (WHERE r.estado = 'CANCELADA') AS canceladas,
+                            SUM((r.check_out - r.check_in) * r.precio_noche) FILTER (WHERE r.estado = 'COMPLETADA') AS ingresos
+                       FROM reserva r
+                      GROUP BY r.alojamiento_id) r ON r.alojamiento_id = a.id
+          LEFT JOIN (SELECT alojamiento_id, SUM(calificacion) AS suma, COUNT(*) AS total
+                       FROM comentario GROUP BY alojamiento_id) c ON c.alojamiento_id = a.id
+        ON CONFLICT (alojamiento_id) DO UPDATE SET
+               total_reservas = EXCLUDED.total_reservas,
+               reservas_completadas = EXCLUDED.reservas_completadas,
+               reservas_canceladas = EXCLUDED.reservas_canceladas,
+               ingresos_totales = EXCLUDED.ingresos_totales,
+               suma_calificaciones = EXCLUDED.suma_calificaciones,
+               total_calificaciones = EXCLUDED.total_calificaciones,
+               actualizado_en = now()
+        """, nativeQuery = true)
+    int recalcularTodo();
+
+    /**
+     * Métricas de un alojamiento activo: lectura por PK de alojamientos y del resumen.
+     * Cada fila: titulo, sumaCalificaciones, totalCalificaciones, totalReservas, completadas, canceladas, ingresos.
+     */
+    @Query(value = """
+        SELECT a.titulo,
+               COALESCE(m.suma_calificaciones, 0), COALESCE(m.total_calificaciones, 0),
+               COALESCE(m.total_reservas, 0), COALESCE(m.reservas_completadas, 0),
+               COALESCE(m.reservas_canceladas, 0), COALESCE(m.ingresos_totales, 0)
+          FROM alojamientos a
+          LEFT JOIN alojamiento_metricas m ON m.alojamiento_id = a.id
+         WHERE a.id = :alojamientoId AND a.activo = true
+        """, nativeQuery = true)
+    List<Object[]> resumen(@Param("alojamientoId") UUID alojamientoId);
+
+    /** Igual que {@link #resumen} para todos los alojamientos activos de un anfitrión. */
+    @Query(value = """
+        SELECT a.titulo,
+               COALESCE(m.suma_calificaciones, 0), COALESCE(m.total_calificaciones, 0),
+               COALESCE(m.total_reservas, 0), COALESCE(m.reservas_completadas, 0),
+               COALESCE(m.reservas_canceladas, 0), COALESCE(m.ingresos_totales, 0)
+          FROM alojamientos a
+          LEFT JOIN alojamiento_metricas m ON m.alojamiento_id = a.id
+         WHERE a.anfitrion_id = :anfitrionId AND a.activo = true
+        """, nativeQuery = true)
+    List<Object[]> resumenPorAnfitrion(@Param("anfitrionId") UUID anfitrionId);
+
+    /* =========================================================
+       Cubos diarios (alojamiento_metricas_diarias)
+       ========================================================= */
+
+    /**
+     * Suma (o resta, con {@code signo} negativo) la contribución de una reserva a los cubos de
+     * cada noche [checkIn, checkOut): los contadores van al día de check-in, las noches y los
+     * ingresos (precio pactado en la reserva) a cada noche. Los argumentos valen -1, 0 o 1.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_diarias AS m
+               (alojamiento_id, dia, reservas, cancelaciones, completadas, noches_reservadas, ingresos)
+        SELECT r.alojamiento_id, CAST(d AS date),
+               CASE WHEN CAST(d AS date) = :checkIn THEN :reservas ELSE 0 END,
+               CASE WHEN CAST(d AS date) = :checkIn THEN :cancelaciones ELSE 0 END,
+               CASE WHEN CAST(d AS date) = :checkIn THEN :completadas ELSE 0 END,
+               :noches,
+               :nochesCompletadas * r.precio_noche
+          FROM reserva r
+         CROSS JOIN generate_series(CAST(:checkIn AS timestamp),
+                                    GREATEST(CAST(:checkOut AS timestamp) - interval '1 day', CAST(:checkIn AS timestamp)),
+                                    interval '1 day') d
+         WHERE r.id = :reservaId
+        ON CONFLICT (alojamiento_id, dia) DO UPDATE SET
+               reservas = m.reservas + EXCLUDED.reservas,
+               cancelaciones = m.cancelaciones + EXCLUDED.cancelaciones,
+               completadas = m.completadas + EXCLUDED.completadas,
+               noches_reservadas = m.noches_reservadas + EXCLUDED.noches_reservadas,
+               ingresos = m.ingresos + EXCLUDED.ingresos
+        """, nativeQuery = true)
+    void acumularDias(@Param("reservaId") UUID reservaId,
+                      @Param("checkIn") LocalDate checkIn,
+                      @Param("checkOut") LocalDate checkOut,
+                      @Param("reservas") int reservas,
+                      @Param("cancelaciones") int cancelaciones,
+                      @Param("completadas") int completadas,
+                      @Param("noches") int noches,
+                      @Param("nochesCompletadas") int nochesCompletadas);
+
+    /**
+     * Igual que {@link #acumularDias} para un lote de reservas con el mismo cambio de estado y sin
+     * cambio de fechas, en una sola sentencia: un UPSERT por alojamiento y día con la suma del lote.
+     * Los argumentos valen -1, 0 o 1 (un cambio de estado no suma reservas creadas).
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_diarias AS m
+               (alojamiento_id, dia, reservas, cancelaciones, completadas, noches_reservadas, ingresos)
+        SELECT r.alojamiento_id, CAST(d AS date), 0,
+               :cancelaciones * COUNT(*) FILTER (WHERE CAST(d AS date) = r.check_in),
+               :completadas * COUNT(*) FILTER (WHERE CAST(d AS date) = r.check_in),
+               :noches * COUNT(*),
+               :nochesCompletadas * SUM(r.precio_noche)
+          FROM reserva r
+         CROSS JOIN LATERAL generate_series(CAST(r.check_in AS timestamp),
+                                            GREATEST(CAST(r.check_out AS timestamp) - interval '1 day', CAST(r.check_in AS timestamp)),
+                                            interval '1 day') d
+         WHERE r.id IN (:reservaIds)
+         GROUP BY r.alojamiento_id, CAST(d AS date)
+        ON CONFLICT (alojamiento_id, dia) DO UPDATE SET
+               cancelaciones = m.cancelaciones + EXCLUDED.cancelaciones,
+               completadas = m.completadas + EXCLUDED.completadas,
+               noches_reservadas = m.noches_reservadas + EXCLUDED.noches_reservadas,
+               ingresos = m.ingresos + EXCLUDED.ingresos
+        """, nativeQuery = true)
+    void acumularDiasLote(@Param("reservaIds") Collection<UUID> reservaIds,
+                          @Param("cancelaciones") int cancelaciones,
+                          @Param("completadas") int completadas,
+                          @Param("noches") int noches,
+                          @Param("nochesCompletadas") int nochesCompletadas);
+
+    /** Suma una calificación nueva al cubo de hoy. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_diarias AS m (alojamiento_id, dia, resenas, suma_calificaciones)
+        VALUES (:alojamientoId, CURRENT_DATE, 1, :calificacion)
+        ON CONFLICT (alojamiento_id, dia) DO UPDATE SET
+               resenas = m.resenas + 1,
+               suma_calificaciones = m.suma_calificaciones + EXCLUDED.suma_calificaciones
+        """, nativeQuery = true)
+    void acumularCalificacionDia(@Param("alojamientoId") UUID alojamientoId,
+                                 @Param("calificacion") int calificacion);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM alojamiento_metricas_diarias)", nativeQuery = true)
+    boolean existenDias();
+
+    /** Primer paso de la reconstrucción desde {@code desde}: borra los cubos del periodo. */
+    @Modifying
+    @Query(value = "DELETE FROM alojamiento_metricas_diarias WHERE dia >= :desde", nativeQuery = true)
+    int borrarDiasDesde(@Param("desde") LocalDate desde);
+
+    /**
+     * Segundo paso: cubos de reservas para las noches desde {@code desde} (misma atribución que
+     * {@link #acumularDias}). Reemplaza las columnas de reservas si el cubo ya existe, así el
+     * paso es idempotente aunque se ejecute sin el borrado previo.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_diarias AS m
+               (alojamiento_id, dia, reservas, cancelaciones, completadas, noches_reservadas, ingresos)
+        SELECT r.alojamiento_id, CAST(d AS date),
+               COUNT(*) FILTER (WHERE CAST(d AS date) = r.check_in),
+               COUNT(*) FILTER (WHERE CAST(d AS date) = r.check_in AND r.estado = 'CANCELADA'),
+               COUNT(*) FILTER (WHERE CAST(d AS date) = r.check_in AND r.estado = 'COMPLETADA'),
+               COUNT(*) FILTER (WHERE r.estado <> 'CANCELADA'),
+               COALESCE(SUM(r.precio_noche) FILTER (WHERE r.estado = 'COMPLETADA'), 0)
+          FROM reserva r
+         CROSS JOIN LATERAL generate_series(CAST(r.check_in AS timestamp),
+                                            GREATEST(CAST(r.check_out AS timestamp) - interval '1 day', CAST(r.check_in AS timestamp)),
+                                            interval '1 day') d
+         WHERE r.check_out >= :desde
+           AND d >= CAST(:desde AS timestamp)
+         GROUP BY r.alojamiento_id, CAST(d AS date)
+        ON CONFLICT (alojamiento_id, dia) DO UPDATE SET
+               reservas = EXCLUDED.reservas,
+               cancelaciones = EXCLUDED.cancelaciones,
+               completadas = EXCLUDED.completadas,
+               noches_reservadas = EXCLUDED.noches_reservadas,
+               ingresos = EXCLUDED.ingresos
+        """, nativeQuery = true)
+    int reconstruirDiasReservas(@Param("desde") LocalDate desde);
+
+    /** Tercer paso: reseñas desde {@code desde}. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO alojamiento_metricas_diarias AS m (alojamiento_id, dia, resenas, suma_calificaciones)
+        SELECT c.alojamiento_id, CAST(c.creado_en AS date), COUNT(*), SUM(c.calificacion)
+          FROM comentario c
+         WHERE c.creado_en >= CAST(:desde AS timestamp)
+         GROUP BY c.alojamiento_id, CAST(c.creado_en AS date)
+        ON CONFLICT (alojamiento_id, dia) DO UPDATE SET
+               resenas = EXCLUDED.resenas,
+               suma_calificaciones = EXCLUDED.suma_calificaciones
+        """, nativeQuery = true)
+    int reconstruirDiasResenas(@Param("desde") LocalDate desde);
+
+    /**
+     * Métricas de los alojamientos activos de un anfitrión sumando los cubos de [desde, hasta].
+     * Mismo formato de fila que {@link #resumen}.
+     */
+    @Query(value = """
+        SELECT a.titulo,
+               COALESCE(SUM(m.suma_calificaciones), 0), COALESCE(SUM(m.resenas), 0),
+               COALESCE(SUM(m.reservas), 0), COALESCE(SUM(m.completadas), 0),
+               COALESCE(SUM(m.cancelaciones), 0), COALESCE(SUM(m.ingresos), 0)
+          FROM alojamientos a
+          LEFT JOIN alojamiento_metricas_diarias m
+                 ON m.alojamiento_id = a.id AND m.dia BETWEEN :desde AND :hasta
+         WHERE a.anfitrion_id = :anfitrionId AND a.activo = true
+         GROUP BY a.id, a.titulo
+         ORDER BY a.titulo
+        """, nativeQuery = true)
+    List<Object[]> resumenPorAnfitrionEnRango(@Param("anfitrionId") UUID anfitrionId,
+                                              @Param("desde") LocalDate desde,
+                                              @Param("hasta") LocalDate hasta);
+
+    /**
+     * Serie de tiempo del anfitrión (o solo de {@code alojamientoId} si no es nulo),
+     * un punto por periodo ({@code day}, {@code week} o {@code month}) incluso sin datos.
+     * Cada fila: periodo, noches, ingresos, reservas, cancelaciones, reseñas, suma de calificaciones.
+     */
+    @Query(value = """
+        SELECT CAST(p AS date),
+               COALESCE(SUM(m.noches_reservadas), 0), COALESCE(SUM(m.ingresos), 0),
+               COALESCE(SUM(m.reservas), 0), COALESCE(SUM(m.cancelaciones), 0),
+               COALESCE(SUM(m.resenas), 0), COALESCE(SUM(m.suma_calificaciones), 0)
+          FROM generate_series(date_trunc(:periodo, CAST(:desde AS timestamp)),
+                               CAST(:hasta AS timestamp),
+                               CAST('1 ' || :periodo AS interval)) p
+          LEFT JOIN (alojamiento_metricas_diarias m
+                     JOIN alojamientos a ON a.id = m.alojamiento_id
+                                        AND a.anfitrion_id = :anfitrionId
+                                        AND (CAST(:alojamientoId AS UUID) IS NULL
+                                             OR a.id = CAST(:alojamientoId AS UUID)))
+                 ON date_trunc(:periodo, CAST(m.dia AS timestamp)) = p
+                AND m.dia BETWEEN :desde AND :hasta
+         GROUP BY p
+         ORDER BY p
+        """, nativeQuery = true)
+    List<Object[]> serieAnfitrion(@Param("anfitrionId") UUID anfitrionId,
+                                  @Param("alojamientoId") UUID alojamientoId,
+                                  @Param("desde") LocalDate desde,
+                                  @Param("hasta") LocalDate hasta,
+                                  @Param("periodo") String periodo);
+}
@@ -2,6 +2,7 @@ package co.edu.uniquindio.gohost.repository;
 
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.MetricasAlojamientoDTO;
 import co.edu.uniquindio.gohost.model.Alojamiento;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,7 +11,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,7 +21,7 @@ import java.util.UUID;
  * Repositorio de alojamientos con búsqueda por ciudad/capacidad
  * y métodos con JOIN FETCH para cargar fotos (entidad Foto) y evitar LazyInitializationException.
  */
-public interface AlojamientoRepository extends JpaRepository<Alojamiento, UUID> {
+public interface AlojamientoRepository extends JpaRepository<Alojamiento, UUID>, AlojamientoRepositoryCustom {
 
     /** Búsqueda flexible con fotos cargadas (JOIN FETCH) */
     @Query("""
@@ -41,10 +43,101 @@ public interface AlojamientoRepository extends JpaRepository<Alojamiento, UUID>
     @Query("select distinct a from Alojamiento a left join fetch a.fotos where a.id = :id")
     Optional<Alojamiento> findByIdWithFotos(@Param("id") UUID id);
 
+    /**
+     * Estado actual de varios alojamientos para validar una actualización por lote sin cargar entidades.
+     * Cada fila: id, anfitrionId, activo, precioNoche, ciudad, latitud, longitud.
+     */
+    @Query("""
+        SELECT a.id, a.anfitrion.id, a.activo, a.precioNoche,
+               a.direccion.ciudad, a.direccion.latitud, a.direccion.longitud
+          FROM Alojamiento a
+         WHERE a.id IN :ids
+    """)
+    List<Object[]> findEstadoParaLote(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Candado compartido sobre la fila del alojamiento hasta el fin de la transacción (FOR SHARE).
+     * Las reservas entre sí las arbitra la restricción ex_reserva_sin_traslape, así que varias
+     * altas del mismo alojamiento pueden tenerlo a la vez; solo esperan (y hacen esperar) a un
+     * bloqueo temporal en curso, que toma {@link #bloquearParaRetener}.
+     */
+    @Query(value = "SELECT id FROM alojamientos WHERE id = :id FOR SHARE", nativeQuery = true)
+    Optional<UUID> bloquearParaReservar(@Param("id") UUID id);
+
+    /**
+     * Candado exclusivo sobre la fila del alojamiento hasta el fin de la transacción
+     * (FOR NO KEY UPDATE: no choca con las FK de reserva). Lo toma quien crea un bloqueo temporal:
+     * los bloqueos no tienen restricción en la BD, así que se serializan entre sí y contra las
+     * reservas en curso, que se verifican en otra tabla.
+     */
+    @Query(value = "SELECT id FROM alojamientos WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<UUID> bloquearParaRetener(@Param("id") UUID id);
+
     /** Listar todos con fotos cargadas (JOIN FETCH) */
     @Query("select distinct a from Alojamiento a left join fetch a.fotos")
     Page<Alojamiento> findAllWithFotos(Pageable pageable);
 
+    /* =========================================================
+       Hidratación en lote: colecciones de una página de alojamientos
+       ========================================================= */
+
+    /**
+     * Fotos de un conjunto de alojamientos en una sola consulta.
+     * Cada fila: alojamientoId, url; ordenadas por alojamiento y por la columna de orden.
+     */
+    @Query("""
+        select a.id, f from Alojamiento a
+        join a.fotos f
+        where a.id in :ids
+        order by a.id, index(f)
+    """)
+    List<Object[]> findFotosByAlojamientoIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Servicios de un conjunto de alojamientos en una sola consulta.
+     * Cada fila: alojamientoId, servicio.
+     */
+    @Query("""
+        select a.id, s from Alojamiento a
+        join a.servicios s
+        where a.id in :ids
+    """)
+    List<Object[]> findServiciosByAlojamientoIds(@Param("ids") Collection<UUID> ids);
+
+    /* =========================================================
+       Paginación keyset (fechaCreacion DESC, id DESC)
+       ========================================================= */
+
+    /**
+     * Siguiente bloque de alojamientos después del cursor (fechaCreacion, id).
+     * Con cursor nulo devuelve la primera página. Usa idx_alojamientos_creacion_id.
+     */
+    @Query("""
+        select a from Alojamiento a
+        where (:fechaCreacion is null or a.fechaCreacion < :fechaCreacion
+               or (a.fechaCreacion = :fechaCreacion and a.id < :id))
+        order by a.fechaCreacion desc, a.id desc
+    """)
+    List<Alojamiento> findAllKeyset(@Param("fechaCreacion") LocalDateTime fechaCreacion,
+                                    @Param("id") UUID id,
+                                    Limit limite);
+
+    /** Igual que {@link #search} pero paginando por cursor (fechaCreacion, id). */
+    @Query("""
+        select a from Alojamiento a
+        where a.activo = true
+          and (:#{#ciudad == null || #ciudad.isBlank()} = true or lower(a.direccion.ciudad) like lower(concat('%', :ciudad, '%')))
+          and (:capacidad is null or a.capacidad >= :capacidad)
+          and (:fechaCreacion is null or a.fechaCreacion < :fechaCreacion
+               or (a.fechaCreacion = :fechaCreacion and a.id < :id))
+        order by a.fechaCreacion desc, a.id desc
+    """)
+    List<Alojamiento> searchKeyset(@Param("ciudad") String ciudad,
+                                   @Param("capacidad") Integer capacidad,
+                                   @Param("fechaCreacion") LocalDateTime fechaCreacion,
+                                   @Param("id") UUID id,
+                                   Limit limite);
+
     /* =========================================================
        Métodos anteriores (sin JOIN FETCH) – se conservan por si acaso
        ========================================================= */
@@ -63,22 +156,216 @@ public interface AlojamientoRepository extends JpaRepository<Alojamiento, UUID>
     /** Por anfitrión sin JOIN FETCH (no usar en DTOs) */
     Page<Alojamiento> findByAnfitrionId(UUID anfitrionId, Pageable pageable);
 
-    /** Búsqueda avanzada con múltiples filtros */
+    /**
+     * Búsqueda avanzada con múltiples filtros (sin JOIN FETCH: las colecciones se hidratan en lote).
+     * {@code excluidos} son alojamientos sin disponibilidad en las fechas pedidas
+     * (nunca vacía: sin exclusiones se envía un id centinela que no existe).
+     */
     @Query("""
-        select distinct a from Alojamiento a
-        left join fetch a.fotos
+        select a from Alojamiento a
         where a.activo = true
           and (:#{#ciudad == null || #ciudad.isBlank()} = true or lower(a.direccion.ciudad) like lower(concat('%', :ciudad, '%')))
           and (:capacidad is null or a.capacidad >= :capacidad)
           and (:precioMinimo is null or a.precioNoche >= :precioMinimo)
           and (:precioMaximo is null or a.precioNoche <= :precioMaximo)
+          and a.id not in :excluidos
     """)
     Page<Alojamiento> busquedaAvanzada(@Param("ciudad") String ciudad,
                                        @Param("capacidad") Integer capacidad,
                                        @Param("precioMinimo") java.math.BigDecimal precioMinimo,
                                        @Param("precioMaximo") java.math.BigDecimal precioMaximo,
+                                       @Param("excluidos") Collection<UUID> excluidos,
                                        Pageable pageable);
 
+    /**
+     * Búsqueda avanzada con filtro de servicios resuelto en SQL:
+     * {@code (servicios_mask & :mascara) = :mascara} exige que el alojamiento tenga todos
+     * los servicios de la máscara. Pagina y cuenta en la BD (sin filtrar en memoria).
+     */
+    @Query(value = """
+        SELECT a.* FROM alojamientos a
+         WHERE a.activo = true
+           AND (CAST(:ciudad AS TEXT) IS NULL OR LOWER(a.direccion_ciudad) LIKE LOWER(CONCAT('%', CAST(:ciudad AS TEXT), '%')))
+           AND (CAST(:capacidad AS INTEGER) IS NULL OR a.capacidad >= CAST(:capacidad AS INTEGER))
+           AND (CAST(:precioMinimo AS NUMERIC) IS NULL OR a.precio_noche >= CAST(:precioMinimo AS NUMERIC))
+           AND (CAST(:precioMaximo AS NUMERIC) IS NULL OR a.precio_noche <= CAST(:precioMaximo AS NUMERIC))
+           AND (a.servicios_mask & :mascara) = :mascara
+           AND a.id NOT IN (:excluidos)
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM alojamientos a
+         WHERE a.activo = true
+           AND (CAST(:ciudad AS TEXT) IS NULL OR LOWER(a.direccion_ciudad) LIKE LOWER(CONCAT('%', CAST(:ciudad AS TEXT), '%')))
+           AND (CAST(:capacidad AS INTEGER) IS NULL OR a.capacidad >= CAST(:capacidad AS INTEGER))
+           AND (CAST(:precioMinimo AS NUMERIC) IS NULL OR a.precio_noche >= CAST(:precioMinimo AS NUMERIC))
+           AND (CAST(:precioMaximo AS NUMERIC) IS NULL OR a.precio_noche <= CAST(:precioMaximo AS NUMERIC))
+           AND (a.servicios_mask & :mascara) = :mascara
+           AND a.id NOT IN (:excluidos)
+        """,
+            nativeQuery = true)
+    Page<Alojamiento> busquedaAvanzadaConServicios(@Param("ciudad") String ciudad,
+                                                   @Param("capacidad") Integer capacidad,
+                                                   @Param("precioMinimo") BigDecimal precioMinimo,
+                                                   @Param("precioMaximo") BigDecimal precioMaximo,
+                                                   @Param("mascara") long mascara,
+                                                   @Param("excluidos") Collection<UUID> excluidos,
+                                                   Pageable pageable);
+
+    /**
+     * Búsqueda por texto libre (título y descripción) combinada con los filtros de la búsqueda
+     * avanzada en una sola consulta sobre el índice GIN de {@code busqueda_tsv}.
+     * Ordena por {@code ts_rank} y, para las filas de la página, arma un fragmento con
+     * {@code ts_headline} (se evalúa después del LIMIT por su costo).
+     * Cada fila: id, puntaje, resaltado.
+     */
+    @Query(value = """
+        SELECT a.id, ts_rank(a.busqueda_tsv, websearch_to_tsquery('spanish', CAST(:q AS TEXT))) AS puntaje,
+               ts_headline('spanish', a.titulo || '. ' || a.descripcion, websearch_to_tsquery('spanish', CAST(:q AS TEXT)),
+                           'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=8')
+          FROM alojamientos a
+         WHERE a.activo = true
+           AND a.busqueda_tsv @@ websearch_to_tsquery('spanish', CAST(:q AS TEXT))
+           AND (CAST(:ciudad AS TEXT) IS NULL OR LOWER(a.direccion_ciudad) LIKE LOWER(CONCAT('%', CAST(:ciudad AS TEXT), '%')))
+           AND (CAST(:capacidad AS INTEGER) IS NULL OR a.capacidad >= CAST(:capacidad AS INTEGER))
+           AND (CAST(:precioMinimo AS NUMERIC) IS NULL OR a.precio_noche >= CAST(:precioMinimo AS NUMERIC))
+           AND (CAST(:precioMaximo AS NUMERIC) IS NULL OR a.precio_noche <= CAST(:precioMaximo AS NUMERIC))
+           AND (a.servicios_mask & :mascara) = :mascara
+           AND a.id NOT IN (:excluidos)
+         ORDER BY puntaje DESC, a.id
+        """,
+            countQuery = """
+        SELECT COUNT(*) FROM alojamientos a
+         WHERE a.activo = true
+           AND a.busqueda_tsv @@ websearch_to_tsquery('spanish', CAST(:q AS TEXT))
+           AND (CAST(:ciudad AS TEXT) IS NULL OR LOWER(a.direccion_ciudad) LIKE LOWER(CONCAT('%', CAST(:ciudad AS TEXT), '%')))
+           AND (CAST(:capacidad AS INTEGER) IS NULL OR a.capacidad >= CAST(:capacidad AS INTEGER))
+           AND (CAST(:precioMinimo AS NUMERIC) IS NULL OR a.precio_noche >= CAST(:precioMinimo AS NUMERIC))
+           AND (CAST(:precioMaximo AS NUMERIC) IS NULL OR a.precio_noche <= CAST(:precioMaximo AS NUMERIC))
+           AND (a.servicios_mask & :mascara) = :mascara
+           AND a.id NOT IN (:excluidos)
+        """,
+            nativeQuery = true)
+    Page<Object[]> busquedaTexto(@Param("q") String q,
+                                 @Param("ciudad") String ciudad,
+                                 @Param("capacidad") Integer capacidad,
+                                 @Param("precioMinimo") BigDecimal precioMinimo,
+                                 @Param("precioMaximo") BigDecimal precioMaximo,
+                                 @Param("mascara") long mascara,
+                                 @Param("excluidos") Collection<UUID> excluidos,
+                                 Pageable pageable);
+
+    /**
+     * Facetas de la búsqueda avanzada en una sola pasada: histograma de precios en
+     * {@code :cubetas} intervalos iguales entre el mínimo y el máximo del conjunto filtrado,
+     * conteo por capacidad y conteo por máscara de servicios (GROUPING SETS).
+     * Mismos filtros que {@link #busquedaTexto} ({@code :mascara = 0} y {@code :q} nulo no filtran).
+     * Cada fila: grupoPrecio, grupoCapacidad, cubeta, capacidad, serviciosMask, total, precioMin, precioMax;
+     * {@code grupoX = 0} indica a qué faceta pertenece la fila.
+     */
+    @Query(value = """
+        WITH f AS (
+            SELECT a.precio_noche, a.capacidad, a.servicios_mask FROM alojamientos a
+             WHERE a.activo = true
+               AND (CAST(:ciudad AS TEXT) IS NULL OR LOWER(a.direccion_ciudad) LIKE LOWER(CONCAT('%', CAST(:ciudad AS TEXT), '%')))
+               AND (CAST(:capacidad AS INTEGER) IS NULL OR a.capacidad >= CAST(:capacidad AS INTEGER))
+               AND (CAST(:precioMinimo AS NUMERIC) IS NULL OR a.precio_noche >= CAST(:precioMinimo AS NUMERIC))
+               AND (CAST(:precioMaximo AS NUMERIC) IS NULL OR a.precio_noche <= CAST(:precioMaximo AS NUMERIC))
+               AND (a.servicios_mask & :mascara) = :mascara
+               AND a.id NOT IN (:excluidos)
+               AND (CAST(:q AS TEXT) IS NULL OR a.busqueda_tsv @@ websearch_to_tsquery('spanish', CAST(:q AS TEXT)))
+        ), r AS (
+            SELECT MIN(precio_noche) AS mn, MAX(precio_noche) AS mx FROM f
+        ), g AS (
+            SELECT CASE WHEN r.mx = r.mn THEN 1
+                        ELSE LEAST(width_bucket(f.precio_noche, r.mn, r.mx, :cubetas), :cubetas) END AS cubeta,
+                   f.capacidad, f.servicios_mask
+              FROM f CROSS JOIN r
+        )
+        SELECT GROUPING(g.cubeta), GROUPING(g.capacidad), g.cubeta, g.capacidad, g.servicios_mask, COUNT(*),
+               (SELECT mn FROM r), (SELECT mx FROM r)
+          FROM g
+         GROUP BY GROUPING SETS ((g.cubeta), (g.capacidad), (g.servicios_mask))
+        """,
+            nativeQuery = true)
+    List<Object[]> facetasBusqueda(@Param("ciudad") String ciudad,
+                                   @Param("capacidad") Integer capacidad,
+                                   @Param("precioMinimo") BigDecimal precioMinimo,
+                                   @Param("precioMaximo") BigDecimal precioMaximo,
+                                   @Param("mascara") long mascara,
+                                   @Param("excluidos") Collection<UUID> excluidos,
+                                   @Param("q") String q,
+                                   @Param("cubetas") int cubetas);
+
+    /**
+     * Candidatos para el orden por relevancia: mismos filtros que {@link #busquedaTexto},
+     * solo con las columnas que usa el puntaje y acotados a {@code limite} filas.
+     * La preselección toma los más cercanos al punto de referencia (si se indica) y luego los
+     * de mejor calificación bayesiana; las calificaciones salen del resumen
+     * {@code alojamiento_metricas} (una fila por candidato) en lugar de agregar los comentarios.
+     * Cada fila: id, precioNoche, ciudad, latitud, longitud, fechaCreacion, promedioCalificacion,
+     * totalCalificaciones y el total de coincidencias antes de acotar.
+     */
+    @Query(value = """
+        SELECT a.id, a.precio_noche, a.direccion_ciudad, a.direccion_lat, a.direccion_lon, a.fecha_creacion,
+               CASE WHEN COALESCE(m.total_calificaciones, 0) = 0 THEN 0
+                    ELSE CAST(m.suma_calificaciones AS NUMERIC) / m.total_calificaciones END,
+               COALESCE(m.total_calificaciones, 0),
+               COUNT(*) OVER ()
+          FROM alojamientos a
+          LEFT JOIN alojamiento_metricas m ON m.alojamiento_id = a.id
+         WHERE a.activo = true
+           AND (CAST(:ciudad AS TEXT) IS NULL OR LOWER(a.direccion_ciudad) LIKE LOWER(CONCAT('%', CAST(:ciudad AS TEXT), '%')))
+           AND (CAST(:capacidad AS INTEGER) IS NULL OR a.capacidad >= CAST(:capacidad AS INTEGER))
+           AND (CAST(:precioMinimo AS NUMERIC) IS NULL OR a.precio_noche >= CAST(:precioMinimo AS NUMERIC))
+           AND (CAST(:precioMaximo AS NUMERIC) IS NULL OR a.precio_noche <= CAST(:precioMaximo AS NUMERIC))
+           AND (a.servicios_mask & :mascara) = :mascara
+           AND a.id NOT IN (:excluidos)
+           AND (CAST(:q AS TEXT) IS NULL OR a.busqueda_tsv @@ websearch_to_tsquery('spanish', CAST(:q AS TEXT)))
+         ORDER BY CASE WHEN CAST(:lat AS DOUBLE PRECISION) IS NULL THEN 0
+                       ELSE POWER(a.direccion_lat - CAST(:lat AS DOUBLE PRECISION), 2)
+                          + POWER(a.direccion_lon - CAST(:lon AS DOUBLE PRECISION), 2) * :escalaLon END,
+                  (COALESCE(m.suma_calificaciones, 0) + :previoPeso * :promedioGlobal)
+                      / (COALESCE(m.total_calificaciones, 0) + :previoPeso) DESC,
+                  a.id
+         LIMIT :limite
+        """,
+            nativeQuery = true)
+    List<Object[]> candidatosRanking(@Param("ciudad") String ciudad,
+                                     @Param("capacidad") Integer capacidad,
+                                     @Param("precioMinimo") BigDecimal precioMinimo,
+                                     @Param("precioMaximo") BigDecimal precioMaximo,
+                                     @Param("mascara") long mascara,
+                                     @Param("excluidos") Collection<UUID> excluidos,
+                                     @Param("q") String q,
+                                     @Param("lat") Double lat,
+                                     @Param("lon") Double lon,
+                                     @Param("escalaLon") double escalaLon,
+                                     @Param("previoPeso") double previoPeso,
+                                     @Param("promedioGlobal") double promedioGlobal,
+                                     @Param("limite") int limite);
+
+    /**
+     * Precio mediano por ciudad (en minúsculas) de los alojamientos activos de las ciudades
+     * que coinciden con el texto (todas si es nulo). Cada fila: ciudad, mediana.
+     */
+    @Query(value = """
+        SELECT LOWER(a.direccion_ciudad), percentile_cont(0.5) WITHIN GROUP (ORDER BY a.precio_noche)
+          FROM alojamientos a
+         WHERE a.activo = true
+           AND a.direccion_ciudad IS NOT NULL
+           AND (CAST(:ciudad AS TEXT) IS NULL OR LOWER(a.direccion_ciudad) LIKE LOWER(CONCAT('%', CAST(:ciudad AS TEXT), '%')))
+         GROUP BY LOWER(a.direccion_ciudad)
+        """,
+            nativeQuery = true)
+    List<Object[]> medianasPrecioPorCiudad(@Param("ciudad") String ciudad);
+
+    /** Calificación promedio de todos los comentarios (nula si no hay), desde el resumen por alojamiento. */
+    @Query(value = """
+        SELECT CAST(SUM(suma_calificaciones) AS NUMERIC) / NULLIF(SUM(total_calificaciones), 0)
+          FROM alojamiento_metricas
+        """, nativeQuery = true)
+    BigDecimal promedioCalificacionGlobal();
+
     /** Obtener ciudades únicas para búsqueda predictiva */
     @Query("select distinct a.direccion.ciudad from Alojamiento a where a.activo = true and a.direccion.ciudad is not null order by a.direccion.ciudad")
     List<String> findDistinctCiudades();
@@ -97,44 +384,92 @@ public interface AlojamientoRepository extends JpaRepository<Alojamiento, UUID>
     List<String> buscarCiudades(@Param("texto") String texto);
 
     /**
-     * Obtiene métricas de un alojamiento específico
+     * Ciudad de cada alojamiento activo. Cada fila: id, ciudad.
+     * Usado para construir el índice de autocompletado de ciudades.
      */
-    @Query(value = """
-        SELECT 
-            a.titulo,
-            COALESCE(AVG(c.calificacion), 0.0) as promedio_calificacion,
-            COUNT(DISTINCT r.id) as total_reservas,
-            COUNT(DISTINCT CASE WHEN r.estado = 'COMPLETADA' THEN r.id END) as reservas_completadas,
-            COUNT(DISTINCT CASE WHEN r.estado = 'CANCELADA' THEN r.id END) as reservas_canceladas,
-            COALESCE(SUM(CASE WHEN r.estado = 'COMPLETADA' THEN (r.check_out - r.check_in) * a.precio_noche ELSE CAST(0 AS NUMERIC) END), 0) as ingresos_totales
-        FROM alojamientos a
-        LEFT JOIN reserva r ON r.alojamiento_id = a.id AND r.eliminada = false
-        LEFT JOIN comentario c ON c.alojamiento_id = a.id
-        WHERE a.id = :alojamientoId AND a.activo = true
-        GROUP BY a.id, a.titulo
-    """, nativeQuery = true)
-    List<Object[]> obtenerMetricasNative(@Param("alojamientoId") UUID alojamientoId);
-
-    /**
-     * Obtiene métricas de todos los alojamientos de un anfitrión con filtros de fecha
+    @Query("""
+        SELECT a.id, a.direccion.ciudad
+        FROM Alojamiento a
+        WHERE a.activo = true
+          AND a.direccion.ciudad IS NOT NULL
+    """)
+    List<Object[]> findCiudadesActivas();
+
+    /**
+     * Coordenadas y precio de los alojamientos activos ubicados.
+     * Cada fila: id, latitud, longitud, precioNoche.
+     * Usado para construir el índice geográfico y los clusters del mapa.
+     */
+    @Query("""
+        SELECT a.id, a.direccion.latitud, a.direccion.longitud, a.precioNoche
+        FROM Alojamiento a
+        WHERE a.activo = true
+          AND a.direccion.latitud IS NOT NULL
+          AND a.direccion.longitud IS NOT NULL
+    """)
+    List<Object[]> findCoordenadasActivas();
+
+    /**
+     * Alojamientos activos dentro de una caja lat/lon, los más cercanos al centro primero
+     * (distancia plana con la longitud escalada por cos²(lat)). Cada fila: id, latitud, longitud.
+     * Respaldo SQL del índice geográfico; usa idx_alojamientos_lat_lon.
+     */
+    @Query("""
+        SELECT a.id, a.direccion.latitud, a.direccion.longitud
+        FROM Alojamiento a
+        WHERE a.activo = true
+          AND a.direccion.latitud BETWEEN :latMin AND :latMax
+          AND a.direccion.longitud BETWEEN :lonMin AND :lonMax
+        ORDER BY (a.direccion.latitud - :lat) * (a.direccion.latitud - :lat)
+               + (a.direccion.longitud - :lon) * (a.direccion.longitud - :lon) * :escalaLon
+    """)
+    List<Object[]> findCoordenadasEnCaja(@Param("latMin") double latMin,
+                                         @Param("latMax") double latMax,
+                                         @Param("lonMin") double lonMin,
+                                         @Param("lonMax") double lonMax,
+                                         @Param("lat") double lat,
+                                         @Param("lon") double lon,
+                                         @Param("escalaLon") double escalaLon,
+                                         Limit limite);
+
+    /**
+     * Clusters de una tesela calculados en SQL (respaldo del índice del mapa), con la misma
+     * rejilla Web Mercator de {@code celdasPorLado} celdas por lado y la misma regla: solo
+     * las celdas del rango dado cuyo centroide cae dentro de la tesela.
+     * La caja lat/lon solo acota el recorrido (índice sobre las coordenadas).
+     * Cada fila: latitud media, longitud media, cantidad, precio mínimo.
      */
     @Query(value = """
-        SELECT 
-            a.titulo,
-            COALESCE(AVG(c.calificacion), 0.0) as promedio_calificacion,
-            COUNT(DISTINCT r.id) as total_reservas,
-            COUNT(DISTINCT CASE WHEN r.estado = 'COMPLETADA' THEN r.id END) as reservas_completadas,
-            COUNT(DISTINCT CASE WHEN r.estado = 'CANCELADA' THEN r.id END) as reservas_canceladas,
-            COALESCE(SUM(CASE WHEN r.estado = 'COMPLETADA' THEN (r.check_out - r.check_in) * a.precio_noche ELSE CAST(0 AS NUMERIC) END), 0) as ingresos_totales
-        FROM alojamientos a
-        LEFT JOIN reserva r ON r.alojamiento_id = a.id AND r.eliminada = false 
-            AND (:fechaInicio IS NULL OR r.check_in >= :fechaInicio)
-            AND (:fechaFin IS NULL OR r.check_out <= :fechaFin)
-        LEFT JOIN comentario c ON c.alojamiento_id = a.id
-        WHERE a.anfitrion_id = :anfitrionId AND a.activo = true
-        GROUP BY a.id, a.titulo
-    """, nativeQuery = true)
-    List<Object[]> obtenerMetricasPorAnfitrionNative(@Param("anfitrionId") UUID anfitrionId,
-                                                     @Param("fechaInicio") LocalDate fechaInicio,
-                                                     @Param("fechaFin") LocalDate fechaFin);
+        SELECT AVG(c.lat), AVG(c.lon), COUNT(*), MIN(c.precio)
+        FROM (
+            SELECT a.direccion_lat AS lat, a.direccion_lon AS lon, a.precio_noche AS precio,
+                   LEAST(:celdasPorLado - 1, FLOOR((a.direccion_lon + 180) / 360 * :celdasPorLado)) AS columna,
+                   LEAST(:celdasPorLado - 1, FLOOR(
+                       (1 - LN(TAN(RADIANS(m.lat)) + 1 / COS(RADIANS(m.lat))) / PI()) / 2 * :celdasPorLado)) AS fila
+            FROM alojamientos a
+            CROSS JOIN LATERAL (
+                SELECT GREATEST(-85.0511287798, LEAST(85.0511287798, a.direccion_lat)) AS lat
+            ) m
+            WHERE a.activo = true
+              AND a.direccion_lat BETWEEN :latMin AND :latMax
+              AND a.direccion_lon BETWEEN :lonMin AND :lonMax
+        ) c
+        WHERE c.fila BETWEEN :filaMin AND :filaMax
+          AND c.columna BETWEEN :columnaMin AND :columnaMax
+        GROUP BY c.fila, c.columna
+        HAVING AVG(c.lat) >= :teselaLatMin AND AVG(c.lat) < :teselaLatMax
+           AND AVG(c.lon) >= :lonMin AND AVG(c.lon) < :lonMax
+        """, nativeQuery = true)
+    List<Object[]> agruparEnCeldas(@Param("latMin") double latMin,
+                                   @Param("latMax") double latMax,
+                                   @Param("lonMin") double lonMin,
+                                   @Param("lonMax") double lonMax,
+                                   @Param("celdasPorLado") long celdasPorLado,
+                                   @Param("filaMin") long filaMin,
+                                   @Param("filaMax") long filaMax,
+                                   @Param("columnaMin") long columnaMin,
+                                   @Param("columnaMax") long columnaMax,
+                                   @Param("teselaLatMin") double teselaLatMin,
+                                   @Param("teselaLatMax") double teselaLatMax);
+
 }
@@ -0,0 +1,21 @@
+package co.edu.uniquindio.gohost.repository;
+
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.CambioAlojamientoDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Operaciones de {@link AlojamientoRepository} escritas a mano (JDBC por lotes).
+ */
+public interface AlojamientoRepositoryCustom {
+
+    /**
+     * Aplica precio, capacidad y activación (los no nulos) a alojamientos activos del anfitrión,
+     * con un UPDATE por cambio enviados en lotes JDBC.
+     *
+     * @return filas actualizadas por cada cambio, en el mismo orden (0 si ya no era suyo o no estaba activo)
+     */
+    int[] actualizarEnLote(UUID anfitrionId, List<CambioAlojamientoDTO> cambios, LocalDateTime ahora);
+}
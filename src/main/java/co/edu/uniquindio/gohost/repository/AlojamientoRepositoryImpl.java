@@ -0,0 +1,60 @@
+package co.edu.uniquindio.gohost.repository;
+
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.CambioAlojamientoDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementación de {@link AlojamientoRepositoryCustom}. Usa JdbcTemplate (participa de la misma
+ * transacción JPA) para no cargar entidades: guardar un Alojamiento dispara @PreUpdate, que inicializa
+ * la colección de servicios, una consulta extra por fila.
+ */
+class AlojamientoRepositoryImpl implements AlojamientoRepositoryCustom {
+
+    private static final String ACTUALIZAR = """
+        UPDATE alojamientos
+           SET precio_noche = COALESCE(?, precio_noche),
+               capacidad = COALESCE(?, capacidad),
+               activo = COALESCE(?, activo),
+               fecha_actualizacion = ?
+         WHERE id = ?
+           AND anfitrion_id = ?
+           AND activo = true
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanoLote;
+
+    AlojamientoRepositoryImpl(JdbcTemplate jdbcTemplate,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    public int[] actualizarEnLote(UUID anfitrionId, List<CambioAlojamientoDTO> cambios, LocalDateTime ahora) {
+        Timestamp marca = Timestamp.valueOf(ahora);
+        int[][] porLote = jdbcTemplate.batchUpdate(ACTUALIZAR, cambios, tamanoLote, (ps, c) -> {
+            ps.setObject(1, c.precioNoche(), Types.NUMERIC);
+            ps.setObject(2, c.capacidad(), Types.INTEGER);
+            ps.setObject(3, c.activo(), Types.BOOLEAN);
+            ps.setTimestamp(4, marca);
+            ps.setObject(5, c.id());
+            ps.setObject(6, anfitrionId);
+        });
+        int[] filas = new int[cambios.size()];
+        int i = 0;
+        for (int[] lote : porLote) {
+            for (int n : lote) {
+                filas[i++] = n;
+            }
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,75 @@
+package co.edu.uniquindio.gohost.repository;
+
+import co.edu.uniquindio.gohost.model.BloqueoReserva;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio de {@link BloqueoReserva}. Todas las consultas de ocupación filtran por
+ * {@code expiraEn > :ahora}: un bloqueo vencido deja de contar aunque su fila no se haya borrado.
+ */
+public interface BloqueoReservaRepository extends JpaRepository<BloqueoReserva, UUID> {
+
+    /**
+     * ¿Hay un bloqueo vigente de otro huésped que se traslapa con [inicio, fin)?
+     * Los bloqueos del propio huésped no cuentan: son los que está por confirmar.
+     */
+    @Query("""
+        SELECT (COUNT(b) > 0)
+          FROM BloqueoReserva b
+         WHERE b.alojamientoId = :alojamientoId
+           AND b.huespedId <> :huespedId
+           AND b.expiraEn > :ahora
+           AND b.checkIn < :fin
+           AND b.checkOut > :inicio
+    """)
+    boolean existsVigenteDeOtro(@Param("alojamientoId") UUID alojamientoId,
+                                @Param("inicio") LocalDate inicio,
+                                @Param("fin") LocalDate fin,
+                                @Param("huespedId") UUID huespedId,
+                                @Param("ahora") LocalDateTime ahora);
+
+    /** Bloqueos vigentes del huésped (para limitar cuántos puede tener a la vez). */
+    @Query("""
+        SELECT b FROM BloqueoReserva b
+         WHERE b.huespedId = :huespedId
+           AND b.expiraEn > :ahora
+         ORDER BY b.expiraEn
+    """)
+    List<BloqueoReserva> findVigentesDe(@Param("huespedId") UUID huespedId,
+                                        @Param("ahora") LocalDateTime ahora);
+
+    /** Cada fila: id, expiraEn. Usado para cargar la rueda de temporización al arrancar. */
+    @Query("""
+        SELECT b.id, b.expiraEn
+          FROM BloqueoReserva b
+         WHERE b.expiraEn > :ahora
+    """)
+    List<Object[]> findVencimientosVigentes(@Param("ahora") LocalDateTime ahora);
+
+    /** Borra los bloqueos indicados que ya vencieron (uno confirmado o renovado no se toca). */
+    @Modifying
+    @Query("""
+        DELETE FROM BloqueoReserva b
+         WHERE b.id IN :ids
+           AND b.expiraEn <= :ahora
+    """)
+    int borrarVencidos(@Param("ids") Collection<UUID> ids,
+                       @Param("ahora") LocalDateTime ahora);
+
+    /** Red de seguridad: borra todo bloqueo vencido (p. ej. agendado en otro nodo que cayó). */
+    @Modifying
+    @Query("""
+        DELETE FROM BloqueoReserva b
+         WHERE b.expiraEn <= :ahora
+    """)
+    int borrarTodosVencidos(@Param("ahora") LocalDateTime ahora);
+}
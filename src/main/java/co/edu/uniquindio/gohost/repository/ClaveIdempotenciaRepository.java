@@ -0,0 +1,49 @@
+package co.edu.uniquindio.gohost.repository;
+
+import co.edu.uniquindio.gohost.model.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Repositorio de {@link ClaveIdempotencia}.
+ */
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, ClaveIdempotencia.Id> {
+
+    /**
+     * Reserva la clave para esta transacción. Devuelve 0 si ya existía; si otra transacción la
+     * acaba de insertar y sigue abierta, espera a que termine (0 si confirmó, 1 si se revirtió).
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO clave_idempotencia (usuario_id, clave, operacion, huella, creado_en)
+        VALUES (:usuarioId, :clave, :operacion, :huella, now())
+        ON CONFLICT (usuario_id, clave) DO NOTHING
+    """, nativeQuery = true)
+    int reservar(@Param("usuarioId") UUID usuarioId,
+                 @Param("clave") String clave,
+                 @Param("operacion") String operacion,
+                 @Param("huella") String huella);
+
+    @Modifying
+    @Query(value = """
+        UPDATE clave_idempotencia
+           SET respuesta = :respuesta
+         WHERE usuario_id = :usuarioId
+           AND clave = :clave
+    """, nativeQuery = true)
+    int guardarRespuesta(@Param("usuarioId") UUID usuarioId,
+                         @Param("clave") String clave,
+                         @Param("respuesta") String respuesta);
+
+    @Modifying
+    @Query("""
+        DELETE FROM ClaveIdempotencia c
+         WHERE c.creadoEn < :antes
+    """)
+    int purgar(@Param("antes") LocalDateTime antes);
+}
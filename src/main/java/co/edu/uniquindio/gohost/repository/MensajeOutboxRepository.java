@@ -0,0 +1,66 @@
+package co.edu.uniquindio.gohost.repository;
+
+import co.edu.uniquindio.gohost.model.EstadoOutbox;
+import co.edu.uniquindio.gohost.model.MensajeOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio de la bandeja de salida de correos ({@link MensajeOutbox}).
+ */
+public interface MensajeOutboxRepository extends JpaRepository<MensajeOutbox, UUID> {
+
+    /**
+     * Bloquea hasta {@code limite} correos pendientes ya disponibles, los más antiguos primero.
+     * SKIP LOCKED salta las filas que otro nodo tiene reclamadas en ese momento, así varios
+     * despachadores reparten el trabajo sin esperarse entre sí. Usa idx_outbox_pendientes.
+     */
+    @Query(value = """
+        SELECT *
+          FROM outbox
+         WHERE estado = 'PENDIENTE'
+           AND disponible_en <= :ahora
+         ORDER BY disponible_en
+         LIMIT :limite
+         FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<MensajeOutbox> bloquearPendientes(@Param("ahora") LocalDateTime ahora,
+                                           @Param("limite") int limite);
+
+    @Modifying
+    @Query("""
+        UPDATE MensajeOutbox m
+           SET m.estado = :estado, m.enviadoEn = :ahora, m.ultimoError = null
+         WHERE m.id IN :ids
+    """)
+    int marcarEnviados(@Param("ids") Collection<UUID> ids,
+                       @Param("estado") EstadoOutbox estado,
+                       @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Query("""
+        UPDATE MensajeOutbox m
+           SET m.estado = :estado, m.disponibleEn = :disponibleEn, m.ultimoError = :error
+         WHERE m.id = :id
+    """)
+    int registrarFallo(@Param("id") UUID id,
+                       @Param("estado") EstadoOutbox estado,
+                       @Param("disponibleEn") LocalDateTime disponibleEn,
+                       @Param("error") String error);
+
+    @Modifying
+    @Query("""
+        DELETE FROM MensajeOutbox m
+         WHERE m.estado = :estado
+           AND m.enviadoEn < :antes
+    """)
+    int purgar(@Param("estado") EstadoOutbox estado,
+               @Param("antes") LocalDateTime antes);
+}
@@ -3,12 +3,15 @@ package co.edu.uniquindio.gohost.repository;
 import co.edu.uniquindio.gohost.model.EstadoRecordatorio;
 import co.edu.uniquindio.gohost.model.NotificacionRecordatorio;
 import co.edu.uniquindio.gohost.model.TipoRecordatorio;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +32,37 @@ public interface NotificacionRecordatorioRepository extends JpaRepository<Notifi
             @Param("fechaLimite") LocalDateTime fechaLimite
     );
 
+    /**
+     * Las notificaciones vencidas más antiguas primero, de a {@code limite}, para drenar atrasos por lotes.
+     * @param estado Estado del recordatorio (PROGRAMADO)
+     * @param ahora Fecha de referencia
+     * @param limite Máximo de notificaciones a devolver
+     * @return Notificaciones vencidas ordenadas por fecha programada
+     */
+    @Query("""
+        SELECT n FROM NotificacionRecordatorio n
+         WHERE n.estado = :estado
+           AND n.fechaProgramada <= :ahora
+         ORDER BY n.fechaProgramada
+    """)
+    List<NotificacionRecordatorio> findVencidos(@Param("estado") EstadoRecordatorio estado,
+                                                @Param("ahora") LocalDateTime ahora,
+                                                Limit limite);
+
+    /**
+     * Id y fecha de las notificaciones programadas en (desde, hasta], para agendarlas en memoria.
+     * Cada fila: id, fechaProgramada.
+     */
+    @Query("""
+        SELECT n.id, n.fechaProgramada FROM NotificacionRecordatorio n
+         WHERE n.estado = :estado
+           AND n.fechaProgramada > :desde
+           AND n.fechaProgramada <= :hasta
+    """)
+    List<Object[]> findProgramadasEntre(@Param("estado") EstadoRecordatorio estado,
+                                        @Param("desde") LocalDateTime desde,
+                                        @Param("hasta") LocalDateTime hasta);
+
     /**
      * Encuentra todas las notificaciones de una reserva específica.
      * @param reservaId ID de la reserva
@@ -79,4 +113,42 @@ public interface NotificacionRecordatorioRepository extends JpaRepository<Notifi
             @Param("destinatarioId") UUID destinatarioId,
             @Param("estado") EstadoRecordatorio estado
     );
-}
\ No newline at end of file
+
+    /**
+     * Cambia de estado, en una sola sentencia, los recordatorios de varias reservas que estén en {@code desde}.
+     * @param reservaIds IDs de las reservas
+     * @return cantidad de recordatorios actualizados
+     */
+    @Modifying
+    @Query("""
+        UPDATE NotificacionRecordatorio n
+           SET n.estado = :hacia, n.fechaActualizacion = :ahora
+         WHERE n.reserva.id IN :reservaIds
+           AND n.estado = :desde
+    """)
+    int cambiarEstadoDeReservas(@Param("reservaIds") Collection<UUID> reservaIds,
+                                @Param("desde") EstadoRecordatorio desde,
+                                @Param("hacia") EstadoRecordatorio hacia,
+                                @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Reclama un recordatorio para enviarlo: lo pasa de {@code desde} a {@code hacia} (sumando el
+     * intento) solo si sigue en {@code desde} y ya venció. Con varios nodos, el segundo espera el candado de la fila y, al
+     * confirmarse el primero, ya no la encuentra PROGRAMADA.
+     * @return 1 si este llamador la reclamó, 0 si no
+     */
+    @Modifying
+    @Query("""
+        UPDATE NotificacionRecordatorio n
+           SET n.estado = :hacia,
+               n.fechaEnviado = :ahora, n.fechaActualizacion = :ahora,
+               n.intentosEnvio = n.intentosEnvio + 1, n.mensajeError = NULL
+         WHERE n.id = :id
+           AND n.estado = :desde
+           AND n.fechaProgramada <= :ahora
+    """)
+    int reclamarParaEnvio(@Param("id") UUID id,
+                          @Param("desde") EstadoRecordatorio desde,
+                          @Param("hacia") EstadoRecordatorio hacia,
+                          @Param("ahora") LocalDateTime ahora);
+}
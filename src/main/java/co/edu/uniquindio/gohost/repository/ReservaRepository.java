@@ -1,7 +1,9 @@
 package co.edu.uniquindio.gohost.repository;
 
+import co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO;
 import co.edu.uniquindio.gohost.model.EstadoReserva;
 import co.edu.uniquindio.gohost.model.Reserva;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,13 +11,15 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Repositorio para {@link Reserva}.
- * Incluye utilidades para detección de traslapes y listados por huésped/anfitrión
- * con JOIN FETCH para evitar LazyInitializationException.
+ * Incluye utilidades para detección de traslapes, listados por huésped/anfitrión proyectados
+ * directamente a DTO y consultas con JOIN FETCH para evitar LazyInitializationException.
  */
 public interface ReservaRepository extends JpaRepository<Reserva, UUID> {
 
@@ -36,6 +40,24 @@ public interface ReservaRepository extends JpaRepository<Reserva, UUID> {
                            @Param("inicio") LocalDate inicio,
                            @Param("fin") LocalDate fin);
 
+    /**
+     * Igual que {@link #existsTraslape} sin contar la reserva {@code reservaId} (al cambiar sus fechas).
+     */
+    @Query("""
+        SELECT (COUNT(r) > 0)
+          FROM Reserva r
+         WHERE r.alojamiento.id = :alojamientoId
+           AND r.id <> :reservaId
+           AND r.eliminada = false
+           AND r.estado <> 'CANCELADA'
+           AND r.checkIn < :fin
+           AND r.checkOut > :inicio
+    """)
+    boolean existsTraslapeExcluyendo(@Param("alojamientoId") UUID alojamientoId,
+                                     @Param("inicio") LocalDate inicio,
+                                     @Param("fin") LocalDate fin,
+                                     @Param("reservaId") UUID reservaId);
+
     /**
      * Verifica si el alojamiento tiene reservas futuras activas.
      */
@@ -50,20 +72,141 @@ public interface ReservaRepository extends JpaRepository<Reserva, UUID> {
     boolean existsReservasFuturas(@Param("alojamientoId") UUID alojamientoId,
                                   @Param("fechaActual") LocalDate fechaActual);
 
+    /**
+     * Rangos [checkIn, checkOut) de reservas activas que terminan después de la fecha dada.
+     * Cada fila: alojamientoId, checkIn, checkOut. Usado para construir el índice de ocupación.
+     */
+    @Query("""
+        SELECT r.alojamiento.id, r.checkIn, r.checkOut
+          FROM Reserva r
+         WHERE r.eliminada = false
+           AND r.estado <> 'CANCELADA'
+           AND r.checkOut > :desde
+    """)
+    List<Object[]> findRangosActivosDesde(@Param("desde") LocalDate desde);
+
+    /**
+     * Rangos [checkIn, checkOut) de las reservas activas de un alojamiento que tocan [inicio, fin).
+     * Cada fila: checkIn, checkOut. Mismo predicado que {@link #existsTraslape} (idx_reserva_active_range).
+     */
+    @Query("""
+        SELECT r.checkIn, r.checkOut
+          FROM Reserva r
+         WHERE r.alojamiento.id = :alojamientoId
+           AND r.eliminada = false
+           AND r.estado <> 'CANCELADA'
+           AND r.checkIn < :fin
+           AND r.checkOut > :inicio
+    """)
+    List<Object[]> findRangosActivos(@Param("alojamientoId") UUID alojamientoId,
+                                     @Param("inicio") LocalDate inicio,
+                                     @Param("fin") LocalDate fin);
+
+    /**
+     * Rangos [checkIn, checkOut) de las reservas activas de varios alojamientos que tocan [inicio, fin).
+     * Cada fila: alojamientoId, checkIn, checkOut. Usado por la consulta de disponibilidad por lotes.
+     */
+    @Query("""
+        SELECT r.alojamiento.id, r.checkIn, r.checkOut
+          FROM Reserva r
+         WHERE r.alojamiento.id IN :alojamientoIds
+           AND r.eliminada = false
+           AND r.estado <> 'CANCELADA'
+           AND r.checkIn < :fin
+           AND r.checkOut > :inicio
+    """)
+    List<Object[]> findRangosActivosDe(@Param("alojamientoIds") Collection<UUID> alojamientoIds,
+                                       @Param("inicio") LocalDate inicio,
+                                       @Param("fin") LocalDate fin);
+
+    /**
+     * Alojamientos con alguna reserva activa que se traslapa con [inicio, fin).
+     * Versión en una sola consulta de {@link #existsTraslape} para muchos alojamientos.
+     */
+    @Query("""
+        SELECT DISTINCT r.alojamiento.id
+          FROM Reserva r
+         WHERE r.eliminada = false
+           AND r.estado <> 'CANCELADA'
+           AND r.checkIn < :fin
+           AND r.checkOut > :inicio
+    """)
+    List<UUID> findAlojamientosOcupados(@Param("inicio") LocalDate inicio,
+                                        @Param("fin") LocalDate fin);
+
     /* =========================================================
-       Métodos con JOIN FETCH para evitar LazyInitializationException
+       Ciclo de vida por lotes (UPDATE ... RETURNING)
+       Sin @Modifying a propósito: PostgreSQL devuelve las filas actualizadas como un SELECT.
+       Deben llamarse dentro de una transacción de escritura.
        ========================================================= */
 
     /**
-     * Lista reservas de un huésped con datos cargados (huesped, alojamiento, dirección, fotos).
-     * NOTA: fetch join de colección + paginación puede forzar paginación en memoria.
+     * Pasa a COMPLETADA hasta {@code lote} reservas CONFIRMADAS cuyo check-out ya pasó.
+     * SKIP LOCKED salta las que otra transacción está modificando (quedan para la siguiente pasada).
+     * Cada fila: id, alojamiento_id, check_in, check_out.
      */
     @Query(value = """
-        SELECT DISTINCT r FROM Reserva r
+        UPDATE reserva
+           SET estado = 'COMPLETADA'
+         WHERE id IN (SELECT id FROM reserva
+                       WHERE estado = 'CONFIRMADA'
+                         AND eliminada = false
+                         AND check_out < :hoy
+                       ORDER BY check_out
+                       LIMIT :lote
+                       FOR UPDATE SKIP LOCKED)
+        RETURNING id, alojamiento_id, check_in, check_out
+    """, nativeQuery = true)
+    List<Object[]> completarFinalizadas(@Param("hoy") LocalDate hoy,
+                                        @Param("lote") int lote);
+
+    /**
+     * Cancela (CANCELADA + eliminada, como {@code cancelar}) hasta {@code lote} reservas que siguen
+     * PENDIENTES con check-in en o antes de {@code limite}. Cada fila: id, alojamiento_id, check_in, check_out.
+     */
+    @Query(value = """
+        UPDATE reserva
+           SET estado = 'CANCELADA', eliminada = true
+         WHERE id IN (SELECT id FROM reserva
+                       WHERE estado = 'PENDIENTE'
+                         AND eliminada = false
+                         AND check_in <= :limite
+                       ORDER BY check_in
+                       LIMIT :lote
+                       FOR UPDATE SKIP LOCKED)
+        RETURNING id, alojamiento_id, check_in, check_out
+    """, nativeQuery = true)
+    List<Object[]> expirarPendientes(@Param("limite") LocalDate limite,
+                                     @Param("lote") int lote);
+
+    /**
+     * Reservas con huésped, alojamiento y anfitrión cargados, para armar los correos de un lote.
+     */
+    @Query("""
+        SELECT r FROM Reserva r
         JOIN FETCH r.huesped
         JOIN FETCH r.alojamiento a
-        LEFT JOIN FETCH a.direccion
-        WHERE r.huesped.id = :huespedId
+        JOIN FETCH a.anfitrion
+        WHERE r.id IN :ids
+    """)
+    List<Reserva> findParaCorreo(@Param("ids") Collection<UUID> ids);
+
+    /* =========================================================
+       Listados paginados como DTO (proyección por constructor)
+       ========================================================= */
+
+    /**
+     * Página de reservas de un huésped ya proyectada a {@link ReservaResDTO}: solo las columnas del DTO,
+     * sin entidades en el contexto de persistencia y con LIMIT/OFFSET en la BD.
+     */
+    @Query(value = """
+        SELECT new co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO(
+               r.id, r.checkIn, r.checkOut, r.estado, r.eliminada,
+               h.id, h.nombre, a.id, a.titulo, COALESCE(a.direccion.ciudad, 'Sin ciudad'))
+        FROM Reserva r
+        JOIN r.huesped h
+        JOIN r.alojamiento a
+        WHERE h.id = :huespedId
         AND (:fechaInicio IS NULL OR r.checkIn >= :fechaInicio)
         AND (:fechaFin IS NULL OR r.checkOut <= :fechaFin)
         AND (:estado IS NULL OR r.estado = :estado)
@@ -76,21 +219,22 @@ public interface ReservaRepository extends JpaRepository<Reserva, UUID> {
         AND (:fechaFin IS NULL OR r.checkOut <= :fechaFin)
         AND (:estado IS NULL OR r.estado = :estado)
         """)
-    Page<Reserva> findByHuespedIdWithFotos(@Param("huespedId") UUID huespedId, 
-                                           @Param("fechaInicio") LocalDate fechaInicio,
-                                           @Param("fechaFin") LocalDate fechaFin,
-                                           @Param("estado") EstadoReserva estado,
-                                           Pageable pageable);
+    Page<ReservaResDTO> findResDTOByHuespedId(@Param("huespedId") UUID huespedId,
+                                              @Param("fechaInicio") LocalDate fechaInicio,
+                                              @Param("fechaFin") LocalDate fechaFin,
+                                              @Param("estado") EstadoReserva estado,
+                                              Pageable pageable);
 
     /**
-     * Lista reservas de alojamientos de un anfitrión con datos cargados (huesped, alojamiento, dirección, fotos).
-     * NOTA: fetch join de colección + paginación puede forzar paginación en memoria.
+     * Página de reservas de los alojamientos de un anfitrión proyectada a {@link ReservaResDTO}.
      */
     @Query(value = """
-        SELECT DISTINCT r FROM Reserva r
-        JOIN FETCH r.huesped
-        JOIN FETCH r.alojamiento a
-        LEFT JOIN FETCH a.direccion
+        SELECT new co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO(
+               r.id, r.checkIn, r.checkOut, r.estado, r.eliminada,
+               h.id, h.nombre, a.id, a.titulo, COALESCE(a.direccion.ciudad, 'Sin ciudad'))
+        FROM Reserva r
+        JOIN r.huesped h
+        JOIN r.alojamiento a
         WHERE a.anfitrion.id = :anfitrionId
         """,
             countQuery = """
@@ -98,24 +242,29 @@ public interface ReservaRepository extends JpaRepository<Reserva, UUID> {
         JOIN r.alojamiento a
         WHERE a.anfitrion.id = :anfitrionId
         """)
-    Page<Reserva> findByAlojamientoAnfitrionIdWithFotos(@Param("anfitrionId") UUID anfitrionId, Pageable pageable);
+    Page<ReservaResDTO> findResDTOByAnfitrionId(@Param("anfitrionId") UUID anfitrionId, Pageable pageable);
 
     /**
-     * Lista reservas de un alojamiento específico con datos cargados (huesped, alojamiento, dirección, fotos).
-     * NOTA: fetch join de colección + paginación puede forzar paginación en memoria.
+     * Página de reservas de un alojamiento proyectada a {@link ReservaResDTO}.
      */
     @Query(value = """
-        SELECT DISTINCT r FROM Reserva r
-        JOIN FETCH r.huesped
-        JOIN FETCH r.alojamiento a
-        LEFT JOIN FETCH a.direccion
+        SELECT new co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO(
+               r.id, r.checkIn, r.checkOut, r.estado, r.eliminada,
+               h.id, h.nombre, a.id, a.titulo, COALESCE(a.direccion.ciudad, 'Sin ciudad'))
+        FROM Reserva r
+        JOIN r.huesped h
+        JOIN r.alojamiento a
         WHERE a.id = :alojamientoId
         """,
             countQuery = """
         SELECT COUNT(r) FROM Reserva r
         WHERE r.alojamiento.id = :alojamientoId
         """)
-    Page<Reserva> findByAlojamientoIdWithFotos(@Param("alojamientoId") UUID alojamientoId, Pageable pageable);
+    Page<ReservaResDTO> findResDTOByAlojamientoId(@Param("alojamientoId") UUID alojamientoId, Pageable pageable);
+
+    /* =========================================================
+       Métodos con JOIN FETCH para evitar LazyInitializationException
+       ========================================================= */
 
     /**
      * Obtiene una reserva por ID con todas las relaciones necesarias cargadas (huesped, alojamiento, dirección, fotos).
@@ -130,6 +279,50 @@ public interface ReservaRepository extends JpaRepository<Reserva, UUID> {
     """)
     Optional<Reserva> findByIdWithFotos(@Param("id") UUID id);
 
+    /* =========================================================
+       Paginación keyset (checkIn DESC, id DESC)
+       ========================================================= */
+
+    /**
+     * Siguiente bloque de reservas de un huésped después del cursor (checkIn, id).
+     * Con cursor nulo devuelve la primera página. Usa idx_reservas_huesped_checkin_id.
+     */
+    @Query("""
+        SELECT r FROM Reserva r
+        JOIN FETCH r.huesped
+        JOIN FETCH r.alojamiento a
+        WHERE r.huesped.id = :huespedId
+        AND (:fechaInicio IS NULL OR r.checkIn >= :fechaInicio)
+        AND (:fechaFin IS NULL OR r.checkOut <= :fechaFin)
+        AND (:estado IS NULL OR r.estado = :estado)
+        AND (:checkIn IS NULL OR r.checkIn < :checkIn OR (r.checkIn = :checkIn AND r.id < :id))
+        ORDER BY r.checkIn DESC, r.id DESC
+        """)
+    List<Reserva> findByHuespedIdKeyset(@Param("huespedId") UUID huespedId,
+                                        @Param("fechaInicio") LocalDate fechaInicio,
+                                        @Param("fechaFin") LocalDate fechaFin,
+                                        @Param("estado") EstadoReserva estado,
+                                        @Param("checkIn") LocalDate checkIn,
+                                        @Param("id") UUID id,
+                                        Limit limite);
+
+    /**
+     * Siguiente bloque de reservas de los alojamientos de un anfitrión después del cursor (checkIn, id).
+     * Con cursor nulo devuelve la primera página. Usa idx_reservas_alojamiento_checkin_id.
+     */
+    @Query("""
+        SELECT r FROM Reserva r
+        JOIN FETCH r.huesped
+        JOIN FETCH r.alojamiento a
+        WHERE a.anfitrion.id = :anfitrionId
+        AND (:checkIn IS NULL OR r.checkIn < :checkIn OR (r.checkIn = :checkIn AND r.id < :id))
+        ORDER BY r.checkIn DESC, r.id DESC
+        """)
+    List<Reserva> findByAlojamientoAnfitrionIdKeyset(@Param("anfitrionId") UUID anfitrionId,
+                                                     @Param("checkIn") LocalDate checkIn,
+                                                     @Param("id") UUID id,
+                                                     Limit limite);
+
     /* =========================================================
        Métodos anteriores (sin JOIN FETCH) – se conservan por compatibilidad
        ========================================================= */
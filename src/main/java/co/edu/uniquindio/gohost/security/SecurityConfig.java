@@ -92,12 +92,16 @@ public class SecurityConfig {
                                 "/api-docs/**",
                                 "/health",
                                 "/api/alojamientos/search",
+                                "/api/alojamientos/search/geo",
+                                "/api/alojamientos/mapa/**",
                                 "/api/alojamientos",
                                 "/actuator/health",
                                 "/error",
                                 "/"
 
                         ).permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/alojamientos/*/calendario").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/alojamientos/disponibilidad").permitAll()
                         .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/images").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/images").authenticated()
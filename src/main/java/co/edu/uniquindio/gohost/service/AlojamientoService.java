@@ -1,5 +1,6 @@
 package co.edu.uniquindio.gohost.service;
 
+import co.edu.uniquindio.gohost.dto.CursorPageDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.*;
 import co.edu.uniquindio.gohost.model.Alojamiento;
 import org.springframework.data.domain.Page;
@@ -26,6 +27,14 @@ public interface AlojamientoService {
      */
     Page<AlojamientoResDTO> listar(Pageable pageable);
 
+    /**
+     * Lista todos los alojamientos paginando por cursor (fechaCreacion DESC, id DESC).
+     * @param cursor cursor opaco devuelto en la página anterior (null o vacío para la primera)
+     * @param size Tamaño de página
+     * @return Página con el cursor de la siguiente (null si no hay más)
+     */
+    CursorPageDTO<AlojamientoResDTO> listarPorCursor(String cursor, int size);
+
     /**
      * Lista alojamientos de un anfitrión específico.
      * Devuelve DTO para evitar LazyInitializationException.
@@ -43,6 +52,24 @@ public interface AlojamientoService {
      */
     AlojamientoResDTO obtener(UUID id);
 
+    /**
+     * Noches bloqueadas de un alojamiento en [desde, hasta), por tramos
+     *
+     * @param id ID del alojamiento
+     * @param desde Primer día (opcional; hoy por defecto)
+     * @param hasta Día final exclusivo (opcional; un año después de desde)
+     * @return Tramos de noches ocupadas por reservas activas
+     */
+    CalendarioDTO calendario(UUID id, java.time.LocalDate desde, java.time.LocalDate hasta);
+
+    /**
+     * Disponibilidad de muchas estadías (alojamiento, checkIn, checkOut) en una sola llamada
+     *
+     * @param lote Consultas en el orden en que se quieren las respuestas
+     * @return Mapa de bits con una posición por consulta
+     */
+    DisponibilidadLoteResDTO disponibilidadLote(DisponibilidadLoteDTO lote);
+
     /**
      * Actualiza parcialmente un alojamiento
      *
@@ -68,6 +95,16 @@ public interface AlojamientoService {
      */
     Page<AlojamientoResDTO> buscar(String ciudad, Integer capacidad, Pageable pageable);
 
+    /**
+     * Igual que {@link #buscar} pero paginando por cursor (fechaCreacion DESC, id DESC).
+     * @param ciudad Ciudad donde buscar (puede ser null)
+     * @param capacidad Capacidad mínima requerida (puede ser null)
+     * @param cursor cursor opaco devuelto en la página anterior (null o vacío para la primera)
+     * @param size Tamaño de página
+     * @return Página con el cursor de la siguiente (null si no hay más)
+     */
+    CursorPageDTO<AlojamientoResDTO> buscarPorCursor(String ciudad, Integer capacidad, String cursor, int size);
+
     /**
      * Crea un alojamiento y devuelve DTO con ID generado
      *
@@ -87,6 +124,17 @@ public interface AlojamientoService {
      */
     AlojamientoResDTO actualizarConValidaciones(UUID id, EditAlojDTO dto, UUID anfitrionId);
 
+    /**
+     * Aplica cambios de precio, capacidad y activación a varios alojamientos del anfitrión.
+     * Cada cambio se valida por separado (existencia, propiedad, alojamiento activo); los rechazados
+     * no impiden aplicar los demás.
+     *
+     * @param lote        Cambios a aplicar
+     * @param anfitrionId ID del anfitrión (para validar propiedad)
+     * @return Resultado por cambio, en el orden recibido
+     */
+    ActualizacionLoteResDTO actualizarEnLote(ActualizacionLoteDTO lote, UUID anfitrionId);
+
     /**
      * Búsqueda avanzada de alojamientos con múltiples filtros.
      *
@@ -95,6 +143,14 @@ public interface AlojamientoService {
      */
     Page<AlojamientoResDTO> busquedaAvanzada(co.edu.uniquindio.gohost.dto.alojamientosDtos.FiltroAvanzadoDTO filtro);
 
+    /**
+     * Búsqueda avanzada con facetas para la barra de filtros.
+     *
+     * @param filtro DTO con todos los filtros de búsqueda
+     * @return Página de resultados más histograma de precios y conteos por capacidad y servicio
+     */
+    BusquedaFacetadaDTO busquedaFacetada(FiltroAvanzadoDTO filtro);
+
     /**
      * Obtiene todas las ciudades disponibles para búsqueda predictiva.
      *
@@ -110,6 +166,21 @@ public interface AlojamientoService {
      */
     java.util.List<String> buscarCiudades(String termino);
 
+    /**
+     * Búsqueda geográfica por radio o por caja (viewport del mapa).
+     *
+     * @param filtro Centro y radio, o caja lat/lon, y máximo de resultados
+     * @return Alojamientos activos más cercanos, ordenados por distancia
+     */
+    java.util.List<AlojamientoGeoDTO> buscarGeo(FiltroGeoDTO filtro);
+
+    /**
+     * Clusters del mapa para una tesela Web Mercator z/x/y.
+     *
+     * @return Centroide, cantidad y precio mínimo de cada celda de la tesela
+     */
+    java.util.List<ClusterMapaDTO> clustersDeTesela(int z, int x, int y);
+
     /**
      * Obtiene métricas de un alojamiento específico
      *
@@ -145,4 +216,19 @@ public interface AlojamientoService {
     java.util.List<MetricasAlojamientoDTO> obtenerMetricasPorAnfitrion(UUID anfitrionId, 
                                                                        java.time.LocalDate fechaInicio, 
                                                                        java.time.LocalDate fechaFin);
+
+    /**
+     * Serie de tiempo de métricas de los alojamientos de un anfitrión (o de uno solo)
+     *
+     * @param anfitrionId ID del anfitrión
+     * @param alojamientoId Alojamiento del anfitrión (opcional; null = todos)
+     * @param fechaInicio Primer día de la serie
+     * @param fechaFin Último día de la serie (inclusive)
+     * @param agrupacion "dia", "semana" o "mes"
+     * @return Un punto por periodo, incluidos los periodos sin actividad
+     */
+    java.util.List<PuntoMetricasDTO> serieMetricasPorAnfitrion(UUID anfitrionId, UUID alojamientoId,
+                                                               java.time.LocalDate fechaInicio,
+                                                               java.time.LocalDate fechaFin,
+                                                               String agrupacion);
 }
\ No newline at end of file
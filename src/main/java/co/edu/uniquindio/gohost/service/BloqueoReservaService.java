@@ -0,0 +1,43 @@
+package co.edu.uniquindio.gohost.service;
+
+import co.edu.uniquindio.gohost.dto.reservaDtos.BloqueoResDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.CrearBloqueoDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bloqueos temporales de fechas durante el checkout.
+ * Mientras un bloqueo está vigente nadie más puede reservar ni bloquear esas fechas;
+ * al confirmarlo se convierte en una reserva y si vence se libera solo.
+ */
+public interface BloqueoReservaService {
+
+    /**
+     * Bloquea las fechas para el huésped durante {@code dto.minutos()} minutos.
+     * Reemplaza los bloqueos vigentes del mismo huésped sobre el mismo alojamiento.
+     *
+     * @param huespedId id del huésped autenticado
+     * @param dto       alojamiento, fechas, número de huéspedes y duración opcional
+     * @return bloqueo creado con su hora de vencimiento
+     */
+    BloqueoResDTO crear(UUID huespedId, CrearBloqueoDTO dto);
+
+    /**
+     * Bloqueos vigentes del huésped.
+     */
+    List<BloqueoResDTO> listarVigentes(UUID huespedId);
+
+    /**
+     * Convierte el bloqueo en una reserva PENDIENTE y lo elimina.
+     *
+     * @throws IllegalStateException si el bloqueo ya venció
+     */
+    ReservaResDTO confirmar(UUID huespedId, UUID bloqueoId);
+
+    /**
+     * Libera el bloqueo antes de que venza.
+     */
+    void liberar(UUID huespedId, UUID bloqueoId);
+}
@@ -4,6 +4,7 @@ import co.edu.uniquindio.gohost.model.NotificacionRecordatorio;
 import co.edu.uniquindio.gohost.model.Reserva;
 import co.edu.uniquindio.gohost.model.TipoRecordatorio;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,11 +26,33 @@ public interface RecordatorioService {
     void cancelarRecordatoriosDeReserva(UUID reservaId);
 
     /**
-     * Procesa y envía todos los recordatorios pendientes.
-     * Este método es llamado por el scheduler automático.
+     * Cancela los recordatorios pendientes de varias reservas con una sola actualización.
+     * @param reservaIds IDs de las reservas
+     */
+    void cancelarRecordatoriosDeReservas(Collection<UUID> reservaIds);
+
+    /**
+     * Procesa y envía un lote ({@code app.recordatorios.lote}) de recordatorios vencidos, los más
+     * antiguos primero. El envío automático lo hace {@code DespachoRecordatorios}.
      */
     void procesarRecordatoriosPendientes();
 
+    /**
+     * Envía hasta {@code lote} recordatorios programados ya vencidos, los más antiguos primero,
+     * cada uno en su propia transacción; los que fallan suman un intento y pasan a ERROR al
+     * agotar {@code app.recordatorios.max-intentos}.
+     * @param lote Máximo de recordatorios a cargar
+     * @return cantidad enviados con éxito
+     */
+    int enviarVencidos(int lote);
+
+    /**
+     * Envía los recordatorios indicados que sigan programados y cuya fecha ya llegó
+     * (los que vencen en la rueda de temporización), cada uno en su propia transacción.
+     * @param recordatorioIds IDs de los recordatorios
+     */
+    void enviarProgramados(Collection<UUID> recordatorioIds);
+
     /**
      * Crea un recordatorio específico para una reserva.
      * @param reserva La reserva
@@ -39,9 +62,10 @@ public interface RecordatorioService {
     NotificacionRecordatorio crearRecordatorio(Reserva reserva, TipoRecordatorio tipo);
 
     /**
-     * Envía un recordatorio específico.
+     * Envía un recordatorio específico: deja el correo en la bandeja de salida y lo marca ENVIADO.
+     * Si no se puede encolar, la excepción se propaga y la transacción se revierte.
      * @param recordatorio El recordatorio a enviar
-     * @return true si se envió exitosamente, false en caso contrario
+     * @return true si el correo quedó en la bandeja de salida
      */
     boolean enviarRecordatorio(NotificacionRecordatorio recordatorio);
 
@@ -1,5 +1,6 @@
 package co.edu.uniquindio.gohost.service;
 
+import co.edu.uniquindio.gohost.dto.CursorPageDTO;
 import co.edu.uniquindio.gohost.dto.reservaDtos.CrearReservaDTO;
 import co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO;
 import co.edu.uniquindio.gohost.model.EstadoReserva;
@@ -52,6 +53,16 @@ public interface ReservaService {
      */
     Page<ReservaResDTO> listarPorHuespedConDTO(UUID huespedId, LocalDate fechaInicio, LocalDate fechaFin, EstadoReserva estado, Pageable pageable);
 
+    /**
+     * Igual que {@link #listarPorHuespedConDTO} pero paginando por cursor (checkIn DESC, id DESC).
+     *
+     * @param cursor cursor opaco devuelto en la página anterior (null o vacío para la primera)
+     * @param size   tamaño de página
+     * @return página con el cursor de la siguiente (null si no hay más)
+     */
+    CursorPageDTO<ReservaResDTO> listarPorHuespedPorCursor(UUID huespedId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                          EstadoReserva estado, String cursor, int size);
+
     /**
      * Lista reservas de los alojamientos de un anfitrión como DTO.
      *
@@ -61,6 +72,16 @@ public interface ReservaService {
      */
     Page<ReservaResDTO> listarPorAnfitrionConDTO(UUID anfitrionId, Pageable pageable);
 
+    /**
+     * Igual que {@link #listarPorAnfitrionConDTO} pero paginando por cursor (checkIn DESC, id DESC).
+     *
+     * @param anfitrionId id del anfitrión propietario
+     * @param cursor      cursor opaco devuelto en la página anterior (null o vacío para la primera)
+     * @param size        tamaño de página
+     * @return página con el cursor de la siguiente (null si no hay más)
+     */
+    CursorPageDTO<ReservaResDTO> listarPorAnfitrionPorCursor(UUID anfitrionId, String cursor, int size);
+
     /**
      * Lista reservas de un alojamiento específico como DTO.
      * Valida que el anfitrión autenticado sea propietario del alojamiento.
@@ -108,4 +129,24 @@ public interface ReservaService {
      */
     @Transactional(readOnly = true)
     Reserva obtener(UUID id);
-}
\ No newline at end of file
+
+    /**
+     * Pasa a COMPLETADA un lote de reservas CONFIRMADAS cuyo check-out es anterior a {@code hoy}
+     * y encola el correo de fin de estadía a cada huésped.
+     *
+     * @param hoy  fecha de referencia
+     * @param lote máximo de reservas a procesar
+     * @return cantidad de reservas completadas
+     */
+    int completarFinalizadas(LocalDate hoy, int lote);
+
+    /**
+     * Cancela un lote de reservas que siguen PENDIENTES con check-in en o antes de {@code limite},
+     * encola los correos de cancelación y cancela sus recordatorios.
+     *
+     * @param limite último check-in que se considera vencido
+     * @param lote   máximo de reservas a procesar
+     * @return cantidad de reservas expiradas
+     */
+    int expirarPendientes(LocalDate limite, int lote);
+}
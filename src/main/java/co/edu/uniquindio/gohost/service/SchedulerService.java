@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 
 /**
  * Servicio de programación para ejecutar tareas automáticas de recordatorios.
+ * El envío a tiempo de los recordatorios programados lo hace {@code DespachoRecordatorios}.
  */
 @Service
 @RequiredArgsConstructor
@@ -16,20 +17,6 @@ public class SchedulerService {
 
     private final RecordatorioServiceImpl recordatorioService;
 
-    /**
-     * Ejecuta cada 30 minutos para procesar recordatorios pendientes.
-     */
-    @Scheduled(fixedRate = 1800000) // 30 minutos en milisegundos
-    public void procesarRecordatoriosPendientes() {
-        log.info("Iniciando procesamiento de recordatorios pendientes...");
-        try {
-            recordatorioService.procesarRecordatoriosPendientes();
-            log.info("Procesamiento de recordatorios completado exitosamente");
-        } catch (Exception e) {
-            log.error("Error durante el procesamiento de recordatorios: {}", e.getMessage(), e);
-        }
-    }
-
     /**
      * Ejecuta cada 2 horas para reintentar recordatorios fallidos.
      */
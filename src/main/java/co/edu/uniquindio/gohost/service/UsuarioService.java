@@ -55,6 +55,15 @@ public interface UsuarioService {
      */
     Usuario crear(Usuario u);
 
+    /**
+     * Registro público: crea el usuario como {@link #crear} y encola su correo de bienvenida
+     * (huésped o anfitrión según el rol) en la misma transacción.
+     *
+     * @param u entidad Usuario a persistir (con password en texto plano).
+     * @return usuario creado con su ID asignado.
+     */
+    Usuario registrar(Usuario u);
+
     /**
      * Intenta iniciar sesión validando email y contraseña.
      *
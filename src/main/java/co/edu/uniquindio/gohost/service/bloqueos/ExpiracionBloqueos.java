@@ -0,0 +1,77 @@
+package co.edu.uniquindio.gohost.service.bloqueos;
+
+import co.edu.uniquindio.gohost.repository.BloqueoReservaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Agenda el vencimiento de los bloqueos temporales en una {@link RuedaTemporizacion} y borra su
+ * fila en cuanto vencen (un DELETE por tick con todos los vencidos).
+ *
+ * Borrar a tiempo es limpieza, no corrección: las consultas de ocupación ya ignoran los bloqueos
+ * con {@code expira_en} pasado. Al arrancar se cargan los vigentes desde la tabla y cada
+ * {@code app.bloqueos.cron-limpieza} se borran los vencidos que ningún nodo tenga agendados.
+ */
+@Slf4j
+@Component
+public class ExpiracionBloqueos {
+
+    private final BloqueoReservaRepository bloqueoRepository;
+    private final RuedaTemporizacion<UUID> rueda;
+
+    public ExpiracionBloqueos(BloqueoReservaRepository bloqueoRepository,
+                              @Value("${app.bloqueos.tick-ms:1000}") long tickMs,
+                              @Value("${app.bloqueos.ranuras:1024}") int ranuras) {
+        this.bloqueoRepository = bloqueoRepository;
+        this.rueda = new RuedaTemporizacion<>(tickMs, ranuras, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void alIniciar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int borrados = bloqueoRepository.borrarTodosVencidos(ahora);
+        List<Object[]> vigentes = bloqueoRepository.findVencimientosVigentes(ahora);
+        for (Object[] fila : vigentes) {
+            programar((UUID) fila[0], (LocalDateTime) fila[1]);
+        }
+        log.info("Bloqueos de reserva: {} vigentes agendados, {} vencidos borrados", vigentes.size(), borrados);
+    }
+
+    public void programar(UUID bloqueoId, LocalDateTime expiraEn) {
+        rueda.programar(bloqueoId, expiraEn.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public void cancelar(UUID bloqueoId) {
+        rueda.cancelar(bloqueoId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.bloqueos.tick-ms:1000}")
+    @Transactional
+    public void avanzar() {
+        List<UUID> vencidos = rueda.avanzar(System.currentTimeMillis());
+        if (!vencidos.isEmpty()) {
+            int borrados = bloqueoRepository.borrarVencidos(vencidos, LocalDateTime.now());
+            log.debug("Bloqueos de reserva vencidos: {} ({} borrados)", vencidos.size(), borrados);
+        }
+    }
+
+    @Scheduled(cron = "${app.bloqueos.cron-limpieza:0 */10 * * * *}")
+    @Transactional
+    public void limpiar() {
+        int borrados = bloqueoRepository.borrarTodosVencidos(LocalDateTime.now());
+        if (borrados > 0) {
+            log.info("Bloqueos de reserva: {} vencidos sin agendar borrados", borrados);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package co.edu.uniquindio.gohost.service.bloqueos;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rueda de temporización con hash (hashed timing wheel).
+ *
+ * El tiempo se divide en ticks de {@code tickMs}; cada clave se guarda en la ranura
+ * {@code tickVence % ranuras} con su tick de vencimiento. Programar y cancelar son O(1);
+ * cada tick solo revisa su ranura y devuelve las claves que ya vencieron (las de vueltas
+ * posteriores siguen en la ranura). Si el avance se atrasa más de una vuelta se revisan
+ * todas las ranuras una sola vez.
+ *
+ * Sin hilos propios: quien la usa llama a {@link #avanzar(long)} periódicamente.
+ * Sincronizada; las operaciones son cortas.
+ */
+public class RuedaTemporizacion<K> {
+
+    private final long tickMs;
+    private final List<Set<K>> ranuras;
+    private final Map<K, Long> vencimientos = new HashMap<>();
+    /** Último tick ya procesado. */
+    private long tickActual;
+
+    public RuedaTemporizacion(long tickMs, int ranuras, long ahoraMs) {
+        if (tickMs <= 0 || ranuras <= 0) {
+            throw new IllegalArgumentException("tickMs y ranuras deben ser positivos");
+        }
+        this.tickMs = tickMs;
+        this.ranuras = new ArrayList<>(ranuras);
+        for (int i = 0; i < ranuras; i++) {
+            this.ranuras.add(new LinkedHashSet<>());
+        }
+        this.tickActual = ahoraMs / tickMs;
+    }
+
+    /** Programa (o reprograma) el vencimiento de la clave; si ya pasó, vence en el siguiente tick. */
+    public synchronized void programar(K clave, long venceMs) {
+        cancelar(clave);
+        long tick = Math.max(Math.floorDiv(venceMs + tickMs - 1, tickMs), tickActual + 1);
+        vencimientos.put(clave, tick);
+        ranura(tick).add(clave);
+    }
+
+    /** Quita la clave si estaba programada. */
+    public synchronized boolean cancelar(K clave) {
+        Long tick = vencimientos.remove(clave);
+        if (tick == null) {
+            return false;
+        }
+        ranura(tick).remove(clave);
+        return true;
+    }
+
+    /** Procesa los ticks hasta {@code ahoraMs} y devuelve las claves vencidas. */
+    public synchronized List<K> avanzar(long ahoraMs) {
+        long hasta = ahoraMs / tickMs;
+        if (hasta <= tickActual) {
+            return List.of();
+        }
+        List<K> vencidas = new ArrayList<>();
+        long pasos = Math.min(hasta - tickActual, ranuras.size());
+        for (long i = 1; i <= pasos; i++) {
+            Iterator<K> it = ranura(hasta - pasos + i).iterator();
+            while (it.hasNext()) {
+                K clave = it.next();
+                if (vencimientos.get(clave) <= hasta) {
+                    it.remove();
+                    vencimientos.remove(clave);
+                    vencidas.add(clave);
+                }
+            }
+        }
+        tickActual = hasta;
+        return vencidas;
+    }
+
+    public synchronized int tamano() {
+        return vencimientos.size();
+    }
+
+    private Set<K> ranura(long tick) {
+        return ranuras.get((int) Math.floorMod(tick, (long) ranuras.size()));
+    }
+}
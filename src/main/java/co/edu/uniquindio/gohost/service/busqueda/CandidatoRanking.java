@@ -0,0 +1,20 @@
+package co.edu.uniquindio.gohost.service.busqueda;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Datos mínimos de un alojamiento para puntuarlo por relevancia:
+ * precio, ciudad, coordenadas (opcionales), fecha de creación y resumen de calificaciones.
+ */
+public record CandidatoRanking(
+        UUID alojamientoId,
+        BigDecimal precioNoche,
+        String ciudad,
+        Double latitud,
+        Double longitud,
+        LocalDateTime fechaCreacion,
+        double promedioCalificacion,
+        long totalCalificaciones
+) {}
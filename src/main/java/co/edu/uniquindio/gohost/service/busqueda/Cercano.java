@@ -0,0 +1,8 @@
+package co.edu.uniquindio.gohost.service.busqueda;
+
+import java.util.UUID;
+
+/**
+ * Alojamiento encontrado por posición, con su distancia (km) al centro de la búsqueda.
+ */
+public record Cercano(UUID alojamientoId, double latitud, double longitud, double distanciaKm) {}
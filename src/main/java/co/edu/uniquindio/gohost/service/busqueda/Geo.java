@@ -0,0 +1,85 @@
+package co.edu.uniquindio.gohost.service.busqueda;
+
+/**
+ * Utilidades geográficas (esfera de radio medio terrestre; suficiente para ordenar
+ * alojamientos por cercanía, no para navegación).
+ */
+public final class Geo {
+
+    public static final double RADIO_TIERRA_KM = 6371.0088;
+
+    /** Kilómetros por grado de latitud. */
+    public static final double KM_POR_GRADO = 111.32;
+
+    /** Latitud máxima representable en Web Mercator. */
+    public static final double LAT_MAX_MERCATOR = 85.0511287798;
+
+    private Geo() {
+    }
+
+    /** Distancia del círculo máximo entre dos puntos, en km. */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Caja lat/lon que contiene el círculo dado.
+     *
+     * @return {latMin, latMax, lonMin, lonMax}, recortada a los rangos válidos
+     */
+    public static double[] cajaDeRadio(double lat, double lon, double radioKm) {
+        double dLat = radioKm / KM_POR_GRADO;
+        double dLon = radioKm / (KM_POR_GRADO * Math.max(Math.cos(Math.toRadians(lat)), 1e-6));
+        return new double[]{
+                Math.max(-90, lat - dLat), Math.min(90, lat + dLat),
+                Math.max(-180, lon - dLon), Math.min(180, lon + dLon)
+        };
+    }
+
+    /**
+     * Límites de una tesela Web Mercator (esquema z/x/y de los mapas web).
+     *
+     * @return {latMin, latMax, lonMin, lonMax}
+     */
+    public static double[] limitesTesela(int z, int x, int y) {
+        double n = Math.pow(2, z);
+        return new double[]{
+                latitudTesela(y + 1, n), latitudTesela(y, n),
+                x / n * 360 - 180, (x + 1) / n * 360 - 180
+        };
+    }
+
+    private static double latitudTesela(int y, double n) {
+        return latitudMercator(y / n);
+    }
+
+    /** Posición horizontal Web Mercator normalizada: 0 en -180°, 1 en 180°. */
+    public static double mercatorX(double lon) {
+        return (lon + 180) / 360;
+    }
+
+    /**
+     * Posición vertical Web Mercator normalizada: 0 arriba (≈85.05°), 1 abajo.
+     * Las latitudes fuera del rango de la proyección se recortan al borde.
+     */
+    public static double mercatorY(double lat) {
+        double r = Math.toRadians(Math.max(-LAT_MAX_MERCATOR, Math.min(LAT_MAX_MERCATOR, lat)));
+        return (1 - Math.log(Math.tan(r) + 1 / Math.cos(r)) / Math.PI) / 2;
+    }
+
+    /** Inversa de {@link #mercatorY}. */
+    public static double latitudMercator(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+
+    /** Factor para comparar distancias planas: (Δlon · cos(lat))² es comparable con Δlat². */
+    public static double escalaLongitud(double lat) {
+        double c = Math.cos(Math.toRadians(lat));
+        return c * c;
+    }
+}
@@ -0,0 +1,269 @@
+package co.edu.uniquindio.gohost.service.busqueda;
+
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.indice.ReconstruccionIndice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de ciudades con alojamientos activos, para el autocompletado.
+ *
+ * Las claves se normalizan (minúsculas, sin tildes, espacios colapsados), así
+ * "bogota", "Bogotá" y " BOGOTÁ " son la misma ciudad. Para un término se devuelven,
+ * en este orden:
+ *  1. ciudades que empiezan por el término (rango del {@link TreeMap} ordenado),
+ *  2. ciudades que lo contienen (igual que el LIKE '%x%' anterior),
+ *  3. ciudades cuyo inicio está a 1–2 ediciones del término (candidatas por trigramas,
+ *     verificadas con distancia de Levenshtein).
+ * Dentro de cada grupo se ordena por número de alojamientos activos.
+ *
+ * - Se construye al arrancar y se resincroniza periódicamente.
+ * - Se actualiza con {@link AlojamientoCambiadoEvent} una vez confirmada la transacción.
+ *   Cada evento fija la ciudad actual del alojamiento (no suma ni resta a ciegas), así
+ *   re-aplicar un cambio que la reconstrucción ya leyó de la BD no altera los conteos.
+ * - Cada cambio publica una instantánea inmutable nueva: las lecturas no se bloquean.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceCiudades {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final AlojamientoRepository alojamientoRepository;
+
+    @Value("${app.ciudades.max-sugerencias:10}")
+    private int maxSugerencias;
+
+    /** Instantánea publicada y cambios recibidos durante una reconstrucción. */
+    private final ReconstruccionIndice<Instantanea, AlojamientoCambiadoEvent> reconstruccion =
+            new ReconstruccionIndice<>("el índice de ciudades", IndiceCiudades::aplicar);
+
+    private record Entrada(String nombre, long alojamientos) {}
+
+    /**
+     * {@code porClave} guarda los conteos vigentes; el resto se deriva de él al publicar.
+     * {@code ciudades} (ciudad activa de cada alojamiento) solo se usa al aplicar cambios, bajo
+     * el candado de escritura, y se comparte entre instantáneas.
+     */
+    private record Instantanea(Map<UUID, String> ciudades,
+                               TreeMap<String, Entrada> porClave,
+                               Map<String, List<String>> clavesPorTrigrama,
+                               List<String> nombresOrdenados) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconstruir();
+    }
+
+    /** Reconstruye el índice desde la BD (corrige cualquier deriva de los eventos). */
+    @Scheduled(cron = "${app.ciudades.cron-reconstruccion:0 0 * * * *}")
+    public void reconstruir() {
+        reconstruccion.reconstruir(() -> {
+            Map<UUID, String> ciudades = new HashMap<>();
+            Map<String, Entrada> entradas = new HashMap<>();
+            for (Object[] row : alojamientoRepository.findCiudadesActivas()) {
+                ciudades.put((UUID) row[0], (String) row[1]);
+                sumar(entradas, (String) row[1], 1);
+            }
+            return publicar(ciudades, entradas);
+        }).ifPresent(i -> log.info("Índice de ciudades construido: {} ciudades", i.porClave().size()));
+    }
+
+    /** Mueve el alojamiento de su ciudad anterior a la actual (si cambió). */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlojamientoCambiado(AlojamientoCambiadoEvent ev) {
+        if (!normalizar(ev.ciudadAnterior()).equals(normalizar(ev.ciudad()))) {
+            reconstruccion.aplicar(ev);
+        }
+    }
+
+    /**
+     * Todas las ciudades en orden alfabético.
+     *
+     * @return nombres, o vacío si el índice aún no está construido
+     */
+    public Optional<List<String>> todas() {
+        Instantanea i = reconstruccion.estado();
+        return i == null ? Optional.empty() : Optional.of(i.nombresOrdenados());
+    }
+
+    /**
+     * Sugerencias para el término (ver orden en la documentación de la clase).
+     *
+     * @return hasta {@code app.ciudades.max-sugerencias} nombres, o vacío si el índice no está construido
+     */
+    public Optional<List<String>> sugerir(String termino) {
+        Instantanea i = reconstruccion.estado();
+        if (i == null) {
+            return Optional.empty();
+        }
+        String t = normalizar(termino);
+        if (t.isEmpty()) {
+            return Optional.of(i.nombresOrdenados());
+        }
+        Comparator<String> porPopularidad = Comparator
+                .comparingLong((String k) -> -i.porClave().get(k).alojamientos())
+                .thenComparing(k -> k);
+
+        LinkedHashSet<String> resultado = new LinkedHashSet<>();
+
+        List<String> prefijo = new ArrayList<>(i.porClave().subMap(t, true, t + Character.MAX_VALUE, false).keySet());
+        prefijo.sort(porPopularidad);
+        agregar(resultado, prefijo);
+
+        if (resultado.size() < maxSugerencias) {
+            List<String> contiene = i.porClave().keySet().stream()
+                    .filter(k -> !k.startsWith(t) && k.contains(t))
+                    .sorted(porPopularidad)
+                    .toList();
+            agregar(resultado, contiene);
+        }
+
+        if (resultado.size() < maxSugerencias && t.length() >= 3) {
+            int tolerancia = t.length() <= 5 ? 1 : 2;
+            Set<String> candidatas = new HashSet<>();
+            for (String tri : trigramas(t)) {
+                candidatas.addAll(i.clavesPorTrigrama().getOrDefault(tri, List.of()));
+            }
+            List<String> aproximadas = candidatas.stream()
+                    .filter(k -> !resultado.contains(k))
+                    .filter(k -> distanciaPrefijo(t, k) <= tolerancia)
+                    .sorted(Comparator.comparingInt((String k) -> distanciaPrefijo(t, k)).thenComparing(porPopularidad))
+                    .toList();
+            agregar(resultado, aproximadas);
+        }
+
+        return Optional.of(resultado.stream().map(k -> i.porClave().get(k).nombre()).toList());
+    }
+
+    /** Clave de comparación: minúsculas, sin tildes ni espacios repetidos. */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    // ---------- Utilidades ----------
+
+    private void agregar(LinkedHashSet<String> resultado, List<String> claves) {
+        for (String k : claves) {
+            if (resultado.size() >= maxSugerencias) {
+                return;
+            }
+            resultado.add(k);
+        }
+    }
+
+    /** Pasa el alojamiento de la ciudad que el índice le conoce a la del evento. */
+    private static Instantanea aplicar(Instantanea actual, AlojamientoCambiadoEvent ev) {
+        String anterior = actual.ciudades().get(ev.alojamientoId());
+        if (normalizar(anterior).equals(normalizar(ev.ciudad()))) {
+            return actual;
+        }
+        Map<String, Entrada> entradas = new HashMap<>(actual.porClave());
+        sumar(entradas, anterior, -1);
+        sumar(entradas, ev.ciudad(), 1);
+        if (ev.ciudad() == null) {
+            actual.ciudades().remove(ev.alojamientoId());
+        } else {
+            actual.ciudades().put(ev.alojamientoId(), ev.ciudad());
+        }
+        return publicar(actual.ciudades(), entradas);
+    }
+
+    private static void sumar(Map<String, Entrada> entradas, String ciudad, long delta) {
+        String clave = normalizar(ciudad);
+        if (clave.isEmpty()) {
+            return;
+        }
+        Entrada actual = entradas.get(clave);
+        long total = (actual == null ? 0 : actual.alojamientos()) + delta;
+        if (total <= 0) {
+            entradas.remove(clave);
+        } else {
+            entradas.put(clave, new Entrada(actual == null ? ciudad.trim() : actual.nombre(), total));
+        }
+    }
+
+    private static Instantanea publicar(Map<UUID, String> ciudades, Map<String, Entrada> entradas) {
+        TreeMap<String, Entrada> porClave = new TreeMap<>(entradas);
+        Map<String, List<String>> porTrigrama = new HashMap<>();
+        for (String clave : porClave.keySet()) {
+            for (String tri : trigramas(clave)) {
+                porTrigrama.computeIfAbsent(tri, x -> new ArrayList<>()).add(clave);
+            }
+        }
+        List<String> nombres = porClave.values().stream()
+                .map(Entrada::nombre)
+                .sorted(String.CASE_INSENSITIVE_ORDER)
+                .toList();
+        return new Instantanea(ciudades, porClave, porTrigrama, nombres);
+    }
+
+    /** Trigramas con relleno inicial, para que los errores al principio también generen candidatas. */
+    private static Set<String> trigramas(String clave) {
+        String s = "  " + clave;
+        Set<String> tris = new HashSet<>();
+        for (int k = 0; k + 3 <= s.length(); k++) {
+            tris.add(s.substring(k, k + 3));
+        }
+        return tris;
+    }
+
+    /** Menor distancia de edición entre el término y un inicio de la clave de longitud similar. */
+    private static int distanciaPrefijo(String termino, String clave) {
+        int mejor = Integer.MAX_VALUE;
+        for (int len = termino.length() - 1; len <= termino.length() + 1; len++) {
+            if (len > 0 && len <= clave.length()) {
+                mejor = Math.min(mejor, levenshtein(termino, clave.substring(0, len)));
+            }
+        }
+        return mejor;
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + costo);
+            }
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return prev[b.length()];
+    }
+}
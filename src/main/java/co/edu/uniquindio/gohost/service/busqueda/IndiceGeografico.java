@@ -0,0 +1,219 @@
+package co.edu.uniquindio.gohost.service.busqueda;
+
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.indice.ReconstruccionIndice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice espacial en memoria de los alojamientos activos con coordenadas.
+ *
+ * Divide el mapa en una rejilla uniforme de celdas de {@code app.geo.celda-grados} grados;
+ * cada celda guarda la lista de alojamientos que caen en ella. Una consulta solo recorre
+ * las celdas que tocan la caja buscada, calcula la distancia haversine de cada punto y
+ * conserva los K más cercanos con un monticulo acotado.
+ *
+ * - Se construye al arrancar y se reconstruye cada madrugada.
+ * - Se actualiza con {@link AlojamientoCambiadoEvent} una vez confirmada la transacción.
+ * - Las listas de cada celda no se mutan: cada cambio reemplaza una copia (copy-on-write).
+ *
+ * Si el índice aún no está listo las consultas devuelven {@link Optional#empty()}
+ * y el llamador debe ir a la BD.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceGeografico {
+
+    private final AlojamientoRepository alojamientoRepository;
+
+    @Value("${app.geo.celda-grados:0.05}")
+    private double celdaGrados;
+
+    /** Estado publicado y cambios recibidos durante una reconstrucción. */
+    private final ReconstruccionIndice<Estado, AlojamientoCambiadoEvent> reconstruccion =
+            new ReconstruccionIndice<>("el índice geográfico", IndiceGeografico::aplicar);
+
+    private record Punto(UUID id, double lat, double lon) {}
+
+    private record Estado(double celda,
+                          ConcurrentHashMap<Long, List<Punto>> celdas,
+                          ConcurrentHashMap<UUID, Punto> posiciones) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye la rejilla completa desde los alojamientos activos.
+     * Los cambios que lleguen mientras tanto se re-aplican antes de publicar el nuevo estado.
+     */
+    @Scheduled(cron = "${app.geo.cron-reconstruccion:0 20 0 * * *}")
+    public void reconstruir() {
+        reconstruccion.reconstruir(() -> {
+            Estado nuevo = new Estado(celdaGrados > 0 ? celdaGrados : 0.05,
+                    new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+            for (Object[] row : alojamientoRepository.findCoordenadasActivas()) {
+                poner(nuevo, new Punto((UUID) row[0], ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue()));
+            }
+            return nuevo;
+        }).ifPresent(e -> log.info("Índice geográfico construido: {} alojamientos en {} celdas",
+                e.posiciones().size(), e.celdas().size()));
+    }
+
+    /** Mueve, agrega o retira el alojamiento de la rejilla una vez confirmado el cambio. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlojamientoCambiado(AlojamientoCambiadoEvent ev) {
+        reconstruccion.aplicar(ev);
+    }
+
+    /**
+     * Los {@code k} alojamientos más cercanos al punto dentro del radio, ordenados por distancia.
+     *
+     * @return resultados, o vacío si el índice aún no está construido
+     */
+    public Optional<List<Cercano>> enRadio(double lat, double lon, double radioKm, int k) {
+        Estado e = reconstruccion.estado();
+        if (e == null) {
+            return Optional.empty();
+        }
+        double[] caja = Geo.cajaDeRadio(lat, lon, radioKm);
+        PriorityQueue<Cercano> top = monticulo();
+        recorrer(e, caja[0], caja[1], caja[2], caja[3], p -> {
+            double d = Geo.haversineKm(lat, lon, p.lat(), p.lon());
+            if (d <= radioKm) {
+                ofrecer(top, new Cercano(p.id(), p.lat(), p.lon(), d), k);
+            }
+        });
+        return Optional.of(ordenar(top));
+    }
+
+    /**
+     * Los {@code k} alojamientos dentro de la caja más cercanos a su centro, ordenados por distancia.
+     *
+     * @return resultados, o vacío si el índice aún no está construido
+     */
+    public Optional<List<Cercano>> enCaja(double latMin, double latMax, double lonMin, double lonMax, int k) {
+        Estado e = reconstruccion.estado();
+        if (e == null) {
+            return Optional.empty();
+        }
+        double cLat = (latMin + latMax) / 2;
+        double cLon = (lonMin + lonMax) / 2;
+        PriorityQueue<Cercano> top = monticulo();
+        recorrer(e, latMin, latMax, lonMin, lonMax, p -> {
+            if (p.lat() >= latMin && p.lat() <= latMax && p.lon() >= lonMin && p.lon() <= lonMax) {
+                ofrecer(top, new Cercano(p.id(), p.lat(), p.lon(), Geo.haversineKm(cLat, cLon, p.lat(), p.lon())), k);
+            }
+        });
+        return Optional.of(ordenar(top));
+    }
+
+    // ---------- Utilidades ----------
+
+    private static Estado aplicar(Estado e, AlojamientoCambiadoEvent ev) {
+        Punto anterior = e.posiciones().remove(ev.alojamientoId());
+        if (anterior != null) {
+            quitar(e, anterior);
+        }
+        if (ev.ubicado()) {
+            poner(e, new Punto(ev.alojamientoId(), ev.latitud(), ev.longitud()));
+        }
+        return e;
+    }
+
+    private static void poner(Estado e, Punto p) {
+        e.posiciones().put(p.id(), p);
+        e.celdas().compute(clave(fila(e.celda(), p.lat()), columna(e.celda(), p.lon())), (k, lista) -> {
+            List<Punto> copia = lista == null ? new ArrayList<>() : new ArrayList<>(lista);
+            copia.add(p);
+            return List.copyOf(copia);
+        });
+    }
+
+    private static void quitar(Estado e, Punto p) {
+        e.celdas().computeIfPresent(clave(fila(e.celda(), p.lat()), columna(e.celda(), p.lon())), (k, lista) -> {
+            List<Punto> copia = new ArrayList<>(lista);
+            copia.removeIf(x -> x.id().equals(p.id()));
+            return copia.isEmpty() ? null : List.copyOf(copia);
+        });
+    }
+
+    /**
+     * Visita los puntos de las celdas que tocan la caja. Si la caja abarca más celdas
+     * de las que existen (zoom muy alejado), recorre solo las celdas no vacías.
+     */
+    private static void recorrer(Estado e, double latMin, double latMax, double lonMin, double lonMax,
+                                 Consumer<Punto> visitante) {
+        int f0 = fila(e.celda(), latMin), f1 = fila(e.celda(), latMax);
+        int c0 = columna(e.celda(), lonMin), c1 = columna(e.celda(), lonMax);
+        long celdasCaja = (long) (f1 - f0 + 1) * (c1 - c0 + 1);
+        if (celdasCaja > e.celdas().size()) {
+            e.celdas().forEach((k, lista) -> {
+                int f = (int) (k >> 32), c = (int) (long) k;
+                if (f >= f0 && f <= f1 && c >= c0 && c <= c1) {
+                    lista.forEach(visitante);
+                }
+            });
+            return;
+        }
+        for (int f = f0; f <= f1; f++) {
+            for (int c = c0; c <= c1; c++) {
+                List<Punto> lista = e.celdas().get(clave(f, c));
+                if (lista != null) {
+                    lista.forEach(visitante);
+                }
+            }
+        }
+    }
+
+    private static int fila(double celda, double lat) {
+        return (int) Math.floor((lat + 90) / celda);
+    }
+
+    private static int columna(double celda, double lon) {
+        return (int) Math.floor((lon + 180) / celda);
+    }
+
+    private static long clave(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL);
+    }
+
+    /** Montículo de máximos por distancia: la cabeza es el peor de los K actuales. */
+    private static PriorityQueue<Cercano> monticulo() {
+        return new PriorityQueue<>(Comparator.comparingDouble(Cercano::distanciaKm).reversed());
+    }
+
+    private static void ofrecer(PriorityQueue<Cercano> top, Cercano c, int k) {
+        if (top.size() < k) {
+            top.add(c);
+        } else if (c.distanciaKm() < top.peek().distanciaKm()) {
+            top.poll();
+            top.add(c);
+        }
+    }
+
+    private static List<Cercano> ordenar(PriorityQueue<Cercano> top) {
+        List<Cercano> lista = new ArrayList<>(top);
+        lista.sort(Comparator.comparingDouble(Cercano::distanciaKm));
+        return lista;
+    }
+}
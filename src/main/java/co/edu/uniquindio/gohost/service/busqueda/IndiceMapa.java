@@ -0,0 +1,225 @@
+package co.edu.uniquindio.gohost.service.busqueda;
+
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.ClusterMapaDTO;
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.indice.ReconstruccionIndice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Clusters del mapa pre-agregados por nivel de zoom.
+ *
+ * Para cada zoom {@code z} (0..{@code app.mapa.zoom-max}) el mundo proyectado en Web Mercator
+ * se divide en {@code 2^z · app.mapa.celdas-por-tile} celdas por lado, así cada tesela z/x/y
+ * contiene exactamente {@code celdas-por-tile²} celdas. Cada celda acumula la suma de
+ * coordenadas (para el centroide), la cantidad y los precios (para el mínimo) de sus
+ * alojamientos. Una tesela devuelve solo las celdas cuyo centroide cae en ella (solo importa
+ * más allá del zoom máximo, donde una celda es mayor que la tesela), así la respuesta tiene
+ * a lo sumo unas decenas de clusters en cualquier zoom.
+ *
+ * - Se construye al arrancar y se reconstruye cada madrugada.
+ * - Crear, mover, cambiar precio o desactivar un alojamiento llega como
+ *   {@link AlojamientoCambiadoEvent}: se resta su aporte anterior y se suma el nuevo
+ *   en una celda por zoom, sin recalcular el resto.
+ *
+ * Si el índice aún no está listo {@link #tesela} devuelve {@link Optional#empty()}
+ * y el llamador debe agrupar en la BD.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceMapa {
+
+    private final AlojamientoRepository alojamientoRepository;
+
+    @Value("${app.mapa.zoom-max:18}")
+    private int zoomMax;
+
+    @Value("${app.mapa.celdas-por-tile:4}")
+    private int celdasPorTile;
+
+    /** Las lecturas comparten el candado; las escrituras toman el de escritura vía {@code reconstruccion}. */
+    private final ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+
+    /** Estado publicado y cambios recibidos durante una reconstrucción. */
+    private final ReconstruccionIndice<Estado, AlojamientoCambiadoEvent> reconstruccion =
+            new ReconstruccionIndice<>("los clusters del mapa", rw.writeLock(), this::aplicar);
+
+    private record Punto(double lat, double lon, BigDecimal precio) {}
+
+    /** Acumulado de una celda (mutable, solo bajo el candado de escritura). */
+    private static final class Celda {
+        double sumaLat;
+        double sumaLon;
+        long cantidad;
+        final TreeMap<BigDecimal, Integer> precios = new TreeMap<>();
+    }
+
+    /** {@code niveles.get(z)}: celdas del zoom z por clave fila/columna. */
+    private record Estado(int zoomMax, int celdasPorTile,
+                          List<Map<Long, Celda>> niveles,
+                          Map<UUID, Punto> puntos) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye todos los niveles desde los alojamientos activos.
+     * Los cambios que lleguen mientras tanto se re-aplican antes de publicar el nuevo estado.
+     */
+    @Scheduled(cron = "${app.mapa.cron-reconstruccion:0 25 0 * * *}")
+    public void reconstruir() {
+        reconstruccion.reconstruir(() -> {
+            int zMax = zoomMaximo();
+            List<Map<Long, Celda>> niveles = new ArrayList<>();
+            for (int z = 0; z <= zMax; z++) {
+                niveles.add(new HashMap<>());
+            }
+            Estado nuevo = new Estado(zMax, Math.max(1, celdasPorTile), niveles, new HashMap<>());
+            for (Object[] row : alojamientoRepository.findCoordenadasActivas()) {
+                poner(nuevo, (UUID) row[0], new Punto(((Number) row[1]).doubleValue(),
+                        ((Number) row[2]).doubleValue(), (BigDecimal) row[3]));
+            }
+            return nuevo;
+        }).ifPresent(e -> log.info("Clusters del mapa construidos: {} alojamientos, zoom 0..{}",
+                e.puntos().size(), e.zoomMax()));
+    }
+
+    /** Actualiza la celda afectada de cada zoom una vez confirmado el cambio. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlojamientoCambiado(AlojamientoCambiadoEvent ev) {
+        reconstruccion.aplicar(ev);
+    }
+
+    /** Celdas por lado del mundo en el nivel dado: {@code 2^nivel · celdas-por-tile}. */
+    public long celdasPorLado(int nivel) {
+        return (1L << nivel) * Math.max(1, celdasPorTile);
+    }
+
+    /**
+     * Celdas de un nivel que tocan la tesela z/x/y.
+     *
+     * @return {filaMin, filaMax, columnaMin, columnaMax}, inclusivos
+     */
+    public static long[] celdasDeTesela(int z, int x, int y, long celdasPorLado) {
+        long lado = 1L << z;
+        return new long[]{
+                Math.floorDiv(y * celdasPorLado, lado), Math.floorDiv((y + 1) * celdasPorLado - 1, lado),
+                Math.floorDiv(x * celdasPorLado, lado), Math.floorDiv((x + 1) * celdasPorLado - 1, lado)
+        };
+    }
+
+    /** Fila o columna de la celda para una posición Mercator normalizada. */
+    public static long celda(double posicion, long celdasPorLado) {
+        return Math.max(0, Math.min(celdasPorLado - 1, (long) Math.floor(posicion * celdasPorLado)));
+    }
+
+    /**
+     * Zoom máximo pre-agregado; teselas más profundas usan este nivel.
+     */
+    public int zoomMaximo() {
+        return Math.max(0, Math.min(zoomMax, 24));
+    }
+
+    /**
+     * Clusters de la tesela z/x/y.
+     *
+     * @return clusters, o vacío si el índice aún no está construido
+     */
+    public Optional<List<ClusterMapaDTO>> tesela(int z, int x, int y) {
+        rw.readLock().lock();
+        try {
+            Estado e = reconstruccion.estado();
+            if (e == null) {
+                return Optional.empty();
+            }
+            int nivel = Math.min(z, e.zoomMax());
+            long[] rango = celdasDeTesela(z, x, y, (1L << nivel) * e.celdasPorTile());
+            double[] lim = Geo.limitesTesela(z, x, y);
+            Map<Long, Celda> celdas = e.niveles().get(nivel);
+
+            List<ClusterMapaDTO> clusters = new ArrayList<>();
+            for (long f = rango[0]; f <= rango[1]; f++) {
+                for (long c = rango[2]; c <= rango[3]; c++) {
+                    Celda cel = celdas.get(clave(f, c));
+                    if (cel == null) {
+                        continue;
+                    }
+                    double lat = cel.sumaLat / cel.cantidad;
+                    double lon = cel.sumaLon / cel.cantidad;
+                    // Cada celda pertenece a la única tesela que contiene su centroide
+                    if (lat >= lim[0] && lat < lim[1] && lon >= lim[2] && lon < lim[3]) {
+                        clusters.add(new ClusterMapaDTO(lat, lon, cel.cantidad,
+                                cel.precios.isEmpty() ? null : cel.precios.firstKey()));
+                    }
+                }
+            }
+            return Optional.of(clusters);
+        } finally {
+            rw.readLock().unlock();
+        }
+    }
+
+    // ---------- Utilidades ----------
+
+    private Estado aplicar(Estado e, AlojamientoCambiadoEvent ev) {
+        Punto anterior = e.puntos().remove(ev.alojamientoId());
+        if (anterior != null) {
+            acumular(e, anterior, -1);
+        }
+        if (ev.ubicado()) {
+            poner(e, ev.alojamientoId(), new Punto(ev.latitud(), ev.longitud(), ev.precioNoche()));
+        }
+        return e;
+    }
+
+    private void poner(Estado e, UUID id, Punto p) {
+        e.puntos().put(id, p);
+        acumular(e, p, +1);
+    }
+
+    /** Suma (signo +1) o resta (signo -1) el aporte del punto en su celda de cada zoom. */
+    private void acumular(Estado e, Punto p, int signo) {
+        double mx = Geo.mercatorX(p.lon());
+        double my = Geo.mercatorY(p.lat());
+        for (int z = 0; z <= e.zoomMax(); z++) {
+            long n = (1L << z) * e.celdasPorTile();
+            long k = clave(celda(my, n), celda(mx, n));
+            Map<Long, Celda> nivel = e.niveles().get(z);
+            Celda cel = nivel.computeIfAbsent(k, x -> new Celda());
+            cel.sumaLat += signo * p.lat();
+            cel.sumaLon += signo * p.lon();
+            cel.cantidad += signo;
+            if (p.precio() != null) {
+                cel.precios.merge(p.precio(), signo, (a, b) -> a + b == 0 ? null : a + b);
+            }
+            if (cel.cantidad <= 0) {
+                nivel.remove(k);
+            }
+        }
+    }
+
+    private static long clave(long fila, long columna) {
+        return (fila << 32) | (columna & 0xffffffffL);
+    }
+}
@@ -0,0 +1,126 @@
+package co.edu.uniquindio.gohost.service.busqueda;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Puntaje de relevancia para la búsqueda avanzada.
+ *
+ * puntaje = pesoCalificacion * bayes / 5
+ *         + pesoPrecio       * mediana / (mediana + precio)
+ *         + pesoDistancia    * exp(-distanciaKm / escalaDistanciaKm)   (solo con punto de referencia)
+ *         + pesoFrescura     * 2^(-edadDias / vidaMediaDias)
+ *
+ * donde bayes = (n * promedio + previoPeso * promedioGlobal) / (n + previoPeso): un alojamiento
+ * con pocas reseñas se acerca al promedio global en lugar de saltar al tope con una sola 5.
+ *
+ * Para una página solo se necesitan los K = (page + 1) * size mejores: se mantienen en un
+ * montículo mínimo acotado a K (O(n log K)) en lugar de ordenar todos los candidatos.
+ */
+@Component
+public class RankingAlojamientos {
+
+    private final double pesoCalificacion;
+    private final double pesoPrecio;
+    private final double pesoDistancia;
+    private final double pesoFrescura;
+    private final double previoPeso;
+    private final double escalaDistanciaKm;
+    private final double vidaMediaDias;
+
+    public RankingAlojamientos(@Value("${app.ranking.peso-calificacion:0.5}") double pesoCalificacion,
+                               @Value("${app.ranking.peso-precio:0.2}") double pesoPrecio,
+                               @Value("${app.ranking.peso-distancia:0.2}") double pesoDistancia,
+                               @Value("${app.ranking.peso-frescura:0.1}") double pesoFrescura,
+                               @Value("${app.ranking.previo-peso:5}") double previoPeso,
+                               @Value("${app.ranking.escala-distancia-km:10}") double escalaDistanciaKm,
+                               @Value("${app.ranking.vida-media-dias:90}") double vidaMediaDias) {
+        this.pesoCalificacion = pesoCalificacion;
+        this.pesoPrecio = pesoPrecio;
+        this.pesoDistancia = pesoDistancia;
+        this.pesoFrescura = pesoFrescura;
+        this.previoPeso = previoPeso;
+        this.escalaDistanciaKm = escalaDistanciaKm;
+        this.vidaMediaDias = vidaMediaDias;
+    }
+
+    /** Peso del promedio global en la calificación bayesiana (número de reseñas "virtuales"). */
+    public double previoPeso() {
+        return previoPeso;
+    }
+
+    /** Candidato con su puntaje. */
+    private record Puntuado(UUID alojamientoId, double puntaje) {}
+
+    /** Mayor puntaje primero; a igual puntaje, por id para que el orden sea estable entre páginas. */
+    private static final Comparator<Puntuado> MEJOR_PRIMERO = Comparator
+            .comparingDouble(Puntuado::puntaje).reversed()
+            .thenComparing(Puntuado::alojamientoId);
+
+    /**
+     * Los {@code k} mejores candidatos, de mayor a menor puntaje.
+     *
+     * @param medianas       precio mediano por ciudad (clave en minúsculas)
+     * @param promedioGlobal calificación promedio de todos los alojamientos
+     * @param latitud        punto de referencia (nulo si no hay)
+     * @param longitud       punto de referencia (nulo si no hay)
+     */
+    public List<UUID> mejores(List<CandidatoRanking> candidatos, Map<String, BigDecimal> medianas,
+                              double promedioGlobal, Double latitud, Double longitud, int k) {
+        if (k <= 0 || candidatos.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+
+        // Montículo con el peor de los K mejores en la cima
+        PriorityQueue<Puntuado> monticulo = new PriorityQueue<>(Math.min(k, candidatos.size()) + 1, MEJOR_PRIMERO.reversed());
+        for (CandidatoRanking c : candidatos) {
+            Puntuado p = new Puntuado(c.alojamientoId(), puntaje(c, medianas, promedioGlobal, latitud, longitud, ahora));
+            if (monticulo.size() < k) {
+                monticulo.add(p);
+            } else if (MEJOR_PRIMERO.compare(p, monticulo.peek()) < 0) {
+                monticulo.poll();
+                monticulo.add(p);
+            }
+        }
+
+        List<Puntuado> ordenados = new ArrayList<>(monticulo);
+        ordenados.sort(MEJOR_PRIMERO);
+        return ordenados.stream().map(Puntuado::alojamientoId).toList();
+    }
+
+    double puntaje(CandidatoRanking c, Map<String, BigDecimal> medianas, double promedioGlobal,
+                   Double latitud, Double longitud, LocalDateTime ahora) {
+        double n = c.totalCalificaciones();
+        double bayes = (n * c.promedioCalificacion() + previoPeso * promedioGlobal) / (n + previoPeso);
+        double puntaje = pesoCalificacion * bayes / 5.0;
+
+        BigDecimal mediana = c.ciudad() == null ? null : medianas.get(c.ciudad().toLowerCase(Locale.ROOT));
+        if (mediana != null && c.precioNoche() != null && mediana.signum() > 0) {
+            double m = mediana.doubleValue();
+            puntaje += pesoPrecio * m / (m + c.precioNoche().doubleValue());
+        }
+
+        if (latitud != null && longitud != null && c.latitud() != null && c.longitud() != null) {
+            double km = Geo.haversineKm(latitud, longitud, c.latitud(), c.longitud());
+            puntaje += pesoDistancia * Math.exp(-km / escalaDistanciaKm);
+        }
+
+        if (c.fechaCreacion() != null) {
+            double dias = Math.max(0, Duration.between(c.fechaCreacion(), ahora).toHours() / 24.0);
+            puntaje += pesoFrescura * Math.pow(2, -dias / vidaMediaDias);
+        }
+        return puntaje;
+    }
+}
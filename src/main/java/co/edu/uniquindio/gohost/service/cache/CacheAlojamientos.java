@@ -0,0 +1,178 @@
+package co.edu.uniquindio.gohost.service.cache;
+
+import co.edu.uniquindio.gohost.dto.EstadisticasCacheDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.AlojamientoResDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.FacetasDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.FiltroAvanzadoDTO;
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
+import co.edu.uniquindio.gohost.event.ReservasCambiadasEvent;
+import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
+import co.edu.uniquindio.gohost.service.disponibilidad.CalendarioOcupacion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cachés en memoria de lectura de alojamientos.
+ *
+ * - {@code detalle}: {@link AlojamientoResDTO} por id (GET /api/alojamientos/{id}).
+ * - {@code busquedas}: páginas de resultados por forma canónica del filtro, con TTL corto.
+ * - {@code facetas}: facetas de la búsqueda avanzada (sin paginación en la clave), mismo TTL.
+ * - {@code calendarios}: noches ocupadas por alojamiento desde hoy (GET /api/alojamientos/{id}/calendario);
+ *   cada alta, cambio o cancelación de reserva invalida la entrada de su alojamiento.
+ *
+ * Toda escritura de un alojamiento (edición, fotos, desactivación) publica
+ * {@link AlojamientoCambiadoEvent}; su entrada de detalle se invalida cuando la transacción
+ * confirma y la versión de alojamientos sube. Las claves de búsqueda incluyen esa versión
+ * (y la de reservas si filtran por fechas), así una escritura deja inalcanzables todas las
+ * búsquedas anteriores sin recorrerlas; el LRU/TTL las termina de expulsar.
+ */
+@Component
+public class CacheAlojamientos {
+
+    private final CacheLectura<UUID, AlojamientoResDTO> detalle;
+    private final CacheLectura<String, Page<AlojamientoResDTO>> busquedas;
+    private final CacheLectura<String, FacetasDTO> facetas;
+    private final CacheLectura<UUID, CalendarioOcupacion> calendarios;
+
+    /** Sube con cada escritura de alojamientos confirmada. */
+    private final AtomicLong versionAlojamientos = new AtomicLong();
+    /** Sube con cada alta/cambio/cancelación de reserva confirmada (afecta búsquedas con fechas). */
+    private final AtomicLong versionReservas = new AtomicLong();
+
+    public CacheAlojamientos(@Value("${app.cache.detalle.max-entradas:2000}") int maxDetalle,
+                             @Value("${app.cache.detalle.ttl-segundos:300}") long ttlDetalle,
+                             @Value("${app.cache.busquedas.max-entradas:500}") int maxBusquedas,
+                             @Value("${app.cache.busquedas.ttl-segundos:30}") long ttlBusquedas,
+                             @Value("${app.cache.calendario.max-entradas:2000}") int maxCalendarios,
+                             @Value("${app.cache.calendario.ttl-segundos:600}") long ttlCalendarios) {
+        this.detalle = new CacheLectura<>("alojamientos.detalle", maxDetalle, Duration.ofSeconds(ttlDetalle));
+        this.busquedas = new CacheLectura<>("alojamientos.busquedas", maxBusquedas, Duration.ofSeconds(ttlBusquedas));
+        this.facetas = new CacheLectura<>("alojamientos.facetas", maxBusquedas, Duration.ofSeconds(ttlBusquedas));
+        this.calendarios = new CacheLectura<>("alojamientos.calendario", maxCalendarios, Duration.ofSeconds(ttlCalendarios));
+    }
+
+    /** Detalle del alojamiento desde la caché, o cargado (una sola vez por id) con {@code cargador}. */
+    public AlojamientoResDTO detalle(UUID id, Function<UUID, AlojamientoResDTO> cargador) {
+        return detalle.obtener(id, cargador);
+    }
+
+    /**
+     * Página de resultados desde la caché, o calculada (una sola vez por clave) con {@code cargador}.
+     *
+     * @param claveFiltro      forma canónica del filtro (ver {@link #claveBusqueda})
+     * @param dependeDeReservas true si el filtro incluye fechas de disponibilidad
+     */
+    public Page<AlojamientoResDTO> busqueda(String claveFiltro, boolean dependeDeReservas,
+                                            Supplier<Page<AlojamientoResDTO>> cargador) {
+        return busquedas.obtener(versionada(claveFiltro, dependeDeReservas), k -> cargador.get());
+    }
+
+    /** Facetas desde la caché, o calculadas con {@code cargador}; misma invalidación que las búsquedas. */
+    public FacetasDTO facetas(String claveFiltro, boolean dependeDeReservas, Supplier<FacetasDTO> cargador) {
+        return facetas.obtener(versionada(claveFiltro, dependeDeReservas), k -> cargador.get());
+    }
+
+    /**
+     * Calendario de ocupación del alojamiento desde la caché, o cargado con {@code cargador}.
+     * Una entrada construida antes de hoy se descarta (su ventana ya no empieza en hoy).
+     */
+    public CalendarioOcupacion calendario(UUID alojamientoId, Function<UUID, CalendarioOcupacion> cargador) {
+        CalendarioOcupacion cal = calendarios.obtener(alojamientoId, cargador);
+        if (cal.origen().isBefore(LocalDate.now())) {
+            calendarios.invalidar(alojamientoId);
+            cal = calendarios.obtener(alojamientoId, cargador);
+        }
+        return cal;
+    }
+
+    private String versionada(String claveFiltro, boolean dependeDeReservas) {
+        return "a" + versionAlojamientos.get()
+                + (dependeDeReservas ? "r" + versionReservas.get() : "")
+                + "|" + claveFiltro;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlojamientoCambiado(AlojamientoCambiadoEvent ev) {
+        versionAlojamientos.incrementAndGet();
+        detalle.invalidar(ev.alojamientoId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservaCambiada(ReservaCambiadaEvent ev) {
+        versionReservas.incrementAndGet();
+        calendarios.invalidar(ev.alojamientoId());
+    }
+
+    /** Un lote sube la versión una sola vez e invalida el calendario de cada alojamiento afectado. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservasCambiadas(ReservasCambiadasEvent ev) {
+        versionReservas.incrementAndGet();
+        ev.alojamientoIds().forEach(calendarios::invalidar);
+    }
+
+    public List<EstadisticasCacheDTO> estadisticas() {
+        return List.of(detalle.estadisticas(), busquedas.estadisticas(), facetas.estadisticas(),
+                calendarios.estadisticas());
+    }
+
+    // ---------- Claves canónicas ----------
+
+    /**
+     * Clave de la búsqueda avanzada: ciudad y texto libre recortados y en minúsculas, precios sin ceros
+     * de sobra, servicios como máscara (el orden no importa), orden pedido y paginación efectiva.
+     * No se quitan tildes: el LIKE de la consulta distingue "bogota" de "bogotá".
+     */
+    public static String claveBusqueda(FiltroAvanzadoDTO f) {
+        return String.join("|", claveFacetas(f),
+                f.ordenPorRelevancia() ? "relevancia" : "",
+                f.ordenPorRelevancia() && f.tieneReferencia() ? f.latitud() + "," + f.longitud() : "",
+                String.valueOf(f.page() == null ? 0 : f.page()),
+                String.valueOf(f.size() == null ? 10 : f.size()));
+    }
+
+    /** Clave de las facetas: el filtro avanzado sin paginación. */
+    public static String claveFacetas(FiltroAvanzadoDTO f) {
+        return String.join("|", "avanzada",
+                ciudad(f.ciudad()),
+                f.tieneTexto() ? f.q().trim().toLowerCase(Locale.ROOT) : "",
+                String.valueOf(f.fechaInicio()),
+                String.valueOf(f.fechaFin()),
+                precio(f.precioMinimo()),
+                precio(f.precioMaximo()),
+                String.valueOf(f.capacidad()),
+                f.tieneFiltroServicios() ? Long.toString(ServicioAlojamiento.mascara(f.servicios())) : "");
+    }
+
+    /** Clave de la búsqueda simple (ciudad, capacidad). */
+    public static String claveBusqueda(String ciudad, Integer capacidad, Pageable pageable) {
+        return String.join("|", "simple",
+                ciudad(ciudad),
+                String.valueOf(capacidad),
+                String.valueOf(pageable.getPageNumber()),
+                String.valueOf(pageable.getPageSize()),
+                pageable.getSort().toString());
+    }
+
+    private static String ciudad(String ciudad) {
+        return ciudad == null ? "" : ciudad.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String precio(BigDecimal precio) {
+        return precio == null ? "" : precio.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,163 @@
+package co.edu.uniquindio.gohost.service.cache;
+
+import co.edu.uniquindio.gohost.dto.EstadisticasCacheDTO;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché de lectura (read-through) acotada por tamaño y por TTL.
+ *
+ * - LRU: al superar {@code maxEntradas} se expulsa la entrada usada hace más tiempo.
+ * - TTL: una entrada vencida cuenta como fallo y se vuelve a cargar.
+ * - Carga única (single-flight): los fallos concurrentes de una misma clave esperan
+ *   la misma carga en lugar de ir todos a la BD.
+ * - Una invalidación descarta también el resultado de las cargas que estaban en curso,
+ *   para no guardar un valor leído antes del cambio.
+ *
+ * Los valores null no se guardan (p. ej. cuando el cargador lanza o no encuentra el recurso).
+ */
+public final class CacheLectura<K, V> {
+
+    private final String nombre;
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final LongSupplier relojNanos;
+
+    /** En orden de acceso; protegido por sí mismo. */
+    private final LinkedHashMap<K, Entrada<V>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enVuelo = new ConcurrentHashMap<>();
+
+    /** Se incrementa en cada invalidación; una carga solo se guarda si no cambió mientras tanto. */
+    private final AtomicLong generacion = new AtomicLong();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    private record Entrada<V>(V valor, long venceEn) {}
+
+    public CacheLectura(String nombre, int maxEntradas, Duration ttl) {
+        this(nombre, maxEntradas, ttl, System::nanoTime);
+    }
+
+    public CacheLectura(String nombre, int maxEntradas, Duration ttl, LongSupplier relojNanos) {
+        this.nombre = nombre;
+        this.maxEntradas = Math.max(1, maxEntradas);
+        this.ttlNanos = ttl.toNanos();
+        this.relojNanos = relojNanos;
+    }
+
+    /**
+     * Devuelve el valor en caché o lo carga (una sola vez por clave aunque haya fallos concurrentes).
+     * Las excepciones del cargador se propagan a todos los que esperaban esa carga.
+     */
+    public V obtener(K clave, Function<K, V> cargador) {
+        V enCache = buscar(clave);
+        if (enCache != null) {
+            aciertos.increment();
+            return enCache;
+        }
+        fallos.increment();
+
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enVuelo.putIfAbsent(clave, propia);
+        if (existente != null) {
+            return esperar(existente);
+        }
+        try {
+            long gen = generacion.get();
+            V valor = cargador.apply(clave);
+            if (valor != null && gen == generacion.get()) {
+                guardar(clave, valor);
+            }
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enVuelo.remove(clave, propia);
+        }
+    }
+
+    /** Descarta la entrada de la clave (y el resultado de cualquier carga en curso). */
+    public void invalidar(K clave) {
+        generacion.incrementAndGet();
+        invalidaciones.increment();
+        synchronized (entradas) {
+            entradas.remove(clave);
+        }
+    }
+
+    /** Descarta todas las entradas. */
+    public void invalidarTodo() {
+        generacion.incrementAndGet();
+        invalidaciones.increment();
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+
+    public EstadisticasCacheDTO estadisticas() {
+        int tamano;
+        synchronized (entradas) {
+            tamano = entradas.size();
+        }
+        return new EstadisticasCacheDTO(nombre, tamano, maxEntradas,
+                aciertos.sum(), fallos.sum(), expulsiones.sum(), invalidaciones.sum());
+    }
+
+    // ---------- Utilidades ----------
+
+    private V buscar(K clave) {
+        synchronized (entradas) {
+            Entrada<V> e = entradas.get(clave);
+            if (e == null) {
+                return null;
+            }
+            if (relojNanos.getAsLong() - e.venceEn() >= 0) {
+                entradas.remove(clave);
+                expulsiones.increment();
+                return null;
+            }
+            return e.valor();
+        }
+    }
+
+    private void guardar(K clave, V valor) {
+        synchronized (entradas) {
+            entradas.put(clave, new Entrada<>(valor, relojNanos.getAsLong() + ttlNanos));
+            Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator();
+            while (entradas.size() > maxEntradas && it.hasNext()) {
+                it.next();
+                it.remove();
+                expulsiones.increment();
+            }
+        }
+    }
+
+    private static <V> V esperar(CompletableFuture<V> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package co.edu.uniquindio.gohost.service.catalogo;
+
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.AlojamientoResDTO;
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.model.Alojamiento;
+import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.indice.ReconstruccionIndice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Modelo de lectura en memoria del catálogo de alojamientos.
+ *
+ * Guarda una instantánea inmutable de todos los alojamientos ya convertidos a
+ * {@link AlojamientoResDTO} (con fotos y servicios) más índices secundarios de los activos:
+ * por ciudad, por precio (lista ordenada) y por capacidad. Las lecturas públicas sin orden
+ * explícito (listar, búsqueda simple, búsqueda avanzada por filtros y detalle) se resuelven
+ * aquí sin ir a la BD.
+ *
+ * - Se construye al arrancar y se reconstruye cada madrugada como red de seguridad.
+ * - Cada {@link AlojamientoCambiadoEvent} confirmado recarga ese alojamiento y publica una
+ *   instantánea nueva (copy-on-write): los lectores nunca ven un estado a medias ni bloquean.
+ *   La instantánea nueva reutiliza los índices que el cambio no toca y solo mueve la ficha
+ *   en las listas ordenadas (búsqueda binaria), sin volver a ordenar ni agrupar todo.
+ * - Escucha antes que la caché de búsquedas ({@link Order}) para que una búsqueda que se
+ *   recalcule tras subir la versión ya lea la instantánea nueva.
+ *
+ * Orden de las páginas: fechaCreacion DESC, id DESC (el mismo de la paginación por cursor).
+ * Si la instantánea aún no está lista (o se pide otro orden) las consultas devuelven
+ * {@link Optional#empty()} y el llamador debe ir a la BD.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogoAlojamientos {
+
+    private final AlojamientoRepository alojamientoRepository;
+
+    @Value("${app.catalogo.lote:1000}")
+    private int lote;
+
+    /** Instantánea publicada y alojamientos cambiados durante una reconstrucción. */
+    private final ReconstruccionIndice<Instantanea, UUID> reconstruccion =
+            new ReconstruccionIndice<>("el catálogo en memoria", this::recargar);
+
+    /** Alojamiento listo para servir, con los campos que usan los filtros. */
+    record Ficha(AlojamientoResDTO dto, boolean activo, String ciudadClave, long mascara, LocalDateTime fechaCreacion) {}
+
+    private static final Comparator<Ficha> ORDEN = Comparator
+            .comparing(Ficha::fechaCreacion, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing((Ficha f) -> f.dto().id(), Comparator.reverseOrder());
+
+    /** Precio y, a igual precio, el orden de las páginas: orden total para ubicar cada ficha. */
+    private static final Comparator<Ficha> POR_PRECIO = Comparator.comparing((Ficha f) -> f.dto().precioNoche())
+            .thenComparing(ORDEN);
+
+    /** Estado inmutable: se reemplaza en cada cambio, compartiendo lo que no cambió. */
+    private record Instantanea(Map<UUID, Ficha> porId,
+                               List<Ficha> todas,
+                               List<Ficha> activas,
+                               Map<String, List<Ficha>> porCiudad,
+                               List<Ficha> porPrecio,
+                               NavigableMap<Integer, List<Ficha>> porCapacidad) {
+
+        static Instantanea de(Map<UUID, Ficha> porId) {
+            List<Ficha> todas = new ArrayList<>(porId.values());
+            todas.sort(ORDEN);
+            List<Ficha> activas = todas.stream().filter(Ficha::activo).toList();
+
+            Map<String, List<Ficha>> porCiudad = new HashMap<>();
+            NavigableMap<Integer, List<Ficha>> porCapacidad = new TreeMap<>();
+            for (Ficha f : activas) {
+                if (f.ciudadClave() != null) {
+                    porCiudad.computeIfAbsent(f.ciudadClave(), k -> new ArrayList<>()).add(f);
+                }
+                if (f.dto().capacidad() != null) {
+                    porCapacidad.computeIfAbsent(f.dto().capacidad(), k -> new ArrayList<>()).add(f);
+                }
+            }
+            porCiudad.replaceAll((k, v) -> List.copyOf(v));
+            porCapacidad.replaceAll((k, v) -> List.copyOf(v));
+
+            List<Ficha> porPrecio = activas.stream().filter(f -> f.dto().precioNoche() != null).sorted(POR_PRECIO).toList();
+            return new Instantanea(Map.copyOf(porId), List.copyOf(todas), activas,
+                    Map.copyOf(porCiudad), porPrecio, Collections.unmodifiableNavigableMap(porCapacidad));
+        }
+
+        /** Instantánea con la ficha de {@code id} reemplazada por {@code nueva} (nula la retira). */
+        Instantanea con(UUID id, Ficha nueva) {
+            Ficha anterior = porId.get(id);
+            Map<UUID, Ficha> ids = new HashMap<>(porId);
+            if (nueva == null) {
+                ids.remove(id);
+            } else {
+                ids.put(id, nueva);
+            }
+            Ficha anteriorActiva = anterior != null && anterior.activo() ? anterior : null;
+            Ficha nuevaActiva = nueva != null && nueva.activo() ? nueva : null;
+            return new Instantanea(
+                    Collections.unmodifiableMap(ids),
+                    reemplazar(todas, anterior, nueva, ORDEN),
+                    reemplazar(activas, anteriorActiva, nuevaActiva, ORDEN),
+                    Collections.unmodifiableMap(reemplazarEnGrupo(new HashMap<>(porCiudad), Ficha::ciudadClave,
+                            anteriorActiva, nuevaActiva)),
+                    reemplazar(porPrecio, conPrecio(anteriorActiva), conPrecio(nuevaActiva), POR_PRECIO),
+                    Collections.unmodifiableNavigableMap(reemplazarEnGrupo(new TreeMap<>(porCapacidad),
+                            f -> f.dto().capacidad(), anteriorActiva, nuevaActiva)));
+        }
+
+        private static Ficha conPrecio(Ficha f) {
+            return f == null || f.dto().precioNoche() == null ? null : f;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye la instantánea completa: lee los alojamientos por cursor (fechaCreacion, id)
+     * en lotes de {@code app.catalogo.lote} y sus colecciones por lote, sin tener toda la
+     * tabla como entidades a la vez. Los cambios que lleguen mientras tanto se recargan
+     * antes de publicar.
+     */
+    @Scheduled(cron = "${app.catalogo.cron-reconstruccion:0 30 0 * * *}")
+    public void reconstruir() {
+        reconstruccion.reconstruir(() -> {
+            Map<UUID, Ficha> porId = new HashMap<>();
+            Limit tamanoLote = Limit.of(lote > 0 ? lote : 1000);
+            LocalDateTime fechaCursor = null;
+            UUID idCursor = null;
+            List<Alojamiento> bloque;
+            do {
+                bloque = alojamientoRepository.findAllKeyset(fechaCursor, idCursor, tamanoLote);
+                if (bloque.isEmpty()) {
+                    break;
+                }
+                cargar(bloque).forEach(f -> porId.put(f.dto().id(), f));
+                Alojamiento ultimo = bloque.get(bloque.size() - 1);
+                fechaCursor = ultimo.getFechaCreacion();
+                idCursor = ultimo.getId();
+            } while (bloque.size() == tamanoLote.max());
+            return Instantanea.de(porId);
+        }).ifPresent(i -> log.info("Catálogo en memoria construido: {} alojamientos ({} activos)",
+                i.porId().size(), i.activas().size()));
+    }
+
+    /** Recarga el alojamiento cambiado y publica una instantánea nueva. */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlojamientoCambiado(AlojamientoCambiadoEvent ev) {
+        reconstruccion.aplicar(ev.alojamientoId());
+    }
+
+    /** Detalle de un alojamiento (activo o no). */
+    public Optional<AlojamientoResDTO> obtener(UUID id) {
+        Instantanea i = reconstruccion.estado();
+        if (i == null) {
+            return Optional.empty();
+        }
+        Ficha f = i.porId().get(id);
+        return f == null ? Optional.empty() : Optional.of(f.dto());
+    }
+
+    /** Página de todos los alojamientos (activos o no), como {@code findAll(pageable)}. */
+    public Optional<Page<AlojamientoResDTO>> listar(Pageable pageable) {
+        Instantanea i = reconstruccion.estado();
+        if (i == null || pageable.getSort().isSorted()) {
+            return Optional.empty();
+        }
+        return Optional.of(pagina(i.todas(), pageable));
+    }
+
+    /**
+     * Página de alojamientos activos que cumplen los filtros (nulos o 0 no filtran), con las
+     * mismas reglas que las consultas SQL: ciudad contenida sin distinguir mayúsculas,
+     * capacidad mínima, rango de precio y todos los servicios de la máscara. {@code disponible}
+     * (nulo no filtra) se evalúa al final, solo sobre los que ya cumplen lo demás.
+     * Parte del índice secundario más selectivo y aplica el resto de filtros sobre él.
+     */
+    public Optional<Page<AlojamientoResDTO>> buscar(String ciudad, Integer capacidad,
+                                                    BigDecimal precioMinimo, BigDecimal precioMaximo,
+                                                    long mascara, Predicate<UUID> disponible, Pageable pageable) {
+        Instantanea i = reconstruccion.estado();
+        if (i == null || pageable.getSort().isSorted()) {
+            return Optional.empty();
+        }
+        String termino = ciudad == null || ciudad.isBlank() ? null : ciudad.trim().toLowerCase(Locale.ROOT);
+
+        List<Ficha> base;
+        boolean ordenada;
+        if (termino != null) {
+            List<List<Ficha>> ciudades = i.porCiudad().entrySet().stream()
+                    .filter(e -> e.getKey().contains(termino))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            ordenada = ciudades.size() <= 1;
+            base = ciudades.isEmpty() ? List.of() : ciudades.size() == 1 ? ciudades.get(0)
+                    : ciudades.stream().flatMap(List::stream).toList();
+        } else if (precioMinimo != null || precioMaximo != null) {
+            base = rangoPrecio(i.porPrecio(), precioMinimo, precioMaximo);
+            ordenada = false;
+        } else if (capacidad != null) {
+            base = i.porCapacidad().tailMap(capacidad, true).values().stream().flatMap(List::stream).toList();
+            ordenada = false;
+        } else {
+            base = i.activas();
+            ordenada = true;
+        }
+
+        Predicate<Ficha> filtro = f ->
+                (capacidad == null || (f.dto().capacidad() != null && f.dto().capacidad() >= capacidad))
+                && (precioMinimo == null || f.dto().precioNoche().compareTo(precioMinimo) >= 0)
+                && (precioMaximo == null || f.dto().precioNoche().compareTo(precioMaximo) <= 0)
+                && (f.mascara() & mascara) == mascara
+                && (disponible == null || disponible.test(f.dto().id()));
+
+        List<Ficha> coincidencias = new ArrayList<>(base.stream().filter(filtro).toList());
+        if (!ordenada) {
+            coincidencias.sort(ORDEN);
+        }
+        return Optional.of(pagina(coincidencias, pageable));
+    }
+
+    // ---------- Auxiliares ----------
+
+    private static Page<AlojamientoResDTO> pagina(List<Ficha> fichas, Pageable pageable) {
+        int desde = (int) Math.min(pageable.getOffset(), fichas.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), fichas.size());
+        List<AlojamientoResDTO> contenido = fichas.subList(desde, hasta).stream().map(Ficha::dto).toList();
+        return new PageImpl<>(contenido, pageable, fichas.size());
+    }
+
+    /** Sublista de la lista ordenada por precio dentro de [min, max], por búsqueda binaria. */
+    private static List<Ficha> rangoPrecio(List<Ficha> porPrecio, BigDecimal min, BigDecimal max) {
+        int desde = min == null ? 0 : primeroNoMenor(porPrecio, min, false);
+        int hasta = max == null ? porPrecio.size() : primeroNoMenor(porPrecio, max, true);
+        return desde >= hasta ? List.of() : porPrecio.subList(desde, hasta);
+    }
+
+    /** Primer índice con precio >= valor (o > valor si {@code estricto}). */
+    private static int primeroNoMenor(List<Ficha> porPrecio, BigDecimal valor, boolean estricto) {
+        int lo = 0;
+        int hi = porPrecio.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = porPrecio.get(mid).dto().precioNoche().compareTo(valor);
+            if (c < 0 || (estricto && c == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Vuelve a leer un alojamiento de la BD (si ya no existe lo retira) y arma la instantánea nueva. */
+    private Instantanea recargar(Instantanea actual, UUID id) {
+        Ficha nueva = alojamientoRepository.findById(id)
+                .map(a -> cargar(List.of(a)).get(0))
+                .orElse(null);
+        return actual.con(id, nueva);
+    }
+
+    /**
+     * Copia de una lista ordenada sin {@code quitar} y con {@code poner} en su posición
+     * (cualquiera de los dos puede ser nulo). Si no hay nada que mover devuelve la misma lista.
+     */
+    private static List<Ficha> reemplazar(List<Ficha> lista, Ficha quitar, Ficha poner, Comparator<Ficha> orden) {
+        if (quitar == null && poner == null) {
+            return lista;
+        }
+        List<Ficha> copia = new ArrayList<>(lista.size() + 1);
+        copia.addAll(lista);
+        if (quitar != null) {
+            int i = Collections.binarySearch(copia, quitar, orden);
+            if (i >= 0) {
+                copia.remove(i);
+            }
+        }
+        if (poner != null) {
+            int i = Collections.binarySearch(copia, poner, orden);
+            copia.add(i >= 0 ? i : -i - 1, poner);
+        }
+        return Collections.unmodifiableList(copia);
+    }
+
+    /** Mueve la ficha entre los grupos de su clave anterior y nueva; solo copia esos grupos. */
+    private static <K, M extends Map<K, List<Ficha>>> M reemplazarEnGrupo(M grupos, Function<Ficha, K> clave,
+                                                                          Ficha anterior, Ficha nueva) {
+        K claveAnterior = anterior == null ? null : clave.apply(anterior);
+        K claveNueva = nueva == null ? null : clave.apply(nueva);
+        if (claveAnterior != null) {
+            actualizarGrupo(grupos, claveAnterior, anterior, claveAnterior.equals(claveNueva) ? nueva : null);
+        }
+        if (claveNueva != null && !claveNueva.equals(claveAnterior)) {
+            actualizarGrupo(grupos, claveNueva, null, nueva);
+        }
+        return grupos;
+    }
+
+    private static <K> void actualizarGrupo(Map<K, List<Ficha>> grupos, K clave, Ficha quitar, Ficha poner) {
+        List<Ficha> grupo = reemplazar(grupos.getOrDefault(clave, List.of()), quitar, poner, ORDEN);
+        if (grupo.isEmpty()) {
+            grupos.remove(clave);
+        } else {
+            grupos.put(clave, grupo);
+        }
+    }
+
+    /** Convierte un lote de alojamientos a fichas con fotos y servicios en dos consultas. */
+    private List<Ficha> cargar(List<Alojamiento> alojamientos) {
+        List<UUID> ids = alojamientos.stream().map(Alojamiento::getId).toList();
+        Map<UUID, List<String>> fotos = new HashMap<>();
+        for (Object[] row : alojamientoRepository.findFotosByAlojamientoIds(ids)) {
+            fotos.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add((String) row[1]);
+        }
+        Map<UUID, List<ServicioAlojamiento>> servicios = new HashMap<>();
+        for (Object[] row : alojamientoRepository.findServiciosByAlojamientoIds(ids)) {
+            servicios.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add((ServicioAlojamiento) row[1]);
+        }
+
+        List<Ficha> fichas = new ArrayList<>(alojamientos.size());
+        for (Alojamiento a : alojamientos) {
+            String ciudad = a.getDireccion() == null ? null : a.getDireccion().getCiudad();
+            AlojamientoResDTO dto = new AlojamientoResDTO(
+                    a.getId(),
+                    a.getTitulo(),
+                    a.getDescripcion(),
+                    a.getPrecioNoche(),
+                    a.getCapacidad(),
+                    List.copyOf(fotos.getOrDefault(a.getId(), List.of())),
+                    List.copyOf(servicios.getOrDefault(a.getId(), List.of())),
+                    ciudad == null ? "Sin ciudad" : ciudad,
+                    a.getAnfitrion() == null ? null : a.getAnfitrion().getId());
+            fichas.add(new Ficha(dto,
+                    a.esActivo(),
+                    ciudad == null ? null : ciudad.toLowerCase(Locale.ROOT),
+                    a.getServiciosMask() == null ? 0L : a.getServiciosMask(),
+                    a.getFechaCreacion()));
+        }
+        return fichas;
+    }
+}
@@ -0,0 +1,64 @@
+package co.edu.uniquindio.gohost.service.ciclo;
+
+import co.edu.uniquindio.gohost.service.ReservaService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Avanza el ciclo de vida de las reservas por lotes:
+ *  - CONFIRMADA con check-out pasado → COMPLETADA (correo de fin de estadía al huésped).
+ *  - PENDIENTE que llegó a {@code app.ciclo-reservas.dias-antes-checkin} días del check-in sin
+ *    confirmarse → CANCELADA (correos de cancelación y recordatorios cancelados).
+ *
+ * Cada lote es un UPDATE ... RETURNING en su propia transacción ({@link ReservaService}); se repite
+ * mientras el lote salga lleno, así una pasada grande no retiene miles de filas bloqueadas.
+ */
+@Slf4j
+@Component
+public class CicloReservas {
+
+    private final ReservaService reservaService;
+    private final int lote;
+    private final int diasAntesCheckIn;
+
+    public CicloReservas(ReservaService reservaService,
+                         @Value("${app.ciclo-reservas.lote:500}") int lote,
+                         @Value("${app.ciclo-reservas.dias-antes-checkin:0}") int diasAntesCheckIn) {
+        this.reservaService = reservaService;
+        this.lote = lote;
+        this.diasAntesCheckIn = diasAntesCheckIn;
+    }
+
+    @Scheduled(cron = "${app.ciclo-reservas.cron:0 5 * * * *}")
+    public void ejecutar() {
+        LocalDate hoy = LocalDate.now();
+        procesar("completadas", n -> reservaService.completarFinalizadas(hoy, n));
+        procesar("pendientes expiradas", n -> reservaService.expirarPendientes(hoy.plusDays(diasAntesCheckIn), n));
+    }
+
+    private void procesar(String nombre, IntUnaryOperator paso) {
+        int total = 0;
+        int lotes = 0;
+        try {
+            int procesadas;
+            do {
+                procesadas = paso.applyAsInt(lote);
+                total += procesadas;
+                lotes++;
+                if (procesadas > 0) {
+                    log.info("Ciclo de reservas: lote {} de {}: {}", lotes, nombre, procesadas);
+                }
+            } while (procesadas == lote);
+        } catch (Exception e) {
+            log.error("Ciclo de reservas: error en {} tras {} reservas: {}", nombre, total, e.getMessage(), e);
+        }
+        if (total > 0) {
+            log.info("Ciclo de reservas: {} {} en {} lotes", total, nombre, lotes);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package co.edu.uniquindio.gohost.service.disponibilidad;
+
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.RangoBloqueadoDTO;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Noches ocupadas de un alojamiento en [origen, origen + dias): el bit {@code i} es la noche
+ * {@code origen + i}. Inmutable una vez construido (se guarda en caché y se comparte entre hilos).
+ */
+public final class CalendarioOcupacion {
+
+    private final LocalDate origen;
+    private final int dias;
+    private final BitSet noches;
+
+    private CalendarioOcupacion(LocalDate origen, int dias, BitSet noches) {
+        this.origen = origen;
+        this.dias = dias;
+        this.noches = noches;
+    }
+
+    /**
+     * Construye el calendario desde rangos de reservas activas.
+     *
+     * @param rangos filas [checkIn, checkOut) (LocalDate, LocalDate); se recortan a la ventana
+     */
+    public static CalendarioOcupacion desdeRangos(LocalDate origen, int dias, List<Object[]> rangos) {
+        BitSet noches = new BitSet(dias);
+        for (Object[] row : rangos) {
+            int desde = (int) Math.max(0, ChronoUnit.DAYS.between(origen, (LocalDate) row[0]));
+            int hasta = (int) Math.min(dias, ChronoUnit.DAYS.between(origen, (LocalDate) row[1]));
+            if (desde < hasta) {
+                noches.set(desde, hasta);
+            }
+        }
+        return new CalendarioOcupacion(origen, dias, noches);
+    }
+
+    public LocalDate origen() {
+        return origen;
+    }
+
+    /** Indica si [desde, hasta) cae dentro de la ventana del calendario. */
+    public boolean cubre(LocalDate desde, LocalDate hasta) {
+        return !desde.isBefore(origen) && ChronoUnit.DAYS.between(origen, hasta) <= dias;
+    }
+
+    /** Tramos de noches ocupadas consecutivas dentro de [desde, hasta), que debe estar cubierto. */
+    public List<RangoBloqueadoDTO> tramos(LocalDate desde, LocalDate hasta) {
+        int inicio = (int) ChronoUnit.DAYS.between(origen, desde);
+        int fin = (int) ChronoUnit.DAYS.between(origen, hasta);
+        List<RangoBloqueadoDTO> tramos = new ArrayList<>();
+        for (int i = noches.nextSetBit(inicio); i >= 0 && i < fin; i = noches.nextSetBit(i)) {
+            int libre = Math.min(fin, noches.nextClearBit(i));
+            tramos.add(new RangoBloqueadoDTO(origen.plusDays(i), origen.plusDays(libre)));
+            i = libre;
+        }
+        return tramos;
+    }
+}
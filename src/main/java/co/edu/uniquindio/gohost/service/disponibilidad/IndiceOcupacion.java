@@ -0,0 +1,187 @@
+package co.edu.uniquindio.gohost.service.disponibilidad;
+
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
+import co.edu.uniquindio.gohost.event.ReservasCambiadasEvent;
+import co.edu.uniquindio.gohost.repository.ReservaRepository;
+import co.edu.uniquindio.gohost.service.indice.ReconstruccionIndice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Índice en memoria de noches ocupadas por alojamiento.
+ *
+ * Cada alojamiento con reservas activas (no eliminadas y no CANCELADAS) tiene un {@link BitSet}
+ * donde el bit {@code i} representa la noche {@code origen + i}, dentro de un horizonte móvil
+ * de {@code app.disponibilidad.horizonte-dias} días.
+ *
+ * - Se construye al arrancar y se reconstruye cada madrugada (desplaza el horizonte).
+ * - Se actualiza con {@link ReservaCambiadaEvent} (o {@link ReservasCambiadasEvent} para los
+ *   lotes) una vez confirmada la transacción.
+ * - Los BitSet publicados nunca se mutan: cada cambio reemplaza una copia (copy-on-write),
+ *   así las lecturas no necesitan bloqueo.
+ *
+ * Si el rango consultado cae fuera del horizonte o el índice aún no está listo,
+ * las consultas devuelven {@link Optional#empty()} y el llamador debe ir a la BD.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceOcupacion {
+
+    private final ReservaRepository reservaRepository;
+
+    @Value("${app.disponibilidad.horizonte-dias:365}")
+    private int horizonteDias;
+
+    /** Estado publicado y cambios recibidos durante una reconstrucción. */
+    private final ReconstruccionIndice<Estado, ReservaCambiadaEvent> reconstruccion =
+            new ReconstruccionIndice<>("el índice de ocupación", IndiceOcupacion::aplicar);
+
+    private record Estado(LocalDate origen, int horizonte, ConcurrentHashMap<UUID, BitSet> noches) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconstruir();
+    }
+
+    /**
+     * Reconstruye el índice completo desde las reservas activas.
+     * Los cambios que lleguen mientras tanto se re-aplican antes de publicar el nuevo estado.
+     */
+    @Scheduled(cron = "${app.disponibilidad.cron-reconstruccion:0 15 0 * * *}")
+    public void reconstruir() {
+        reconstruccion.reconstruir(() -> {
+            LocalDate origen = LocalDate.now();
+            int horizonte = Math.max(1, horizonteDias);
+            ConcurrentHashMap<UUID, BitSet> noches = new ConcurrentHashMap<>();
+            for (Object[] row : reservaRepository.findRangosActivosDesde(origen)) {
+                BitSet bits = noches.computeIfAbsent((UUID) row[0], id -> new BitSet());
+                marcar(bits, origen, horizonte, (LocalDate) row[1], (LocalDate) row[2], true);
+            }
+            return new Estado(origen, horizonte, noches);
+        }).ifPresent(e -> log.info("Índice de ocupación construido: {} alojamientos, horizonte {} días",
+                e.noches().size(), e.horizonte()));
+    }
+
+    /** Aplica el cambio de una reserva una vez confirmado (o de inmediato si no hay transacción). */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservaCambiada(ReservaCambiadaEvent ev) {
+        reconstruccion.aplicar(ev);
+    }
+
+    /** Aplica cada reserva de un lote confirmado. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservasCambiadas(ReservasCambiadasEvent ev) {
+        ev.cambios().forEach(reconstruccion::aplicar);
+    }
+
+    /**
+     * Alojamientos con al menos una noche ocupada en [inicio, fin).
+     *
+     * @return ids ocupados, o vacío si el índice no puede responder para ese rango
+     */
+    public Optional<Set<UUID>> alojamientosOcupados(LocalDate inicio, LocalDate fin) {
+        Estado e = reconstruccion.estado();
+        if (e == null || !cubre(e, inicio, fin)) {
+            return Optional.empty();
+        }
+        int desde = offset(e, inicio);
+        int hasta = offset(e, fin);
+        Set<UUID> ocupados = new HashSet<>();
+        e.noches().forEach((id, bits) -> {
+            if (ocupado(bits, desde, hasta)) {
+                ocupados.add(id);
+            }
+        });
+        return Optional.of(ocupados);
+    }
+
+    /**
+     * Indica si un alojamiento está libre en [inicio, fin).
+     *
+     * @return true/false, o vacío si el índice no puede responder para ese rango
+     */
+    public Optional<Boolean> estaDisponible(UUID alojamientoId, LocalDate inicio, LocalDate fin) {
+        return disponibles(inicio, fin).map(libre -> libre.test(alojamientoId));
+    }
+
+    /**
+     * Predicado "libre en [inicio, fin)" sobre el estado vigente al llamar: solo consulta
+     * los alojamientos que se le pregunten, sin recorrer el índice completo.
+     *
+     * @return el predicado, o vacío si el índice no puede responder para ese rango
+     */
+    public Optional<Predicate<UUID>> disponibles(LocalDate inicio, LocalDate fin) {
+        Estado e = reconstruccion.estado();
+        if (e == null || !cubre(e, inicio, fin)) {
+            return Optional.empty();
+        }
+        int desde = offset(e, inicio);
+        int hasta = offset(e, fin);
+        return Optional.of(id -> {
+            BitSet bits = e.noches().get(id);
+            return bits == null || !ocupado(bits, desde, hasta);
+        });
+    }
+
+    // ---------- Utilidades ----------
+
+    private static Estado aplicar(Estado e, ReservaCambiadaEvent ev) {
+        e.noches().compute(ev.alojamientoId(), (id, actual) -> {
+            BitSet copia = actual == null ? new BitSet() : (BitSet) actual.clone();
+            if (ev.activaAntes()) {
+                marcar(copia, e.origen(), e.horizonte(), ev.checkInAnterior(), ev.checkOutAnterior(), false);
+            }
+            if (ev.activaAhora()) {
+                marcar(copia, e.origen(), e.horizonte(), ev.checkIn(), ev.checkOut(), true);
+            }
+            return copia.isEmpty() ? null : copia;
+        });
+        return e;
+    }
+
+    /** Marca o libera las noches [in, out) recortadas al horizonte. */
+    private static void marcar(BitSet bits, LocalDate origen, int horizonte,
+                               LocalDate in, LocalDate out, boolean valor) {
+        if (in == null || out == null) {
+            return;
+        }
+        int desde = (int) Math.max(0, ChronoUnit.DAYS.between(origen, in));
+        int hasta = (int) Math.min(horizonte, ChronoUnit.DAYS.between(origen, out));
+        if (desde < hasta) {
+            bits.set(desde, hasta, valor);
+        }
+    }
+
+    private static boolean ocupado(BitSet bits, int desde, int hasta) {
+        int siguiente = bits.nextSetBit(desde);
+        return siguiente >= 0 && siguiente < hasta;
+    }
+
+    private static boolean cubre(Estado e, LocalDate inicio, LocalDate fin) {
+        return inicio != null && fin != null
+                && !inicio.isBefore(e.origen())
+                && offset(e, fin) <= e.horizonte();
+    }
+
+    private static int offset(Estado e, LocalDate fecha) {
+        return (int) ChronoUnit.DAYS.between(e.origen(), fecha);
+    }
+}
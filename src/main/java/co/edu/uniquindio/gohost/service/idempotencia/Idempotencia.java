@@ -0,0 +1,111 @@
+package co.edu.uniquindio.gohost.service.idempotencia;
+
+import co.edu.uniquindio.gohost.dto.EstadisticasCacheDTO;
+import co.edu.uniquindio.gohost.service.cache.CacheLectura;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Contrato {@code Idempotency-Key} para POST que crean recursos (reservas, mensajes).
+ *
+ * Por usuario y clave la operación se ejecuta una sola vez; los reintentos reciben la misma
+ * respuesta sin repetirla. Las respuestas viven en una {@link CacheLectura} acotada y en la tabla
+ * {@code clave_idempotencia}:
+ *
+ * - Duplicado en curso en este nodo: la carga única de la caché lo hace esperar a la primera ejecución.
+ * - Duplicado ya completado: se responde desde la caché o, si salió de ella, con una lectura por PK.
+ * - Duplicado concurrente en otro nodo: espera en el INSERT de la clave hasta que la primera confirme.
+ *
+ * Si la operación falla no se guarda nada y un reintento con la misma clave vuelve a ejecutarla.
+ * Reutilizar una clave con otra petición (otra operación u otro cuerpo) es un error.
+ */
+@Component
+public class Idempotencia {
+
+    public static final String CABECERA = "Idempotency-Key";
+    private static final int MAX_LONGITUD_CLAVE = 255;
+
+    private final RegistroIdempotencia registro;
+    private final ObjectMapper objectMapper;
+    private final CacheLectura<String, RespuestaIdempotente> respuestas;
+
+    public Idempotencia(RegistroIdempotencia registro,
+                        ObjectMapper objectMapper,
+                        @Value("${app.idempotencia.max-entradas:10000}") int maxEntradas,
+                        @Value("${app.idempotencia.ttl-segundos:900}") long ttlSegundos) {
+        this.registro = registro;
+        this.objectMapper = objectMapper;
+        this.respuestas = new CacheLectura<>("idempotencia", maxEntradas, Duration.ofSeconds(ttlSegundos));
+    }
+
+    /**
+     * Ejecuta {@code operacion} una sola vez por (usuario, clave) y devuelve su respuesta.
+     * Sin clave la ejecuta directamente.
+     *
+     * @param nombre   nombre estable de la operación (p. ej. "POST /api/reservas")
+     * @param peticion cuerpo de la petición; con la operación forma la huella que se compara en los reintentos
+     * @param tipo     tipo de la respuesta (se guarda y se repite como JSON)
+     */
+    public <T> T ejecutar(UUID usuarioId, String clave, String nombre, Object peticion,
+                          Class<T> tipo, Supplier<T> operacion) {
+        if (clave == null || clave.isBlank()) {
+            return operacion.get();
+        }
+        if (clave.length() > MAX_LONGITUD_CLAVE) {
+            throw new IllegalArgumentException(CABECERA + " admite como máximo " + MAX_LONGITUD_CLAVE + " caracteres");
+        }
+        String huella = huella(nombre, peticion);
+
+        RespuestaIdempotente respuesta = respuestas.obtener(usuarioId + ":" + clave,
+                k -> registro.buscar(usuarioId, clave)
+                        .or(() -> registro.ejecutar(usuarioId, clave, nombre, huella, () -> json(operacion.get())))
+                        // Otro nodo la confirmó mientras esperábamos en el INSERT
+                        .or(() -> registro.buscar(usuarioId, clave))
+                        .orElseThrow(() -> new IllegalStateException("No se pudo registrar la " + CABECERA)));
+
+        if (!respuesta.huella().equals(huella)) {
+            throw new IllegalArgumentException("La " + CABECERA + " ya se usó con otra petición");
+        }
+        try {
+            return objectMapper.readValue(respuesta.json(), tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Respuesta guardada ilegible para la " + CABECERA, e);
+        }
+    }
+
+    public EstadisticasCacheDTO estadisticas() {
+        return respuestas.estadisticas();
+    }
+
+    // ---------- Utilidades ----------
+
+    private String json(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    private String huella(String nombre, Object peticion) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(nombre.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) '\n');
+            sha.update(json(peticion).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
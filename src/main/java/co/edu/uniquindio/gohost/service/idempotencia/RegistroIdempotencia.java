@@ -0,0 +1,61 @@
+package co.edu.uniquindio.gohost.service.idempotencia;
+
+import co.edu.uniquindio.gohost.model.ClaveIdempotencia;
+import co.edu.uniquindio.gohost.repository.ClaveIdempotenciaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Parte persistente de {@link Idempotencia}: la clave y la respuesta se guardan en la misma
+ * transacción que la operación, así nunca queda una operación hecha sin su respuesta ni al revés.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RegistroIdempotencia {
+
+    private final ClaveIdempotenciaRepository claveRepository;
+
+    @Value("${app.idempotencia.horas-retencion:24}")
+    private int horasRetencion;
+
+    @Transactional(readOnly = true)
+    public Optional<RespuestaIdempotente> buscar(UUID usuarioId, String clave) {
+        return claveRepository.findById(new ClaveIdempotencia.Id(usuarioId, clave))
+                .map(c -> new RespuestaIdempotente(c.getHuella(), c.getRespuesta()));
+    }
+
+    /**
+     * Reserva la clave, ejecuta la operación (que se une a esta transacción) y guarda su respuesta.
+     * Devuelve vacío, sin ejecutar nada, si la clave ya estaba confirmada por otra petición.
+     */
+    @Transactional
+    public Optional<RespuestaIdempotente> ejecutar(UUID usuarioId, String clave, String operacion,
+                                                   String huella, Supplier<String> operacionJson) {
+        if (claveRepository.reservar(usuarioId, clave, operacion, huella) == 0) {
+            return Optional.empty();
+        }
+        String json = operacionJson.get();
+        claveRepository.guardarRespuesta(usuarioId, clave, json);
+        return Optional.of(new RespuestaIdempotente(huella, json));
+    }
+
+    /** Borra las claves de más de {@code app.idempotencia.horas-retencion} horas. */
+    @Scheduled(cron = "${app.idempotencia.cron-purga:0 55 * * * *}")
+    @Transactional
+    public void purgar() {
+        int borradas = claveRepository.purgar(LocalDateTime.now().minusHours(horasRetencion));
+        if (borradas > 0) {
+            log.info("Idempotencia: {} claves vencidas borradas", borradas);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package co.edu.uniquindio.gohost.service.idempotencia;
+
+/**
+ * Respuesta guardada para una clave: huella de la petición original y cuerpo JSON.
+ */
+public record RespuestaIdempotente(String huella, String json) {}
@@ -1,6 +1,8 @@
 package co.edu.uniquindio.gohost.service.impl;
 
+import co.edu.uniquindio.gohost.dto.CursorPageDTO;
 import co.edu.uniquindio.gohost.dto.alojamientosDtos.*;
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
 import co.edu.uniquindio.gohost.exception.SecurityException;
 import jakarta.persistence.EntityNotFoundException;
 import co.edu.uniquindio.gohost.model.Alojamiento;
@@ -8,30 +10,61 @@ import co.edu.uniquindio.gohost.model.Direccion;
 import co.edu.uniquindio.gohost.model.Rol;
 import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
 import co.edu.uniquindio.gohost.model.Usuario;
+import co.edu.uniquindio.gohost.repository.AlojamientoMetricasRepository;
 import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
 import co.edu.uniquindio.gohost.repository.ReservaRepository;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
 import co.edu.uniquindio.gohost.service.AlojamientoService;
+import co.edu.uniquindio.gohost.service.busqueda.CandidatoRanking;
+import co.edu.uniquindio.gohost.service.busqueda.Cercano;
+import co.edu.uniquindio.gohost.service.cache.CacheAlojamientos;
+import co.edu.uniquindio.gohost.service.catalogo.CatalogoAlojamientos;
+import co.edu.uniquindio.gohost.service.busqueda.Geo;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceCiudades;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceGeografico;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceMapa;
+import co.edu.uniquindio.gohost.service.busqueda.RankingAlojamientos;
+import co.edu.uniquindio.gohost.service.disponibilidad.CalendarioOcupacion;
+import co.edu.uniquindio.gohost.service.disponibilidad.IndiceOcupacion;
 import co.edu.uniquindio.gohost.service.geocoding.GeocodingService;
-import co.edu.uniquindio.gohost.service.mail.MailService;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
 import co.edu.uniquindio.gohost.service.mail.MailTemplates;
+import co.edu.uniquindio.gohost.service.paginacion.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -47,11 +80,41 @@ import java.util.stream.Collectors;
 @Transactional
 public class AlojamientoServiceImpl implements AlojamientoService {
 
+    /** Id que no existe; se usa cuando no hay alojamientos a excluir (evita un "not in ()" vacío). */
+    private static final List<UUID> SIN_EXCLUIDOS = List.of(new UUID(0L, 0L));
+    /** Límites de rango de métricas cuando el filtro no trae una de las fechas. */
+    private static final LocalDate PRIMER_DIA = LocalDate.EPOCH;
+    private static final LocalDate ULTIMO_DIA = LocalDate.of(9999, 12, 31);
+    /** Rango máximo de una serie de métricas. */
+    private static final long MAX_DIAS_SERIE = 366L * 5;
+    /** Rango máximo del calendario de disponibilidad. */
+    private static final long MAX_DIAS_CALENDARIO = 731;
+    /** Agrupación de la serie -> unidad de date_trunc en PostgreSQL. */
+    private static final Map<String, String> PERIODOS_SERIE = Map.of("dia", "day", "semana", "week", "mes", "month");
+
     private final AlojamientoRepository alojamientoRepository;
     private final UsuarioRepository usuarioRepository;
     private final ReservaRepository reservaRepository;
+    private final AlojamientoMetricasRepository metricasRepository;
     private final GeocodingService geocodingService;
-    private final MailService mailService;
+    private final BandejaSalida bandejaSalida;
+    private final IndiceOcupacion indiceOcupacion;
+    private final IndiceCiudades indiceCiudades;
+    private final IndiceGeografico indiceGeografico;
+    private final IndiceMapa indiceMapa;
+    private final RankingAlojamientos rankingAlojamientos;
+    private final CacheAlojamientos cacheAlojamientos;
+    private final CatalogoAlojamientos catalogoAlojamientos;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.busqueda.cubetas-precio:10}")
+    private int cubetasPrecio;
+
+    @Value("${app.calendario.ventana-dias:400}")
+    private int ventanaCalendario;
+
+    @Value("${app.ranking.max-candidatos:1000}")
+    private int maxCandidatos;
     /**
      * Crea un alojamiento para el anfitrión indicado.
      */
@@ -81,32 +144,38 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         // 4) Asociar y persistir
         alojamiento.setAnfitrion(anfitrion);
         Alojamiento guardado = alojamientoRepository.save(alojamiento);
-        try {
-            log.info("Enviando correo de 'Alojamiento creado' al anfitrión {}", anfitrion.getEmail());
-            mailService.sendAsync(MailTemplates.alojamientoCreadoAnfitrion(anfitrion, guardado));
-        } catch (Exception e) {
-            log.error("Error enviando correo de 'Alojamiento creado' para alojamiento {}: {}", guardado.getId(), e.getMessage(), e);
-        }
+        eventPublisher.publishEvent(AlojamientoCambiadoEvent.creado(guardado));
+        bandejaSalida.encolar(MailTemplates.alojamientoCreadoAnfitrion(anfitrion, guardado));
         return guardado;
     }
 
     /**
      * Lista paginada de alojamientos.
      * Devuelve DTO para evitar LazyInitializationException.
+     * Se sirve desde el catálogo en memoria; sin él, desde la BD.
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Page<AlojamientoResDTO> listar(Pageable pageable) {
-        // Evitar fetch join de colección con paginación (causa errores en Hibernate)
-        // Mapear explícitamente el contenido para materializar las colecciones lazy
-        Page<Alojamiento> page = alojamientoRepository.findAll(pageable);
-        List<AlojamientoResDTO> content = page.getContent()
-                .stream()
-                .map(this::toRes)
-                .collect(Collectors.toList());
-        return new PageImpl<>(content, pageable, page.getTotalElements());
+        // Evitar fetch join de colección con paginación (causa errores en Hibernate):
+        // se pagina sobre las filas y luego se hidratan las colecciones en lote
+        return catalogoAlojamientos.listar(pageable)
+                .orElseGet(() -> hidratar(alojamientoRepository.findAll(pageable)));
     }
 
+    /**
+     * Lista por cursor (fechaCreacion DESC, id DESC).
+     * Sin OFFSET ni COUNT: cada página lee {@code size + 1} filas del índice a partir del cursor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AlojamientoResDTO> listarPorCursor(String cursor, int size) {
+        KeysetCursor<LocalDateTime> desde = KeysetCursor.deFechaHora(cursor);
+        int tamano = KeysetCursor.tamano(size);
+        List<Alojamiento> filas = alojamientoRepository.findAllKeyset(
+                desde != null ? desde.clave() : null, desde != null ? desde.id() : null, Limit.of(tamano + 1));
+        return paginaPorCursor(filas, tamano);
+    }
 
     /**
      * Lista alojamientos de un anfitrión (verifica existencia).
@@ -118,19 +187,135 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         if (!usuarioRepository.existsById(anfitrionId)) {
             throw new EntityNotFoundException("Anfitrión no encontrado: " + anfitrionId);
         }
-        return alojamientoRepository.findByAnfitrionIdWithFotos(anfitrionId, pageable).map(this::toRes);
+        return hidratar(alojamientoRepository.findByAnfitrionId(anfitrionId, pageable));
     }
 
     /**
      * Obtiene un alojamiento por id.
      * Devuelve DTO para evitar LazyInitializationException.
+     * Se sirve desde el catálogo en memoria o, si no está, desde la caché de detalle; SUPPORTS
+     * evita abrir transacción (y tomar una conexión del pool) cuando la respuesta ya está en memoria.
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public AlojamientoResDTO obtener(UUID id) {
+        return catalogoAlojamientos.obtener(id)
+                .orElseGet(() -> cacheAlojamientos.detalle(id, this::cargarDetalle));
+    }
+
+    /**
+     * Carga del detalle cuando no está en memoria. Puede correr sin transacción (SUPPORTS y
+     * open-in-view desactivado), así que no toca colecciones lazy: las fotos vienen en el
+     * JOIN FETCH y los servicios con su propia consulta.
+     */
+    private AlojamientoResDTO cargarDetalle(UUID id) {
         Alojamiento a = alojamientoRepository.findByIdWithFotos(id)
                 .orElseThrow(() -> new EntityNotFoundException("Alojamiento no encontrado: " + id));
-        return toRes(a);
+        List<ServicioAlojamiento> servicios = new ArrayList<>();
+        for (Object[] row : alojamientoRepository.findServiciosByAlojamientoIds(List.of(id))) {
+            servicios.add((ServicioAlojamiento) row[1]);
+        }
+        return toRes(a, a.getFotos() == null ? List.of() : new ArrayList<>(a.getFotos()), servicios);
+    }
+
+    /**
+     * Calendario de noches bloqueadas. Dentro de la ventana cacheada (hoy + app.calendario.ventana-dias)
+     * se responde desde la caché por alojamiento; fuera de ella se consulta solo el rango pedido.
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CalendarioDTO calendario(UUID id, LocalDate desde, LocalDate hasta) {
+        LocalDate inicio = desde != null ? desde : LocalDate.now();
+        LocalDate fin = hasta != null ? hasta : inicio.plusYears(1);
+        if (!fin.isAfter(inicio)) {
+            throw new IllegalArgumentException("hasta debe ser posterior a desde");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fin) > MAX_DIAS_CALENDARIO) {
+            throw new IllegalArgumentException("El rango del calendario no puede superar " + MAX_DIAS_CALENDARIO + " días");
+        }
+        obtener(id); // 404 si no existe
+
+        CalendarioOcupacion cal = cacheAlojamientos.calendario(id, this::cargarCalendario);
+        if (!cal.cubre(inicio, fin)) {
+            int dias = (int) ChronoUnit.DAYS.between(inicio, fin);
+            cal = CalendarioOcupacion.desdeRangos(inicio, dias, reservaRepository.findRangosActivos(id, inicio, fin));
+        }
+        List<RangoBloqueadoDTO> bloqueos = cal.tramos(inicio, fin);
+        int noches = bloqueos.stream()
+                .mapToInt(t -> (int) ChronoUnit.DAYS.between(t.desde(), t.hasta()))
+                .sum();
+        return new CalendarioDTO(id, inicio, fin, noches, bloqueos);
+    }
+
+    /**
+     * Responde cada consulta desde el índice de ocupación en memoria; las que no puede responder
+     * (índice sin construir o fechas fuera del horizonte) se resuelven juntas con una sola consulta
+     * de los rangos activos de esos alojamientos.
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public DisponibilidadLoteResDTO disponibilidadLote(DisponibilidadLoteDTO lote) {
+        List<ConsultaDisponibilidadDTO> consultas = lote.consultas();
+        LocalDate hoy = LocalDate.now();
+        BitSet disponibles = new BitSet(consultas.size());
+        List<Integer> pendientes = new ArrayList<>();
+
+        for (int i = 0; i < consultas.size(); i++) {
+            ConsultaDisponibilidadDTO c = consultas.get(i);
+            if (!c.rangoValido(hoy)) {
+                continue;
+            }
+            Optional<Boolean> libre = indiceOcupacion.estaDisponible(c.alojamientoId(), c.checkIn(), c.checkOut());
+            if (libre.isEmpty()) {
+                pendientes.add(i);
+            } else if (libre.get()) {
+                disponibles.set(i);
+            }
+        }
+
+        if (!pendientes.isEmpty()) {
+            resolverPendientes(consultas, pendientes, disponibles);
+        }
+
+        StringBuilder mapa = new StringBuilder(consultas.size());
+        for (int i = 0; i < consultas.size(); i++) {
+            mapa.append(disponibles.get(i) ? '1' : '0');
+        }
+        return new DisponibilidadLoteResDTO(consultas.size(), disponibles.cardinality(), mapa.toString());
+    }
+
+    private void resolverPendientes(List<ConsultaDisponibilidadDTO> consultas, List<Integer> pendientes,
+                                    BitSet disponibles) {
+        Set<UUID> ids = new HashSet<>();
+        LocalDate inicio = null;
+        LocalDate fin = null;
+        for (int i : pendientes) {
+            ConsultaDisponibilidadDTO c = consultas.get(i);
+            ids.add(c.alojamientoId());
+            inicio = inicio == null || c.checkIn().isBefore(inicio) ? c.checkIn() : inicio;
+            fin = fin == null || c.checkOut().isAfter(fin) ? c.checkOut() : fin;
+        }
+
+        Map<UUID, List<LocalDate[]>> ocupados = new HashMap<>();
+        for (Object[] row : reservaRepository.findRangosActivosDe(ids, inicio, fin)) {
+            ocupados.computeIfAbsent((UUID) row[0], k -> new ArrayList<>())
+                    .add(new LocalDate[]{(LocalDate) row[1], (LocalDate) row[2]});
+        }
+
+        for (int i : pendientes) {
+            ConsultaDisponibilidadDTO c = consultas.get(i);
+            boolean traslapa = ocupados.getOrDefault(c.alojamientoId(), List.of()).stream()
+                    .anyMatch(r -> r[0].isBefore(c.checkOut()) && r[1].isAfter(c.checkIn()));
+            if (!traslapa) {
+                disponibles.set(i);
+            }
+        }
+    }
+
+    private CalendarioOcupacion cargarCalendario(UUID id) {
+        LocalDate hoy = LocalDate.now();
+        int dias = Math.max(1, ventanaCalendario);
+        return CalendarioOcupacion.desdeRangos(hoy, dias, reservaRepository.findRangosActivos(id, hoy, hoy.plusDays(dias)));
     }
 
     /**
@@ -140,6 +325,7 @@ public class AlojamientoServiceImpl implements AlojamientoService {
     @Override
     public AlojamientoResDTO actualizar(UUID id, Alojamiento parcial) {
         Alojamiento existente = obtenerEntidad(id); // método auxiliar privado
+        String ciudadPrevia = AlojamientoCambiadoEvent.ciudadActiva(existente);
 
         if (StringUtils.hasText(parcial.getTitulo())) {
             existente.setTitulo(parcial.getTitulo());
@@ -167,6 +353,7 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         }
 
         Alojamiento guardado = alojamientoRepository.save(existente);
+        eventPublisher.publishEvent(AlojamientoCambiadoEvent.modificado(guardado, ciudadPrevia));
         // recargamos con fotos antes de mapear
         return toRes(alojamientoRepository.findByIdWithFotos(guardado.getId()).orElseThrow());
     }
@@ -188,28 +375,52 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         }
         
         // Soft delete: marcar como inactivo
+        String ciudadPrevia = AlojamientoCambiadoEvent.ciudadActiva(alojamiento);
         alojamiento.setActivo(false);
         alojamientoRepository.save(alojamiento);
+        eventPublisher.publishEvent(AlojamientoCambiadoEvent.modificado(alojamiento, ciudadPrevia));
     }
 
 
     /**
      * Búsqueda flexible con filtros.
      * Devuelve DTO para evitar LazyInitializationException.
+     * Los resultados se sirven desde la caché de búsquedas (TTL corto, invalidada por escrituras).
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Page<AlojamientoResDTO> buscar(String ciudad, Integer capacidad, Pageable pageable) {
         boolean sinCiudad = !StringUtils.hasText(ciudad);
         boolean sinCapacidad = (capacidad == null);
 
-        Page<Alojamiento> page;
-        if (sinCiudad && sinCapacidad) {
-            page = alojamientoRepository.findAllWithFotos(pageable);
-        } else {
-            page = alojamientoRepository.searchWithFotos(sinCiudad ? null : ciudad, capacidad, pageable);
-        }
-        return page.map(this::toRes);
+        return cacheAlojamientos.busqueda(CacheAlojamientos.claveBusqueda(ciudad, capacidad, pageable), false, () -> {
+            if (sinCiudad && sinCapacidad) {
+                return catalogoAlojamientos.listar(pageable)
+                        .orElseGet(() -> hidratar(alojamientoRepository.findAll(pageable)));
+            }
+            String termino = sinCiudad ? null : ciudad.trim();
+            return catalogoAlojamientos.buscar(termino, capacidad, null, null, 0L, null, pageable)
+                    .orElseGet(() -> hidratar(alojamientoRepository.search(termino, capacidad, pageable)));
+        });
+    }
+
+    /**
+     * Búsqueda flexible por cursor (fechaCreacion DESC, id DESC).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AlojamientoResDTO> buscarPorCursor(String ciudad, Integer capacidad, String cursor, int size) {
+        KeysetCursor<LocalDateTime> desde = KeysetCursor.deFechaHora(cursor);
+        int tamano = KeysetCursor.tamano(size);
+        List<Alojamiento> filas = alojamientoRepository.searchKeyset(
+                StringUtils.hasText(ciudad) ? ciudad : null, capacidad,
+                desde != null ? desde.clave() : null, desde != null ? desde.id() : null, Limit.of(tamano + 1));
+        return paginaPorCursor(filas, tamano);
+    }
+
+    private CursorPageDTO<AlojamientoResDTO> paginaPorCursor(List<Alojamiento> filas, int tamano) {
+        return CursorPageDTO.deLote(filas, tamano, this::hidratar,
+                a -> KeysetCursor.codificar(a.getFechaCreacion(), a.getId()));
     }
 
     /**
@@ -253,7 +464,10 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         // Copiar colecciones lazy para materializarlas dentro de la transacción
         List<String> fotos = a.getFotos() == null ? List.of() : new ArrayList<>(a.getFotos());
         List<ServicioAlojamiento> servicios = a.getServicios() == null ? List.of() : new ArrayList<>(a.getServicios());
+        return toRes(a, fotos, servicios);
+    }
 
+    private AlojamientoResDTO toRes(Alojamiento a, List<String> fotos, List<ServicioAlojamiento> servicios) {
         return new AlojamientoResDTO(
                 a.getId(),
                 a.getTitulo(),
@@ -266,6 +480,39 @@ public class AlojamientoServiceImpl implements AlojamientoService {
                 a.getAnfitrion() == null ? null : a.getAnfitrion().getId()
         );
     }
+
+    /**
+     * Hidratación en lote de una página: las filas llegan sin colecciones inicializadas y
+     * fotos/servicios se cargan para todos los ids con una consulta IN por colección.
+     * El id del anfitrión se lee de la FK de la fila (no inicializa el proxy), así una página
+     * cuesta siempre: filas (+ conteo) + fotos + servicios, sin importar su tamaño.
+     */
+    private List<AlojamientoResDTO> hidratar(List<Alojamiento> filas) {
+        if (filas.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = filas.stream().map(Alojamiento::getId).toList();
+
+        Map<UUID, List<String>> fotos = new HashMap<>();
+        for (Object[] row : alojamientoRepository.findFotosByAlojamientoIds(ids)) {
+            fotos.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        Map<UUID, List<ServicioAlojamiento>> servicios = new HashMap<>();
+        for (Object[] row : alojamientoRepository.findServiciosByAlojamientoIds(ids)) {
+            servicios.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((ServicioAlojamiento) row[1]);
+        }
+
+        return filas.stream()
+                .map(a -> toRes(a,
+                        fotos.getOrDefault(a.getId(), List.of()),
+                        servicios.getOrDefault(a.getId(), List.of())))
+                .toList();
+    }
+
+    private Page<AlojamientoResDTO> hidratar(Page<Alojamiento> page) {
+        return new PageImpl<>(hidratar(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
     /**
      * Método auxiliar para obtener la entidad sin exponerla.
      * Usado internamente por actualizar.
@@ -318,6 +565,7 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         if (!existente.getActivo()) {
             throw new IllegalStateException("No se puede editar un alojamiento inactivo");
         }
+        String ciudadPrevia = AlojamientoCambiadoEvent.ciudadActiva(existente);
 
         // Validar que el usuario sea el propietario del alojamiento
         if (!existente.getAnfitrion().getId().equals(anfitrionId)) {
@@ -354,12 +602,82 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         }
 
         Alojamiento guardado = alojamientoRepository.save(existente);
+        eventPublisher.publishEvent(AlojamientoCambiadoEvent.modificado(guardado, ciudadPrevia));
         // recargamos con fotos antes de mapear
         return toRes(alojamientoRepository.findByIdWithFotos(guardado.getId()).orElseThrow());
     }
 
+    /**
+     * Actualización por lote: una consulta valida existencia/propiedad/estado de todos los ids y los
+     * cambios válidos se aplican con UPDATEs en lotes JDBC, sin cargar entidades ni tocar fotos.
+     * Publica un {@link AlojamientoCambiadoEvent} por alojamiento actualizado.
+     */
     @Override
-    @Transactional(readOnly = true)
+    public ActualizacionLoteResDTO actualizarEnLote(ActualizacionLoteDTO lote, UUID anfitrionId) {
+        List<CambioAlojamientoDTO> cambios = lote.cambios();
+        Set<UUID> ids = cambios.stream().map(CambioAlojamientoDTO::id).collect(Collectors.toSet());
+        Map<UUID, Object[]> estados = new HashMap<>();
+        for (Object[] fila : alojamientoRepository.findEstadoParaLote(ids)) {
+            estados.put((UUID) fila[0], fila);
+        }
+
+        ResultadoCambioDTO[] resultados = new ResultadoCambioDTO[cambios.size()];
+        List<Integer> posiciones = new ArrayList<>();
+        List<CambioAlojamientoDTO> validos = new ArrayList<>();
+        Set<UUID> vistos = new HashSet<>();
+        for (int i = 0; i < cambios.size(); i++) {
+            CambioAlojamientoDTO c = cambios.get(i);
+            Object[] estado = estados.get(c.id());
+            String error;
+            if (!vistos.add(c.id())) {
+                error = "Alojamiento repetido en el lote";
+            } else if (c.sinCambios()) {
+                error = "No hay cambios para aplicar";
+            } else if (estado == null) {
+                error = "Alojamiento no encontrado";
+            } else if (!anfitrionId.equals(estado[1])) {
+                error = "Solo el propietario puede editar este alojamiento";
+            } else if (!Boolean.TRUE.equals(estado[2])) {
+                error = "No se puede editar un alojamiento inactivo";
+            } else {
+                posiciones.add(i);
+                validos.add(c);
+                continue;
+            }
+            resultados[i] = new ResultadoCambioDTO(c.id(), false, error);
+        }
+
+        int actualizados = 0;
+        if (!validos.isEmpty()) {
+            int[] filas = alojamientoRepository.actualizarEnLote(anfitrionId, validos, LocalDateTime.now());
+            for (int j = 0; j < validos.size(); j++) {
+                CambioAlojamientoDTO c = validos.get(j);
+                if (filas[j] > 0) {
+                    actualizados++;
+                    resultados[posiciones.get(j)] = new ResultadoCambioDTO(c.id(), true, null);
+                    eventPublisher.publishEvent(eventoDeCambio(c, estados.get(c.id())));
+                } else {
+                    resultados[posiciones.get(j)] = new ResultadoCambioDTO(c.id(), false,
+                            "El alojamiento cambió durante la actualización");
+                }
+            }
+        }
+        log.info("Actualización por lote del anfitrión {}: {} de {} cambios aplicados",
+                anfitrionId, actualizados, cambios.size());
+        return new ActualizacionLoteResDTO(cambios.size(), actualizados, List.of(resultados));
+    }
+
+    /** Evento equivalente a {@link AlojamientoCambiadoEvent#modificado} armado desde la fila previa y el cambio. */
+    private static AlojamientoCambiadoEvent eventoDeCambio(CambioAlojamientoDTO c, Object[] previo) {
+        String ciudad = (String) previo[4];
+        boolean activo = c.activo() == null || c.activo();
+        BigDecimal precio = c.precioNoche() != null ? c.precioNoche() : (BigDecimal) previo[3];
+        return new AlojamientoCambiadoEvent(c.id(), ciudad, activo ? ciudad : null, activo,
+                (Double) previo[5], (Double) previo[6], precio);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Page<AlojamientoResDTO> busquedaAvanzada(FiltroAvanzadoDTO filtro) {
         // Validaciones del filtro
         if (!filtro.fechasValidas()) {
@@ -368,39 +686,79 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         if (!filtro.preciosValidos()) {
             throw new IllegalArgumentException("El rango de precios no es válido");
         }
+        if (!filtro.ordenValido()) {
+            throw new IllegalArgumentException("Orden no soportado (use 'relevancia')");
+        }
+
+        return cacheAlojamientos.busqueda(CacheAlojamientos.claveBusqueda(filtro), filtro.tieneFiltroFechas(),
+                () -> ejecutarBusquedaAvanzada(filtro));
+    }
 
+    /**
+     * Búsqueda avanzada más sus facetas (histograma de precios, capacidades y servicios),
+     * ambas cacheadas con la misma invalidación.
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public BusquedaFacetadaDTO busquedaFacetada(FiltroAvanzadoDTO filtro) {
+        Page<AlojamientoResDTO> resultados = busquedaAvanzada(filtro);
+        FacetasDTO facetas = cacheAlojamientos.facetas(CacheAlojamientos.claveFacetas(filtro), filtro.tieneFiltroFechas(),
+                () -> calcularFacetas(filtro));
+        return new BusquedaFacetadaDTO(resultados, facetas);
+    }
+
+    private Page<AlojamientoResDTO> ejecutarBusquedaAvanzada(FiltroAvanzadoDTO filtro) {
         int page = filtro.page() == null ? 0 : filtro.page();
         int size = filtro.size() == null ? 10 : filtro.size();
         Pageable pageable = PageRequest.of(page, size);
 
+        if (filtro.ordenPorRelevancia()) {
+            return busquedaPorRelevancia(filtro, noDisponibles(filtro), pageable);
+        }
+        if (filtro.tieneTexto()) {
+            return busquedaPorTexto(filtro, noDisponibles(filtro), pageable);
+        }
+
+        // En memoria la disponibilidad se pregunta solo por los alojamientos que pasan los demás filtros
+        Optional<Page<AlojamientoResDTO>> enMemoria = catalogoAlojamientos.buscar(
+                StringUtils.hasText(filtro.ciudad()) ? filtro.ciudad().trim() : null,
+                filtro.capacidad(),
+                filtro.precioMinimo(),
+                filtro.precioMaximo(),
+                ServicioAlojamiento.mascara(filtro.servicios()),
+                disponibilidad(filtro),
+                pageable);
+        if (enMemoria.isPresent()) {
+            return enMemoria.get();
+        }
+
+        // En SQL los no disponibles se excluyen en la consulta, antes de paginar
+        Collection<UUID> excluidos = noDisponibles(filtro);
         Page<Alojamiento> resultados;
 
-        // Si hay filtro por servicios, necesitamos una consulta más compleja
+        // Si hay filtro por servicios, se resuelve con la máscara de servicios en SQL
         if (filtro.tieneFiltroServicios()) {
-            resultados = busquedaConServicios(filtro, pageable);
+            resultados = busquedaConServicios(filtro, excluidos, pageable);
         } else {
             // Usar la consulta básica sin servicios
             resultados = alojamientoRepository.busquedaAvanzada(
-                    filtro.ciudad(),
+                    StringUtils.hasText(filtro.ciudad()) ? filtro.ciudad().trim() : null,
                     filtro.capacidad(),
                     filtro.precioMinimo(),
                     filtro.precioMaximo(),
+                    excluidos,
                     pageable
             );
         }
 
-        // Si hay filtro por fechas, aplicar filtro adicional
-        if (filtro.tieneFiltroFechas()) {
-            resultados = filtrarPorDisponibilidad(resultados, filtro.fechaInicio(), filtro.fechaFin());
-        }
-
-        return resultados.map(this::toRes);
+        return hidratar(resultados);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<String> obtenerCiudades() {
-        return alojamientoRepository.findDistinctCiudades();
+        return indiceCiudades.todas()
+                .orElseGet(alojamientoRepository::findDistinctCiudades);
     }
 
     @Override
@@ -409,43 +767,315 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         if (termino == null || termino.trim().isEmpty()) {
             return obtenerCiudades();
         }
-        return alojamientoRepository.buscarCiudades(termino.trim());
+        // Autocompletado desde el índice en memoria; la BD solo mientras no esté construido
+        return indiceCiudades.sugerir(termino)
+                .orElseGet(() -> alojamientoRepository.buscarCiudades(termino.trim()));
+    }
+
+    /**
+     * Búsqueda geográfica: el índice en memoria resuelve los K más cercanos y
+     * luego se hidratan solo esos alojamientos. Sin índice, se usa el rango lat/lon en SQL.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<AlojamientoGeoDTO> buscarGeo(FiltroGeoDTO filtro) {
+        if (!filtro.valido()) {
+            throw new IllegalArgumentException("Indique latitud, longitud y radioKm, o una caja latMin/latMax/lonMin/lonMax válida");
+        }
+        int k = filtro.limiteEfectivo();
+
+        List<Cercano> cercanos;
+        if (filtro.esRadio()) {
+            cercanos = indiceGeografico.enRadio(filtro.latitud(), filtro.longitud(), filtro.radioKm(), k)
+                    .orElseGet(() -> cercanosEnBD(Geo.cajaDeRadio(filtro.latitud(), filtro.longitud(), filtro.radioKm()),
+                            filtro.latitud(), filtro.longitud(), filtro.radioKm(), k));
+        } else {
+            double[] caja = {filtro.latMin(), filtro.latMax(), filtro.lonMin(), filtro.lonMax()};
+            cercanos = indiceGeografico.enCaja(caja[0], caja[1], caja[2], caja[3], k)
+                    .orElseGet(() -> cercanosEnBD(caja, (caja[0] + caja[1]) / 2, (caja[2] + caja[3]) / 2, null, k));
+        }
+        if (cercanos.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> ids = cercanos.stream().map(Cercano::alojamientoId).toList();
+        Map<UUID, AlojamientoResDTO> porId = new HashMap<>();
+        hidratar(alojamientoRepository.findAllById(ids)).forEach(dto -> porId.put(dto.id(), dto));
+
+        return cercanos.stream()
+                .filter(c -> porId.containsKey(c.alojamientoId()))
+                .map(c -> new AlojamientoGeoDTO(porId.get(c.alojamientoId()), c.latitud(), c.longitud(), c.distanciaKm()))
+                .toList();
+    }
+
+    /**
+     * Respaldo SQL de la búsqueda geográfica: rango lat/lon indexado, ordenado por distancia
+     * plana aproximada y limitado a K; la distancia exacta (y el corte por radio) se calcula aquí.
+     */
+    private List<Cercano> cercanosEnBD(double[] caja, double lat, double lon, Double radioKm, int k) {
+        return alojamientoRepository.findCoordenadasEnCaja(caja[0], caja[1], caja[2], caja[3],
+                        lat, lon, Geo.escalaLongitud(lat), Limit.of(k))
+                .stream()
+                .map(row -> {
+                    double pLat = ((Number) row[1]).doubleValue();
+                    double pLon = ((Number) row[2]).doubleValue();
+                    return new Cercano((UUID) row[0], pLat, pLon, Geo.haversineKm(lat, lon, pLat, pLon));
+                })
+                .filter(c -> radioKm == null || c.distanciaKm() <= radioKm)
+                .sorted(Comparator.comparingDouble(Cercano::distanciaKm))
+                .toList();
     }
 
     /**
-     * Búsqueda con filtro de servicios (requiere consulta más compleja).
+     * Clusters de una tesela desde el índice pre-agregado; sin índice, se agrupa en SQL
+     * con la misma rejilla. El zoom se acota al máximo pre-agregado ({@code app.mapa.zoom-max}).
      */
-    private Page<Alojamiento> busquedaConServicios(FiltroAvanzadoDTO filtro, Pageable pageable) {
-        // Por ahora, implementamos una versión simplificada
-        // En una implementación completa, se podría usar Criteria API o consultas nativas
-        Page<Alojamiento> resultados = alojamientoRepository.busquedaAvanzada(
-                filtro.ciudad(),
+    @Override
+    @Transactional(readOnly = true)
+    public List<ClusterMapaDTO> clustersDeTesela(int z, int x, int y) {
+        int zoomMaximo = indiceMapa.zoomMaximo();
+        if (z < 0 || z > zoomMaximo) {
+            throw new IllegalArgumentException("Zoom fuera de rango (0-" + zoomMaximo + ")");
+        }
+        long n = 1L << z;
+        if (x < 0 || x >= n || y < 0 || y >= n) {
+            throw new IllegalArgumentException("Tesela inexistente para el zoom " + z);
+        }
+        return indiceMapa.tesela(z, x, y).orElseGet(() -> clustersEnSql(z, x, y));
+    }
+
+    /** Respaldo de {@link IndiceMapa#tesela}: mismas celdas Mercator y misma regla del centroide. */
+    private List<ClusterMapaDTO> clustersEnSql(int z, int x, int y) {
+        long celdasPorLado = indiceMapa.celdasPorLado(z);
+        long[] rango = IndiceMapa.celdasDeTesela(z, x, y, celdasPorLado);
+        double[] lim = Geo.limitesTesela(z, x, y);
+        // En las teselas del borde, las latitudes fuera de la proyección caen en la primera/última fila
+        long ultima = (1L << z) - 1;
+        double latMin = y == ultima ? -90 : lim[0];
+        double latMax = y == 0 ? 90 : lim[1];
+        return alojamientoRepository.agruparEnCeldas(latMin, latMax, lim[2], lim[3], celdasPorLado,
+                        rango[0], rango[1], rango[2], rango[3], lim[0], lim[1]).stream()
+                .map(row -> new ClusterMapaDTO(
+                        ((Number) row[0]).doubleValue(),
+                        ((Number) row[1]).doubleValue(),
+                        ((Number) row[2]).longValue(),
+                        (BigDecimal) row[3]))
+                .toList();
+    }
+
+    /**
+     * Búsqueda por texto libre: una consulta con el índice de texto completo y los demás
+     * filtros devuelve la página (id, puntaje, fragmento); luego se hidratan esos ids
+     * conservando el orden por coincidencia.
+     */
+    private Page<AlojamientoResDTO> busquedaPorTexto(FiltroAvanzadoDTO filtro, Collection<UUID> excluidos, Pageable pageable) {
+        Page<Object[]> filas = alojamientoRepository.busquedaTexto(
+                filtro.q().trim(),
+                StringUtils.hasText(filtro.ciudad()) ? filtro.ciudad().trim() : null,
                 filtro.capacidad(),
                 filtro.precioMinimo(),
                 filtro.precioMaximo(),
-                pageable
-        );
+                ServicioAlojamiento.mascara(filtro.servicios()),
+                excluidos,
+                pageable);
+        if (filas.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, filas.getTotalElements());
+        }
+
+        List<UUID> ids = new ArrayList<>();
+        Map<UUID, String> resaltados = new HashMap<>();
+        for (Object[] fila : filas) {
+            UUID id = (UUID) fila[0];
+            ids.add(id);
+            resaltados.put(id, (String) fila[2]);
+        }
 
-        // Filtrar por servicios en memoria (no es la solución más eficiente para grandes volúmenes)
-        List<Alojamiento> filtrados = resultados.getContent().stream()
-                .filter(alojamiento -> filtro.servicios().stream()
-                        .allMatch(servicio -> alojamiento.getServicios().contains(servicio)))
+        Map<UUID, AlojamientoResDTO> porId = new HashMap<>();
+        hidratar(alojamientoRepository.findAllById(ids)).forEach(dto -> porId.put(dto.id(), dto));
+        List<AlojamientoResDTO> pagina = ids.stream()
+                .filter(porId::containsKey)
+                .map(id -> porId.get(id).conResaltado(resaltados.get(id)))
                 .toList();
+        return new PageImpl<>(pagina, pageable, filas.getTotalElements());
+    }
+
+    /**
+     * Orden por relevancia: se traen a lo sumo {@code app.ranking.max-candidatos} candidatos
+     * filtrados (solo columnas del puntaje, preseleccionados en SQL por cercanía y calificación),
+     * se eligen los (page + 1) * size mejores con un montículo acotado y solo la página
+     * pedida se carga e hidrata como entidades. Los no disponibles se excluyen en la consulta,
+     * antes de acotar, para que el total sea exacto.
+     */
+    private Page<AlojamientoResDTO> busquedaPorRelevancia(FiltroAvanzadoDTO filtro, Collection<UUID> excluidos, Pageable pageable) {
+        String ciudad = StringUtils.hasText(filtro.ciudad()) ? filtro.ciudad().trim() : null;
+        long desde = pageable.getOffset();
+        int k = (int) (desde + pageable.getPageSize());
+        BigDecimal promedio = alojamientoRepository.promedioCalificacionGlobal();
+        double promedioGlobal = promedio == null ? 0.0 : promedio.doubleValue();
+        boolean conPunto = filtro.latitud() != null && filtro.longitud() != null;
+
+        List<Object[]> filas = alojamientoRepository.candidatosRanking(
+                ciudad,
+                filtro.capacidad(),
+                filtro.precioMinimo(),
+                filtro.precioMaximo(),
+                ServicioAlojamiento.mascara(filtro.servicios()),
+                excluidos,
+                filtro.tieneTexto() ? filtro.q().trim() : null,
+                conPunto ? filtro.latitud() : null,
+                conPunto ? filtro.longitud() : null,
+                conPunto ? Geo.escalaLongitud(filtro.latitud()) : 1.0,
+                rankingAlojamientos.previoPeso(),
+                promedioGlobal,
+                Math.max(maxCandidatos, k));
+        long total = filas.isEmpty() ? 0 : ((Number) filas.get(0)[8]).longValue();
+        if (desde >= filas.size()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        List<CandidatoRanking> candidatos = filas.stream()
+                .map(row -> new CandidatoRanking(
+                        (UUID) row[0],
+                        (BigDecimal) row[1],
+                        (String) row[2],
+                        row[3] == null ? null : ((Number) row[3]).doubleValue(),
+                        row[4] == null ? null : ((Number) row[4]).doubleValue(),
+                        row[5] instanceof Timestamp t ? t.toLocalDateTime() : (LocalDateTime) row[5],
+                        ((Number) row[6]).doubleValue(),
+                        ((Number) row[7]).longValue()))
+                .toList();
+
+        Map<String, BigDecimal> medianas = new HashMap<>();
+        alojamientoRepository.medianasPrecioPorCiudad(ciudad)
+                .forEach(row -> medianas.put((String) row[0], BigDecimal.valueOf(((Number) row[1]).doubleValue())));
+
+        List<UUID> mejores = rankingAlojamientos.mejores(candidatos, medianas, promedioGlobal,
+                filtro.latitud(), filtro.longitud(), k);
+        List<UUID> ids = mejores.subList((int) desde, mejores.size());
+
+        Map<UUID, AlojamientoResDTO> porId = new HashMap<>();
+        hidratar(alojamientoRepository.findAllById(ids)).forEach(dto -> porId.put(dto.id(), dto));
+        List<AlojamientoResDTO> pagina = ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(pagina, pageable, total);
+    }
+
+    /**
+     * Facetas en una sola consulta agregada (ver {@link AlojamientoRepository#facetasBusqueda}).
+     * Las cubetas vacías se completan aquí para que el histograma siempre tenga todos los intervalos.
+     */
+    private FacetasDTO calcularFacetas(FiltroAvanzadoDTO filtro) {
+        Collection<UUID> excluidos = noDisponibles(filtro);
+        int cubetas = Math.max(1, cubetasPrecio);
 
-        return new PageImpl<>(filtrados, pageable, filtrados.size());
+        List<Object[]> filas = alojamientoRepository.facetasBusqueda(
+                StringUtils.hasText(filtro.ciudad()) ? filtro.ciudad().trim() : null,
+                filtro.capacidad(),
+                filtro.precioMinimo(),
+                filtro.precioMaximo(),
+                ServicioAlojamiento.mascara(filtro.servicios()),
+                excluidos,
+                filtro.tieneTexto() ? filtro.q().trim() : null,
+                cubetas);
+
+        long[] porCubeta = new long[cubetas];
+        Map<Integer, Long> capacidades = new TreeMap<>();
+        Map<ServicioAlojamiento, Long> servicios = new EnumMap<>(ServicioAlojamiento.class);
+        BigDecimal minimo = null;
+        BigDecimal maximo = null;
+        long total = 0;
+
+        for (Object[] fila : filas) {
+            long cantidad = ((Number) fila[5]).longValue();
+            minimo = (BigDecimal) fila[6];
+            maximo = (BigDecimal) fila[7];
+            if (((Number) fila[0]).intValue() == 0) {
+                total += cantidad;
+                if (fila[2] != null) {
+                    porCubeta[((Number) fila[2]).intValue() - 1] += cantidad;
+                }
+            } else if (((Number) fila[1]).intValue() == 0) {
+                if (fila[3] != null) {
+                    capacidades.merge(((Number) fila[3]).intValue(), cantidad, Long::sum);
+                }
+            } else if (fila[4] != null) {
+                long mascara = ((Number) fila[4]).longValue();
+                for (ServicioAlojamiento servicio : ServicioAlojamiento.values()) {
+                    if ((mascara & servicio.bit()) != 0) {
+                        servicios.merge(servicio, cantidad, Long::sum);
+                    }
+                }
+            }
+        }
+        return new FacetasDTO(total, histogramaPrecios(porCubeta, minimo, maximo), capacidades, servicios);
+    }
+
+    /** Intervalos iguales entre el precio mínimo y el máximo; un solo intervalo si coinciden. */
+    private static List<CubetaPrecioDTO> histogramaPrecios(long[] porCubeta, BigDecimal minimo, BigDecimal maximo) {
+        if (minimo == null || maximo == null) {
+            return List.of();
+        }
+        if (minimo.compareTo(maximo) == 0) {
+            return List.of(new CubetaPrecioDTO(minimo, maximo, porCubeta[0]));
+        }
+        int n = porCubeta.length;
+        BigDecimal ancho = maximo.subtract(minimo).divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+        List<CubetaPrecioDTO> cubetas = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            BigDecimal desde = minimo.add(ancho.multiply(BigDecimal.valueOf(i)));
+            BigDecimal hasta = (i == n - 1) ? maximo : minimo.add(ancho.multiply(BigDecimal.valueOf(i + 1)));
+            cubetas.add(new CubetaPrecioDTO(desde, hasta, porCubeta[i]));
+        }
+        return cubetas;
+    }
+
+    /**
+     * Búsqueda con filtro de servicios: se resuelve en una sola consulta nativa
+     * sobre la máscara de servicios, así la página y el total son correctos.
+     */
+    private Page<Alojamiento> busquedaConServicios(FiltroAvanzadoDTO filtro, Collection<UUID> excluidos, Pageable pageable) {
+        return alojamientoRepository.busquedaAvanzadaConServicios(
+                StringUtils.hasText(filtro.ciudad()) ? filtro.ciudad().trim() : null,
+                filtro.capacidad(),
+                filtro.precioMinimo(),
+                filtro.precioMaximo(),
+                ServicioAlojamiento.mascara(filtro.servicios()),
+                excluidos,
+                pageable
+        );
     }
 
     /**
-     * Filtra alojamientos por disponibilidad en las fechas especificadas.
-     * Nota: Esta es una implementación simplificada. En un sistema real,
-     * se consultaría una tabla de reservas para verificar disponibilidad.
+     * Alojamientos con alguna noche ocupada en las fechas del filtro, para excluirlos en SQL.
+     * Se responde desde el índice de ocupación en memoria; si el rango cae fuera
+     * de su horizonte, se resuelve con una única consulta sobre reservas activas.
+     * Nunca devuelve una colección vacía (ver {@link #SIN_EXCLUIDOS}).
+     * El rango ya viene validado ({@link FiltroAvanzadoDTO#fechasValidas()}).
      */
-    private Page<Alojamiento> filtrarPorDisponibilidad(Page<Alojamiento> alojamientos, 
-                                                       LocalDate fechaInicio, 
-                                                       LocalDate fechaFin) {
-        // Por ahora, retornamos todos los alojamientos
-        // En una implementación completa, se verificaría contra las reservas existentes
-        return alojamientos;
+    private Collection<UUID> noDisponibles(FiltroAvanzadoDTO filtro) {
+        if (!filtro.tieneFiltroFechas()) {
+            return SIN_EXCLUIDOS;
+        }
+        LocalDate inicio = filtro.fechaInicio();
+        LocalDate fin = filtro.fechaFin();
+        Collection<UUID> ocupados = indiceOcupacion.alojamientosOcupados(inicio, fin)
+                .<Collection<UUID>>map(ids -> ids)
+                .orElseGet(() -> reservaRepository.findAlojamientosOcupados(inicio, fin));
+        return ocupados.isEmpty() ? SIN_EXCLUIDOS : ocupados;
+    }
+
+    /**
+     * Disponibilidad en las fechas del filtro como predicado por id (nulo si no hay fechas).
+     * Con el índice en memoria solo se consultan los ids que se pregunten; si no puede
+     * responder, se usa el conjunto de ocupados de {@link #noDisponibles}.
+     */
+    private Predicate<UUID> disponibilidad(FiltroAvanzadoDTO filtro) {
+        if (!filtro.tieneFiltroFechas()) {
+            return null;
+        }
+        return indiceOcupacion.disponibles(filtro.fechaInicio(), filtro.fechaFin())
+                .orElseGet(() -> {
+                    Set<UUID> ocupados = new HashSet<>(noDisponibles(filtro));
+                    return id -> !ocupados.contains(id);
+                });
     }
 
     @Override
@@ -460,27 +1090,25 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         return obtenerMetricas(alojamientoId);
     }
 
+    /**
+     * Lectura por PK del resumen {@code alojamiento_metricas} (mantenido por {@code ResumenMetricas}).
+     */
     @Override
     @Transactional(readOnly = true)
     @Deprecated
     public MetricasAlojamientoDTO obtenerMetricas(UUID alojamientoId) {
-        List<Object[]> resultados = alojamientoRepository.obtenerMetricasNative(alojamientoId);
+        List<Object[]> resultados = metricasRepository.resumen(alojamientoId);
 
         if (resultados == null || resultados.isEmpty()) {
             throw new IllegalArgumentException("Alojamiento no encontrado: " + alojamientoId);
         }
-
-        Object[] row = resultados.get(0);
-        return new MetricasAlojamientoDTO(
-            (String) row[0],           // titulo
-            ((Number) row[1]).doubleValue(),  // promedio_calificacion
-            ((Number) row[2]).longValue(),    // total_reservas
-            ((Number) row[3]).longValue(),    // reservas_completadas
-            ((Number) row[4]).longValue(),    // reservas_canceladas
-            ((Number) row[5]).doubleValue()   // ingresos_totales
-        );
+        return metricasDeResumen(resultados.get(0));
     }
 
+    /**
+     * Sin rango de fechas se lee el resumen; con rango se suman los cubos diarios del periodo
+     * (reservas por día de check-in, reseñas por día de creación).
+     */
     @Override
     @Transactional(readOnly = true)
     public List<MetricasAlojamientoDTO> obtenerMetricasPorAnfitrion(UUID anfitrionId, 
@@ -490,18 +1118,71 @@ public class AlojamientoServiceImpl implements AlojamientoService {
         if (!usuarioRepository.existsById(anfitrionId)) {
             throw new IllegalArgumentException("Anfitrión no encontrado: " + anfitrionId);
         }
-        
-        List<Object[]> resultados = alojamientoRepository.obtenerMetricasPorAnfitrionNative(anfitrionId, fechaInicio, fechaFin);
-        
+
+        List<Object[]> resultados = fechaInicio == null && fechaFin == null
+                ? metricasRepository.resumenPorAnfitrion(anfitrionId)
+                : metricasRepository.resumenPorAnfitrionEnRango(anfitrionId,
+                        fechaInicio != null ? fechaInicio : PRIMER_DIA,
+                        fechaFin != null ? fechaFin : ULTIMO_DIA);
+
         return resultados.stream()
-            .map(row -> new MetricasAlojamientoDTO(
-                (String) row[0],           // titulo
-                ((Number) row[1]).doubleValue(),  // promedio_calificacion
-                ((Number) row[2]).longValue(),    // total_reservas
-                ((Number) row[3]).longValue(),    // reservas_completadas
-                ((Number) row[4]).longValue(),    // reservas_canceladas
-                ((Number) row[5]).doubleValue()   // ingresos_totales
-            ))
-            .collect(Collectors.toList());
+                .map(this::metricasDeResumen)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PuntoMetricasDTO> serieMetricasPorAnfitrion(UUID anfitrionId, UUID alojamientoId,
+                                                           LocalDate fechaInicio, LocalDate fechaFin,
+                                                           String agrupacion) {
+        if (fechaInicio == null || fechaFin == null) {
+            throw new IllegalArgumentException("fechaInicio y fechaFin son obligatorias");
+        }
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new IllegalArgumentException("fechaFin no puede ser anterior a fechaInicio");
+        }
+        if (ChronoUnit.DAYS.between(fechaInicio, fechaFin) > MAX_DIAS_SERIE) {
+            throw new IllegalArgumentException("El rango de la serie no puede superar 5 años");
+        }
+        String periodo = PERIODOS_SERIE.get(agrupacion == null ? "dia" : agrupacion.trim().toLowerCase());
+        if (periodo == null) {
+            throw new IllegalArgumentException("Agrupación no soportada (use 'dia', 'semana' o 'mes')");
+        }
+        if (alojamientoId != null) {
+            Alojamiento alojamiento = alojamientoRepository.findById(alojamientoId)
+                    .orElseThrow(() -> new EntityNotFoundException("Alojamiento no encontrado"));
+            if (!alojamiento.getAnfitrion().getId().equals(anfitrionId)) {
+                throw new SecurityException("El anfitrión no tiene permisos para ver las métricas de este alojamiento");
+            }
+        }
+
+        return metricasRepository.serieAnfitrion(anfitrionId, alojamientoId, fechaInicio, fechaFin, periodo).stream()
+                .map(row -> {
+                    long resenas = ((Number) row[5]).longValue();
+                    long sumaCalificaciones = ((Number) row[6]).longValue();
+                    return new PuntoMetricasDTO(
+                            row[0] instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) row[0],
+                            ((Number) row[1]).longValue(),
+                            row[2] instanceof BigDecimal b ? b : new BigDecimal(row[2].toString()),
+                            ((Number) row[3]).longValue(),
+                            ((Number) row[4]).longValue(),
+                            resenas,
+                            resenas == 0 ? null : (double) sumaCalificaciones / resenas);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /** Fila de {@link AlojamientoMetricasRepository#resumen}: titulo, suma y total de calificaciones, reservas, ingresos. */
+    private MetricasAlojamientoDTO metricasDeResumen(Object[] row) {
+        long sumaCalificaciones = ((Number) row[1]).longValue();
+        long totalCalificaciones = ((Number) row[2]).longValue();
+        return new MetricasAlojamientoDTO(
+            (String) row[0],
+            totalCalificaciones == 0 ? 0.0 : (double) sumaCalificaciones / totalCalificaciones,
+            ((Number) row[3]).longValue(),
+            ((Number) row[4]).longValue(),
+            ((Number) row[5]).longValue(),
+            ((Number) row[6]).doubleValue()
+        );
     }
 }
@@ -0,0 +1,154 @@
+package co.edu.uniquindio.gohost.service.impl;
+
+import co.edu.uniquindio.gohost.dto.reservaDtos.BloqueoResDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.CrearBloqueoDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.CrearReservaDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO;
+import co.edu.uniquindio.gohost.exception.SecurityException;
+import co.edu.uniquindio.gohost.model.BloqueoReserva;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.repository.BloqueoReservaRepository;
+import co.edu.uniquindio.gohost.repository.ReservaRepository;
+import co.edu.uniquindio.gohost.service.BloqueoReservaService;
+import co.edu.uniquindio.gohost.service.ReservaService;
+import co.edu.uniquindio.gohost.service.bloqueos.ExpiracionBloqueos;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementación de {@link BloqueoReservaService}.
+ * Reglas:
+ *  - Mismas validaciones que una reserva (rango, fechas no pasadas, capacidad).
+ *  - No traslapar reservas activas ni bloqueos vigentes de otros huéspedes. La fila del alojamiento
+ *    se bloquea en exclusiva antes de verificar (las reservas toman el mismo candado compartido),
+ *    así un bloqueo y una reserva concurrentes sobre las mismas fechas no pasan los dos.
+ *  - Como máximo {@code app.bloqueos.max-por-huesped} bloqueos vigentes por huésped.
+ */
+@Service
+@RequiredArgsConstructor
+public class BloqueoReservaServiceImpl implements BloqueoReservaService {
+
+    private final BloqueoReservaRepository bloqueoRepo;
+    private final ReservaRepository reservaRepo;
+    private final AlojamientoRepository alojRepo;
+    private final ReservaService reservaService;
+    private final ExpiracionBloqueos expiracion;
+
+    @Value("${app.bloqueos.minutos:10}")
+    private int minutosPorDefecto;
+
+    @Value("${app.bloqueos.max-minutos:15}")
+    private int maxMinutos;
+
+    @Value("${app.bloqueos.max-por-huesped:3}")
+    private int maxPorHuesped;
+
+    @Override
+    @Transactional
+    public BloqueoResDTO crear(UUID huespedId, CrearBloqueoDTO dto) {
+        if (dto.numeroHuespedes() == null || dto.numeroHuespedes() < 1) {
+            throw new IllegalArgumentException("El número de huéspedes es obligatorio");
+        }
+        ReservaServiceImpl.validarRango(dto.checkIn(), dto.checkOut());
+        int minutos = dto.minutos() != null ? dto.minutos() : minutosPorDefecto;
+        if (minutos < 1 || minutos > maxMinutos) {
+            throw new IllegalArgumentException("El bloqueo debe durar entre 1 y " + maxMinutos + " minutos");
+        }
+
+        alojRepo.bloquearParaRetener(dto.alojamientoId())
+                .orElseThrow(() -> new EntityNotFoundException("Alojamiento no existe"));
+        var alojamiento = alojRepo.findById(dto.alojamientoId())
+                .orElseThrow(() -> new EntityNotFoundException("Alojamiento no existe"));
+        if (dto.numeroHuespedes() > alojamiento.getCapacidad()) {
+            throw new IllegalArgumentException("El número de huéspedes (" + dto.numeroHuespedes() +
+                ") excede la capacidad del alojamiento (" + alojamiento.getCapacidad() + ")");
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<UUID> reemplazados = new ArrayList<>();
+        int vigentes = 0;
+        for (BloqueoReserva b : bloqueoRepo.findVigentesDe(huespedId, ahora)) {
+            if (b.getAlojamientoId().equals(dto.alojamientoId())) {
+                bloqueoRepo.delete(b);
+                reemplazados.add(b.getId());
+            } else {
+                vigentes++;
+            }
+        }
+        if (vigentes >= maxPorHuesped) {
+            throw new IllegalStateException("Ya tienes " + vigentes + " bloqueos activos");
+        }
+
+        if (reservaRepo.existsTraslape(dto.alojamientoId(), dto.checkIn(), dto.checkOut())
+                || bloqueoRepo.existsVigenteDeOtro(dto.alojamientoId(), dto.checkIn(), dto.checkOut(), huespedId, ahora)) {
+            throw new IllegalStateException("Fechas no disponibles");
+        }
+
+        BloqueoReserva bloqueo = bloqueoRepo.save(BloqueoReserva.builder()
+                .alojamientoId(dto.alojamientoId())
+                .huespedId(huespedId)
+                .checkIn(dto.checkIn())
+                .checkOut(dto.checkOut())
+                .numeroHuespedes(dto.numeroHuespedes())
+                .expiraEn(ahora.plusMinutes(minutos))
+                .creadoEn(ahora)
+                .build());
+
+        // Si la transacción se revierte la rueda solo intentará borrar una fila que no existe
+        reemplazados.forEach(expiracion::cancelar);
+        expiracion.programar(bloqueo.getId(), bloqueo.getExpiraEn());
+        return toRes(bloqueo);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BloqueoResDTO> listarVigentes(UUID huespedId) {
+        return bloqueoRepo.findVigentesDe(huespedId, LocalDateTime.now()).stream().map(this::toRes).toList();
+    }
+
+    @Override
+    @Transactional
+    public ReservaResDTO confirmar(UUID huespedId, UUID bloqueoId) {
+        BloqueoReserva bloqueo = propio(huespedId, bloqueoId);
+        if (!bloqueo.vigente(LocalDateTime.now())) {
+            throw new IllegalStateException("El bloqueo expiró; vuelve a seleccionar las fechas");
+        }
+        bloqueoRepo.delete(bloqueo);
+
+        // Misma transacción: si la reserva falla el bloqueo sigue en pie
+        ReservaResDTO reserva = reservaService.crearConDTO(huespedId, new CrearReservaDTO(
+                bloqueo.getAlojamientoId(), huespedId, bloqueo.getCheckIn(), bloqueo.getCheckOut(),
+                bloqueo.getNumeroHuespedes()));
+        expiracion.cancelar(bloqueoId);
+        return reserva;
+    }
+
+    @Override
+    @Transactional
+    public void liberar(UUID huespedId, UUID bloqueoId) {
+        bloqueoRepo.delete(propio(huespedId, bloqueoId));
+        expiracion.cancelar(bloqueoId);
+    }
+
+    private BloqueoReserva propio(UUID huespedId, UUID bloqueoId) {
+        BloqueoReserva bloqueo = bloqueoRepo.findById(bloqueoId)
+                .orElseThrow(() -> new EntityNotFoundException("Bloqueo no existe o ya venció"));
+        if (!bloqueo.getHuespedId().equals(huespedId)) {
+            throw new SecurityException("El bloqueo pertenece a otro usuario");
+        }
+        return bloqueo;
+    }
+
+    private BloqueoResDTO toRes(BloqueoReserva b) {
+        return new BloqueoResDTO(b.getId(), b.getAlojamientoId(), b.getCheckIn(), b.getCheckOut(),
+                b.getNumeroHuespedes(), b.getExpiraEn());
+    }
+}
@@ -5,6 +5,7 @@ import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
 import co.edu.uniquindio.gohost.repository.ComentarioRepository;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
 import co.edu.uniquindio.gohost.service.ComentarioService;
+import co.edu.uniquindio.gohost.service.metricas.ResumenMetricas;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -21,6 +22,7 @@ import java.util.UUID;
  *  - Solo usuarios autenticados pueden crear comentarios.
  *  - Calificación válida: 1..5.
  *  - Solo el ANFITRIÓN dueño del alojamiento del comentario puede responder.
+ *  - Cada comentario nuevo suma su calificación al resumen de métricas en la misma transacción.
  */
 @Service
 @RequiredArgsConstructor
@@ -29,6 +31,7 @@ public class ComentarioServiceImpl implements ComentarioService {
     private final ComentarioRepository repo;
     private final AlojamientoRepository alojRepo;
     private final UsuarioRepository usuarioRepo;
+    private final ResumenMetricas resumenMetricas;
 
     /**
      * Crea un comentario para un alojamiento.
@@ -61,7 +64,9 @@ public class ComentarioServiceImpl implements ComentarioService {
                 .calificacion(calificacion)
                 .build();
 
-        return repo.save(comentario);
+        Comentario guardado = repo.save(comentario);
+        resumenMetricas.registrarCalificacion(alojamientoId, calificacion);
+        return guardado;
     }
 
     /**
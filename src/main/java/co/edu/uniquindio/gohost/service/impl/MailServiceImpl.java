@@ -1,6 +1,7 @@
 package co.edu.uniquindio.gohost.service.impl;
 
 
+import co.edu.uniquindio.gohost.exception.MailServiceException;
 import co.edu.uniquindio.gohost.service.mail.MailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -128,6 +129,10 @@ public class MailServiceImpl implements MailService {
                     .field("html", html)
                     .asJson();
             String body = res.getBody() != null ? res.getBody().toString() : String.valueOf(res.getStatus());
+            if (res.getStatus() < 200 || res.getStatus() >= 300) {
+                // Se propaga para que la bandeja de salida reintente el envío
+                throw new MailServiceException("Mailgun API respondió " + res.getStatus() + ": " + body);
+            }
             log.info("Mailgun API respuesta: {}", body);
         } catch (UnirestException ex) {
             log.error("Fallo Mailgun API: {}", ex.getMessage(), ex);
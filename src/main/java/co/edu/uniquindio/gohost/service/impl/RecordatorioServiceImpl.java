@@ -1,17 +1,22 @@
 package co.edu.uniquindio.gohost.service.impl;
 
+import co.edu.uniquindio.gohost.event.RecordatorioProgramadoEvent;
 import co.edu.uniquindio.gohost.model.*;
 import co.edu.uniquindio.gohost.repository.NotificacionRecordatorioRepository;
 import co.edu.uniquindio.gohost.service.RecordatorioService;
-import co.edu.uniquindio.gohost.service.mail.MailService;
+import co.edu.uniquindio.gohost.service.recordatorios.EnvioRecordatorios;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,7 +30,8 @@ import java.util.UUID;
 public class RecordatorioServiceImpl implements RecordatorioService {
 
     private final NotificacionRecordatorioRepository recordatorioRepository;
-    private final MailService mailService;
+    private final EnvioRecordatorios envioRecordatorios;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.recordatorios.horas-antes-checkin:24}")
     private int horasAntesCheckin;
@@ -36,6 +42,9 @@ public class RecordatorioServiceImpl implements RecordatorioService {
     @Value("${app.recordatorios.max-intentos:3}")
     private int maxIntentos;
 
+    @Value("${app.recordatorios.lote:200}")
+    private int lote;
+
     private static final DateTimeFormatter FECHA_FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     @Override
@@ -91,23 +100,65 @@ public class RecordatorioServiceImpl implements RecordatorioService {
     }
 
     @Override
+    public void cancelarRecordatoriosDeReservas(Collection<UUID> reservaIds) {
+        if (reservaIds.isEmpty()) {
+            return;
+        }
+        int cancelados = recordatorioRepository.cambiarEstadoDeReservas(reservaIds,
+                EstadoRecordatorio.PROGRAMADO, EstadoRecordatorio.CANCELADO, LocalDateTime.now());
+        log.info("Recordatorios cancelados para {} reservas: {}", reservaIds.size(), cancelados);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void procesarRecordatoriosPendientes() {
         log.info("Procesando recordatorios pendientes...");
 
         try {
-            List<NotificacionRecordatorio> recordatoriosPendientes = 
-                recordatorioRepository.findNotificacionesPendientes(EstadoRecordatorio.PROGRAMADO, LocalDateTime.now());
-
-            log.info("Encontrados {} recordatorios pendientes", recordatoriosPendientes.size());
-
-            for (NotificacionRecordatorio recordatorio : recordatoriosPendientes) {
-                enviarRecordatorio(recordatorio);
-            }
+            int enviados = enviarVencidos(lote);
+            log.info("Recordatorios pendientes enviados: {}", enviados);
         } catch (Exception e) {
             log.error("Error al procesar recordatorios pendientes: {}", e.getMessage(), e);
         }
     }
 
+    /** Sin transacción propia: cada recordatorio se envía en la suya ({@link EnvioRecordatorios}). */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int enviarVencidos(int lote) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<NotificacionRecordatorio> vencidos = recordatorioRepository.findVencidos(
+                EstadoRecordatorio.PROGRAMADO, ahora, Limit.of(lote));
+        int enviados = 0;
+        for (NotificacionRecordatorio recordatorio : vencidos) {
+            if (enviarEnSuTransaccion(recordatorio.getId(), ahora)) {
+                enviados++;
+            }
+        }
+        return enviados;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void enviarProgramados(Collection<UUID> recordatorioIds) {
+        // Se releen al enviar: pudieron cancelarse o enviarse (drenaje de atrasados) después de agendarse
+        LocalDateTime ahora = LocalDateTime.now();
+        for (UUID id : recordatorioIds) {
+            enviarEnSuTransaccion(id, ahora);
+        }
+    }
+
+    /** Envía un recordatorio; si falla, registra el intento y sigue con los demás. */
+    private boolean enviarEnSuTransaccion(UUID recordatorioId, LocalDateTime ahora) {
+        try {
+            return envioRecordatorios.enviarSiVence(recordatorioId, ahora);
+        } catch (RuntimeException e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            envioRecordatorios.registrarFallo(recordatorioId, error);
+            return false;
+        }
+    }
+
     @Override
     public NotificacionRecordatorio crearRecordatorio(Reserva reserva, TipoRecordatorio tipo) {
         LocalDateTime fechaProgramada = calcularFechaProgramada(reserva, tipo);
@@ -127,55 +178,15 @@ public class RecordatorioServiceImpl implements RecordatorioService {
                 .intentosEnvio(0)
                 .build();
 
-        return recordatorioRepository.save(recordatorio);
+        NotificacionRecordatorio guardado = recordatorioRepository.save(recordatorio);
+        eventPublisher.publishEvent(new RecordatorioProgramadoEvent(guardado.getId(), guardado.getFechaProgramada()));
+        return guardado;
     }
 
     @Override
     public boolean enviarRecordatorio(NotificacionRecordatorio recordatorio) {
-        try {
-            log.info("Enviando recordatorio {} a {}", recordatorio.getId(), recordatorio.getEmailDestinatario());
-
-            // Incrementar intentos de envío
-            recordatorio.setIntentosEnvio(recordatorio.getIntentosEnvio() + 1);
-
-            String html = """
-                <div style="font-family:Arial,Helvetica,sans-serif;background:#f7f7f9;padding:24px">
-                <table role="presentation" style="max-width:600px;margin:auto;background:#ffffff;border-radius:12px;overflow:hidden">
-                <tr><td style="background:#546e7a;color:#ffffff;padding:20px;font-size:18px">%s</td></tr>
-                <tr><td style="padding:24px;color:#333333">%s</td></tr>
-                <tr><td style="padding:16px 24px;color:#888888;font-size:12px">GoHost</td></tr>
-                </table></div>
-                """.formatted(recordatorio.getAsunto(), recordatorio.getMensaje());
-
-            mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.EmailRequest.builder()
-                .to(recordatorio.getEmailDestinatario())
-                .subject(recordatorio.getAsunto())
-                .html(html)
-                .build());
-
-            // Marcar como enviado
-            recordatorio.setEstado(EstadoRecordatorio.ENVIADO);
-            recordatorio.setFechaEnviado(LocalDateTime.now());
-            recordatorio.setMensajeError(null);
-
-            recordatorioRepository.save(recordatorio);
-
-            log.info("Recordatorio {} enviado exitosamente", recordatorio.getId());
-            return true;
-
-        } catch (Exception e) {
-            log.error("Error al enviar recordatorio {}: {}", recordatorio.getId(), e.getMessage(), e);
-
-            // Marcar como error si se agotaron los intentos
-            if (recordatorio.getIntentosEnvio() >= maxIntentos) {
-                recordatorio.setEstado(EstadoRecordatorio.ERROR);
-            }
-            
-            recordatorio.setMensajeError(e.getMessage());
-            recordatorioRepository.save(recordatorio);
-
-            return false;
-        }
+        envioRecordatorios.enviar(recordatorio);
+        return true;
     }
 
     @Override
@@ -184,6 +195,7 @@ public class RecordatorioServiceImpl implements RecordatorioService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void reintentarRecordatoriosFallidos() {
         log.info("Reintentando recordatorios fallidos...");
 
@@ -193,10 +205,9 @@ public class RecordatorioServiceImpl implements RecordatorioService {
 
             log.info("Encontrados {} recordatorios para reintentar", recordatoriosFallidos.size());
 
+            LocalDateTime ahora = LocalDateTime.now();
             for (NotificacionRecordatorio recordatorio : recordatoriosFallidos) {
-                if (recordatorio.getFechaProgramada().isBefore(LocalDateTime.now())) {
-                    enviarRecordatorio(recordatorio);
-                }
+                enviarEnSuTransaccion(recordatorio.getId(), ahora);
             }
         } catch (Exception e) {
             log.error("Error al reintentar recordatorios fallidos: {}", e.getMessage(), e);
@@ -1,36 +1,54 @@
 package co.edu.uniquindio.gohost.service.impl;
 
+import co.edu.uniquindio.gohost.dto.CursorPageDTO;
 import co.edu.uniquindio.gohost.dto.reservaDtos.CrearReservaDTO;
 import co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO;
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
+import co.edu.uniquindio.gohost.event.ReservasCambiadasEvent;
 import co.edu.uniquindio.gohost.model.Alojamiento;
 import co.edu.uniquindio.gohost.model.EstadoReserva;
 import co.edu.uniquindio.gohost.model.Reserva;
 import co.edu.uniquindio.gohost.model.Usuario;
 import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.repository.BloqueoReservaRepository;
 import co.edu.uniquindio.gohost.repository.ReservaRepository;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
 import co.edu.uniquindio.gohost.service.ReservaService;
 import co.edu.uniquindio.gohost.service.RecordatorioService;
-import co.edu.uniquindio.gohost.service.mail.MailService;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
+import co.edu.uniquindio.gohost.service.mail.EmailRequest;
+import co.edu.uniquindio.gohost.service.mail.MailTemplates;
+import co.edu.uniquindio.gohost.service.paginacion.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Implementación JPA de {@link ReservaService}.
  * Reglas:
  *  - Rango válido: in < out (intervalo semiabierto [in, out)).
- *  - No traslapar con reservas activas (no eliminadas y no CANCELADAS).
+ *  - No traslapar con reservas activas (no eliminadas y no CANCELADAS). existsTraslape responde
+ *    rápido el caso común; la garantía la da la restricción de exclusión ex_reserva_sin_traslape (V11),
+ *    que también cubre dos solicitudes concurrentes por las mismas fechas.
+ *  - No traslapar bloqueos temporales vigentes de otros huéspedes ({@code BloqueoReserva}); como
+ *    viven en otra tabla, la fila del alojamiento se bloquea antes de verificar.
  *  - No modificar reservas eliminadas o CANCELADAS.
+ *  - Cada alta/cambio/cancelación publica un {@link ReservaCambiadaEvent}; los cambios por lotes,
+ *    un solo {@link ReservasCambiadasEvent} por lote.
  */
 @Service
 @RequiredArgsConstructor
@@ -40,18 +58,20 @@ public class ReservaServiceImpl implements ReservaService {
     private final ReservaRepository repo;
     private final UsuarioRepository usuarioRepo;
     private final AlojamientoRepository alojRepo;
-    private final MailService mailService;
+    private final BloqueoReservaRepository bloqueoRepo;
+    private final BandejaSalida bandejaSalida;
     private final RecordatorioService recordatorioService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Violación de ex_reserva_sin_traslape (PostgreSQL exclusion_violation). */
+    private static final String SQLSTATE_EXCLUSION = "23P01";
 
     /** Crear una reserva nueva (retorna ENTIDAD). */
     @Override
     @Transactional
     public Reserva crear(UUID alojamientoId, UUID huespedId, LocalDate in, LocalDate out) {
         validarRango(in, out);
-
-        if (repo.existsTraslape(alojamientoId, in, out)) {
-            throw new IllegalStateException("Fechas no disponibles");
-        }
+        verificarDisponible(alojamientoId, in, out, huespedId);
 
         var huesped = usuarioRepo.findById(huespedId)
                 .orElseThrow(() -> new EntityNotFoundException("Huésped no existe"));
@@ -59,15 +79,17 @@ public class ReservaServiceImpl implements ReservaService {
         var alojamiento = alojRepo.findById(alojamientoId)
                 .orElseThrow(() -> new EntityNotFoundException("Alojamiento no existe"));
 
-        var reserva = repo.save(Reserva.builder()
+        var reserva = guardarSinTraslape(Reserva.builder()
                 .huesped(huesped)
                 .alojamiento(alojamiento)
                 .checkIn(in)
                 .checkOut(out)
                 .numeroHuespedes(1) // Valor por defecto para compatibilidad
+                .precioNoche(alojamiento.getPrecioNoche())
                 .estado(EstadoReserva.PENDIENTE)
                 .eliminada(false)
                 .build());
+        eventPublisher.publishEvent(ReservaCambiadaEvent.creada(reserva));
 
         // ========= Envío de correo de confirmación al huésped =========
         enviarCorreoConfirmacionHuesped(huesped, alojamiento, reserva, in, out);
@@ -116,10 +138,7 @@ public class ReservaServiceImpl implements ReservaService {
     @Transactional
     private Reserva crearConHuespedes(UUID alojamientoId, UUID huespedId, LocalDate in, LocalDate out, Integer numeroHuespedes) {
         validarRango(in, out);
-
-        if (repo.existsTraslape(alojamientoId, in, out)) {
-            throw new IllegalStateException("Fechas no disponibles");
-        }
+        verificarDisponible(alojamientoId, in, out, huespedId);
 
         var huesped = usuarioRepo.findById(huespedId)
                 .orElseThrow(() -> new EntityNotFoundException("Huésped no existe"));
@@ -127,15 +146,17 @@ public class ReservaServiceImpl implements ReservaService {
         var alojamiento = alojRepo.findById(alojamientoId)
                 .orElseThrow(() -> new EntityNotFoundException("Alojamiento no existe"));
 
-        var reserva = repo.save(Reserva.builder()
+        var reserva = guardarSinTraslape(Reserva.builder()
                 .huesped(huesped)
                 .alojamiento(alojamiento)
                 .checkIn(in)
                 .checkOut(out)
                 .numeroHuespedes(numeroHuespedes)
+                .precioNoche(alojamiento.getPrecioNoche())
                 .estado(EstadoReserva.PENDIENTE)
                 .eliminada(false)
                 .build());
+        eventPublisher.publishEvent(ReservaCambiadaEvent.creada(reserva));
 
         // ========= Envío de correo de confirmación al huésped =========
         enviarCorreoConfirmacionHuesped(huesped, alojamiento, reserva, in, out);
@@ -150,14 +171,37 @@ public class ReservaServiceImpl implements ReservaService {
     @Override
     @Transactional(readOnly = true)
     public Page<ReservaResDTO> listarPorHuespedConDTO(UUID huespedId, LocalDate fechaInicio, LocalDate fechaFin, EstadoReserva estado, Pageable pageable) {
-        return repo.findByHuespedIdWithFotos(huespedId, fechaInicio, fechaFin, estado, pageable).map(this::toRes);
+        return repo.findResDTOByHuespedId(huespedId, fechaInicio, fechaFin, estado, pageable);
+    }
+
+    /** Listar reservas del huésped por cursor (checkIn, id): cada página es un recorrido acotado del índice. */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReservaResDTO> listarPorHuespedPorCursor(UUID huespedId, LocalDate fechaInicio, LocalDate fechaFin,
+                                                                 EstadoReserva estado, String cursor, int size) {
+        KeysetCursor<LocalDate> desde = KeysetCursor.deFecha(cursor);
+        int tamano = KeysetCursor.tamano(size);
+        var filas = repo.findByHuespedIdKeyset(huespedId, fechaInicio, fechaFin, estado,
+                desde != null ? desde.clave() : null, desde != null ? desde.id() : null, Limit.of(tamano + 1));
+        return CursorPageDTO.de(filas, tamano, this::toRes, r -> KeysetCursor.codificar(r.getCheckIn(), r.getId()));
     }
 
     /** Listar reservas de los alojamientos del anfitrión autenticado como DTO. */
     @Override
     @Transactional(readOnly = true)
     public Page<ReservaResDTO> listarPorAnfitrionConDTO(UUID anfitrionId, Pageable pageable) {
-        return repo.findByAlojamientoAnfitrionIdWithFotos(anfitrionId, pageable).map(this::toRes);
+        return repo.findResDTOByAnfitrionId(anfitrionId, pageable);
+    }
+
+    /** Listar reservas de los alojamientos del anfitrión por cursor (checkIn, id). */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReservaResDTO> listarPorAnfitrionPorCursor(UUID anfitrionId, String cursor, int size) {
+        KeysetCursor<LocalDate> desde = KeysetCursor.deFecha(cursor);
+        int tamano = KeysetCursor.tamano(size);
+        var filas = repo.findByAlojamientoAnfitrionIdKeyset(anfitrionId,
+                desde != null ? desde.clave() : null, desde != null ? desde.id() : null, Limit.of(tamano + 1));
+        return CursorPageDTO.de(filas, tamano, this::toRes, r -> KeysetCursor.codificar(r.getCheckIn(), r.getId()));
     }
 
     /** Listar reservas de un alojamiento específico como DTO con validación de autorización. */
@@ -172,7 +216,7 @@ public class ReservaServiceImpl implements ReservaService {
             throw new IllegalArgumentException("No tienes permisos para ver las reservas de este alojamiento");
         }
         
-        return repo.findByAlojamientoIdWithFotos(alojamientoId, pageable).map(this::toRes);
+        return repo.findResDTOByAlojamientoId(alojamientoId, pageable);
     }
 
     /** Obtener una reserva por ID como DTO. */
@@ -194,10 +238,16 @@ public class ReservaServiceImpl implements ReservaService {
             throw new IllegalStateException("La reserva cancelada/eliminada no puede modificarse");
         }
         EstadoReserva previo = actualizada.getEstado();
+        LocalDate inPrevio = actualizada.getCheckIn();
+        LocalDate outPrevio = actualizada.getCheckOut();
 
         if (in != null && out != null) {
             validarRango(in, out);
-            if (repo.existsTraslape(actualizada.getAlojamiento().getId(), in, out)) {
+            UUID alojamientoId = actualizada.getAlojamiento().getId();
+            alojRepo.bloquearParaReservar(alojamientoId);
+            if (repo.existsTraslapeExcluyendo(alojamientoId, in, out, actualizada.getId())
+                    || bloqueoRepo.existsVigenteDeOtro(alojamientoId, in, out,
+                            actualizada.getHuesped().getId(), LocalDateTime.now())) {
                 throw new IllegalStateException("Fechas no disponibles");
             }
             actualizada.setCheckIn(in);
@@ -208,15 +258,16 @@ public class ReservaServiceImpl implements ReservaService {
             actualizada.setEstado(estado);
         }
 
-        repo.save(actualizada);
+        guardarSinTraslape(actualizada);
+        eventPublisher.publishEvent(ReservaCambiadaEvent.modificada(actualizada, inPrevio, outPrevio, previo));
         Reserva cargada = repo.findByIdWithFotos(actualizada.getId()).orElseThrow();
         if (previo != cargada.getEstado()) {
             if (cargada.getEstado() == EstadoReserva.CONFIRMADA) {
-                try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.reservaConfirmadaHuesped(cargada)); } catch (Exception ignored) {}
-                try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.reservaConfirmadaAnfitrion(cargada)); } catch (Exception ignored) {}
+                bandejaSalida.encolar(MailTemplates.reservaConfirmadaHuesped(cargada));
+                bandejaSalida.encolar(MailTemplates.reservaConfirmadaAnfitrion(cargada));
             } else if (cargada.getEstado() == EstadoReserva.CANCELADA) {
-                try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.reservaCanceladaHuesped(cargada)); } catch (Exception ignored) {}
-                try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.reservaCanceladaAnfitrion(cargada)); } catch (Exception ignored) {}
+                bandejaSalida.encolar(MailTemplates.reservaCanceladaHuesped(cargada));
+                bandejaSalida.encolar(MailTemplates.reservaCanceladaAnfitrion(cargada));
             }
         }
         return toRes(cargada);
@@ -238,11 +289,13 @@ public class ReservaServiceImpl implements ReservaService {
             throw new IllegalStateException("No se puede cancelar la reserva con menos de 48 horas de anticipación");
         }
         
+        EstadoReserva previo = r.getEstado();
         r.setEstado(EstadoReserva.CANCELADA);
         r.setEliminada(true);
         repo.save(r);
-        try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.reservaCanceladaHuesped(r)); } catch (Exception ignored) {}
-        try { mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.reservaCanceladaAnfitrion(r)); } catch (Exception ignored) {}
+        eventPublisher.publishEvent(ReservaCambiadaEvent.modificada(r, r.getCheckIn(), r.getCheckOut(), previo));
+        bandejaSalida.encolar(MailTemplates.reservaCanceladaHuesped(r));
+        bandejaSalida.encolar(MailTemplates.reservaCanceladaAnfitrion(r));
 
         // ========= Cancelar recordatorios automáticos =========
         try {
@@ -261,8 +314,109 @@ public class ReservaServiceImpl implements ReservaService {
                 .orElseThrow(() -> new EntityNotFoundException("Reserva no existe"));
     }
 
-    /** Utilidad: valida que in < out y que no sean fechas pasadas. */
-    private void validarRango(LocalDate in, LocalDate out) {
+    /** Completa en una sola sentencia un lote de reservas confirmadas cuyo check-out ya pasó. */
+    @Override
+    @Transactional
+    public int completarFinalizadas(LocalDate hoy, int lote) {
+        List<Object[]> filas = repo.completarFinalizadas(hoy, lote);
+        List<UUID> ids = publicarCambios(filas, EstadoReserva.CONFIRMADA, EstadoReserva.COMPLETADA);
+        if (!ids.isEmpty()) {
+            List<EmailRequest> correos = new ArrayList<>(ids.size());
+            for (Reserva r : repo.findParaCorreo(ids)) {
+                correos.add(MailTemplates.reservaCompletadaHuesped(r));
+            }
+            bandejaSalida.encolarTodos(correos);
+        }
+        return ids.size();
+    }
+
+    /** Expira en una sola sentencia un lote de reservas que llegaron al check-in sin confirmarse. */
+    @Override
+    @Transactional
+    public int expirarPendientes(LocalDate limite, int lote) {
+        List<Object[]> filas = repo.expirarPendientes(limite, lote);
+        List<UUID> ids = publicarCambios(filas, EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA);
+        if (!ids.isEmpty()) {
+            List<EmailRequest> correos = new ArrayList<>(ids.size() * 2);
+            for (Reserva r : repo.findParaCorreo(ids)) {
+                correos.add(MailTemplates.reservaCanceladaHuesped(r));
+                correos.add(MailTemplates.reservaCanceladaAnfitrion(r));
+            }
+            bandejaSalida.encolarTodos(correos);
+            recordatorioService.cancelarRecordatoriosDeReservas(ids);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Publica un solo {@link ReservasCambiadasEvent} con las filas devueltas por un UPDATE ... RETURNING
+     * (id, alojamiento_id, check_in, check_out): las métricas aplican el lote con una sentencia por
+     * tabla y cachés e índices lo recorren en memoria. Devuelve los ids.
+     */
+    private List<UUID> publicarCambios(List<Object[]> filas, EstadoReserva anterior, EstadoReserva nuevo) {
+        if (filas.isEmpty()) {
+            return List.of();
+        }
+        List<ReservaCambiadaEvent> cambios = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            LocalDate in = aFecha(fila[2]);
+            LocalDate out = aFecha(fila[3]);
+            cambios.add(new ReservaCambiadaEvent(
+                    (UUID) fila[0], (UUID) fila[1], in, out, anterior, in, out, nuevo));
+        }
+        ReservasCambiadasEvent lote = new ReservasCambiadasEvent(anterior, nuevo, cambios);
+        eventPublisher.publishEvent(lote);
+        return lote.reservaIds();
+    }
+
+    /** Según el driver, las columnas DATE nativas llegan como java.sql.Date o LocalDate. */
+    private static LocalDate aFecha(Object valor) {
+        return valor instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) valor;
+    }
+
+    /**
+     * Toma el candado compartido del alojamiento y verifica que [in, out) no choque con reservas
+     * activas ni con bloqueos vigentes de otros huéspedes. Las altas concurrentes del mismo
+     * alojamiento no se esperan entre sí (las arbitra la restricción de exclusión al guardar);
+     * solo se serializan contra la creación de bloqueos temporales.
+     */
+    private void verificarDisponible(UUID alojamientoId, LocalDate in, LocalDate out, UUID huespedId) {
+        alojRepo.bloquearParaReservar(alojamientoId);
+        if (repo.existsTraslape(alojamientoId, in, out)
+                || bloqueoRepo.existsVigenteDeOtro(alojamientoId, in, out, huespedId, LocalDateTime.now())) {
+            throw new IllegalStateException("Fechas no disponibles");
+        }
+    }
+
+    /**
+     * Guarda y sincroniza de inmediato para que la restricción de exclusión se evalúe aquí
+     * (y no al confirmar), traduciendo su violación al mismo error que existsTraslape.
+     */
+    private Reserva guardarSinTraslape(Reserva reserva) {
+        try {
+            Reserva guardada = repo.save(reserva);
+            repo.flush();
+            return guardada;
+        } catch (DataIntegrityViolationException e) {
+            if (esTraslape(e)) {
+                throw new IllegalStateException("Fechas no disponibles");
+            }
+            throw e;
+        }
+    }
+
+    /** SQLSTATE 23P01 (exclusion_violation) en la cadena de causas. */
+    private static boolean esTraslape(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && SQLSTATE_EXCLUSION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Utilidad: valida que in < out y que no sean fechas pasadas (también para bloqueos temporales). */
+    static void validarRango(LocalDate in, LocalDate out) {
         if (in == null || out == null || !out.isAfter(in)) {
             throw new IllegalArgumentException("Rango de fechas inválido");
         }
@@ -275,42 +429,12 @@ public class ReservaServiceImpl implements ReservaService {
     
     /** Método auxiliar para enviar correo de confirmación al huésped */
     private void enviarCorreoConfirmacionHuesped(Usuario huesped, Alojamiento alojamiento, Reserva reserva, LocalDate in, LocalDate out) {
-        final String emailDestino = huesped.getEmail();
-        final String nombreHuesped = huesped.getNombre();
-        final String tituloAloj = alojamiento.getTitulo();
-        final long noches = ChronoUnit.DAYS.between(in, out);
-
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        String checkInStr = in.format(fmt);
-        String checkOutStr = out.format(fmt);
-
-        try {
-            mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.confirmacionReservaHuesped(huesped, alojamiento, reserva, in, out));
-        } catch (Exception e) {
-            // Log del error pero no fallar la creación de la reserva por problemas de correo
-            log.error("Error al enviar correo de confirmación al huésped {}: {}", huesped.getId(), e.getMessage(), e);
-        }
+        bandejaSalida.encolar(MailTemplates.confirmacionReservaHuesped(huesped, alojamiento, reserva, in, out));
     }
     
     /** Método auxiliar para enviar correo de notificación al anfitrión */
     private void enviarCorreoNotificacionAnfitrion(Usuario anfitrion, Usuario huesped, Alojamiento alojamiento, Reserva reserva, LocalDate in, LocalDate out, Integer numeroHuespedes) {
-        final String emailAnfitrion = anfitrion.getEmail();
-        final String nombreAnfitrion = anfitrion.getNombre();
-        final String nombreHuesped = huesped.getNombre();
-        final String emailHuesped = huesped.getEmail();
-        final String tituloAloj = alojamiento.getTitulo();
-        final long noches = ChronoUnit.DAYS.between(in, out);
-
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        String checkInStr = in.format(fmt);
-        String checkOutStr = out.format(fmt);
-
-        try {
-            mailService.sendAsync(co.edu.uniquindio.gohost.service.mail.MailTemplates.nuevaReservaAnfitrion(anfitrion, huesped, alojamiento, reserva, in, out, numeroHuespedes));
-        } catch (Exception e) {
-            // Log el error pero no fallar la reserva por problemas de correo
-            log.error("Error al enviar correo al anfitrión {} para reserva {}: {}", anfitrion.getId(), reserva.getId(), e.getMessage(), e);
-        }
+        bandejaSalida.encolar(MailTemplates.nuevaReservaAnfitrion(anfitrion, huesped, alojamiento, reserva, in, out, numeroHuespedes));
     }
 
     /* =========================================================
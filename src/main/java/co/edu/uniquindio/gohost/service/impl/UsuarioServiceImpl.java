@@ -6,10 +6,11 @@ import co.edu.uniquindio.gohost.dto.usuarioDtos.EditarUsuarioDTO;
 import co.edu.uniquindio.gohost.dto.usuarioDtos.ResetPasswordPayloadDTO;
 import co.edu.uniquindio.gohost.exception.PasswordResetException;
 import co.edu.uniquindio.gohost.exception.MailServiceException;
+import co.edu.uniquindio.gohost.model.Rol;
 import co.edu.uniquindio.gohost.model.Usuario;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
 import co.edu.uniquindio.gohost.service.UsuarioService;
-import co.edu.uniquindio.gohost.service.mail.MailService;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
 import co.edu.uniquindio.gohost.service.mail.MailTemplates;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -45,7 +46,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     private final PasswordEncoder passwordEncoder;
     private final GeocodingService geocodingService;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
-    private final MailService mailService;
+    private final BandejaSalida bandejaSalida;
 
 
     /**
@@ -77,6 +78,20 @@ public class UsuarioServiceImpl implements UsuarioService {
         return repo.save(u);
     }
 
+    /**
+     * Crea el usuario y deja su correo de bienvenida en la bandeja de salida en la misma
+     * transacción: si no se puede encolar, el usuario tampoco queda guardado.
+     */
+    @Override
+    @Transactional
+    public Usuario registrar(Usuario u) {
+        Usuario creado = crear(u);
+        bandejaSalida.encolar(creado.getRol() == Rol.ANFITRION
+                ? MailTemplates.bienvenidaAnfitrion(creado)
+                : MailTemplates.bienvenidaHuesped(creado));
+        return creado;
+    }
+
     private void geocodificarUsuario(Usuario u) {
         if (u.getLatitud() != null && u.getLongitud() != null) {
             return; // Ya tiene coordenadas
@@ -146,6 +161,7 @@ public class UsuarioServiceImpl implements UsuarioService {
      * Actualización parcial del perfil de usuario.
      */
     @Override
+    @Transactional
     public Usuario actualizar(UUID id, Usuario parcial) {
         var u = repo.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado"));
@@ -176,9 +192,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         // Nota: El email ya no se puede modificar por seguridad
 
         Usuario saved = repo.save(u);
-        try {
-            mailService.sendAsync(MailTemplates.perfilActualizado(saved));
-        } catch (Exception ignored) {}
+        bandejaSalida.encolar(MailTemplates.perfilActualizado(saved));
         return saved;
     }
 
@@ -186,6 +200,7 @@ public class UsuarioServiceImpl implements UsuarioService {
      * Cambio de contraseña con validación de la contraseña actual.
      */
     @Override
+    @Transactional
     public void cambiarPassword(UUID id, String actual, String nueva) {
         var u = repo.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado"));
@@ -194,12 +209,11 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
         u.setPassword(passwordEncoder.encode(nueva));
         repo.save(u);
-        try {
-            mailService.sendAsync(MailTemplates.contraseñaCambiada(u));
-        } catch (Exception ignored) {}
+        bandejaSalida.encolar(MailTemplates.contraseñaCambiada(u));
     }
 
     @Override
+    @Transactional
     public ResetPasswordPayloadDTO resetPassword(String email) {
         // Normalizar y buscar usuario por correo (case-insensitive)
         String emailNorm = (email != null) ? email.trim().toLowerCase() : null;
@@ -225,10 +239,10 @@ public class UsuarioServiceImpl implements UsuarioService {
         // Guardar el token en la base de datos
         passwordResetTokenRepository.save(resetToken);
 
-        // En producción el backend envía el correo de recuperación vía MailService.
+        // El correo de recuperación queda en la bandeja de salida junto con el token (misma transacción).
         // Nota: el HTML incluye el código en un <h1> para permitir pruebas automatizadas.
         try {
-            mailService.sendAsync(MailTemplates.recuperacion(usuario, codigo, 15));
+            bandejaSalida.encolar(MailTemplates.recuperacion(usuario, codigo, 15));
         } catch (Exception e) {
             // Registrar y traducir a excepción de dominio sin filtrar detalles sensibles
             log.error("Fallo enviando correo de recuperación a {}: {}", emailNorm, e.getMessage());
@@ -324,9 +338,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         repo.save(usuario);
 
         passwordResetTokenRepository.deleteByUsuarioId(usuario.getId());
-        try {
-            mailService.sendAsync(MailTemplates.contraseñaRestablecida(usuario));
-        } catch (Exception ignored) {}
+        bandejaSalida.encolar(MailTemplates.contraseñaRestablecida(usuario));
     }
 
     @Override
@@ -0,0 +1,123 @@
+package co.edu.uniquindio.gohost.service.indice;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Ciclo de vida compartido de los índices en memoria: reconstrucción completa desde la BD
+ * más cambios incrementales confirmados, sin perder los que lleguen durante la reconstrucción.
+ *
+ * - {@link #reconstruir} arma el estado nuevo fuera del candado; los cambios recibidos
+ *   mientras tanto se guardan y se re-aplican sobre él justo antes de publicarlo.
+ * - {@link #aplicar} aplica un cambio al estado publicado (y lo guarda si hay una
+ *   reconstrucción en curso). Si la función falla, el estado se descarta y las consultas
+ *   vuelven a la BD hasta la siguiente reconstrucción.
+ *
+ * La función de aplicación devuelve el estado resultante: los estados mutables devuelven el
+ * mismo objeto y los inmutables (copy-on-write) una copia nueva. Un cambio re-aplicado pudo
+ * confirmarse antes de la lectura de la BD y venir ya incluido en ella: la función debe fijar el
+ * estado que describe el cambio (reemplazar la entrada), no sumar deltas a ciegas.
+ *
+ * @param <S> estado del índice
+ * @param <C> cambio incremental (normalmente el evento recibido)
+ */
+@Slf4j
+public final class ReconstruccionIndice<S, C> {
+
+    private final String nombre;
+    private final Lock escritura;
+    private final BiFunction<S, C, S> funcionAplicar;
+
+    /** Estado publicado (null hasta la primera construcción). */
+    private volatile S estado;
+
+    /** No nulo mientras se reconstruye: cambios a re-aplicar sobre el nuevo estado. */
+    private List<C> cambiosDuranteReconstruccion;
+
+    public ReconstruccionIndice(String nombre, BiFunction<S, C, S> funcionAplicar) {
+        this(nombre, new ReentrantLock(), funcionAplicar);
+    }
+
+    /**
+     * @param escritura candado de escritura del índice; útil cuando los lectores comparten
+     *                  un {@code ReadWriteLock} con las escrituras
+     */
+    public ReconstruccionIndice(String nombre, Lock escritura, BiFunction<S, C, S> funcionAplicar) {
+        this.nombre = nombre;
+        this.escritura = escritura;
+        this.funcionAplicar = funcionAplicar;
+    }
+
+    /** Estado publicado, o null si aún no se construyó (o se descartó tras un error). */
+    public S estado() {
+        return estado;
+    }
+
+    /**
+     * Construye un estado nuevo, le re-aplica los cambios recibidos mientras tanto y lo publica.
+     * Los errores se registran y dejan publicado el estado anterior.
+     *
+     * @return el estado publicado, o vacío si la construcción falló
+     */
+    public Optional<S> reconstruir(Supplier<S> construir) {
+        escritura.lock();
+        try {
+            cambiosDuranteReconstruccion = new ArrayList<>();
+        } finally {
+            escritura.unlock();
+        }
+        try {
+            S nuevo = construir.get();
+            escritura.lock();
+            try {
+                for (C cambio : cambiosDuranteReconstruccion) {
+                    nuevo = funcionAplicar.apply(nuevo, cambio);
+                }
+                estado = nuevo;
+                return Optional.of(nuevo);
+            } finally {
+                cambiosDuranteReconstruccion = null;
+                escritura.unlock();
+            }
+        } catch (RuntimeException e) {
+            escritura.lock();
+            try {
+                cambiosDuranteReconstruccion = null;
+            } finally {
+                escritura.unlock();
+            }
+            log.error("Error construyendo {}: {}", nombre, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /** Aplica un cambio confirmado al estado publicado (si existe). */
+    public void aplicar(C cambio) {
+        escritura.lock();
+        try {
+            if (cambiosDuranteReconstruccion != null) {
+                cambiosDuranteReconstruccion.add(cambio);
+            }
+            S actual = estado;
+            if (actual == null) {
+                return;
+            }
+            try {
+                estado = funcionAplicar.apply(actual, cambio);
+            } catch (RuntimeException e) {
+                // Un estado a medio aplicar no se puede seguir sirviendo
+                estado = null;
+                log.error("Error aplicando un cambio en {}: {}", nombre, e.getMessage(), e);
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+}
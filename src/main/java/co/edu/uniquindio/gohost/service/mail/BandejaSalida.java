@@ -0,0 +1,120 @@
+package co.edu.uniquindio.gohost.service.mail;
+
+import co.edu.uniquindio.gohost.model.EstadoOutbox;
+import co.edu.uniquindio.gohost.model.MensajeOutbox;
+import co.edu.uniquindio.gohost.repository.MensajeOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bandeja de salida de correos (tabla {@code outbox}).
+ *
+ * {@link #encolar} se une a la transacción del llamador: el correo queda guardado si y solo si
+ * el cambio de negocio confirma, y la petición no espera al proveedor de correo.
+ * {@link DespachadorOutbox} reclama los pendientes por lotes y registra el resultado de cada envío.
+ *
+ * Al reclamar, {@code disponible_en} se corre {@code app.outbox.arriendo-segundos} hacia adelante:
+ * si el nodo cae a mitad de envío la fila vuelve a estar disponible cuando vence el arriendo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BandejaSalida {
+
+    private final MensajeOutboxRepository outboxRepository;
+
+    @Value("${app.outbox.arriendo-segundos:300}")
+    private long arriendoSegundos;
+
+    @Value("${app.outbox.dias-retencion:7}")
+    private int diasRetencion;
+
+    /** Guarda el correo como pendiente dentro de la transacción actual (o una nueva si no hay). */
+    @Transactional
+    public void encolar(EmailRequest request) {
+        if (request == null || request.getTo() == null || request.getTo().isBlank()) {
+            log.warn("Correo sin destinatario descartado: '{}'", request != null ? request.getSubject() : null);
+            return;
+        }
+        outboxRepository.save(pendiente(request));
+    }
+
+    /** Guarda varios correos con un solo saveAll (inserciones por lotes si Hibernate las tiene activas). */
+    @Transactional
+    public void encolarTodos(Collection<EmailRequest> requests) {
+        List<MensajeOutbox> mensajes = new ArrayList<>(requests.size());
+        for (EmailRequest request : requests) {
+            if (request == null || request.getTo() == null || request.getTo().isBlank()) {
+                log.warn("Correo sin destinatario descartado: '{}'", request != null ? request.getSubject() : null);
+                continue;
+            }
+            mensajes.add(pendiente(request));
+        }
+        outboxRepository.saveAll(mensajes);
+    }
+
+    /**
+     * Reclama hasta {@code limite} pendientes: suma un intento y los aparta durante el arriendo.
+     * El bloqueo FOR UPDATE SKIP LOCKED dura solo esta transacción corta; el envío ocurre fuera.
+     */
+    @Transactional
+    public List<MensajeOutbox> reclamar(int limite) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<MensajeOutbox> mensajes = outboxRepository.bloquearPendientes(ahora, limite);
+        for (MensajeOutbox m : mensajes) {
+            m.setIntentos(m.getIntentos() + 1);
+            m.setDisponibleEn(ahora.plusSeconds(arriendoSegundos));
+        }
+        return mensajes;
+    }
+
+    @Transactional
+    public void registrarEnviados(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        outboxRepository.marcarEnviados(ids, EstadoOutbox.ENVIADO, LocalDateTime.now());
+    }
+
+    /**
+     * Registra un envío fallido: queda pendiente hasta {@code reintentarEn},
+     * o FALLIDO si {@code reintentarEn} es nulo (reintentos agotados).
+     */
+    @Transactional
+    public void registrarFallo(UUID id, String error, LocalDateTime reintentarEn) {
+        if (reintentarEn == null) {
+            outboxRepository.registrarFallo(id, EstadoOutbox.FALLIDO, LocalDateTime.now(), error);
+        } else {
+            outboxRepository.registrarFallo(id, EstadoOutbox.PENDIENTE, reintentarEn, error);
+        }
+    }
+
+    private static MensajeOutbox pendiente(EmailRequest request) {
+        return MensajeOutbox.builder()
+                .destinatario(request.getTo())
+                .asunto(request.getSubject())
+                .html(request.getHtml())
+                .remitente(request.getFrom())
+                .cc(request.getCc())
+                .bcc(request.getBcc())
+                .build();
+    }
+
+    /** Borra los correos enviados hace más de {@code app.outbox.dias-retencion} días. */
+    @Scheduled(cron = "${app.outbox.cron-purga:0 50 0 * * *}")
+    @Transactional
+    public void purgar() {
+        int borrados = outboxRepository.purgar(EstadoOutbox.ENVIADO, LocalDateTime.now().minusDays(diasRetencion));
+        log.info("Outbox: {} correos enviados purgados", borrados);
+    }
+}
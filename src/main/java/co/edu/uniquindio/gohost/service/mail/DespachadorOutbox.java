@@ -0,0 +1,125 @@
+package co.edu.uniquindio.gohost.service.mail;
+
+import co.edu.uniquindio.gohost.model.MensajeOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Envía en segundo plano los correos de la {@link BandejaSalida}.
+ *
+ * Cada pasada reclama lotes de {@code app.outbox.lote} filas y los envía en paralelo en el
+ * ejecutor {@code mailExecutor}; sigue reclamando mientras los lotes salgan llenos, así una
+ * ráfaga se vacía sin esperar al siguiente intervalo. Los fallos se reintentan con espera
+ * exponencial ({@code app.outbox.espera-segundos} x 2^(intento-1)) hasta {@code app.outbox.max-intentos}.
+ *
+ * Con varios nodos cada uno reclama filas distintas (SKIP LOCKED); un correo puede repetirse
+ * solo si un nodo cae después de enviarlo y antes de registrarlo.
+ */
+@Slf4j
+@Component
+public class DespachadorOutbox {
+
+    /** Tope del exponente de la espera entre reintentos (~8.5 h con la espera por defecto). */
+    private static final int MAX_EXPONENTE = 10;
+
+    private final BandejaSalida bandeja;
+    private final MailService mailService;
+    private final Executor executor;
+    private final int lote;
+    private final int maxIntentos;
+    private final long esperaSegundos;
+
+    public DespachadorOutbox(BandejaSalida bandeja,
+                             MailService mailService,
+                             @Qualifier("mailExecutor") Executor executor,
+                             @Value("${app.outbox.lote:50}") int lote,
+                             @Value("${app.outbox.max-intentos:5}") int maxIntentos,
+                             @Value("${app.outbox.espera-segundos:30}") long esperaSegundos) {
+        this.bandeja = bandeja;
+        this.mailService = mailService;
+        this.executor = executor;
+        this.lote = Math.max(1, lote);
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.esperaSegundos = Math.max(1, esperaSegundos);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:2000}")
+    public void despachar() {
+        List<MensajeOutbox> mensajes;
+        do {
+            mensajes = bandeja.reclamar(lote);
+            if (!mensajes.isEmpty()) {
+                enviar(mensajes);
+            }
+        } while (mensajes.size() == lote);
+    }
+
+    /** Envía el lote en paralelo y registra enviados (en bloque) y fallidos (uno a uno). */
+    private void enviar(List<MensajeOutbox> mensajes) {
+        List<CompletableFuture<Void>> envios = new ArrayList<>(mensajes.size());
+        for (MensajeOutbox m : mensajes) {
+            envios.add(programar(m));
+        }
+
+        List<UUID> enviados = new ArrayList<>();
+        for (int i = 0; i < mensajes.size(); i++) {
+            MensajeOutbox m = mensajes.get(i);
+            try {
+                envios.get(i).join();
+                enviados.add(m.getId());
+            } catch (CompletionException e) {
+                fallo(m, e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        bandeja.registrarEnviados(enviados);
+    }
+
+    private CompletableFuture<Void> programar(MensajeOutbox m) {
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    mailService.send(aPeticion(m));
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void fallo(MensajeOutbox m, Throwable causa) {
+        String error = causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName();
+        if (m.getIntentos() >= maxIntentos) {
+            log.error("Correo {} a {} descartado tras {} intentos: {}", m.getId(), m.getDestinatario(), m.getIntentos(), error);
+            bandeja.registrarFallo(m.getId(), error, null);
+            return;
+        }
+        long espera = esperaSegundos << Math.min(m.getIntentos() - 1, MAX_EXPONENTE);
+        log.warn("Correo {} a {} falló (intento {}), reintento en {} s: {}", m.getId(), m.getDestinatario(), m.getIntentos(), espera, error);
+        bandeja.registrarFallo(m.getId(), error, LocalDateTime.now().plusSeconds(espera));
+    }
+
+    private static EmailRequest aPeticion(MensajeOutbox m) {
+        return EmailRequest.builder()
+                .to(m.getDestinatario())
+                .subject(m.getAsunto())
+                .html(m.getHtml())
+                .from(m.getRemitente())
+                .cc(m.getCc())
+                .bcc(m.getBcc())
+                .build();
+    }
+}
@@ -200,6 +200,22 @@ public class MailTemplates {
                 .build();
     }
 
+    public static EmailRequest reservaCompletadaHuesped(Reserva reserva) {
+        String html = """
+                <div style="font-family:Arial,Helvetica,sans-serif;background:#f7f7f9;padding:24px">
+                <table role="presentation" style="max-width:600px;margin:auto;background:#ffffff;border-radius:12px;overflow:hidden">
+                <tr><td style="background:#1e88e5;color:#ffffff;padding:20px;font-size:18px">¡Gracias por tu estadía!</td></tr>
+                <tr><td style="padding:24px;color:#333333">Tu estadía en %s (reserva %s) ha finalizado. Cuéntale a otros viajeros cómo te fue dejando tu reseña.</td></tr>
+                <tr><td style="padding:16px 24px;color:#888888;font-size:12px">Esperamos verte pronto en GoHost.</td></tr>
+                </table></div>
+                """.formatted(reserva.getAlojamiento().getTitulo(), reserva.getId());
+        return EmailRequest.builder()
+                .to(reserva.getHuesped().getEmail())
+                .subject("¿Cómo estuvo tu estadía?")
+                .html(html)
+                .build();
+    }
+
     public static EmailRequest reservaCanceladaHuesped(Reserva reserva) {
         String html = """
                 <div style="font-family:Arial,Helvetica,sans-serif;background:#f7f7f9;padding:24px">
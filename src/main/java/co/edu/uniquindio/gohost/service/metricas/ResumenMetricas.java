@@ -0,0 +1,180 @@
+package co.edu.uniquindio.gohost.service.metricas;
+
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
+import co.edu.uniquindio.gohost.event.ReservasCambiadasEvent;
+import co.edu.uniquindio.gohost.model.EstadoReserva;
+import co.edu.uniquindio.gohost.repository.AlojamientoMetricasRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Mantiene las tablas {@code alojamiento_metricas} (totales) y {@code alojamiento_metricas_diarias}
+ * (cubos por día) con incrementos en la misma transacción que cada cambio de reserva
+ * ({@link ReservaCambiadaEvent}) o comentario nuevo: confirman o se revierten junto con el
+ * cambio que los origina.
+ *
+ * Los incrementos de los totales se insertan como pendientes y se consolidan cada
+ * {@code app.metricas.consolidar-ms}: la fila del resumen es una por alojamiento y, escrita
+ * dentro de cada reserva, serializaría las reservas concurrentes del mismo alojamiento hasta
+ * confirmar. Los totales quedan atrasados como mucho ese intervalo. Los cubos diarios se
+ * actualizan en la transacción: dos reservas vigentes del mismo alojamiento no comparten noches.
+ *
+ * - total: +1 por reserva creada (cualquier estado, también si luego se cancela).
+ * - completadas/canceladas: +1 al entrar al estado, -1 al salir.
+ * - ingresos: noches x precio por noche pactado en la reserva al completarse (y se restan si
+ *   deja de estar completada).
+ *
+ * En los cubos diarios un cambio de reserva resta su contribución anterior y suma la nueva.
+ * Los cambios por lotes ({@link ReservasCambiadasEvent}) se aplican con una sentencia por tabla.
+ *
+ * Cada madrugada se recalculan los totales y los cubos desde hace {@code app.metricas.dias-reconciliacion}
+ * días como red de seguridad; el histórico completo de cubos se carga al arrancar si la tabla está vacía.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResumenMetricas {
+
+    private final AlojamientoMetricasRepository metricasRepository;
+
+    @Value("${app.metricas.dias-reconciliacion:30}")
+    private int diasReconciliacion;
+
+    /** Carga el histórico de cubos diarios si aún no existe (bases previas a V10). */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void alIniciar() {
+        if (!metricasRepository.existenDias()) {
+            reconstruirDias(LocalDate.EPOCH);
+        }
+    }
+
+    /** Síncrono: corre dentro de la transacción de {@code ReservaServiceImpl} que publica el evento. */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onReservaCambiada(ReservaCambiadaEvent ev) {
+        acumularDias(ev);
+
+        long total = ev.estadoAnterior() == null ? 1 : 0;
+        long completadas = delta(ev, EstadoReserva.COMPLETADA);
+        long canceladas = delta(ev, EstadoReserva.CANCELADA);
+        long noches = (ev.estado() == EstadoReserva.COMPLETADA ? noches(ev.checkIn(), ev.checkOut()) : 0)
+                - (ev.estadoAnterior() == EstadoReserva.COMPLETADA ? noches(ev.checkInAnterior(), ev.checkOutAnterior()) : 0);
+
+        if (total == 0 && completadas == 0 && canceladas == 0 && noches == 0) {
+            return; // cambio de fechas sin cambio de estado: nada que acumular
+        }
+        metricasRepository.acumularReservas(ev.reservaId(), total, completadas, canceladas, noches);
+    }
+
+    /**
+     * Aplica un cambio de estado por lotes con una sentencia por tabla (síncrono, dentro de la
+     * transacción del UPDATE ... RETURNING que lo origina). Las fechas no cambian.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onReservasCambiadas(ReservasCambiadasEvent ev) {
+        if (ev.cambios().isEmpty() || ev.estado() == ev.estadoAnterior()) {
+            return;
+        }
+        List<UUID> ids = ev.reservaIds();
+        int completadas = delta(ev.estadoAnterior(), ev.estado(), EstadoReserva.COMPLETADA);
+        int canceladas = delta(ev.estadoAnterior(), ev.estado(), EstadoReserva.CANCELADA);
+        int activas = (ev.estado() != EstadoReserva.CANCELADA ? 1 : 0)
+                - (ev.estadoAnterior() != EstadoReserva.CANCELADA ? 1 : 0);
+
+        metricasRepository.acumularDiasLote(ids, canceladas, completadas, activas, completadas);
+        if (completadas != 0 || canceladas != 0) {
+            metricasRepository.acumularReservasLote(ids, completadas, canceladas, completadas);
+        }
+    }
+
+    /** Suma los incrementos pendientes al resumen de cada alojamiento. */
+    @Scheduled(fixedDelayString = "${app.metricas.consolidar-ms:5000}")
+    @Transactional
+    public void consolidar() {
+        int filas = metricasRepository.consolidarPendientes();
+        if (filas > 0) {
+            log.debug("Resumen de métricas consolidado: {} alojamientos", filas);
+        }
+    }
+
+    /** Suma la calificación de un comentario recién creado (llamar dentro de su transacción). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCalificacion(UUID alojamientoId, int calificacion) {
+        metricasRepository.acumularCalificacion(alojamientoId, calificacion);
+        metricasRepository.acumularCalificacionDia(alojamientoId, calificacion);
+    }
+
+    /** Recalcula el resumen completo y los cubos recientes desde reservas y comentarios. */
+    @Scheduled(cron = "${app.metricas.cron-reconciliacion:0 40 0 * * *}")
+    @Transactional
+    public void reconciliar() {
+        int filas = metricasRepository.recalcularTodo();
+        log.info("Resumen de métricas recalculado: {} alojamientos", filas);
+        reconstruirDias(LocalDate.now().minusDays(diasReconciliacion));
+    }
+
+    private void reconstruirDias(LocalDate desde) {
+        metricasRepository.borrarDiasDesde(desde);
+        int dias = metricasRepository.reconstruirDiasReservas(desde);
+        int resenas = metricasRepository.reconstruirDiasResenas(desde);
+        log.info("Cubos diarios de métricas reconstruidos desde {}: {} filas de reservas, {} de reseñas",
+                desde, dias, resenas);
+    }
+
+    /** Resta la contribución anterior de la reserva a los cubos diarios y suma la nueva. */
+    private void acumularDias(ReservaCambiadaEvent ev) {
+        boolean sinCambios = ev.estado() == ev.estadoAnterior()
+                && Objects.equals(ev.checkIn(), ev.checkInAnterior())
+                && Objects.equals(ev.checkOut(), ev.checkOutAnterior());
+        if (sinCambios) {
+            return;
+        }
+        if (ev.estadoAnterior() != null) {
+            contribucionDias(ev.reservaId(), ev.checkInAnterior(), ev.checkOutAnterior(), ev.estadoAnterior(), -1);
+        }
+        contribucionDias(ev.reservaId(), ev.checkIn(), ev.checkOut(), ev.estado(), 1);
+    }
+
+    private void contribucionDias(UUID reservaId, LocalDate checkIn, LocalDate checkOut,
+                                  EstadoReserva estado, int signo) {
+        if (checkIn == null || checkOut == null) {
+            return;
+        }
+        boolean cancelada = estado == EstadoReserva.CANCELADA;
+        boolean completada = estado == EstadoReserva.COMPLETADA;
+        metricasRepository.acumularDias(reservaId, checkIn, checkOut,
+                signo,
+                cancelada ? signo : 0,
+                completada ? signo : 0,
+                cancelada ? 0 : signo,
+                completada ? signo : 0);
+    }
+
+    /** +1 si la reserva entra al estado, -1 si sale, 0 si no cambia. */
+    private static long delta(ReservaCambiadaEvent ev, EstadoReserva estado) {
+        return delta(ev.estadoAnterior(), ev.estado(), estado);
+    }
+
+    private static int delta(EstadoReserva anterior, EstadoReserva nuevo, EstadoReserva estado) {
+        return (nuevo == estado ? 1 : 0) - (anterior == estado ? 1 : 0);
+    }
+
+    private static long noches(LocalDate checkIn, LocalDate checkOut) {
+        return checkIn == null || checkOut == null ? 0 : Math.max(0, ChronoUnit.DAYS.between(checkIn, checkOut));
+    }
+}
@@ -0,0 +1,58 @@
+package co.edu.uniquindio.gohost.service.paginacion;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cursor de paginación keyset: la clave de orden de la última fila vista más su id (desempate).
+ * Se serializa como Base64 URL-safe de {@code "clave|id"} para que el cliente lo trate como opaco.
+ *
+ * @param clave valor de la columna de orden (fechaCreacion, checkIn, ...)
+ * @param id    id de la fila, segundo criterio de orden
+ */
+public record KeysetCursor<K>(K clave, UUID id) {
+
+    /** Tamaño máximo de página admitido en modo cursor. */
+    public static final int TAMANO_MAXIMO = 100;
+
+    public static String codificar(Object clave, UUID id) {
+        String plano = clave + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Cursor sobre una fecha-hora; null si el token viene vacío (primera página). */
+    public static KeysetCursor<LocalDateTime> deFechaHora(String token) {
+        return decodificar(token, LocalDateTime::parse);
+    }
+
+    /** Cursor sobre una fecha; null si el token viene vacío (primera página). */
+    public static KeysetCursor<LocalDate> deFecha(String token) {
+        return decodificar(token, LocalDate::parse);
+    }
+
+    /** Limita el tamaño pedido a [1, {@link #TAMANO_MAXIMO}]. */
+    public static int tamano(int size) {
+        return Math.max(1, Math.min(size, TAMANO_MAXIMO));
+    }
+
+    private static <K> KeysetCursor<K> decodificar(String token, Function<String, K> parser) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = plano.lastIndexOf('|');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new KeysetCursor<>(parser.apply(plano.substring(0, sep)), UUID.fromString(plano.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
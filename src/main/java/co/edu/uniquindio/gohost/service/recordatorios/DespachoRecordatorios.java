@@ -0,0 +1,131 @@
+package co.edu.uniquindio.gohost.service.recordatorios;
+
+import co.edu.uniquindio.gohost.event.RecordatorioProgramadoEvent;
+import co.edu.uniquindio.gohost.model.EstadoRecordatorio;
+import co.edu.uniquindio.gohost.repository.NotificacionRecordatorioRepository;
+import co.edu.uniquindio.gohost.service.RecordatorioService;
+import co.edu.uniquindio.gohost.service.bloqueos.RuedaTemporizacion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Envía cada recordatorio a su {@code fechaProgramada} con una {@link RuedaTemporizacion} en memoria.
+ *
+ * - Cada {@code app.recordatorios.precarga-ms} (y al arrancar) drena los atrasados por lotes de
+ *   {@code app.recordatorios.lote} y carga en la rueda los PROGRAMADOS de los próximos
+ *   {@code app.recordatorios.ventana-minutos}; así la rueda nunca tiene más que una ventana.
+ * - Los recordatorios nuevos se agendan al confirmarse su transacción ({@link RecordatorioProgramadoEvent})
+ *   si caen dentro de la ventana cargada; los posteriores llegan con la precarga siguiente.
+ * - Al vencer, {@link RecordatorioService#enviarProgramados} relee cada uno y solo envía los que
+ *   siguen PROGRAMADOS, de modo que cancelaciones y envíos por el drenaje no se duplican.
+ */
+@Slf4j
+@Component
+public class DespachoRecordatorios {
+
+    private final RecordatorioService recordatorioService;
+    private final NotificacionRecordatorioRepository recordatorioRepository;
+    private final RuedaTemporizacion<UUID> rueda;
+    private final long ventanaMinutos;
+    private final int lote;
+    private final boolean habilitado;
+    /** Fin de la ventana ya cargada en la rueda (epoch ms). */
+    private volatile long horizonteMs;
+
+    public DespachoRecordatorios(RecordatorioService recordatorioService,
+                                 NotificacionRecordatorioRepository recordatorioRepository,
+                                 @Value("${app.recordatorios.tick-ms:1000}") long tickMs,
+                                 @Value("${app.recordatorios.ranuras:1024}") int ranuras,
+                                 @Value("${app.recordatorios.ventana-minutos:30}") long ventanaMinutos,
+                                 @Value("${app.recordatorios.lote:200}") int lote,
+                                 @Value("${app.recordatorios.enabled:true}") boolean habilitado) {
+        this.recordatorioService = recordatorioService;
+        this.recordatorioRepository = recordatorioRepository;
+        this.rueda = new RuedaTemporizacion<>(tickMs, ranuras, System.currentTimeMillis());
+        this.ventanaMinutos = ventanaMinutos;
+        this.lote = lote;
+        this.habilitado = habilitado;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        precargar();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordatorioProgramado(RecordatorioProgramadoEvent ev) {
+        long venceMs = aMs(ev.fechaProgramada());
+        if (venceMs <= horizonteMs) {
+            rueda.programar(ev.recordatorioId(), venceMs);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.recordatorios.tick-ms:1000}")
+    public synchronized void avanzar() {
+        List<UUID> vencidos = rueda.avanzar(System.currentTimeMillis());
+        for (int i = 0; i < vencidos.size(); i += lote) {
+            List<UUID> bloque = vencidos.subList(i, Math.min(i + lote, vencidos.size()));
+            try {
+                recordatorioService.enviarProgramados(bloque);
+            } catch (Exception e) {
+                // Siguen PROGRAMADOS: los recoge el drenaje de atrasados
+                log.error("Error al enviar {} recordatorios vencidos: {}", bloque.size(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Drena los atrasados y carga la ventana siguiente. */
+    @Scheduled(fixedDelayString = "${app.recordatorios.precarga-ms:600000}",
+               initialDelayString = "${app.recordatorios.precarga-ms:600000}")
+    public synchronized void precargar() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        int atrasados = drenarAtrasados();
+
+        // El horizonte avanza antes de consultar: lo que se cree mientras tanto lo agenda el evento
+        LocalDateTime hasta = ahora.plusMinutes(ventanaMinutos);
+        horizonteMs = Math.max(horizonteMs, aMs(hasta));
+        List<Object[]> proximos = recordatorioRepository.findProgramadasEntre(EstadoRecordatorio.PROGRAMADO, ahora, hasta);
+        for (Object[] fila : proximos) {
+            rueda.programar((UUID) fila[0], aMs((LocalDateTime) fila[1]));
+        }
+        log.info("Recordatorios: {} atrasados enviados, {} agendados hasta {} ({} en la rueda)",
+                atrasados, proximos.size(), hasta, rueda.tamano());
+    }
+
+    /**
+     * Envía los vencidos por lotes mientras salgan completos; cada recordatorio va en su propia
+     * transacción. Un lote con fallos corta la pasada: los fallidos quedan con el intento y el error
+     * registrados y se reintentan en la siguiente hasta agotar los intentos.
+     */
+    private int drenarAtrasados() {
+        int total = 0;
+        try {
+            int enviados;
+            do {
+                enviados = recordatorioService.enviarVencidos(lote);
+                total += enviados;
+            } while (enviados == lote);
+        } catch (Exception e) {
+            log.error("Error al drenar recordatorios atrasados tras {} envíos: {}", total, e.getMessage(), e);
+        }
+        return total;
+    }
+
+    private static long aMs(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
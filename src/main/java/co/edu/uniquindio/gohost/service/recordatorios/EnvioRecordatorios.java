@@ -0,0 +1,122 @@
+package co.edu.uniquindio.gohost.service.recordatorios;
+
+import co.edu.uniquindio.gohost.model.EstadoRecordatorio;
+import co.edu.uniquindio.gohost.model.NotificacionRecordatorio;
+import co.edu.uniquindio.gohost.repository.NotificacionRecordatorioRepository;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
+import co.edu.uniquindio.gohost.service.mail.EmailRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Envío de recordatorios uno a uno.
+ *
+ * Antes de encolar el correo, {@link #enviarSiVence} reclama la fila con un UPDATE condicional
+ * (PROGRAMADO → ENVIADO), como la bandeja de salida reclama sus filas: si varios nodos disparan
+ * el mismo recordatorio a la misma hora, solo uno lo encola.
+ *
+ * {@link #enviarSiVence} y {@link #registrarFallo} abren siempre su propia transacción
+ * (REQUIRES_NEW): un recordatorio que no se puede encolar revierte solo su envío, no el del
+ * resto del lote, y su fallo queda registrado aunque el llamador esté en una transacción.
+ * Tras {@code app.recordatorios.max-intentos} fallos el recordatorio pasa a ERROR.
+ */
+@Slf4j
+@Component
+public class EnvioRecordatorios {
+
+    private final NotificacionRecordatorioRepository recordatorioRepository;
+    private final BandejaSalida bandejaSalida;
+    private final int maxIntentos;
+
+    public EnvioRecordatorios(NotificacionRecordatorioRepository recordatorioRepository,
+                              BandejaSalida bandejaSalida,
+                              @Value("${app.recordatorios.max-intentos:3}") int maxIntentos) {
+        this.recordatorioRepository = recordatorioRepository;
+        this.bandejaSalida = bandejaSalida;
+        this.maxIntentos = Math.max(1, maxIntentos);
+    }
+
+    /**
+     * En una transacción propia, reclama el recordatorio si sigue PROGRAMADO y ya venció (pudo
+     * cancelarse o enviarlo otro nodo después de cargarse) y encola su correo. Si no se puede
+     * encolar, la transacción se revierte y el recordatorio vuelve a quedar PROGRAMADO.
+     *
+     * @return true si este llamador lo envió
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean enviarSiVence(UUID recordatorioId, LocalDateTime ahora) {
+        if (recordatorioRepository.reclamarParaEnvio(recordatorioId,
+                EstadoRecordatorio.PROGRAMADO, EstadoRecordatorio.ENVIADO, ahora) == 0) {
+            return false;
+        }
+        NotificacionRecordatorio recordatorio = recordatorioRepository.findById(recordatorioId).orElseThrow();
+        encolarCorreo(recordatorio);
+        log.info("Recordatorio {} enviado exitosamente", recordatorioId);
+        return true;
+    }
+
+    /**
+     * Deja el correo del recordatorio en la bandeja de salida y lo marca ENVIADO dentro de la
+     * transacción actual. Si no se puede encolar, la excepción se propaga.
+     */
+    @Transactional
+    public void enviar(NotificacionRecordatorio recordatorio) {
+        recordatorio.setIntentosEnvio(recordatorio.getIntentosEnvio() + 1);
+        encolarCorreo(recordatorio);
+
+        // Marcar como enviado: el correo ya quedó en la bandeja de salida, que se encarga de los reintentos
+        recordatorio.setEstado(EstadoRecordatorio.ENVIADO);
+        recordatorio.setFechaEnviado(LocalDateTime.now());
+        recordatorio.setMensajeError(null);
+
+        recordatorioRepository.save(recordatorio);
+
+        log.info("Recordatorio {} enviado exitosamente", recordatorio.getId());
+    }
+
+    private void encolarCorreo(NotificacionRecordatorio recordatorio) {
+        log.info("Enviando recordatorio {} a {}", recordatorio.getId(), recordatorio.getEmailDestinatario());
+
+        String html = """
+            <div style="font-family:Arial,Helvetica,sans-serif;background:#f7f7f9;padding:24px">
+            <table role="presentation" style="max-width:600px;margin:auto;background:#ffffff;border-radius:12px;overflow:hidden">
+            <tr><td style="background:#546e7a;color:#ffffff;padding:20px;font-size:18px">%s</td></tr>
+            <tr><td style="padding:24px;color:#333333">%s</td></tr>
+            <tr><td style="padding:16px 24px;color:#888888;font-size:12px">GoHost</td></tr>
+            </table></div>
+            """.formatted(recordatorio.getAsunto(), recordatorio.getMensaje());
+
+        bandejaSalida.encolar(EmailRequest.builder()
+            .to(recordatorio.getEmailDestinatario())
+            .subject(recordatorio.getAsunto())
+            .html(html)
+            .build());
+    }
+
+    /**
+     * Registra un envío fallido en una transacción propia: suma el intento (el de la transacción
+     * revertida se perdió), guarda el error y pasa a ERROR al agotar los intentos.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void registrarFallo(UUID recordatorioId, String error) {
+        recordatorioRepository.findById(recordatorioId).ifPresent(recordatorio -> {
+            int intentos = recordatorio.getIntentosEnvio() + 1;
+            recordatorio.setIntentosEnvio(intentos);
+            recordatorio.setMensajeError(error);
+            recordatorio.setFechaActualizacion(LocalDateTime.now());
+            if (intentos >= maxIntentos) {
+                recordatorio.setEstado(EstadoRecordatorio.ERROR);
+                log.error("Recordatorio {} en ERROR tras {} intentos: {}", recordatorioId, intentos, error);
+            } else {
+                log.warn("Recordatorio {} falló (intento {}): {}", recordatorioId, intentos, error);
+            }
+            recordatorioRepository.save(recordatorio);
+        });
+    }
+}
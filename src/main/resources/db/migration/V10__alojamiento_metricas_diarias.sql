@@ -0,0 +1,23 @@
+-- Métricas por alojamiento y día para tableros por rango de fechas y series de tiempo.
+-- Atribución de cada reserva:
+--   reservas / canceladas / completadas -> día de check-in
+--   noches_reservadas                    -> cada noche [check_in, check_out) de reservas no canceladas
+--   ingresos                             -> cada noche de reservas completadas (precio por noche)
+--   reseñas / suma de calificaciones     -> día de creación del comentario
+-- El histórico lo carga ResumenMetricas al arrancar si la tabla está vacía.
+CREATE TABLE IF NOT EXISTS alojamiento_metricas_diarias (
+    alojamiento_id UUID NOT NULL,
+    dia DATE NOT NULL,
+    reservas INT NOT NULL DEFAULT 0,
+    cancelaciones INT NOT NULL DEFAULT 0,
+    completadas INT NOT NULL DEFAULT 0,
+    noches_reservadas INT NOT NULL DEFAULT 0,
+    ingresos NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    resenas INT NOT NULL DEFAULT 0,
+    suma_calificaciones INT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_amd PRIMARY KEY (alojamiento_id, dia),
+    CONSTRAINT fk_amd_aloj FOREIGN KEY (alojamiento_id) REFERENCES alojamientos(id) ON DELETE CASCADE
+);
+
+-- Series del anfitrión: todas sus filas de un rango de días
+CREATE INDEX IF NOT EXISTS idx_amd_dia ON alojamiento_metricas_diarias (dia);
@@ -0,0 +1,34 @@
+-- La regla "sin reservas activas traslapadas en un mismo alojamiento" pasa a la base de datos.
+-- Antes solo la verificaba ReservaServiceImpl con existsTraslape + save, sin bloqueo: dos
+-- solicitudes concurrentes por las mismas fechas podían confirmar ambas.
+--
+-- Una reserva activa (no eliminada y no CANCELADA) ocupa las noches [check_in, check_out).
+-- Las violaciones llegan como SQLSTATE 23P01 y la aplicación responde "Fechas no disponibles".
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reserva
+    ADD COLUMN IF NOT EXISTS estancia DATERANGE
+        GENERATED ALWAYS AS (daterange(check_in, check_out, '[)')) STORED;
+
+-- La restricción no se puede crear si ya hay traslapes: se listan para resolverlos a mano
+DO $$
+DECLARE
+    conflictos TEXT;
+BEGIN
+    SELECT string_agg(a.id || ' / ' || b.id, ', ')
+      INTO conflictos
+      FROM reserva a
+      JOIN reserva b ON b.alojamiento_id = a.alojamiento_id
+                    AND a.id < b.id
+                    AND a.estancia && b.estancia
+     WHERE a.eliminada = false AND a.estado <> 'CANCELADA'
+       AND b.eliminada = false AND b.estado <> 'CANCELADA';
+    IF conflictos IS NOT NULL THEN
+        RAISE EXCEPTION 'Reservas activas traslapadas (cancelar una de cada par antes de migrar): %', conflictos;
+    END IF;
+END $$;
+
+ALTER TABLE reserva
+    ADD CONSTRAINT ex_reserva_sin_traslape
+    EXCLUDE USING gist (alojamiento_id WITH =, estancia WITH &&)
+    WHERE (eliminada = false AND estado <> 'CANCELADA');
@@ -0,0 +1,29 @@
+-- Bandeja de salida de correos (patrón outbox): cada correo se inserta en la misma transacción
+-- que el cambio de negocio que lo origina y un despachador en segundo plano lo envía después.
+-- disponible_en sirve de turno y de arriendo: al reclamar una fila se corre hacia adelante, de
+-- modo que si el nodo muere a mitad de envío la fila vuelve a quedar disponible sola.
+CREATE TABLE IF NOT EXISTS outbox (
+    id UUID PRIMARY KEY,
+    destinatario VARCHAR(320) NOT NULL,
+    asunto VARCHAR(500),
+    html TEXT,
+    remitente VARCHAR(320),
+    cc VARCHAR(1000),
+    bcc VARCHAR(1000),
+    estado VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE',
+    intentos INT NOT NULL DEFAULT 0,
+    ultimo_error TEXT,
+    creado_en TIMESTAMP NOT NULL DEFAULT now(),
+    disponible_en TIMESTAMP NOT NULL DEFAULT now(),
+    enviado_en TIMESTAMP
+);
+
+-- Solo las filas pendientes interesan al despachador; el índice parcial se mantiene pequeño
+CREATE INDEX IF NOT EXISTS idx_outbox_pendientes
+    ON outbox (disponible_en)
+    WHERE estado = 'PENDIENTE';
+
+-- Purga de enviados antiguos
+CREATE INDEX IF NOT EXISTS idx_outbox_enviados
+    ON outbox (enviado_en)
+    WHERE estado = 'ENVIADO';
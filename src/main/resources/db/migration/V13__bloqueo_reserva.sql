@@ -0,0 +1,27 @@
+-- Bloqueos temporales de fechas durante el checkout. Un bloqueo vigente (expira_en > now())
+-- cuenta como ocupado para los demás huéspedes; al confirmarse se convierte en reserva y se borra.
+-- La tabla solo da persistencia ante reinicios: el vencimiento lo agenda una rueda de
+-- temporización en memoria y las consultas filtran por expira_en, así un bloqueo vencido
+-- nunca bloquea aunque su fila siga aquí unos segundos.
+CREATE TABLE IF NOT EXISTS bloqueo_reserva (
+    id UUID PRIMARY KEY,
+    alojamiento_id UUID NOT NULL,
+    huesped_id UUID NOT NULL,
+    check_in DATE NOT NULL,
+    check_out DATE NOT NULL,
+    numero_huespedes INT NOT NULL,
+    expira_en TIMESTAMP NOT NULL,
+    creado_en TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT ck_bloqueo_rango CHECK (check_out > check_in),
+    CONSTRAINT fk_bloqueo_aloj FOREIGN KEY (alojamiento_id) REFERENCES alojamientos(id) ON DELETE CASCADE,
+    CONSTRAINT fk_bloqueo_huesped FOREIGN KEY (huesped_id) REFERENCES usuario(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_bloqueo_alojamiento_rango
+    ON bloqueo_reserva (alojamiento_id, check_in, check_out);
+
+CREATE INDEX IF NOT EXISTS idx_bloqueo_huesped
+    ON bloqueo_reserva (huesped_id);
+
+CREATE INDEX IF NOT EXISTS idx_bloqueo_expira
+    ON bloqueo_reserva (expira_en);
@@ -0,0 +1,15 @@
+-- Respuestas de POST con cabecera Idempotency-Key, por usuario y clave. La fila se inserta al
+-- inicio de la misma transacción que la operación: un duplicado concurrente en otro nodo espera
+-- en el INSERT ... ON CONFLICT hasta que la primera confirme y luego repite su respuesta.
+CREATE TABLE IF NOT EXISTS clave_idempotencia (
+    usuario_id UUID NOT NULL,
+    clave VARCHAR(255) NOT NULL,
+    operacion VARCHAR(100) NOT NULL,
+    huella VARCHAR(64) NOT NULL,
+    respuesta TEXT,
+    creado_en TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (usuario_id, clave)
+);
+
+CREATE INDEX IF NOT EXISTS idx_clave_idempotencia_creado
+    ON clave_idempotencia (creado_en);
@@ -0,0 +1,5 @@
+-- Recordatorios por despachar ordenados por fecha: lo usan la precarga de la ventana siguiente
+-- (rueda de temporización en memoria) y el drenaje por lotes de los atrasados.
+CREATE INDEX IF NOT EXISTS idx_recordatorio_programado_fecha
+    ON notificaciones_recordatorio (fecha_programada)
+    WHERE estado = 'PROGRAMADO';
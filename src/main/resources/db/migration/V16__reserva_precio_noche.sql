@@ -0,0 +1,13 @@
+-- Precio por noche pactado al crear la reserva. Los ingresos de las métricas (resumen y cubos
+-- diarios) se calculan con él, así un cambio posterior del precio del alojamiento no altera
+-- lo ya reservado ni desvía la reconciliación nocturna de los incrementos.
+ALTER TABLE reserva ADD COLUMN IF NOT EXISTS precio_noche NUMERIC(10,2);
+
+-- Reservas existentes: el mejor dato disponible es el precio actual del alojamiento
+UPDATE reserva r
+   SET precio_noche = a.precio_noche
+  FROM alojamientos a
+ WHERE a.id = r.alojamiento_id
+   AND r.precio_noche IS NULL;
+
+ALTER TABLE reserva ALTER COLUMN precio_noche SET NOT NULL;
@@ -0,0 +1,16 @@
+-- Incrementos del resumen de métricas aún no consolidados. Las transacciones de reservas y
+-- comentarios solo insertan aquí (nunca chocan entre sí); ResumenMetricas los suma a
+-- alojamiento_metricas cada pocos segundos y los borra en la misma sentencia. Así dos reservas
+-- concurrentes del mismo alojamiento no se esperan por su fila del resumen.
+CREATE TABLE IF NOT EXISTS alojamiento_metricas_pendientes (
+    id BIGSERIAL PRIMARY KEY,
+    alojamiento_id UUID NOT NULL,
+    total_reservas BIGINT NOT NULL DEFAULT 0,
+    reservas_completadas BIGINT NOT NULL DEFAULT 0,
+    reservas_canceladas BIGINT NOT NULL DEFAULT 0,
+    ingresos_totales NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    suma_calificaciones BIGINT NOT NULL DEFAULT 0,
+    total_calificaciones BIGINT NOT NULL DEFAULT 0,
+    creado_en TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT fk_amp_aloj FOREIGN KEY (alojamiento_id) REFERENCES alojamientos(id) ON DELETE CASCADE
+);
@@ -0,0 +1,27 @@
+-- Máscara de servicios por alojamiento: bit N = ordinal N de ServicioAlojamiento.
+-- Permite filtrar "tiene todos estos servicios" con (servicios_mask & :m) = :m
+-- sin unir alojamiento_servicios ni cargar la colección por fila.
+ALTER TABLE alojamientos ADD COLUMN IF NOT EXISTS servicios_mask BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill desde la colección existente (mismo orden que el enum Java)
+UPDATE alojamientos a
+   SET servicios_mask = s.mascara
+  FROM (
+        SELECT alojamiento_id,
+               bit_or(1::BIGINT << (array_position(ARRAY[
+                   'WIFI', 'PISCINA', 'MASCOTAS_PERMITIDAS', 'AIRE_ACONDICIONADO', 'CALEFACCION',
+                   'COCINA', 'LAVADORA', 'SECADORA', 'TELEVISION', 'NETFLIX', 'GIMNASIO', 'SPA',
+                   'JACUZZI', 'BALCON', 'TERRAZA', 'JARDIN', 'PARRILLA', 'ESTACIONAMIENTO',
+                   'SEGURIDAD_24H', 'ASCENSOR', 'ACCESO_DISCAPACITADOS', 'DESAYUNO_INCLUIDO',
+                   'SERVICIO_LIMPIEZA', 'RECEPCION_24H'
+               ]::VARCHAR[], servicio::VARCHAR) - 1)) AS mascara
+          FROM alojamiento_servicios
+         GROUP BY alojamiento_id
+       ) s
+ WHERE a.id = s.alojamiento_id;
+
+-- Índice de búsqueda sobre alojamientos activos: capacidad/precio por rango
+-- y la máscara incluida para evaluar el filtro de servicios sin visitar la tabla.
+CREATE INDEX IF NOT EXISTS idx_aloj_busqueda_activos
+  ON alojamientos (capacidad, precio_noche) INCLUDE (servicios_mask)
+  WHERE activo = true;
@@ -0,0 +1,15 @@
+-- Índices compuestos para paginación por cursor (keyset).
+-- Coinciden con el ORDER BY de las consultas *Keyset para que cada página
+-- sea un recorrido acotado del índice en lugar de OFFSET + ordenamiento.
+
+-- GET /api/alojamientos y POST /api/alojamientos/search: ORDER BY fecha_creacion DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_alojamientos_creacion_id
+  ON alojamientos (fecha_creacion DESC, id DESC);
+
+-- GET /api/reservas/mias: WHERE huesped_id = ? ORDER BY check_in DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_reservas_huesped_checkin_id
+  ON reserva (huesped_id, check_in DESC, id DESC);
+
+-- GET /api/reservas/anfitrion: join por alojamiento_id, ORDER BY check_in DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_reservas_alojamiento_checkin_id
+  ON reserva (alojamiento_id, check_in DESC, id DESC);
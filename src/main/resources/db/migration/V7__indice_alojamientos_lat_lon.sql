@@ -0,0 +1,5 @@
+-- Respaldo SQL de la búsqueda geográfica (POST /api/alojamientos/search/geo):
+-- predicados de rango sobre latitud/longitud de alojamientos activos, sin PostGIS.
+CREATE INDEX IF NOT EXISTS idx_alojamientos_lat_lon
+  ON alojamientos (direccion_lat, direccion_lon)
+  WHERE activo = true;
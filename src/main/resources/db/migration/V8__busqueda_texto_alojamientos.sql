@@ -0,0 +1,12 @@
+-- Búsqueda por texto libre sobre título y descripción (campo "q" de la búsqueda avanzada).
+-- Columna generada con el diccionario español (título con más peso que la descripción)
+-- e índice GIN para que websearch_to_tsquery no recorra las columnas TEXT con LIKE.
+ALTER TABLE alojamientos
+  ADD COLUMN IF NOT EXISTS busqueda_tsv tsvector
+  GENERATED ALWAYS AS (
+    setweight(to_tsvector('spanish', coalesce(titulo, '')), 'A') ||
+    setweight(to_tsvector('spanish', coalesce(descripcion, '')), 'B')
+  ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_alojamientos_busqueda_tsv
+  ON alojamientos USING GIN (busqueda_tsv);
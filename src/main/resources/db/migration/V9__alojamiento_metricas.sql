@@ -0,0 +1,39 @@
+-- Resumen de métricas por alojamiento, mantenido en la misma transacción que cada
+-- cambio de reserva o comentario. GET /api/alojamientos/{id}/metricas lo lee por PK
+-- en lugar de agregar reserva x comentario en cada consulta.
+CREATE TABLE IF NOT EXISTS alojamiento_metricas (
+    alojamiento_id UUID PRIMARY KEY,
+    total_reservas BIGINT NOT NULL DEFAULT 0,
+    reservas_completadas BIGINT NOT NULL DEFAULT 0,
+    reservas_canceladas BIGINT NOT NULL DEFAULT 0,
+    ingresos_totales NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    suma_calificaciones BIGINT NOT NULL DEFAULT 0,
+    total_calificaciones BIGINT NOT NULL DEFAULT 0,
+    actualizado_en TIMESTAMP NOT NULL DEFAULT now(),
+    CONSTRAINT fk_am_aloj FOREIGN KEY (alojamiento_id) REFERENCES alojamientos(id) ON DELETE CASCADE
+);
+
+-- Carga inicial desde las reservas existentes (un agregado por tabla, sin producto cruzado)
+INSERT INTO alojamiento_metricas (alojamiento_id, total_reservas, reservas_completadas, reservas_canceladas, ingresos_totales)
+SELECT a.id,
+       COUNT(r.id),
+       COUNT(r.id) FILTER (WHERE r.estado = 'COMPLETADA'),
+       COUNT(r.id) FILTER (WHERE r.estado = 'CANCELADA'),
+       COALESCE(SUM((r.check_out - r.check_in) * a.precio_noche) FILTER (WHERE r.estado = 'COMPLETADA'), 0)
+  FROM alojamientos a
+  LEFT JOIN reserva r ON r.alojamiento_id = a.id
+ GROUP BY a.id
+ON CONFLICT (alojamiento_id) DO NOTHING;
+
+-- La tabla de comentarios la crea Hibernate; puede no existir aún en una base nueva
+DO $$
+BEGIN
+    IF to_regclass('comentario') IS NOT NULL THEN
+        UPDATE alojamiento_metricas m
+           SET suma_calificaciones = c.suma,
+               total_calificaciones = c.total
+          FROM (SELECT alojamiento_id, SUM(calificacion) AS suma, COUNT(*) AS total
+                  FROM comentario GROUP BY alojamiento_id) c
+         WHERE c.alojamiento_id = m.alojamiento_id;
+    END IF;
+END $$;
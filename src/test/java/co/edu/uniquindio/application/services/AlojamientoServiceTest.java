@@ -1,34 +1,63 @@
 package co.edu.uniquindio.application.services;
 
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.ActualizacionLoteDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.CambioAlojamientoDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.ConsultaDisponibilidadDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.DisponibilidadLoteDTO;
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.FiltroAvanzadoDTO;
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
 import co.edu.uniquindio.gohost.model.Alojamiento;
 import co.edu.uniquindio.gohost.model.Direccion;
+import co.edu.uniquindio.gohost.model.EstadoReserva;
 import co.edu.uniquindio.gohost.model.Rol;
+import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
 import co.edu.uniquindio.gohost.model.Usuario;
+import co.edu.uniquindio.gohost.repository.AlojamientoMetricasRepository;
 import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
 import co.edu.uniquindio.gohost.repository.ReservaRepository;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
+import co.edu.uniquindio.gohost.service.busqueda.Geo;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceCiudades;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceGeografico;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceMapa;
+import co.edu.uniquindio.gohost.service.busqueda.RankingAlojamientos;
+import co.edu.uniquindio.gohost.service.cache.CacheAlojamientos;
+import co.edu.uniquindio.gohost.service.catalogo.CatalogoAlojamientos;
+import co.edu.uniquindio.gohost.service.disponibilidad.IndiceOcupacion;
 import co.edu.uniquindio.gohost.service.impl.AlojamientoServiceImpl;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.LazyInitializationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -44,6 +73,26 @@ class AlojamientoServiceUnitTest {
     private UsuarioRepository usuarioRepository;
     @Mock
     private ReservaRepository reservaRepository;
+    @Mock
+    private AlojamientoMetricasRepository metricasRepository;
+    @Mock
+    private BandejaSalida bandejaSalida;
+    @Mock
+    private IndiceOcupacion indiceOcupacion;
+    @Mock
+    private IndiceCiudades indiceCiudades;
+    @Mock
+    private IndiceGeografico indiceGeografico;
+    @Mock
+    private IndiceMapa indiceMapa;
+    @Spy
+    private RankingAlojamientos rankingAlojamientos = new RankingAlojamientos(0.5, 0.2, 0.2, 0.1, 5, 10, 90);
+    @Spy
+    private CacheAlojamientos cacheAlojamientos = new CacheAlojamientos(100, 60, 100, 30, 100, 60);
+    @Mock
+    private CatalogoAlojamientos catalogoAlojamientos;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private AlojamientoServiceImpl alojamientoService;
 
@@ -182,7 +231,7 @@ class AlojamientoServiceUnitTest {
         Page<Alojamiento> pagina = new PageImpl<>(alojamientos);
         var pageable = PageRequest.of(0, 10);
 
-        when(alojamientoRepository.findAllWithFotos(pageable)).thenReturn(pagina);
+        when(alojamientoRepository.findAll(pageable)).thenReturn(pagina);
 
         // Act
         var resultado = alojamientoService.listar(pageable);
@@ -190,7 +239,40 @@ class AlojamientoServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(alojamientoRepository).findAllWithFotos(pageable);
+        verify(alojamientoRepository).findAll(pageable);
+    }
+
+    @Test
+    @DisplayName("Listar hidrata fotos y servicios de toda la página con una consulta por colección")
+    void testListarHidrataEnLote() {
+        // Arrange
+        Alojamiento otro = Alojamiento.builder()
+                .id(UUID.randomUUID())
+                .titulo("Otro")
+                .anfitrion(anfitrionMock)
+                .build();
+        var pageable = PageRequest.of(0, 10);
+        when(alojamientoRepository.findAll(pageable))
+                .thenReturn(new PageImpl<>(List.of(alojamientoMock, otro), pageable, 2));
+        when(alojamientoRepository.findFotosByAlojamientoIds(List.of(alojamientoId, otro.getId())))
+                .thenReturn(List.of(
+                        new Object[]{alojamientoId, "a1.jpg"},
+                        new Object[]{alojamientoId, "a2.jpg"},
+                        new Object[]{otro.getId(), "b1.jpg"}));
+        when(alojamientoRepository.findServiciosByAlojamientoIds(List.of(alojamientoId, otro.getId())))
+                .thenReturn(List.<Object[]>of(new Object[]{otro.getId(), ServicioAlojamiento.values()[0]}));
+
+        // Act
+        var resultado = alojamientoService.listar(pageable).getContent();
+
+        // Assert
+        assertEquals(List.of("a1.jpg", "a2.jpg"), resultado.get(0).fotos());
+        assertTrue(resultado.get(0).servicios().isEmpty());
+        assertEquals(List.of("b1.jpg"), resultado.get(1).fotos());
+        assertEquals(List.of(ServicioAlojamiento.values()[0]), resultado.get(1).servicios());
+        assertEquals(anfitrionId, resultado.get(1).anfitrionId());
+        verify(alojamientoRepository, times(1)).findFotosByAlojamientoIds(any());
+        verify(alojamientoRepository, times(1)).findServiciosByAlojamientoIds(any());
     }
 
     @Test
@@ -202,7 +284,7 @@ class AlojamientoServiceUnitTest {
         var pageable = PageRequest.of(0, 10);
 
         when(usuarioRepository.existsById(anfitrionId)).thenReturn(true);
-        when(alojamientoRepository.findByAnfitrionIdWithFotos(anfitrionId, pageable))
+        when(alojamientoRepository.findByAnfitrionId(anfitrionId, pageable))
                 .thenReturn(pagina);
 
         // Act
@@ -211,7 +293,7 @@ class AlojamientoServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(alojamientoRepository).findByAnfitrionIdWithFotos(anfitrionId, pageable);
+        verify(alojamientoRepository).findByAnfitrionId(anfitrionId, pageable);
     }
 
     @Test
@@ -227,7 +309,7 @@ class AlojamientoServiceUnitTest {
         assertThrows(EntityNotFoundException.class,
                 () -> alojamientoService.listarPorAnfitrion(idNoExiste, pageable)
         );
-        verify(alojamientoRepository, never()).findByAnfitrionIdWithFotos(any(), any());
+        verify(alojamientoRepository, never()).findByAnfitrionId(any(), any());
     }
 
     // ========== PRUEBAS DE OBTENCIÓN ==========
@@ -249,6 +331,32 @@ class AlojamientoServiceUnitTest {
         verify(alojamientoRepository).findByIdWithFotos(alojamientoId);
     }
 
+    @Test
+    @DisplayName("Obtener sin catálogo ni caché no toca la colección lazy de servicios")
+    void testObtenerEnFrioSinColeccionLazy() {
+        // Arrange - fuera de sesión cualquier acceso a la colección lanza
+        ReflectionTestUtils.setField(alojamientoService, "ventanaCalendario", 400);
+        @SuppressWarnings("unchecked")
+        List<ServicioAlojamiento> perezosa = mock(List.class, invocacion -> {
+            throw new LazyInitializationException("sin sesión");
+        });
+        ReflectionTestUtils.setField(alojamientoMock, "servicios", perezosa);
+        when(catalogoAlojamientos.obtener(alojamientoId)).thenReturn(Optional.empty());
+        when(alojamientoRepository.findByIdWithFotos(alojamientoId)).thenReturn(Optional.of(alojamientoMock));
+        List<Object[]> servicios = new ArrayList<>();
+        servicios.add(new Object[]{alojamientoId, ServicioAlojamiento.WIFI});
+        when(alojamientoRepository.findServiciosByAlojamientoIds(List.of(alojamientoId))).thenReturn(servicios);
+
+        // Act
+        var resultado = alojamientoService.obtener(alojamientoId);
+        var calendario = alojamientoService.calendario(alojamientoId, null, null);
+
+        // Assert
+        assertEquals(List.of(ServicioAlojamiento.WIFI), resultado.servicios());
+        assertEquals(alojamientoId, calendario.alojamientoId());
+        verify(alojamientoRepository, times(1)).findByIdWithFotos(alojamientoId);
+    }
+
     @Test
     @DisplayName("Obtener alojamiento no existente lanza excepción")
     void testObtenerAlojamientoNoExistenteLanzaExcepcion() {
@@ -355,7 +463,7 @@ class AlojamientoServiceUnitTest {
         Page<Alojamiento> pagina = new PageImpl<>(alojamientos);
         var pageable = PageRequest.of(0, 10);
 
-        when(alojamientoRepository.findAllWithFotos(pageable)).thenReturn(pagina);
+        when(alojamientoRepository.findAll(pageable)).thenReturn(pagina);
 
         // Act
         var resultado = alojamientoService.buscar(null, null, pageable);
@@ -363,8 +471,8 @@ class AlojamientoServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(alojamientoRepository).findAllWithFotos(pageable);
-        verify(alojamientoRepository, never()).searchWithFotos(any(), any(), any());
+        verify(alojamientoRepository).findAll(pageable);
+        verify(alojamientoRepository, never()).search(any(), any(), any());
     }
 
     @Test
@@ -376,7 +484,7 @@ class AlojamientoServiceUnitTest {
         Page<Alojamiento> pagina = new PageImpl<>(alojamientos);
         var pageable = PageRequest.of(0, 10);
 
-        when(alojamientoRepository.searchWithFotos(ciudad, null, pageable))
+        when(alojamientoRepository.search(ciudad, null, pageable))
                 .thenReturn(pagina);
 
         // Act
@@ -385,7 +493,7 @@ class AlojamientoServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(alojamientoRepository).searchWithFotos(ciudad, null, pageable);
+        verify(alojamientoRepository).search(ciudad, null, pageable);
     }
 
     @Test
@@ -397,7 +505,7 @@ class AlojamientoServiceUnitTest {
         Page<Alojamiento> pagina = new PageImpl<>(alojamientos);
         var pageable = PageRequest.of(0, 10);
 
-        when(alojamientoRepository.searchWithFotos(null, capacidad, pageable))
+        when(alojamientoRepository.search(null, capacidad, pageable))
                 .thenReturn(pagina);
 
         // Act
@@ -406,7 +514,7 @@ class AlojamientoServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(alojamientoRepository).searchWithFotos(null, capacidad, pageable);
+        verify(alojamientoRepository).search(null, capacidad, pageable);
     }
 
     @Test
@@ -419,7 +527,7 @@ class AlojamientoServiceUnitTest {
         Page<Alojamiento> pagina = new PageImpl<>(alojamientos);
         var pageable = PageRequest.of(0, 10);
 
-        when(alojamientoRepository.searchWithFotos(ciudad, capacidad, pageable))
+        when(alojamientoRepository.search(ciudad, capacidad, pageable))
                 .thenReturn(pagina);
 
         // Act
@@ -428,6 +536,432 @@ class AlojamientoServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(alojamientoRepository).searchWithFotos(ciudad, capacidad, pageable);
+        verify(alojamientoRepository).search(ciudad, capacidad, pageable);
+    }
+
+    @Test
+    @DisplayName("Búsquedas equivalentes se sirven de caché y una escritura las invalida")
+    void testBuscarUsaCacheEInvalidaConEscritura() {
+        // Arrange
+        Page<Alojamiento> pagina = new PageImpl<>(List.of(alojamientoMock));
+        var pageable = PageRequest.of(0, 10);
+        when(alojamientoRepository.search("Armenia", 4, pageable)).thenReturn(pagina);
+
+        // Act
+        alojamientoService.buscar("Armenia", 4, pageable);
+        var repetida = alojamientoService.buscar("  armenia ", 4, pageable);
+
+        // Assert - la segunda búsqueda (misma forma canónica) no consulta la BD
+        assertEquals(1, repetida.getTotalElements());
+        verify(alojamientoRepository, times(1)).search("Armenia", 4, pageable);
+
+        // Act - una escritura confirmada sube la versión
+        cacheAlojamientos.onAlojamientoCambiado(AlojamientoCambiadoEvent.modificado(alojamientoMock, "Armenia"));
+        alojamientoService.buscar("Armenia", 4, pageable);
+
+        // Assert
+        verify(alojamientoRepository, times(2)).search("Armenia", 4, pageable);
+    }
+
+    @Test
+    @DisplayName("Facetas: histograma de precios, capacidades y servicios desde una sola consulta")
+    void testBusquedaFacetada() {
+        // Arrange
+        ReflectionTestUtils.setField(alojamientoService, "cubetasPrecio", 4);
+        BigDecimal min = new BigDecimal("100");
+        BigDecimal max = new BigDecimal("500");
+        List<Object[]> filas = List.of(
+                new Object[]{0, 1, 1, null, null, 2L, min, max},
+                new Object[]{0, 1, 4, null, null, 1L, min, max},
+                new Object[]{1, 0, null, 2, null, 1L, min, max},
+                new Object[]{1, 0, null, 4, null, 2L, min, max},
+                new Object[]{1, 1, null, null, ServicioAlojamiento.WIFI.bit() | ServicioAlojamiento.PISCINA.bit(), 2L, min, max},
+                new Object[]{1, 1, null, null, ServicioAlojamiento.WIFI.bit(), 1L, min, max});
+        when(alojamientoRepository.busquedaAvanzada(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of()));
+        when(alojamientoRepository.facetasBusqueda(any(), any(), any(), any(), anyLong(), any(), any(), anyInt()))
+                .thenReturn(filas);
+        FiltroAvanzadoDTO filtro = new FiltroAvanzadoDTO("Armenia", null, null, null, null, null, null, 0, 10, null, null, null, null);
+
+        // Act
+        var resultado = alojamientoService.busquedaFacetada(filtro);
+        alojamientoService.busquedaFacetada(filtro);
+
+        // Assert
+        var facetas = resultado.facetas();
+        assertEquals(3, facetas.total());
+        assertEquals(4, facetas.precios().size());
+        assertEquals(2, facetas.precios().get(0).cantidad());
+        assertEquals(0, facetas.precios().get(1).cantidad());
+        assertEquals(1, facetas.precios().get(3).cantidad());
+        assertEquals(0, new BigDecimal("200").compareTo(facetas.precios().get(0).hasta()));
+        assertEquals(max, facetas.precios().get(3).hasta());
+        assertEquals(2L, facetas.capacidades().get(4));
+        assertEquals(3L, facetas.servicios().get(ServicioAlojamiento.WIFI));
+        assertEquals(2L, facetas.servicios().get(ServicioAlojamiento.PISCINA));
+        verify(alojamientoRepository, times(1)).facetasBusqueda(any(), any(), any(), any(), anyLong(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Orden por relevancia: solo la página pedida se carga, en orden de puntaje")
+    void testBusquedaPorRelevancia() {
+        // Arrange
+        UUID mejor = UUID.randomUUID();
+        UUID peor = UUID.randomUUID();
+        LocalDateTime creado = LocalDateTime.now().minusDays(10);
+        List<Object[]> candidatos = List.of(
+                new Object[]{peor, new BigDecimal("300000"), "Armenia", null, null, creado, 3.0, 10L, 3L},
+                new Object[]{alojamientoId, new BigDecimal("200000"), "Armenia", null, null, creado, 4.0, 10L, 3L},
+                new Object[]{mejor, new BigDecimal("150000"), "Armenia", null, null, creado, 5.0, 10L, 3L});
+        List<Object[]> medianas = new ArrayList<>();
+        medianas.add(new Object[]{"armenia", 200000.0});
+        ReflectionTestUtils.setField(alojamientoService, "maxCandidatos", 1000);
+        when(alojamientoRepository.candidatosRanking(eq("Armenia"), any(), any(), any(), anyLong(), eq(List.of(new UUID(0L, 0L))), any(),
+                any(), any(), anyDouble(), anyDouble(), eq(4.0), eq(1000))).thenReturn(candidatos);
+        when(alojamientoRepository.medianasPrecioPorCiudad(any())).thenReturn(medianas);
+        when(alojamientoRepository.promedioCalificacionGlobal()).thenReturn(new BigDecimal("4.0"));
+        when(alojamientoRepository.findAllById(List.of(alojamientoId))).thenReturn(List.of(alojamientoMock));
+        FiltroAvanzadoDTO filtro = new FiltroAvanzadoDTO("Armenia", null, null, null, null, null, null, 1, 1,
+                "relevancia", null, null, null);
+
+        // Act
+        var resultado = alojamientoService.busquedaAvanzada(filtro);
+
+        // Assert - la segunda posición del ranking es el alojamiento intermedio
+        assertEquals(3, resultado.getTotalElements());
+        assertEquals(1, resultado.getContent().size());
+        assertEquals(alojamientoId, resultado.getContent().get(0).id());
+        verify(alojamientoRepository, never()).busquedaAvanzada(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Orden no soportado lanza excepción")
+    void testBusquedaConOrdenInvalido() {
+        FiltroAvanzadoDTO filtro = new FiltroAvanzadoDTO(null, null, null, null, null, null, null, 0, 10,
+                "precio", null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> alojamientoService.busquedaAvanzada(filtro));
+    }
+
+    @Test
+    @DisplayName("Clusters: un zoom mayor al pre-agregado se rechaza")
+    void testClustersZoomMayorAlMaximo() {
+        when(indiceMapa.zoomMaximo()).thenReturn(10);
+
+        assertThrows(IllegalArgumentException.class, () -> alojamientoService.clustersDeTesela(11, 0, 0));
+        verifyNoInteractions(alojamientoRepository);
+    }
+
+    @Test
+    @DisplayName("Clusters sin índice: SQL agrupa por las celdas Mercator de la tesela")
+    void testClustersRespaldoSql() {
+        // Arrange
+        when(indiceMapa.zoomMaximo()).thenReturn(18);
+        when(indiceMapa.tesela(2, 1, 1)).thenReturn(Optional.empty());
+        when(indiceMapa.celdasPorLado(2)).thenReturn(16L);
+        double[] lim = Geo.limitesTesela(2, 1, 1);
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{6.2444, -75.5814, 2L, new BigDecimal("80")});
+        when(alojamientoRepository.agruparEnCeldas(lim[0], lim[1], lim[2], lim[3], 16L, 4L, 7L, 4L, 7L, lim[0], lim[1]))
+                .thenReturn(filas);
+
+        // Act
+        var clusters = alojamientoService.clustersDeTesela(2, 1, 1);
+
+        // Assert
+        assertEquals(1, clusters.size());
+        assertEquals(2, clusters.get(0).cantidad());
+    }
+
+    @Test
+    @DisplayName("Fecha de salida igual a la de entrada se rechaza en vez de ajustarse")
+    void testBusquedaConRangoVacio() {
+        LocalDate dia = LocalDate.now().plusDays(5);
+        FiltroAvanzadoDTO filtro = new FiltroAvanzadoDTO(null, dia, dia, null, null, null, null, 0, 10,
+                null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> alojamientoService.busquedaAvanzada(filtro));
+        verifyNoInteractions(indiceOcupacion, reservaRepository);
+    }
+
+    @Test
+    @DisplayName("Relevancia con fechas: los ocupados se excluyen en SQL y el total viene de la consulta")
+    void testBusquedaPorRelevanciaConFechas() {
+        // Arrange
+        UUID ocupado = UUID.randomUUID();
+        LocalDate in = LocalDate.now().plusDays(3);
+        LocalDate out = in.plusDays(2);
+        LocalDateTime creado = LocalDateTime.now().minusDays(10);
+        List<Object[]> candidatos = new ArrayList<>();
+        candidatos.add(new Object[]{alojamientoId, new BigDecimal("200000"), "Armenia", null, null, creado, 4.0, 10L, 25L});
+        ReflectionTestUtils.setField(alojamientoService, "maxCandidatos", 1);
+        when(indiceOcupacion.alojamientosOcupados(in, out)).thenReturn(Optional.of(Set.of(ocupado)));
+        when(alojamientoRepository.candidatosRanking(eq("Armenia"), any(), any(), any(), anyLong(), eq(Set.of(ocupado)), any(),
+                any(), any(), anyDouble(), anyDouble(), anyDouble(), eq(10))).thenReturn(candidatos);
+        when(alojamientoRepository.medianasPrecioPorCiudad(any())).thenReturn(new ArrayList<>());
+        when(alojamientoRepository.findAllById(List.of(alojamientoId))).thenReturn(List.of(alojamientoMock));
+        FiltroAvanzadoDTO filtro = new FiltroAvanzadoDTO("Armenia", in, out, null, null, null, null, 0, 10,
+                "relevancia", null, null, null);
+
+        // Act
+        var resultado = alojamientoService.busquedaAvanzada(filtro);
+
+        // Assert - el límite cubre al menos la página pedida y el total no depende de él
+        assertEquals(25, resultado.getTotalElements());
+        assertEquals(alojamientoId, resultado.getContent().get(0).id());
+        verify(reservaRepository, never()).findAlojamientosOcupados(any(), any());
+    }
+
+    @Test
+    @DisplayName("Búsqueda por texto: orden por coincidencia con fragmento resaltado")
+    void testBusquedaPorTexto() {
+        // Arrange
+        UUID otroId = UUID.randomUUID();
+        Alojamiento otro = Alojamiento.builder()
+                .id(otroId)
+                .titulo("Apartamento")
+                .descripcion("Cerca al lago")
+                .precioNoche(new BigDecimal("150000"))
+                .capacidad(2)
+                .anfitrion(anfitrionMock)
+                .build();
+        var pageable = PageRequest.of(0, 10);
+        Page<Object[]> filas = new PageImpl<>(List.of(
+                new Object[]{otroId, 0.9f, "Apartamento. Cerca al <mark>lago</mark>"},
+                new Object[]{alojamientoId, 0.4f, "<mark>Casa</mark> de Prueba"}), pageable, 2);
+        when(alojamientoRepository.busquedaTexto(eq("cabaña cerca al lago"), eq("Armenia"), any(), any(), any(),
+                anyLong(), any(), eq(pageable))).thenReturn(filas);
+        when(alojamientoRepository.findAllById(List.of(otroId, alojamientoId))).thenReturn(List.of(alojamientoMock, otro));
+        FiltroAvanzadoDTO filtro = new FiltroAvanzadoDTO(" Armenia", null, null, null, null, null, null, 0, 10,
+                null, null, null, "  cabaña cerca al lago ");
+
+        // Act
+        var resultado = alojamientoService.busquedaAvanzada(filtro);
+
+        // Assert
+        assertEquals(2, resultado.getTotalElements());
+        assertEquals(otroId, resultado.getContent().get(0).id());
+        assertEquals("Apartamento. Cerca al <mark>lago</mark>", resultado.getContent().get(0).resaltado());
+        assertEquals(alojamientoId, resultado.getContent().get(1).id());
+        verify(alojamientoRepository, never()).busquedaAvanzada(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Métricas leídas del resumen por PK, promedio = suma / total")
+    void testObtenerMetricasDesdeResumen() {
+        // Arrange
+        when(metricasRepository.resumen(alojamientoId)).thenReturn(List.<Object[]>of(
+                new Object[]{"Casa de Prueba", 9L, 2L, 5L, 2L, 1L, new BigDecimal("600000.00")}));
+
+        // Act
+        var metricas = alojamientoService.obtenerMetricas(alojamientoId);
+
+        // Assert
+        assertEquals(4.5, metricas.promedioCalificacion(), 1e-9);
+        assertEquals(5L, (long) metricas.totalReservas());
+        assertEquals(1L, (long) metricas.reservasCanceladas());
+        assertEquals(600000.0, metricas.ingresosTotales(), 1e-9);
+        verifyNoInteractions(reservaRepository);
+    }
+
+    @Test
+    @DisplayName("Serie de métricas: un punto por periodo con promedio solo si hubo reseñas")
+    void testSerieMetricasPorAnfitrion() {
+        // Arrange
+        UUID anfitrionId = anfitrionMock.getId();
+        LocalDate desde = LocalDate.of(2025, 1, 1);
+        LocalDate hasta = LocalDate.of(2025, 2, 28);
+        when(metricasRepository.serieAnfitrion(anfitrionId, null, desde, hasta, "month"))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{java.sql.Date.valueOf(desde), 12L, new BigDecimal("1200000.00"), 3L, 1L, 2L, 9L},
+                        new Object[]{java.sql.Date.valueOf(desde.plusMonths(1)), 0L, BigDecimal.ZERO, 0L, 0L, 0L, 0L}));
+
+        // Act
+        var serie = alojamientoService.serieMetricasPorAnfitrion(anfitrionId, null, desde, hasta, "Mes");
+
+        // Assert
+        assertEquals(2, serie.size());
+        assertEquals(desde, serie.get(0).periodo());
+        assertEquals(12L, serie.get(0).nochesReservadas());
+        assertEquals(4.5, serie.get(0).promedioCalificacion(), 1e-9);
+        assertNull(serie.get(1).promedioCalificacion());
+    }
+
+    @Test
+    @DisplayName("Serie de métricas de un alojamiento: se filtra por su id")
+    void testSerieMetricasDeUnAlojamiento() {
+        // Arrange
+        UUID anfitrionId = anfitrionMock.getId();
+        LocalDate desde = LocalDate.of(2025, 1, 1);
+        LocalDate hasta = LocalDate.of(2025, 1, 1);
+        when(alojamientoRepository.findById(alojamientoId)).thenReturn(Optional.of(alojamientoMock));
+        when(metricasRepository.serieAnfitrion(anfitrionId, alojamientoId, desde, hasta, "day"))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{java.sql.Date.valueOf(desde), 1L, new BigDecimal("100000.00"), 1L, 0L, 0L, 0L}));
+
+        // Act
+        var serie = alojamientoService.serieMetricasPorAnfitrion(anfitrionId, alojamientoId, desde, hasta, null);
+
+        // Assert
+        assertEquals(1, serie.size());
+        assertEquals(1L, serie.get(0).nochesReservadas());
+    }
+
+    @Test
+    @DisplayName("Serie de métricas: agrupación desconocida o rango invertido se rechazan")
+    void testSerieMetricasValidaciones() {
+        UUID anfitrionId = anfitrionMock.getId();
+        LocalDate hoy = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> alojamientoService.serieMetricasPorAnfitrion(anfitrionId, null, hoy, hoy.plusDays(5), "hora"));
+        assertThrows(IllegalArgumentException.class,
+                () -> alojamientoService.serieMetricasPorAnfitrion(anfitrionId, null, hoy, hoy.minusDays(1), "dia"));
+        verifyNoInteractions(metricasRepository);
+    }
+
+    @Test
+    @DisplayName("Calendario: tramos contiguos unidos, servido desde caché e invalidado por reservas")
+    void testCalendario() {
+        // Arrange
+        ReflectionTestUtils.setField(alojamientoService, "ventanaCalendario", 400);
+        LocalDate hoy = LocalDate.now();
+        when(alojamientoRepository.findByIdWithFotos(alojamientoId)).thenReturn(Optional.of(alojamientoMock));
+        when(reservaRepository.findRangosActivos(eq(alojamientoId), eq(hoy), eq(hoy.plusDays(400))))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{hoy.plusDays(2), hoy.plusDays(4)},
+                        new Object[]{hoy.plusDays(4), hoy.plusDays(6)},
+                        new Object[]{hoy.plusDays(10), hoy.plusDays(11)}));
+
+        // Act
+        var calendario = alojamientoService.calendario(alojamientoId, null, null);
+        var recorte = alojamientoService.calendario(alojamientoId, hoy.plusDays(3), hoy.plusDays(10));
+
+        // Assert
+        assertEquals(hoy.plusYears(1), calendario.hasta());
+        assertEquals(5, calendario.nochesBloqueadas());
+        assertEquals(2, calendario.bloqueos().size());
+        assertEquals(hoy.plusDays(2), calendario.bloqueos().get(0).desde());
+        assertEquals(hoy.plusDays(6), calendario.bloqueos().get(0).hasta());
+        assertEquals(1, recorte.bloqueos().size());
+        assertEquals(hoy.plusDays(3), recorte.bloqueos().get(0).desde());
+        verify(reservaRepository, times(1)).findRangosActivos(any(), any(), any());
+
+        // Act - una reserva nueva invalida el calendario del alojamiento
+        cacheAlojamientos.onReservaCambiada(new ReservaCambiadaEvent(UUID.randomUUID(), alojamientoId,
+                null, null, null, hoy.plusDays(20), hoy.plusDays(22), EstadoReserva.PENDIENTE));
+        alojamientoService.calendario(alojamientoId, null, null);
+
+        // Assert
+        verify(reservaRepository, times(2)).findRangosActivos(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Calendario: rango vacío o mayor a dos años se rechaza")
+    void testCalendarioRangoInvalido() {
+        LocalDate hoy = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> alojamientoService.calendario(alojamientoId, hoy, hoy));
+        assertThrows(IllegalArgumentException.class,
+                () -> alojamientoService.calendario(alojamientoId, hoy, hoy.plusYears(3)));
+        verifyNoInteractions(reservaRepository);
+    }
+
+    @Test
+    @DisplayName("Disponibilidad por lotes: índice en memoria y una sola consulta para el resto")
+    void testDisponibilidadLote() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        UUID otroId = UUID.randomUUID();
+        UUID lejanoId = UUID.randomUUID();
+        when(indiceOcupacion.estaDisponible(alojamientoId, hoy.plusDays(1), hoy.plusDays(3))).thenReturn(Optional.of(true));
+        when(indiceOcupacion.estaDisponible(otroId, hoy.plusDays(1), hoy.plusDays(3))).thenReturn(Optional.of(false));
+        when(indiceOcupacion.estaDisponible(eq(lejanoId), any(), any())).thenReturn(Optional.empty());
+        when(reservaRepository.findRangosActivosDe(any(), eq(hoy.plusDays(500)), eq(hoy.plusDays(520))))
+                .thenReturn(List.<Object[]>of(new Object[]{lejanoId, hoy.plusDays(505), hoy.plusDays(507)}));
+        DisponibilidadLoteDTO lote = new DisponibilidadLoteDTO(List.of(
+                new ConsultaDisponibilidadDTO(alojamientoId, hoy.plusDays(1), hoy.plusDays(3)),
+                new ConsultaDisponibilidadDTO(otroId, hoy.plusDays(1), hoy.plusDays(3)),
+                new ConsultaDisponibilidadDTO(lejanoId, hoy.plusDays(500), hoy.plusDays(502)),
+                new ConsultaDisponibilidadDTO(lejanoId, hoy.plusDays(506), hoy.plusDays(520)),
+                new ConsultaDisponibilidadDTO(alojamientoId, hoy.minusDays(2), hoy.plusDays(1))));
+
+        // Act
+        var resultado = alojamientoService.disponibilidadLote(lote);
+
+        // Assert
+        assertEquals("10100", resultado.mapa());
+        assertEquals(5, resultado.total());
+        assertEquals(2, resultado.disponibles());
+        verify(reservaRepository, times(1)).findRangosActivosDe(any(), any(), any());
+        verify(reservaRepository, never()).existsTraslape(any(), any(), any());
+    }
+
+    // ========== PRUEBAS DE ACTUALIZACIÓN POR LOTE ==========
+
+    @Test
+    @DisplayName("Actualización por lote: una consulta de validación, un lote JDBC y resultado por cambio")
+    void testActualizarEnLote() {
+        // Arrange
+        UUID ajenoId = UUID.randomUUID();
+        UUID inactivoId = UUID.randomUUID();
+        UUID inexistenteId = UUID.randomUUID();
+        BigDecimal temporada = new BigDecimal("250000");
+        CambioAlojamientoDTO valido = new CambioAlojamientoDTO(alojamientoId, temporada, null, null);
+        when(alojamientoRepository.findEstadoParaLote(any())).thenReturn(List.of(
+                new Object[]{alojamientoId, anfitrionId, true, new BigDecimal("200000"), "Armenia", 4.5, -75.6},
+                new Object[]{ajenoId, UUID.randomUUID(), true, BigDecimal.TEN, "Salento", null, null},
+                new Object[]{inactivoId, anfitrionId, false, BigDecimal.TEN, "Pereira", null, null}));
+        when(alojamientoRepository.actualizarEnLote(eq(anfitrionId), eq(List.of(valido)), any()))
+                .thenReturn(new int[]{1});
+        ActualizacionLoteDTO lote = new ActualizacionLoteDTO(List.of(
+                valido,
+                new CambioAlojamientoDTO(ajenoId, temporada, null, null),
+                new CambioAlojamientoDTO(inactivoId, null, 6, null),
+                new CambioAlojamientoDTO(inexistenteId, null, null, false),
+                new CambioAlojamientoDTO(alojamientoId, null, 8, null)));
+
+        // Act
+        var resultado = alojamientoService.actualizarEnLote(lote, anfitrionId);
+
+        // Assert
+        assertEquals(5, resultado.total());
+        assertEquals(1, resultado.actualizados());
+        var r = resultado.resultados();
+        assertTrue(r.get(0).actualizado());
+        assertEquals("Solo el propietario puede editar este alojamiento", r.get(1).mensaje());
+        assertEquals("No se puede editar un alojamiento inactivo", r.get(2).mensaje());
+        assertEquals("Alojamiento no encontrado", r.get(3).mensaje());
+        assertEquals("Alojamiento repetido en el lote", r.get(4).mensaje());
+        verify(alojamientoRepository, times(1)).findEstadoParaLote(any());
+        verify(alojamientoRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new AlojamientoCambiadoEvent(
+                alojamientoId, "Armenia", "Armenia", true, 4.5, -75.6, temporada));
+    }
+
+    @Test
+    @DisplayName("Actualización por lote: desactivar saca la ciudad y un UPDATE sin filas se informa como conflicto")
+    void testActualizarEnLoteDesactivarYConflicto() {
+        // Arrange
+        UUID otroId = UUID.randomUUID();
+        CambioAlojamientoDTO desactivar = new CambioAlojamientoDTO(alojamientoId, null, null, false);
+        CambioAlojamientoDTO precio = new CambioAlojamientoDTO(otroId, BigDecimal.ONE, null, null);
+        when(alojamientoRepository.findEstadoParaLote(any())).thenReturn(List.of(
+                new Object[]{alojamientoId, anfitrionId, true, new BigDecimal("200000"), "Armenia", null, null},
+                new Object[]{otroId, anfitrionId, true, BigDecimal.TEN, "Salento", null, null}));
+        when(alojamientoRepository.actualizarEnLote(eq(anfitrionId), eq(List.of(desactivar, precio)), any()))
+                .thenReturn(new int[]{1, 0});
+
+        // Act
+        var resultado = alojamientoService.actualizarEnLote(
+                new ActualizacionLoteDTO(List.of(desactivar, precio)), anfitrionId);
+
+        // Assert
+        assertEquals(1, resultado.actualizados());
+        assertFalse(resultado.resultados().get(1).actualizado());
+        verify(eventPublisher).publishEvent(new AlojamientoCambiadoEvent(
+                alojamientoId, "Armenia", null, false, null, null, new BigDecimal("200000")));
+        verify(eventPublisher, times(1)).publishEvent(any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.dto.reservaDtos.BloqueoResDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.CrearBloqueoDTO;
+import co.edu.uniquindio.gohost.dto.reservaDtos.CrearReservaDTO;
+import co.edu.uniquindio.gohost.exception.SecurityException;
+import co.edu.uniquindio.gohost.model.Alojamiento;
+import co.edu.uniquindio.gohost.model.BloqueoReserva;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.repository.BloqueoReservaRepository;
+import co.edu.uniquindio.gohost.repository.ReservaRepository;
+import co.edu.uniquindio.gohost.service.ReservaService;
+import co.edu.uniquindio.gohost.service.bloqueos.ExpiracionBloqueos;
+import co.edu.uniquindio.gohost.service.impl.BloqueoReservaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas UNITARIAS para BloqueoReservaServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - BloqueoReservaService")
+class BloqueoReservaServiceTest {
+
+    @Mock
+    private BloqueoReservaRepository bloqueoRepository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private AlojamientoRepository alojamientoRepository;
+
+    @Mock
+    private ReservaService reservaService;
+
+    @Mock
+    private ExpiracionBloqueos expiracion;
+
+    @InjectMocks
+    private BloqueoReservaServiceImpl bloqueoService;
+
+    private UUID huespedId;
+    private UUID alojamientoId;
+    private LocalDate in;
+    private LocalDate out;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bloqueoService, "minutosPorDefecto", 10);
+        ReflectionTestUtils.setField(bloqueoService, "maxMinutos", 15);
+        ReflectionTestUtils.setField(bloqueoService, "maxPorHuesped", 3);
+        huespedId = UUID.randomUUID();
+        alojamientoId = UUID.randomUUID();
+        in = LocalDate.now().plusDays(20);
+        out = in.plusDays(2);
+    }
+
+    private void alojamientoDisponible() {
+        when(alojamientoRepository.bloquearParaRetener(alojamientoId)).thenReturn(Optional.of(alojamientoId));
+        when(alojamientoRepository.findById(alojamientoId))
+                .thenReturn(Optional.of(Alojamiento.builder().id(alojamientoId).capacidad(4).build()));
+    }
+
+    private BloqueoReserva bloqueo(UUID duenio, LocalDateTime expiraEn) {
+        return BloqueoReserva.builder()
+                .id(UUID.randomUUID())
+                .alojamientoId(alojamientoId)
+                .huespedId(duenio)
+                .checkIn(in)
+                .checkOut(out)
+                .numeroHuespedes(2)
+                .expiraEn(expiraEn)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Crear bloqueo lo guarda con vencimiento y lo agenda en la rueda")
+    void testCrearBloqueo() {
+        // Arrange
+        alojamientoDisponible();
+        when(bloqueoRepository.save(any(BloqueoReserva.class))).thenAnswer(inv -> {
+            BloqueoReserva b = inv.getArgument(0);
+            b.setId(UUID.randomUUID());
+            return b;
+        });
+
+        // Act
+        LocalDateTime antes = LocalDateTime.now();
+        BloqueoResDTO res = bloqueoService.crear(huespedId, new CrearBloqueoDTO(alojamientoId, in, out, 2, null));
+
+        // Assert
+        assertNotNull(res.id());
+        assertFalse(res.expiraEn().isBefore(antes.plusMinutes(10)));
+        assertTrue(res.expiraEn().isBefore(antes.plusMinutes(11)));
+        verify(expiracion).programar(res.id(), res.expiraEn());
+    }
+
+    @Test
+    @DisplayName("Crear bloqueo sobre fechas bloqueadas por otro huésped lanza excepción")
+    void testCrearBloqueoTraslapado() {
+        // Arrange
+        alojamientoDisponible();
+        when(bloqueoRepository.existsVigenteDeOtro(eq(alojamientoId), eq(in), eq(out), eq(huespedId), any()))
+                .thenReturn(true);
+
+        // Act & Assert
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> bloqueoService.crear(huespedId, new CrearBloqueoDTO(alojamientoId, in, out, 2, null)));
+        assertEquals("Fechas no disponibles", ex.getMessage());
+        verify(bloqueoRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Duración fuera del máximo lanza excepción")
+    void testCrearBloqueoDuracionInvalida() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> bloqueoService.crear(huespedId, new CrearBloqueoDTO(alojamientoId, in, out, 2, 60)));
+        verifyNoInteractions(alojamientoRepository);
+    }
+
+    @Test
+    @DisplayName("Un bloqueo nuevo reemplaza el del mismo huésped en el mismo alojamiento")
+    void testCrearBloqueoReemplazaPropio() {
+        // Arrange
+        alojamientoDisponible();
+        BloqueoReserva anterior = bloqueo(huespedId, LocalDateTime.now().plusMinutes(5));
+        when(bloqueoRepository.findVigentesDe(eq(huespedId), any())).thenReturn(List.of(anterior));
+        when(bloqueoRepository.save(any(BloqueoReserva.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        bloqueoService.crear(huespedId, new CrearBloqueoDTO(alojamientoId, in, out.plusDays(1), 2, 5));
+
+        // Assert
+        verify(bloqueoRepository).delete(anterior);
+        verify(expiracion).cancelar(anterior.getId());
+    }
+
+    @Test
+    @DisplayName("Confirmar bloqueo vigente crea la reserva y lo elimina")
+    void testConfirmarBloqueo() {
+        // Arrange
+        BloqueoReserva b = bloqueo(huespedId, LocalDateTime.now().plusMinutes(5));
+        when(bloqueoRepository.findById(b.getId())).thenReturn(Optional.of(b));
+
+        // Act
+        bloqueoService.confirmar(huespedId, b.getId());
+
+        // Assert
+        verify(bloqueoRepository).delete(b);
+        verify(reservaService).crearConDTO(huespedId, new CrearReservaDTO(alojamientoId, huespedId, in, out, 2));
+        verify(expiracion).cancelar(b.getId());
+    }
+
+    @Test
+    @DisplayName("Confirmar bloqueo vencido lanza excepción")
+    void testConfirmarBloqueoVencido() {
+        // Arrange
+        BloqueoReserva b = bloqueo(huespedId, LocalDateTime.now().minusSeconds(1));
+        when(bloqueoRepository.findById(b.getId())).thenReturn(Optional.of(b));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> bloqueoService.confirmar(huespedId, b.getId()));
+        verifyNoInteractions(reservaService);
+    }
+
+    @Test
+    @DisplayName("Liberar bloqueo ajeno lanza SecurityException")
+    void testLiberarBloqueoAjeno() {
+        // Arrange
+        BloqueoReserva b = bloqueo(UUID.randomUUID(), LocalDateTime.now().plusMinutes(5));
+        when(bloqueoRepository.findById(b.getId())).thenReturn(Optional.of(b));
+
+        // Act & Assert
+        assertThrows(SecurityException.class, () -> bloqueoService.liberar(huespedId, b.getId()));
+        verify(bloqueoRepository, never()).delete(any());
+    }
+}
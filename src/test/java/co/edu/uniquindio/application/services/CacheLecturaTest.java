@@ -0,0 +1,123 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.service.cache.CacheLectura;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas UNITARIAS para CacheLectura.
+ */
+@DisplayName("Pruebas Unitarias - CacheLectura")
+class CacheLecturaTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    @DisplayName("Segunda lectura es acierto y no vuelve a cargar")
+    void testAciertoNoRecarga() {
+        // Arrange
+        CacheLectura<String, String> cache = new CacheLectura<>("prueba", 10, Duration.ofSeconds(60), reloj::get);
+        AtomicInteger cargas = new AtomicInteger();
+
+        // Act
+        cache.obtener("a", k -> "valor-" + cargas.incrementAndGet());
+        String segunda = cache.obtener("a", k -> "valor-" + cargas.incrementAndGet());
+
+        // Assert
+        assertEquals("valor-1", segunda);
+        assertEquals(1, cache.estadisticas().aciertos());
+        assertEquals(1, cache.estadisticas().fallos());
+    }
+
+    @Test
+    @DisplayName("Expulsa por tamaño (LRU) y por TTL")
+    void testExpulsionPorTamanoYTtl() {
+        // Arrange
+        CacheLectura<String, String> cache = new CacheLectura<>("prueba", 2, Duration.ofSeconds(60), reloj::get);
+        cache.obtener("a", k -> "A");
+        cache.obtener("b", k -> "B");
+        cache.obtener("a", k -> "A");      // "a" pasa a ser la más reciente
+
+        // Act - "c" expulsa a "b"
+        cache.obtener("c", k -> "C");
+
+        // Assert
+        assertEquals("B2", cache.obtener("b", k -> "B2"));
+        assertEquals(2, cache.estadisticas().expulsiones());
+
+        // Act - vence el TTL
+        reloj.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        // Assert
+        assertEquals("C2", cache.obtener("c", k -> "C2"));
+    }
+
+    @Test
+    @DisplayName("Fallos concurrentes de la misma clave comparten una sola carga")
+    void testCargaUnica() throws Exception {
+        // Arrange
+        CacheLectura<String, String> cache = new CacheLectura<>("prueba", 10, Duration.ofSeconds(60));
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch dentroDeLaCarga = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        try {
+            // Act
+            Future<String> primero = pool.submit(() -> cache.obtener("hot", k -> {
+                cargas.incrementAndGet();
+                dentroDeLaCarga.countDown();
+                esperar(liberar);
+                return "v";
+            }));
+            assertTrue(dentroDeLaCarga.await(5, TimeUnit.SECONDS));
+            Future<String> segundo = pool.submit(() -> cache.obtener("hot", k -> "otra-" + cargas.incrementAndGet()));
+            Future<String> tercero = pool.submit(() -> cache.obtener("hot", k -> "otra-" + cargas.incrementAndGet()));
+            Thread.sleep(100);
+            liberar.countDown();
+
+            // Assert
+            assertEquals("v", primero.get(5, TimeUnit.SECONDS));
+            assertEquals("v", segundo.get(5, TimeUnit.SECONDS));
+            assertEquals("v", tercero.get(5, TimeUnit.SECONDS));
+            assertEquals(1, cargas.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Invalidar durante una carga impide guardar el valor viejo")
+    void testInvalidacionDuranteCarga() {
+        // Arrange
+        CacheLectura<String, String> cache = new CacheLectura<>("prueba", 10, Duration.ofSeconds(60), reloj::get);
+
+        // Act
+        cache.obtener("a", k -> {
+            cache.invalidar("a"); // llega un cambio mientras se leía
+            return "viejo";
+        });
+
+        // Assert
+        assertEquals("nuevo", cache.obtener("a", k -> "nuevo"));
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.AlojamientoResDTO;
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.model.Alojamiento;
+import co.edu.uniquindio.gohost.model.Direccion;
+import co.edu.uniquindio.gohost.model.ServicioAlojamiento;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.catalogo.CatalogoAlojamientos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas UNITARIAS para CatalogoAlojamientos.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - CatalogoAlojamientos")
+class CatalogoAlojamientosTest {
+
+    @Mock
+    private AlojamientoRepository alojamientoRepository;
+
+    @InjectMocks
+    private CatalogoAlojamientos catalogo;
+
+    private Alojamiento armeniaBarata;
+    private Alojamiento armeniaCara;
+    private Alojamiento salento;
+    private Alojamiento inactivo;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogo, "lote", 2);
+        LocalDateTime ahora = LocalDateTime.now();
+        armeniaBarata = alojamiento("Armenia", "100000", 2, true, ahora.minusDays(3), ServicioAlojamiento.WIFI);
+        armeniaCara = alojamiento("Armenia", "400000", 6, true, ahora.minusDays(1), ServicioAlojamiento.WIFI, ServicioAlojamiento.PISCINA);
+        salento = alojamiento("Salento", "250000", 4, true, ahora.minusDays(2));
+        inactivo = alojamiento("Armenia", "150000", 4, false, ahora);
+
+        lenient().when(alojamientoRepository.findFotosByAlojamientoIds(any())).thenReturn(List.of());
+        lenient().when(alojamientoRepository.findServiciosByAlojamientoIds(any())).thenReturn(List.of());
+        List<Alojamiento> todos = List.of(armeniaBarata, armeniaCara, salento, inactivo);
+        lenient().when(alojamientoRepository.findAllKeyset(any(), any(), any())).thenAnswer(inv -> {
+            LocalDateTime fecha = inv.getArgument(0);
+            UUID id = inv.getArgument(1);
+            Limit limite = inv.getArgument(2);
+            return todos.stream()
+                    .sorted(Comparator.comparing(Alojamiento::getFechaCreacion).thenComparing(Alojamiento::getId).reversed())
+                    .filter(a -> fecha == null || a.getFechaCreacion().isBefore(fecha)
+                            || (a.getFechaCreacion().equals(fecha) && a.getId().compareTo(id) < 0))
+                    .limit(limite.max())
+                    .toList();
+        });
+    }
+
+    private Alojamiento alojamiento(String ciudad, String precio, int capacidad, boolean activo,
+                                    LocalDateTime creado, ServicioAlojamiento... servicios) {
+        Alojamiento a = Alojamiento.builder()
+                .id(UUID.randomUUID())
+                .titulo("Alojamiento en " + ciudad)
+                .descripcion("Descripción")
+                .direccion(Direccion.builder().ciudad(ciudad).pais("CO").build())
+                .precioNoche(new BigDecimal(precio))
+                .capacidad(capacidad)
+                .activo(activo)
+                .fechaCreacion(creado)
+                .fotos(new ArrayList<>())
+                .build();
+        a.setServicios(new ArrayList<>(List.of(servicios)));
+        return a;
+    }
+
+    private List<UUID> ids(List<AlojamientoResDTO> dtos) {
+        return dtos.stream().map(AlojamientoResDTO::id).toList();
+    }
+
+    @Test
+    @DisplayName("El detalle responde también por inactivos y queda vacío para ids desconocidos")
+    void testDetalle() {
+        // Arrange
+        catalogo.reconstruir();
+
+        // Act & Assert
+        assertEquals("Armenia", catalogo.obtener(inactivo.getId()).orElseThrow().ciudad());
+        assertTrue(catalogo.obtener(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Listar incluye inactivos en orden fechaCreacion DESC y pagina")
+    void testListar() {
+        // Arrange
+        catalogo.reconstruir();
+
+        // Act
+        var pagina = catalogo.listar(PageRequest.of(0, 3)).orElseThrow();
+
+        // Assert
+        assertEquals(4, pagina.getTotalElements());
+        assertEquals(List.of(inactivo.getId(), armeniaCara.getId(), salento.getId()), ids(pagina.getContent()));
+        assertTrue(catalogo.listar(PageRequest.of(0, 3, Sort.by("titulo"))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Buscar aplica ciudad, capacidad, precio y servicios solo sobre activos")
+    void testBuscarConFiltros() {
+        // Arrange
+        catalogo.reconstruir();
+        var pageable = PageRequest.of(0, 10);
+
+        // Act & Assert
+        assertEquals(List.of(armeniaCara.getId(), armeniaBarata.getId()),
+                ids(catalogo.buscar("  armenia", null, null, null, 0L, null, pageable).orElseThrow().getContent()));
+        assertEquals(List.of(armeniaCara.getId(), salento.getId()),
+                ids(catalogo.buscar(null, 4, null, null, 0L, null, pageable).orElseThrow().getContent()));
+        assertEquals(List.of(salento.getId(), armeniaBarata.getId()),
+                ids(catalogo.buscar(null, null, new BigDecimal("100000"), new BigDecimal("250000"), 0L, null, pageable)
+                        .orElseThrow().getContent()));
+        assertEquals(List.of(armeniaCara.getId()),
+                ids(catalogo.buscar(null, null, null, null, ServicioAlojamiento.PISCINA.bit(), null, pageable)
+                        .orElseThrow().getContent()));
+        assertEquals(List.of(armeniaBarata.getId()),
+                ids(catalogo.buscar("armenia", null, null, null, 0L, id -> !id.equals(armeniaCara.getId()), pageable)
+                        .orElseThrow().getContent()));
+    }
+
+    @Test
+    @DisplayName("Un cambio confirmado publica una instantánea nueva con el alojamiento recargado")
+    void testCambioRecargaAlojamiento() {
+        // Arrange
+        catalogo.reconstruir();
+        armeniaBarata.setPrecioNoche(new BigDecimal("500000"));
+        armeniaBarata.desactivar();
+        when(alojamientoRepository.findById(armeniaBarata.getId())).thenReturn(Optional.of(armeniaBarata));
+
+        // Act
+        catalogo.onAlojamientoCambiado(AlojamientoCambiadoEvent.modificado(armeniaBarata, "Armenia"));
+
+        // Assert
+        assertEquals(0, new BigDecimal("500000").compareTo(catalogo.obtener(armeniaBarata.getId()).orElseThrow().precioNoche()));
+        assertEquals(List.of(armeniaCara.getId()),
+                ids(catalogo.buscar("armenia", null, null, null, 0L, null, PageRequest.of(0, 10)).orElseThrow().getContent()));
+    }
+
+    @Test
+    @DisplayName("La reconstrucción lee la tabla por cursor en lotes")
+    void testReconstruccionPorLotes() {
+        // Act
+        catalogo.reconstruir();
+
+        // Assert - lote de 2: dos bloques llenos y uno vacío que cierra
+        verify(alojamientoRepository, times(3)).findAllKeyset(any(), any(), any());
+        verify(alojamientoRepository, never()).findAll();
+        assertEquals(4, catalogo.listar(PageRequest.of(0, 10)).orElseThrow().getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Un cambio mueve la ficha entre ciudades, capacidades y precios, y uno nuevo se inserta en orden")
+    void testCambioMueveIndices() {
+        // Arrange
+        catalogo.reconstruir();
+        armeniaCara.getDireccion().setCiudad("Salento");
+        armeniaCara.setPrecioNoche(new BigDecimal("90000"));
+        armeniaCara.setCapacidad(3);
+        Alojamiento nuevo = alojamiento("Armenia", "200000", 5, true, LocalDateTime.now().minusHours(1));
+        when(alojamientoRepository.findById(armeniaCara.getId())).thenReturn(Optional.of(armeniaCara));
+        when(alojamientoRepository.findById(nuevo.getId())).thenReturn(Optional.of(nuevo));
+        var pageable = PageRequest.of(0, 10);
+
+        // Act
+        catalogo.onAlojamientoCambiado(AlojamientoCambiadoEvent.modificado(armeniaCara, "Armenia"));
+        catalogo.onAlojamientoCambiado(AlojamientoCambiadoEvent.modificado(nuevo, "Armenia"));
+
+        // Assert
+        assertEquals(List.of(nuevo.getId(), armeniaBarata.getId()),
+                ids(catalogo.buscar("armenia", null, null, null, 0L, null, pageable).orElseThrow().getContent()));
+        assertEquals(List.of(armeniaCara.getId(), salento.getId()),
+                ids(catalogo.buscar("salento", null, null, null, 0L, null, pageable).orElseThrow().getContent()));
+        assertEquals(List.of(nuevo.getId(), armeniaCara.getId(), armeniaBarata.getId()),
+                ids(catalogo.buscar(null, null, null, new BigDecimal("200000"), 0L, null, pageable).orElseThrow().getContent()));
+        assertEquals(List.of(nuevo.getId(), salento.getId()),
+                ids(catalogo.buscar(null, 4, null, null, 0L, null, pageable).orElseThrow().getContent()));
+        assertEquals(5, catalogo.listar(pageable).orElseThrow().getTotalElements());
+    }
+}
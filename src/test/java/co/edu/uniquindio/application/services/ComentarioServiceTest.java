@@ -7,6 +7,7 @@ import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
 import co.edu.uniquindio.gohost.repository.ComentarioRepository;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
 import co.edu.uniquindio.gohost.service.impl.ComentarioServiceImpl;
+import co.edu.uniquindio.gohost.service.metricas.ResumenMetricas;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -35,6 +36,7 @@ class ComentarioServiceImplTest {
     @Mock ComentarioRepository repo;
     @Mock AlojamientoRepository alojRepo;
     @Mock UsuarioRepository usuarioRepo;
+    @Mock ResumenMetricas resumenMetricas;
 
     @InjectMocks
     ComentarioServiceImpl service;
@@ -69,6 +71,7 @@ class ComentarioServiceImplTest {
             verify(alojRepo, times(1)).findById(alojamientoId);
             verify(usuarioRepo, times(1)).findById(autorId);
             verify(repo, times(1)).save(any(Comentario.class));
+            verify(resumenMetricas).registrarCalificacion(alojamientoId, calificacion);
             verifyNoMoreInteractions(repo, alojRepo, usuarioRepo);
         }
 
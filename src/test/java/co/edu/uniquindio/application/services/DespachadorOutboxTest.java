@@ -0,0 +1,147 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.exception.MailServiceException;
+import co.edu.uniquindio.gohost.model.MensajeOutbox;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
+import co.edu.uniquindio.gohost.service.mail.DespachadorOutbox;
+import co.edu.uniquindio.gohost.service.mail.EmailRequest;
+import co.edu.uniquindio.gohost.service.mail.MailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas UNITARIAS para DespachadorOutbox (envíos en el mismo hilo).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - DespachadorOutbox")
+class DespachadorOutboxTest {
+
+    @Mock
+    private BandejaSalida bandeja;
+
+    @Mock
+    private MailService mailService;
+
+    private DespachadorOutbox despachador;
+
+    @BeforeEach
+    void setUp() {
+        despachador = new DespachadorOutbox(bandeja, mailService, Runnable::run, 2, 3, 30);
+    }
+
+    private MensajeOutbox mensaje(String destinatario, int intentos) {
+        return MensajeOutbox.builder()
+                .id(UUID.randomUUID())
+                .destinatario(destinatario)
+                .asunto("Asunto")
+                .html("<p>Hola</p>")
+                .intentos(intentos)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Registra los enviados en bloque y reprograma el que falla")
+    void testEnvioConFallo() throws Exception {
+        // Arrange
+        MensajeOutbox ok = mensaje("ok@correo.com", 1);
+        MensajeOutbox malo = mensaje("malo@correo.com", 1);
+        when(bandeja.reclamar(2)).thenReturn(List.of(ok, malo), List.of());
+        doAnswer(inv -> {
+            EmailRequest r = inv.getArgument(0);
+            if (r.getTo().equals("malo@correo.com")) {
+                throw new MailServiceException("Mailgun API respondió 503");
+            }
+            return null;
+        }).when(mailService).send(any());
+
+        // Act
+        LocalDateTime antes = LocalDateTime.now();
+        despachador.despachar();
+
+        // Assert
+        verify(bandeja).registrarEnviados(List.of(ok.getId()));
+        verify(bandeja).registrarFallo(eq(malo.getId()), eq("Mailgun API respondió 503"),
+                argThat(t -> !t.isBefore(antes.plusSeconds(30))));
+        verify(bandeja, times(2)).reclamar(2);
+    }
+
+    @Test
+    @DisplayName("Espera exponencial entre reintentos")
+    void testEsperaExponencial() throws Exception {
+        // Arrange
+        MensajeOutbox m = mensaje("a@correo.com", 2);
+        when(bandeja.reclamar(anyInt())).thenReturn(List.of(m));
+        doThrow(new MailServiceException("timeout")).when(mailService).send(any());
+
+        // Act
+        LocalDateTime antes = LocalDateTime.now();
+        despachador.despachar();
+
+        // Assert: segundo intento -> 30 s x 2
+        verify(bandeja).registrarFallo(eq(m.getId()), eq("timeout"),
+                argThat(t -> !t.isBefore(antes.plusSeconds(60)) && t.isBefore(antes.plusSeconds(90))));
+    }
+
+    @Test
+    @DisplayName("Marca FALLIDO al agotar los intentos")
+    void testIntentosAgotados() throws Exception {
+        // Arrange
+        MensajeOutbox m = mensaje("a@correo.com", 3);
+        when(bandeja.reclamar(anyInt())).thenReturn(List.of(m));
+        doThrow(new MailServiceException("rechazado")).when(mailService).send(any());
+
+        // Act
+        despachador.despachar();
+
+        // Assert
+        verify(bandeja).registrarFallo(eq(m.getId()), eq("rechazado"), isNull());
+        verify(bandeja).registrarEnviados(List.of());
+    }
+
+    @Test
+    @DisplayName("Sigue reclamando mientras los lotes salen llenos")
+    void testVaciaRafaga() throws Exception {
+        // Arrange
+        when(bandeja.reclamar(2)).thenReturn(
+                List.of(mensaje("a@correo.com", 1), mensaje("b@correo.com", 1)),
+                List.of(mensaje("c@correo.com", 1), mensaje("d@correo.com", 1)),
+                List.of(mensaje("e@correo.com", 1)));
+
+        // Act
+        despachador.despachar();
+
+        // Assert
+        verify(bandeja, times(3)).reclamar(2);
+        verify(mailService, times(5)).send(any());
+        verify(bandeja, never()).registrarFallo(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Sin pendientes no envía nada")
+    void testSinPendientes() throws Exception {
+        // Arrange
+        when(bandeja.reclamar(2)).thenReturn(List.of());
+
+        // Act
+        despachador.despachar();
+
+        // Assert
+        verifyNoInteractions(mailService);
+        verify(bandeja, never()).registrarEnviados(any());
+    }
+}
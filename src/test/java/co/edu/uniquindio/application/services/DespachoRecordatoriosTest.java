@@ -0,0 +1,96 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.event.RecordatorioProgramadoEvent;
+import co.edu.uniquindio.gohost.model.EstadoRecordatorio;
+import co.edu.uniquindio.gohost.repository.NotificacionRecordatorioRepository;
+import co.edu.uniquindio.gohost.service.RecordatorioService;
+import co.edu.uniquindio.gohost.service.recordatorios.DespachoRecordatorios;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas UNITARIAS para DespachoRecordatorios (rueda con ticks de 10 ms).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - DespachoRecordatorios")
+class DespachoRecordatoriosTest {
+
+    @Mock
+    private RecordatorioService recordatorioService;
+
+    @Mock
+    private NotificacionRecordatorioRepository recordatorioRepository;
+
+    private DespachoRecordatorios despacho;
+
+    @BeforeEach
+    void setUp() {
+        despacho = new DespachoRecordatorios(recordatorioService, recordatorioRepository, 10, 64, 30, 2, true);
+    }
+
+    @Test
+    @DisplayName("La precarga drena los atrasados por lotes mientras salgan completos y agenda la ventana")
+    void testPrecargaDrenaPorLotesYAgendaVentana() throws Exception {
+        // Arrange
+        UUID proximo = UUID.randomUUID();
+        when(recordatorioService.enviarVencidos(2)).thenReturn(2, 2, 1);
+        when(recordatorioRepository.findProgramadasEntre(eq(EstadoRecordatorio.PROGRAMADO), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{proximo, LocalDateTime.now().plusNanos(20_000_000)}));
+
+        // Act
+        despacho.precargar();
+        Thread.sleep(60);
+        despacho.avanzar();
+
+        // Assert
+        verify(recordatorioService, times(3)).enviarVencidos(2);
+        verify(recordatorioService).enviarProgramados(List.of(proximo));
+    }
+
+    @Test
+    @DisplayName("Un recordatorio nuevo dentro de la ventana se envía a su hora; uno fuera de ella espera a la precarga")
+    void testRecordatorioNuevoSeAgendaSoloDentroDeLaVentana() throws Exception {
+        // Arrange
+        UUID dentro = UUID.randomUUID();
+        UUID fuera = UUID.randomUUID();
+        when(recordatorioService.enviarVencidos(2)).thenReturn(0);
+        when(recordatorioRepository.findProgramadasEntre(any(), any(), any())).thenReturn(List.of());
+        despacho.precargar();
+
+        // Act
+        despacho.onRecordatorioProgramado(new RecordatorioProgramadoEvent(dentro, LocalDateTime.now()));
+        despacho.onRecordatorioProgramado(new RecordatorioProgramadoEvent(fuera, LocalDateTime.now().plusHours(2)));
+        Thread.sleep(30);
+        despacho.avanzar();
+
+        // Assert
+        verify(recordatorioService).enviarProgramados(List.of(dentro));
+        verify(recordatorioService, times(1)).enviarProgramados(any());
+    }
+
+    @Test
+    @DisplayName("Deshabilitado no consulta ni envía nada")
+    void testDeshabilitado() {
+        // Arrange
+        despacho = new DespachoRecordatorios(recordatorioService, recordatorioRepository, 10, 64, 30, 2, false);
+
+        // Act
+        despacho.precargar();
+        despacho.avanzar();
+
+        // Assert
+        verifyNoInteractions(recordatorioService, recordatorioRepository);
+    }
+}
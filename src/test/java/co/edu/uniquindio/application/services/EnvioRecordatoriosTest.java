@@ -0,0 +1,115 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.model.EstadoRecordatorio;
+import co.edu.uniquindio.gohost.model.NotificacionRecordatorio;
+import co.edu.uniquindio.gohost.repository.NotificacionRecordatorioRepository;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
+import co.edu.uniquindio.gohost.service.recordatorios.EnvioRecordatorios;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas UNITARIAS para EnvioRecordatorios.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - EnvioRecordatorios")
+class EnvioRecordatoriosTest {
+
+    @Mock
+    private NotificacionRecordatorioRepository recordatorioRepository;
+
+    @Mock
+    private BandejaSalida bandejaSalida;
+
+    private EnvioRecordatorios envio;
+
+    @BeforeEach
+    void setUp() {
+        envio = new EnvioRecordatorios(recordatorioRepository, bandejaSalida, 3);
+    }
+
+    private static NotificacionRecordatorio recordatorio(EstadoRecordatorio estado, LocalDateTime fecha, int intentos) {
+        return NotificacionRecordatorio.builder()
+                .id(UUID.randomUUID())
+                .estado(estado)
+                .fechaProgramada(fecha)
+                .asunto("Recordatorio")
+                .mensaje("Mensaje")
+                .emailDestinatario("huesped@gohost.test")
+                .intentosEnvio(intentos)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Un recordatorio que este nodo reclama se encola")
+    void testEnviaRecordatorioReclamado() {
+        // Arrange
+        LocalDateTime ahora = LocalDateTime.now();
+        NotificacionRecordatorio r = recordatorio(EstadoRecordatorio.ENVIADO, ahora.minusMinutes(1), 1);
+        when(recordatorioRepository.reclamarParaEnvio(r.getId(),
+                EstadoRecordatorio.PROGRAMADO, EstadoRecordatorio.ENVIADO, ahora)).thenReturn(1);
+        when(recordatorioRepository.findById(r.getId())).thenReturn(Optional.of(r));
+
+        // Act
+        boolean enviado = envio.enviarSiVence(r.getId(), ahora);
+
+        // Assert
+        assertTrue(enviado);
+        verify(bandejaSalida).encolar(argThat(m -> "huesped@gohost.test".equals(m.getTo())));
+    }
+
+    @Test
+    @DisplayName("Si otro nodo ya lo reclamó (o se canceló o aún no vence) no se encola")
+    void testNoEnviaSinReclamar() {
+        // Arrange
+        LocalDateTime ahora = LocalDateTime.now();
+        UUID id = UUID.randomUUID();
+        when(recordatorioRepository.reclamarParaEnvio(id,
+                EstadoRecordatorio.PROGRAMADO, EstadoRecordatorio.ENVIADO, ahora)).thenReturn(0);
+
+        // Act
+        boolean enviado = envio.enviarSiVence(id, ahora);
+
+        // Assert
+        assertFalse(enviado);
+        verify(recordatorioRepository, never()).findById(any());
+        verifyNoInteractions(bandejaSalida);
+    }
+
+    @Test
+    @DisplayName("Cada fallo suma un intento y guarda el error; al agotar los intentos pasa a ERROR")
+    void testRegistrarFalloHastaError() {
+        // Arrange
+        NotificacionRecordatorio r = recordatorio(EstadoRecordatorio.PROGRAMADO, LocalDateTime.now(), 1);
+        when(recordatorioRepository.findById(r.getId())).thenReturn(Optional.of(r));
+
+        // Act
+        envio.registrarFallo(r.getId(), "bandeja caída");
+
+        // Assert
+        assertEquals(2, r.getIntentosEnvio());
+        assertEquals("bandeja caída", r.getMensajeError());
+        assertEquals(EstadoRecordatorio.PROGRAMADO, r.getEstado());
+
+        // Act
+        envio.registrarFallo(r.getId(), "bandeja caída");
+
+        // Assert
+        assertEquals(3, r.getIntentosEnvio());
+        assertEquals(EstadoRecordatorio.ERROR, r.getEstado());
+        verify(recordatorioRepository, times(2)).save(r);
+    }
+}
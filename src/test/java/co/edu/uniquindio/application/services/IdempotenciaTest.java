@@ -0,0 +1,204 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.dto.mensajeDtos.CrearMensajeDTO;
+import co.edu.uniquindio.gohost.dto.mensajeDtos.MensajeResDTO;
+import co.edu.uniquindio.gohost.service.idempotencia.Idempotencia;
+import co.edu.uniquindio.gohost.service.idempotencia.RegistroIdempotencia;
+import co.edu.uniquindio.gohost.service.idempotencia.RespuestaIdempotente;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas UNITARIAS para Idempotencia (la parte persistente se simula).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - Idempotencia")
+class IdempotenciaTest {
+
+    private static final String OPERACION = "POST /api/mensajes";
+
+    @Mock
+    private RegistroIdempotencia registro;
+
+    private Idempotencia idempotencia;
+    private ObjectMapper objectMapper;
+    private UUID usuarioId;
+    private CrearMensajeDTO peticion;
+    private AtomicInteger ejecuciones;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        idempotencia = new Idempotencia(registro, objectMapper, 100, 60);
+        usuarioId = UUID.randomUUID();
+        peticion = new CrearMensajeDTO(UUID.randomUUID(), "Hola");
+        ejecuciones = new AtomicInteger();
+    }
+
+    private MensajeResDTO enviar() {
+        ejecuciones.incrementAndGet();
+        return new MensajeResDTO(UUID.randomUUID(), peticion.reservaId(), usuarioId, "Ana", peticion.contenido(),
+                LocalDateTime.of(2026, 1, 1, 10, 0));
+    }
+
+    /** El registro simulado ejecuta la operación la primera vez, como haría la transacción real. */
+    @SuppressWarnings("unchecked")
+    private void registroVacio() {
+        when(registro.buscar(eq(usuarioId), anyString())).thenReturn(Optional.empty());
+        when(registro.ejecutar(eq(usuarioId), anyString(), eq(OPERACION), anyString(), any()))
+                .thenAnswer(inv -> Optional.of(new RespuestaIdempotente(inv.getArgument(3),
+                        ((Supplier<String>) inv.getArgument(4)).get())));
+    }
+
+    @Test
+    @DisplayName("Sin clave ejecuta siempre")
+    void testSinClave() {
+        // Act
+        idempotencia.ejecutar(usuarioId, null, OPERACION, peticion, MensajeResDTO.class, this::enviar);
+        idempotencia.ejecutar(usuarioId, " ", OPERACION, peticion, MensajeResDTO.class, this::enviar);
+
+        // Assert
+        assertEquals(2, ejecuciones.get());
+        verifyNoInteractions(registro);
+    }
+
+    @Test
+    @DisplayName("Un reintento con la misma clave repite la respuesta sin ejecutar de nuevo")
+    void testReintentoRepiteRespuesta() {
+        // Arrange
+        registroVacio();
+
+        // Act
+        MensajeResDTO primera = idempotencia.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, this::enviar);
+        MensajeResDTO segunda = idempotencia.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, this::enviar);
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+        assertEquals(primera, segunda);
+        verify(registro, times(1)).ejecutar(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Reutilizar la clave con otro cuerpo es un error")
+    void testClaveConOtraPeticion() {
+        // Arrange
+        registroVacio();
+        idempotencia.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, this::enviar);
+
+        // Act & Assert
+        CrearMensajeDTO otra = new CrearMensajeDTO(peticion.reservaId(), "Otro texto");
+        assertThrows(IllegalArgumentException.class, () ->
+                idempotencia.ejecutar(usuarioId, "k1", OPERACION, otra, MensajeResDTO.class, this::enviar));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Una respuesta ya guardada en BD se repite sin ejecutar")
+    void testRespuestaEnBaseDeDatos() throws Exception {
+        // Arrange: primera ejecución para conocer la huella y la respuesta
+        registroVacio();
+        MensajeResDTO original = idempotencia.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, this::enviar);
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(registro).ejecutar(eq(usuarioId), eq("k1"), eq(OPERACION), captor.capture(), any());
+
+        Idempotencia otroNodo = new Idempotencia(registro, objectMapper, 100, 60);
+        when(registro.buscar(usuarioId, "k1")).thenReturn(Optional.of(
+                new RespuestaIdempotente(captor.getValue(), objectMapper.writeValueAsString(original))));
+
+        // Act
+        MensajeResDTO repetida = otroNodo.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, this::enviar);
+
+        // Assert
+        assertEquals(original, repetida);
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Si la operación falla no se guarda y el reintento vuelve a ejecutar")
+    void testFalloNoSeGuarda() {
+        // Arrange
+        registroVacio();
+
+        // Act
+        assertThrows(IllegalStateException.class, () ->
+                idempotencia.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, () -> {
+                    throw new IllegalStateException("Fechas no disponibles");
+                }));
+        idempotencia.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, this::enviar);
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Duplicados concurrentes esperan a la primera ejecución")
+    void testDuplicadosConcurrentes() throws Exception {
+        // Arrange
+        registroVacio();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Supplier<MensajeResDTO> lenta = () -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return enviar();
+        };
+
+        // Act
+        List<Future<MensajeResDTO>> hilos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            hilos.add(pool.submit(() -> {
+                salida.await();
+                return idempotencia.ejecutar(usuarioId, "k1", OPERACION, peticion, MensajeResDTO.class, lenta);
+            }));
+        }
+        salida.countDown();
+        List<MensajeResDTO> respuestas = new ArrayList<>();
+        for (Future<MensajeResDTO> f : hilos) {
+            respuestas.add(f.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+        assertTrue(respuestas.stream().allMatch(respuestas.get(0)::equals));
+    }
+
+    @Test
+    @DisplayName("Clave demasiado larga se rechaza")
+    void testClaveLarga() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                idempotencia.ejecutar(usuarioId, "x".repeat(256), OPERACION, peticion, MensajeResDTO.class, this::enviar));
+        verifyNoInteractions(registro);
+    }
+}
@@ -0,0 +1,139 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceCiudades;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas UNITARIAS para IndiceCiudades.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - IndiceCiudades")
+class IndiceCiudadesTest {
+
+    @Mock
+    private AlojamientoRepository alojamientoRepository;
+
+    @InjectMocks
+    private IndiceCiudades indice;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(indice, "maxSugerencias", 10);
+    }
+
+    /** Cada fila (ciudad, n) se convierte en n alojamientos activos de esa ciudad. */
+    private void construirCon(Object[]... filas) {
+        List<Object[]> alojamientos = new ArrayList<>();
+        for (Object[] fila : filas) {
+            for (long k = 0; k < (Long) fila[1]; k++) {
+                alojamientos.add(new Object[]{UUID.randomUUID(), fila[0]});
+            }
+        }
+        when(alojamientoRepository.findCiudadesActivas()).thenReturn(alojamientos);
+        indice.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Variantes con y sin tildes suman en una sola ciudad con el primer nombre")
+    void testVariantesSeUnifican() {
+        // Arrange
+        construirCon(
+                new Object[]{"Bogotá", 3L},
+                new Object[]{" BOGOTA ", 2L},
+                new Object[]{"Boyacá", 4L});
+
+        // Act & Assert - 3 + 2 supera a los 4 de Boyacá
+        assertEquals(List.of("Bogotá", "Boyacá"), indice.sugerir("bo").orElseThrow());
+        assertEquals(List.of("Bogotá", "Boyacá"), indice.todas().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Prefijo sin tildes, ordenado por número de alojamientos")
+    void testPrefijoSinTildes() {
+        // Arrange
+        construirCon(
+                new Object[]{"Bogotá", 3L},
+                new Object[]{"Boyacá", 8L},
+                new Object[]{"Armenia", 5L});
+
+        // Act & Assert
+        assertEquals(List.of("Boyacá", "Bogotá"), indice.sugerir("BO").orElseThrow());
+        assertEquals(List.of("Bogotá"), indice.sugerir("bogota").orElseThrow());
+        assertEquals(List.of("Armenia", "Bogotá", "Boyacá"), indice.todas().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Tolera errores de digitación y conserva coincidencias internas")
+    void testErroresDeDigitacion() {
+        // Arrange
+        construirCon(
+                new Object[]{"Medellín", 4L},
+                new Object[]{"Santa Marta", 2L});
+
+        // Act & Assert
+        assertEquals(List.of("Medellín"), indice.sugerir("medeyin").orElseThrow());
+        assertEquals(List.of("Medellín"), indice.sugerir("mdel").orElseThrow());
+        assertEquals(List.of("Santa Marta"), indice.sugerir("marta").orElseThrow());
+        assertTrue(indice.sugerir("cali").orElseThrow().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Los cambios de ciudad y las eliminaciones actualizan el índice")
+    void testEventosActualizanIndice() {
+        // Arrange
+        construirCon(new Object[]{"Armenia", 1L});
+        UUID id = UUID.randomUUID();
+
+        // Act - alojamiento nuevo en otra ciudad
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(id, null, "Pereira", true, null, null, null));
+
+        // Assert
+        assertEquals(List.of("Pereira"), indice.sugerir("per").orElseThrow());
+
+        // Act - se muda y luego se elimina
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(id, "Pereira", "Armenia", true, null, null, null));
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(UUID.randomUUID(), "Armenia", null, false, null, null, null));
+
+        // Assert
+        assertTrue(indice.sugerir("per").orElseThrow().isEmpty());
+        assertEquals(List.of("Armenia"), indice.todas().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Un cambio recibido durante la reconstrucción y ya leído de la BD no se cuenta dos veces")
+    void testCambioDuranteReconstruccionNoDuplica() {
+        // Arrange
+        construirCon(new Object[]{"Armenia", 1L});
+        UUID id = UUID.randomUUID();
+        AlojamientoCambiadoEvent creado = new AlojamientoCambiadoEvent(id, null, "Pereira", true, null, null, null);
+        when(alojamientoRepository.findCiudadesActivas()).thenAnswer(inv -> {
+            // El alta confirma mientras se lee la BD y la lectura ya la incluye
+            indice.onAlojamientoCambiado(creado);
+            return new ArrayList<>(List.<Object[]>of(new Object[]{id, "Pereira"}));
+        });
+
+        // Act
+        indice.reconstruir();
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(id, "Pereira", null, false, null, null, null));
+
+        // Assert - al desactivarse su único alojamiento la ciudad ya no se sugiere
+        assertTrue(indice.sugerir("per").orElseThrow().isEmpty());
+        assertTrue(indice.todas().orElseThrow().isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.busqueda.Cercano;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceGeografico;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas UNITARIAS para IndiceGeografico.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - IndiceGeografico")
+class IndiceGeograficoTest {
+
+    @Mock
+    private AlojamientoRepository alojamientoRepository;
+
+    @InjectMocks
+    private IndiceGeografico indice;
+
+    // Armenia, Quindío y alrededores
+    private final UUID centro = UUID.randomUUID();     // Plaza de Bolívar
+    private final UUID cerca = UUID.randomUUID();      // ~1.1 km al norte
+    private final UUID lejos = UUID.randomUUID();      // Pereira, ~40 km
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(indice, "celdaGrados", 0.05);
+    }
+
+    private void construir() {
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{centro, 4.5339, -75.6811});
+        filas.add(new Object[]{cerca, 4.5439, -75.6811});
+        filas.add(new Object[]{lejos, 4.8133, -75.6961});
+        when(alojamientoRepository.findCoordenadasActivas()).thenReturn(filas);
+        indice.reconstruir();
+    }
+
+    private static List<UUID> ids(List<Cercano> cercanos) {
+        return cercanos.stream().map(Cercano::alojamientoId).toList();
+    }
+
+    @Test
+    @DisplayName("Un radio que cruza el borde de la celda encuentra los puntos de la celda vecina")
+    void testRadioCruzaBordeDeCelda() {
+        // Arrange - 4.55 es borde de celda con 0.05 grados
+        UUID sur = UUID.randomUUID();
+        UUID norte = UUID.randomUUID();
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{sur, 4.5499, -75.68});
+        filas.add(new Object[]{norte, 4.5501, -75.68});
+        when(alojamientoRepository.findCoordenadasActivas()).thenReturn(filas);
+        indice.reconstruir();
+
+        // Act
+        List<Cercano> resultado = indice.enRadio(4.5499, -75.68, 0.1, 10).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(sur, norte), ids(resultado));
+    }
+
+    @Test
+    @DisplayName("Radio devuelve solo los puntos dentro, ordenados por distancia")
+    void testRadioOrdenadoPorDistancia() {
+        // Arrange
+        construir();
+
+        // Act
+        List<Cercano> resultado = indice.enRadio(4.5339, -75.6811, 5, 10).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(centro, cerca), ids(resultado));
+        assertEquals(0.0, resultado.get(0).distanciaKm(), 0.001);
+        assertEquals(1.11, resultado.get(1).distanciaKm(), 0.05);
+    }
+
+    @Test
+    @DisplayName("Caja amplia recorre celdas no vacías y respeta el top-K")
+    void testCajaConTopK() {
+        // Arrange
+        construir();
+
+        // Act
+        List<Cercano> todos = indice.enCaja(-10, 20, -90, -60, 10).orElseThrow();
+        List<Cercano> dos = indice.enRadio(4.5339, -75.6811, 100, 2).orElseThrow();
+
+        // Assert
+        assertEquals(3, todos.size());
+        assertEquals(List.of(centro, cerca), ids(dos));
+    }
+
+    @Test
+    @DisplayName("Mover y desactivar un alojamiento actualiza la rejilla")
+    void testEventosActualizanRejilla() {
+        // Arrange
+        construir();
+
+        // Act - se mueve "lejos" junto al centro
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(lejos, "Pereira", "Armenia", true,
+                4.5340, -75.6812, BigDecimal.TEN));
+
+        // Assert
+        assertEquals(3, indice.enRadio(4.5339, -75.6811, 5, 10).orElseThrow().size());
+
+        // Act - se desactiva
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(lejos, "Armenia", null, false,
+                4.5340, -75.6812, BigDecimal.TEN));
+
+        // Assert
+        assertFalse(ids(indice.enCaja(-10, 20, -90, -60, 10).orElseThrow()).contains(lejos));
+    }
+}
@@ -0,0 +1,145 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.dto.alojamientosDtos.ClusterMapaDTO;
+import co.edu.uniquindio.gohost.event.AlojamientoCambiadoEvent;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.service.busqueda.IndiceMapa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas UNITARIAS para IndiceMapa.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - IndiceMapa")
+class IndiceMapaTest {
+
+    @Mock
+    private AlojamientoRepository alojamientoRepository;
+
+    @InjectMocks
+    private IndiceMapa indice;
+
+    private final UUID laureles = UUID.randomUUID();
+    private final UUID vecino = UUID.randomUUID();
+    private final UUID cartagena = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(indice, "zoomMax", 18);
+        ReflectionTestUtils.setField(indice, "celdasPorTile", 4);
+    }
+
+    private void construir() {
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{laureles, 6.2442, -75.5812, new BigDecimal("100")});
+        filas.add(new Object[]{vecino, 6.2446, -75.5816, new BigDecimal("80")});
+        filas.add(new Object[]{cartagena, 10.3910, -75.4794, new BigDecimal("200")});
+        when(alojamientoRepository.findCoordenadasActivas()).thenReturn(filas);
+        indice.reconstruir();
+    }
+
+    /** Tesela Web Mercator que contiene el punto en el zoom dado. */
+    private List<ClusterMapaDTO> teselaDe(double lat, double lon, int z) {
+        int n = 1 << z;
+        int x = (int) Math.floor((lon + 180) / 360 * n);
+        double latRad = Math.toRadians(lat);
+        int y = (int) Math.floor((1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * n);
+        return indice.tesela(z, x, y).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Más allá del zoom máximo la tesela agrupa con el nivel más profundo")
+    void testZoomMayorAlMaximo() {
+        // Arrange
+        ReflectionTestUtils.setField(indice, "zoomMax", 10);
+        construir();
+
+        // Act - tesela z16 que contiene el centroide de los dos de Medellín
+        List<ClusterMapaDTO> profunda = teselaDe(6.2444, -75.5814, 16);
+
+        // Assert
+        assertEquals(10, indice.zoomMaximo());
+        assertEquals(1, profunda.size());
+        assertEquals(2, profunda.get(0).cantidad());
+        assertEquals(0, new BigDecimal("80").compareTo(profunda.get(0).precioMinimo()));
+    }
+
+    @Test
+    @DisplayName("Zoom bajo agrupa todo; zoom alto separa ciudades")
+    void testAgrupacionPorZoom() {
+        // Arrange
+        construir();
+
+        // Act
+        List<ClusterMapaDTO> mundo = indice.tesela(0, 0, 0).orElseThrow();
+        List<ClusterMapaDTO> medellin = teselaDe(6.2442, -75.5812, 12);
+
+        // Assert
+        assertEquals(1, mundo.size());
+        assertEquals(3, mundo.get(0).cantidad());
+        assertEquals(0, new BigDecimal("80").compareTo(mundo.get(0).precioMinimo()));
+        assertEquals(1, medellin.size());
+        assertEquals(2, medellin.get(0).cantidad());
+        assertEquals(6.2444, medellin.get(0).latitud(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Las celdas siguen la proyección Mercator: no cruzan el borde de la tesela")
+    void testCeldasAnidadasEnTesela() {
+        // Arrange - el borde entre las teselas z2 y=0 e y=1 está en ~66.51° N
+        List<Object[]> filas = new ArrayList<>();
+        filas.add(new Object[]{UUID.randomUUID(), 66.0, 10.0, new BigDecimal("100")});
+        filas.add(new Object[]{UUID.randomUUID(), 67.0, 10.0, new BigDecimal("200")});
+        when(alojamientoRepository.findCoordenadasActivas()).thenReturn(filas);
+        indice.reconstruir();
+
+        // Act
+        List<ClusterMapaDTO> norte = indice.tesela(2, 2, 0).orElseThrow();
+        List<ClusterMapaDTO> sur = indice.tesela(2, 2, 1).orElseThrow();
+
+        // Assert
+        assertEquals(1, norte.size());
+        assertEquals(67.0, norte.get(0).latitud(), 1e-9);
+        assertEquals(1, sur.size());
+        assertEquals(66.0, sur.get(0).latitud(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Cambio de precio y desactivación actualizan los clusters")
+    void testEventosActualizanClusters() {
+        // Arrange
+        construir();
+
+        // Act - el más barato sube de precio
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(vecino, "Medellín", "Medellín", true,
+                6.2446, -75.5816, new BigDecimal("120")));
+
+        // Assert
+        assertEquals(0, new BigDecimal("100").compareTo(indice.tesela(0, 0, 0).orElseThrow().get(0).precioMinimo()));
+
+        // Act - se desactiva el otro de Medellín
+        indice.onAlojamientoCambiado(new AlojamientoCambiadoEvent(laureles, "Medellín", null, false,
+                6.2442, -75.5812, new BigDecimal("100")));
+
+        // Assert
+        List<ClusterMapaDTO> medellin = teselaDe(6.2446, -75.5816, 12);
+        assertEquals(1, medellin.get(0).cantidad());
+        assertEquals(0, new BigDecimal("120").compareTo(medellin.get(0).precioMinimo()));
+        assertEquals(2, indice.tesela(0, 0, 0).orElseThrow().get(0).cantidad());
+    }
+}
@@ -0,0 +1,171 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
+import co.edu.uniquindio.gohost.event.ReservasCambiadasEvent;
+import co.edu.uniquindio.gohost.model.EstadoReserva;
+import co.edu.uniquindio.gohost.repository.ReservaRepository;
+import co.edu.uniquindio.gohost.service.disponibilidad.IndiceOcupacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas UNITARIAS para IndiceOcupacion.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - IndiceOcupacion")
+class IndiceOcupacionTest {
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @InjectMocks
+    private IndiceOcupacion indice;
+
+    private UUID alojamientoId;
+    private LocalDate hoy;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(indice, "horizonteDias", 30);
+        alojamientoId = UUID.randomUUID();
+        hoy = LocalDate.now();
+    }
+
+    private void construirCon(Object[]... filas) {
+        List<Object[]> rangos = new ArrayList<>(List.of(filas));
+        when(reservaRepository.findRangosActivosDesde(any())).thenReturn(rangos);
+        indice.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Reservas que cruzan el origen o el horizonte se recortan a la ventana del índice")
+    void testReservasRecortadasAlHorizonte() {
+        // Arrange
+        UUID alFinal = UUID.randomUUID();
+        construirCon(
+                new Object[]{alojamientoId, hoy.minusDays(3), hoy.plusDays(2)},
+                new Object[]{alFinal, hoy.plusDays(28), hoy.plusDays(40)});
+
+        // Act & Assert
+        assertFalse(indice.estaDisponible(alojamientoId, hoy, hoy.plusDays(1)).orElseThrow());
+        assertTrue(indice.estaDisponible(alojamientoId, hoy.plusDays(2), hoy.plusDays(4)).orElseThrow());
+        assertFalse(indice.estaDisponible(alFinal, hoy.plusDays(29), hoy.plusDays(30)).orElseThrow());
+        assertEquals(Set.of(alojamientoId), indice.alojamientosOcupados(hoy.plusDays(1), hoy.plusDays(2)).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Detecta traslape con rango semiabierto [checkIn, checkOut)")
+    void testTraslapeSemiabierto() {
+        // Arrange
+        construirCon(new Object[]{alojamientoId, hoy.plusDays(5), hoy.plusDays(8)});
+
+        // Act & Assert
+        assertEquals(Set.of(alojamientoId), indice.alojamientosOcupados(hoy.plusDays(7), hoy.plusDays(10)).orElseThrow());
+        assertTrue(indice.alojamientosOcupados(hoy.plusDays(8), hoy.plusDays(10)).orElseThrow().isEmpty());
+        assertTrue(indice.estaDisponible(alojamientoId, hoy.plusDays(2), hoy.plusDays(5)).orElseThrow());
+        assertFalse(indice.estaDisponible(alojamientoId, hoy.plusDays(4), hoy.plusDays(6)).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("El predicado de disponibles responde por id, incluidos cambios posteriores")
+    void testDisponiblesPorId() {
+        // Arrange
+        UUID libre = UUID.randomUUID();
+        construirCon(new Object[]{alojamientoId, hoy.plusDays(5), hoy.plusDays(8)});
+
+        // Act
+        var disponibles = indice.disponibles(hoy.plusDays(6), hoy.plusDays(7)).orElseThrow();
+        indice.onReservaCambiada(new ReservaCambiadaEvent(UUID.randomUUID(), libre, null, null, null,
+                hoy.plusDays(6), hoy.plusDays(7), EstadoReserva.CONFIRMADA));
+
+        // Assert
+        assertFalse(disponibles.test(alojamientoId));
+        assertTrue(disponibles.test(UUID.randomUUID()));
+        assertFalse(indice.disponibles(hoy.plusDays(6), hoy.plusDays(7)).orElseThrow().test(libre));
+        assertTrue(indice.disponibles(hoy.minusDays(1), hoy.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Fuera del horizonte delega a la base de datos")
+    void testFueraDelHorizonte() {
+        // Arrange
+        construirCon();
+
+        // Act & Assert
+        assertTrue(indice.alojamientosOcupados(hoy.plusDays(25), hoy.plusDays(40)).isEmpty());
+        assertTrue(indice.alojamientosOcupados(hoy.minusDays(1), hoy.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Creación, cambio de fechas y cancelación actualizan el índice")
+    void testEventosActualizanIndice() {
+        // Arrange
+        construirCon();
+        UUID reservaId = UUID.randomUUID();
+        LocalDate in = hoy.plusDays(3);
+        LocalDate out = hoy.plusDays(6);
+
+        // Act - creación
+        indice.onReservaCambiada(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                null, null, null, in, out, EstadoReserva.PENDIENTE));
+
+        // Assert
+        assertFalse(indice.estaDisponible(alojamientoId, in, out).orElseThrow());
+
+        // Act - cambio de fechas
+        indice.onReservaCambiada(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                in, out, EstadoReserva.PENDIENTE, in.plusDays(10), out.plusDays(10), EstadoReserva.CONFIRMADA));
+
+        // Assert
+        assertTrue(indice.estaDisponible(alojamientoId, in, out).orElseThrow());
+        assertFalse(indice.estaDisponible(alojamientoId, in.plusDays(10), out.plusDays(10)).orElseThrow());
+
+        // Act - cancelación
+        indice.onReservaCambiada(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                in.plusDays(10), out.plusDays(10), EstadoReserva.CONFIRMADA,
+                in.plusDays(10), out.plusDays(10), EstadoReserva.CANCELADA));
+
+        // Assert
+        assertTrue(indice.alojamientosOcupados(hoy, hoy.plusDays(30)).orElseThrow().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un lote de expiraciones libera las noches de cada reserva")
+    void testLoteLiberaNoches() {
+        // Arrange
+        construirCon();
+        UUID otroAlojamiento = UUID.randomUUID();
+        LocalDate in = hoy.plusDays(2);
+        LocalDate out = hoy.plusDays(4);
+        ReservaCambiadaEvent a = new ReservaCambiadaEvent(UUID.randomUUID(), alojamientoId,
+                in, out, EstadoReserva.PENDIENTE, in, out, EstadoReserva.CANCELADA);
+        ReservaCambiadaEvent b = new ReservaCambiadaEvent(UUID.randomUUID(), otroAlojamiento,
+                in, out, EstadoReserva.PENDIENTE, in, out, EstadoReserva.CANCELADA);
+        indice.onReservaCambiada(new ReservaCambiadaEvent(a.reservaId(), alojamientoId,
+                null, null, null, in, out, EstadoReserva.PENDIENTE));
+        indice.onReservaCambiada(new ReservaCambiadaEvent(b.reservaId(), otroAlojamiento,
+                null, null, null, in, out, EstadoReserva.PENDIENTE));
+
+        // Act
+        indice.onReservasCambiadas(new ReservasCambiadasEvent(EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA, List.of(a, b)));
+
+        // Assert
+        assertTrue(indice.alojamientosOcupados(hoy, hoy.plusDays(30)).orElseThrow().isEmpty());
+    }
+}
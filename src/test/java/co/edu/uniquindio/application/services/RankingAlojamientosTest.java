@@ -0,0 +1,93 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.service.busqueda.CandidatoRanking;
+import co.edu.uniquindio.gohost.service.busqueda.RankingAlojamientos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas UNITARIAS para RankingAlojamientos.
+ */
+@DisplayName("Pruebas Unitarias - RankingAlojamientos")
+class RankingAlojamientosTest {
+
+    private RankingAlojamientos ranking;
+    private LocalDateTime creado;
+    private Map<String, BigDecimal> medianas;
+
+    @BeforeEach
+    void setUp() {
+        ranking = new RankingAlojamientos(0.5, 0.2, 0.2, 0.1, 5, 10, 90);
+        creado = LocalDateTime.now().minusDays(30);
+        medianas = Map.of("armenia", new BigDecimal("200000"));
+    }
+
+    private CandidatoRanking candidato(UUID id, String precio, Double lat, Double lon, double promedio, long total) {
+        return new CandidatoRanking(id, new BigDecimal(precio), "Armenia", lat, lon, creado, promedio, total);
+    }
+
+    @Test
+    @DisplayName("Una sola reseña de 5 no supera a muchas reseñas altas (suavizado bayesiano)")
+    void testSuavizadoBayesiano() {
+        // Arrange
+        UUID unaResena = UUID.randomUUID();
+        UUID muchasResenas = UUID.randomUUID();
+        List<CandidatoRanking> candidatos = List.of(
+                candidato(unaResena, "200000", null, null, 5.0, 1),
+                candidato(muchasResenas, "200000", null, null, 4.8, 200));
+
+        // Act
+        List<UUID> orden = ranking.mejores(candidatos, medianas, 3.5, null, null, 2);
+
+        // Assert
+        assertEquals(List.of(muchasResenas, unaResena), orden);
+    }
+
+    @Test
+    @DisplayName("Con punto de referencia, el más cercano sube a igualdad de lo demás")
+    void testDistancia() {
+        // Arrange
+        UUID cerca = UUID.randomUUID();
+        UUID lejos = UUID.randomUUID();
+        List<CandidatoRanking> candidatos = List.of(
+                candidato(lejos, "200000", 4.70, -75.60, 4.0, 10),
+                candidato(cerca, "200000", 4.5340, -75.6810, 4.0, 10));
+
+        // Act
+        List<UUID> orden = ranking.mejores(candidatos, medianas, 4.0, 4.533333, -75.683333, 2);
+
+        // Assert
+        assertEquals(List.of(cerca, lejos), orden);
+    }
+
+    @Test
+    @DisplayName("El montículo devuelve exactamente los K mejores en orden descendente")
+    void testTopK() {
+        // Arrange: calificación creciente con el índice
+        List<CandidatoRanking> candidatos = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            candidatos.add(candidato(id, "200000", null, null, 1.0 + i * 0.08, 20));
+        }
+
+        // Act
+        List<UUID> top = ranking.mejores(candidatos, medianas, 3.0, null, null, 5);
+
+        // Assert
+        assertEquals(List.of(ids.get(49), ids.get(48), ids.get(47), ids.get(46), ids.get(45)), top);
+        assertTrue(ranking.mejores(candidatos, medianas, 3.0, null, null, 0).isEmpty());
+        assertEquals(50, ranking.mejores(candidatos, medianas, 3.0, null, null, 100).size());
+    }
+}
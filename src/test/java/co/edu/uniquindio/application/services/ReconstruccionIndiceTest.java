@@ -0,0 +1,100 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.service.indice.ReconstruccionIndice;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas UNITARIAS para ReconstruccionIndice.
+ */
+@DisplayName("Pruebas Unitarias - ReconstruccionIndice")
+class ReconstruccionIndiceTest {
+
+    /** Estado inmutable de prueba: los cambios agregan un elemento a una copia. */
+    private static List<String> agregar(List<String> estado, String cambio) {
+        List<String> copia = new ArrayList<>(estado);
+        copia.add(cambio);
+        return List.copyOf(copia);
+    }
+
+    @Test
+    @DisplayName("Sin construir no hay estado y los cambios no fallan")
+    void testSinConstruir() {
+        // Arrange
+        ReconstruccionIndice<List<String>, String> r = new ReconstruccionIndice<>("prueba", ReconstruccionIndiceTest::agregar);
+
+        // Act
+        r.aplicar("a");
+
+        // Assert
+        assertNull(r.estado());
+    }
+
+    @Test
+    @DisplayName("Los cambios recibidos durante la construcción se re-aplican antes de publicar")
+    void testCambiosDuranteReconstruccion() {
+        // Arrange
+        ReconstruccionIndice<List<String>, String> r = new ReconstruccionIndice<>("prueba", ReconstruccionIndiceTest::agregar);
+        r.reconstruir(() -> List.of("base"));
+
+        // Act - llega un cambio mientras se lee la BD
+        var publicado = r.reconstruir(() -> {
+            r.aplicar("durante");
+            return List.of("nuevo");
+        });
+
+        // Assert
+        assertEquals(List.of("nuevo", "durante"), publicado.orElseThrow());
+        assertSame(publicado.get(), r.estado());
+
+        // Act - los cambios posteriores ya no se guardan para una reconstrucción
+        r.aplicar("despues");
+        var siguiente = r.reconstruir(() -> List.of("otro"));
+
+        // Assert
+        assertEquals(List.of("otro"), siguiente.orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Si la construcción falla se conserva el estado anterior")
+    void testConstruccionFallida() {
+        // Arrange
+        ReconstruccionIndice<List<String>, String> r = new ReconstruccionIndice<>("prueba", ReconstruccionIndiceTest::agregar);
+        r.reconstruir(() -> List.of("base"));
+
+        // Act
+        var resultado = r.reconstruir(() -> {
+            throw new IllegalStateException("BD caída");
+        });
+        r.aplicar("a");
+
+        // Assert
+        assertTrue(resultado.isEmpty());
+        assertEquals(List.of("base", "a"), r.estado());
+    }
+
+    @Test
+    @DisplayName("Un cambio que falla descarta el estado hasta la siguiente reconstrucción")
+    void testCambioFallidoDescartaEstado() {
+        // Arrange
+        ReconstruccionIndice<List<String>, String> r = new ReconstruccionIndice<>("prueba", (estado, cambio) -> {
+            if (cambio.isEmpty()) {
+                throw new IllegalArgumentException("cambio inválido");
+            }
+            return agregar(estado, cambio);
+        });
+        r.reconstruir(() -> List.of("base"));
+
+        // Act
+        r.aplicar("");
+
+        // Assert
+        assertNull(r.estado());
+        assertEquals(List.of("base"), r.reconstruir(() -> List.of("base")).orElseThrow());
+    }
+}
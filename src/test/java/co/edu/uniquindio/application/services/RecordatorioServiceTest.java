@@ -0,0 +1,70 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.model.EstadoRecordatorio;
+import co.edu.uniquindio.gohost.model.NotificacionRecordatorio;
+import co.edu.uniquindio.gohost.repository.NotificacionRecordatorioRepository;
+import co.edu.uniquindio.gohost.service.impl.RecordatorioServiceImpl;
+import co.edu.uniquindio.gohost.service.recordatorios.EnvioRecordatorios;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas UNITARIAS para el envío por lotes de RecordatorioServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - RecordatorioService")
+class RecordatorioServiceTest {
+
+    @Mock
+    private NotificacionRecordatorioRepository recordatorioRepository;
+
+    @Mock
+    private EnvioRecordatorios envioRecordatorios;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RecordatorioServiceImpl recordatorioService;
+
+    private static NotificacionRecordatorio conId(UUID id) {
+        return NotificacionRecordatorio.builder().id(id).build();
+    }
+
+    @Test
+    @DisplayName("Un recordatorio que falla registra su fallo y no impide enviar el resto del lote")
+    void testFalloNoDetieneElLote() {
+        // Arrange
+        UUID primero = UUID.randomUUID();
+        UUID fallido = UUID.randomUUID();
+        UUID ultimo = UUID.randomUUID();
+        when(recordatorioRepository.findVencidos(eq(EstadoRecordatorio.PROGRAMADO), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(conId(primero), conId(fallido), conId(ultimo)));
+        when(envioRecordatorios.enviarSiVence(eq(primero), any())).thenReturn(true);
+        when(envioRecordatorios.enviarSiVence(eq(fallido), any())).thenThrow(new IllegalStateException("bandeja caída"));
+        when(envioRecordatorios.enviarSiVence(eq(ultimo), any())).thenReturn(true);
+
+        // Act
+        int enviados = recordatorioService.enviarVencidos(3);
+
+        // Assert
+        assertEquals(2, enviados);
+        verify(envioRecordatorios).registrarFallo(fallido, "bandeja caída");
+        verify(envioRecordatorios, never()).registrarFallo(eq(primero), any());
+        verify(envioRecordatorios, never()).registrarFallo(eq(ultimo), any());
+    }
+}
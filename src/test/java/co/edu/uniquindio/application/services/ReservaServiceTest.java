@@ -2,31 +2,45 @@ package co.edu.uniquindio.application.services;
 
 
 
+import co.edu.uniquindio.gohost.dto.reservaDtos.ReservaResDTO;
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
+import co.edu.uniquindio.gohost.event.ReservasCambiadasEvent;
 import co.edu.uniquindio.gohost.model.*;
 import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.repository.BloqueoReservaRepository;
 import co.edu.uniquindio.gohost.repository.ReservaRepository;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
+import co.edu.uniquindio.gohost.service.RecordatorioService;
 import co.edu.uniquindio.gohost.service.impl.ReservaServiceImpl;
-import co.edu.uniquindio.gohost.service.mail.MailService;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
+import co.edu.uniquindio.gohost.service.mail.EmailRequest;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
+import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -46,7 +60,16 @@ class ReservaServiceUnitTest {
     private AlojamientoRepository alojamientoRepository;
 
     @Mock
-    private MailService mailService;
+    private BloqueoReservaRepository bloqueoRepository;
+
+    @Mock
+    private BandejaSalida bandejaSalida;
+
+    @Mock
+    private RecordatorioService recordatorioService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ReservaServiceImpl reservaService;
@@ -79,6 +102,8 @@ class ReservaServiceUnitTest {
                 .id(alojamientoId)
                 .titulo("Casa de Prueba")
                 .direccion(direccion)
+                .precioNoche(new BigDecimal("180000"))
+                .anfitrion(Usuario.builder().id(UUID.randomUUID()).nombre("Luis").email("luis@test.com").build())
                 .build();
 
         reservaMock = Reserva.builder()
@@ -92,6 +117,12 @@ class ReservaServiceUnitTest {
                 .build();
     }
 
+    /** Fila tal como la devuelve la proyección por constructor del repositorio. */
+    private ReservaResDTO resMock() {
+        return new ReservaResDTO(reservaId, reservaMock.getCheckIn(), reservaMock.getCheckOut(),
+                reservaMock.getEstado(), false, huespedId, "Ana", alojamientoId, "Casa de Prueba", "Armenia");
+    }
+
     // ========== PRUEBAS DE CREACIÓN ==========
 
 
@@ -132,6 +163,28 @@ class ReservaServiceUnitTest {
         verify(reservaRepository, never()).save(any(Reserva.class));
     }
 
+    @Test
+    @DisplayName("Crear reserva sobre un bloqueo vigente de otro huésped lanza excepción")
+    void testCrearReservaSobreBloqueoDeOtroLanzaExcepcion() {
+        // Arrange
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate checkOut = checkIn.plusDays(3);
+
+        when(reservaRepository.existsTraslape(alojamientoId, checkIn, checkOut)).thenReturn(false);
+        when(bloqueoRepository.existsVigenteDeOtro(eq(alojamientoId), eq(checkIn), eq(checkOut), eq(huespedId), any()))
+                .thenReturn(true);
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> reservaService.crear(alojamientoId, huespedId, checkIn, checkOut)
+        );
+
+        assertEquals("Fechas no disponibles", exception.getMessage());
+        verify(alojamientoRepository).bloquearParaReservar(alojamientoId);
+        verify(reservaRepository, never()).save(any(Reserva.class));
+    }
+
     @Test
     @DisplayName("Crear reserva con huésped no existente lanza excepción")
     void testCrearReservaConHuespedNoExistenteLanzaExcepcion() {
@@ -173,6 +226,31 @@ class ReservaServiceUnitTest {
         verify(reservaRepository, never()).save(any(Reserva.class));
     }
 
+    @Test
+    @DisplayName("Violación de la restricción de exclusión se traduce a 'Fechas no disponibles'")
+    void testCrearReservaConcurrenteRechazadaPorRestriccion() {
+        // Arrange: otra transacción reservó las mismas fechas después de existsTraslape
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate checkOut = checkIn.plusDays(3);
+
+        when(reservaRepository.existsTraslape(alojamientoId, checkIn, checkOut)).thenReturn(false);
+        when(usuarioRepository.findById(huespedId)).thenReturn(Optional.of(huespedMock));
+        when(alojamientoRepository.findById(alojamientoId)).thenReturn(Optional.of(alojamientoMock));
+        when(reservaRepository.save(any(Reserva.class))).thenReturn(reservaMock);
+        doThrow(new DataIntegrityViolationException("ex_reserva_sin_traslape",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+                .when(reservaRepository).flush();
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> reservaService.crear(alojamientoId, huespedId, checkIn, checkOut)
+        );
+
+        assertEquals("Fechas no disponibles", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     // ========== PRUEBAS DE OBTENCIÓN ==========
 
     @Test
@@ -224,14 +302,13 @@ class ReservaServiceUnitTest {
     @DisplayName("Listar por huésped retorna página de DTOs")
     void testListarPorHuesped() {
         // Arrange
-        List<Reserva> reservas = List.of(reservaMock);
-        Page<Reserva> pagina = new PageImpl<>(reservas);
+        Page<ReservaResDTO> pagina = new PageImpl<>(List.of(resMock()));
         var pageable = PageRequest.of(0, 10);
         LocalDate fechaInicio = LocalDate.now();
         LocalDate fechaFin = LocalDate.now().plusDays(7);
         EstadoReserva estado = EstadoReserva.CONFIRMADA;
 
-        when(reservaRepository.findByHuespedIdWithFotos(huespedId, fechaInicio, fechaFin, estado, pageable)).thenReturn(pagina);
+        when(reservaRepository.findResDTOByHuespedId(huespedId, fechaInicio, fechaFin, estado, pageable)).thenReturn(pagina);
 
         // Act
         var resultado = reservaService.listarPorHuespedConDTO(huespedId, fechaInicio, fechaFin, estado, pageable);
@@ -239,7 +316,8 @@ class ReservaServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(reservaRepository).findByHuespedIdWithFotos(huespedId, fechaInicio, fechaFin, estado, pageable);
+        assertEquals("Armenia", resultado.getContent().get(0).ciudadAlojamiento());
+        verify(reservaRepository).findResDTOByHuespedId(huespedId, fechaInicio, fechaFin, estado, pageable);
     }
 
     @Test
@@ -247,11 +325,10 @@ class ReservaServiceUnitTest {
     void testListarPorAnfitrion() {
         // Arrange
         UUID anfitrionId = UUID.randomUUID();
-        List<Reserva> reservas = List.of(reservaMock);
-        Page<Reserva> pagina = new PageImpl<>(reservas);
+        Page<ReservaResDTO> pagina = new PageImpl<>(List.of(resMock()));
         var pageable = PageRequest.of(0, 10);
 
-        when(reservaRepository.findByAlojamientoAnfitrionIdWithFotos(anfitrionId, pageable))
+        when(reservaRepository.findResDTOByAnfitrionId(anfitrionId, pageable))
                 .thenReturn(pagina);
 
         // Act
@@ -260,7 +337,44 @@ class ReservaServiceUnitTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
-        verify(reservaRepository).findByAlojamientoAnfitrionIdWithFotos(anfitrionId, pageable);
+        verify(reservaRepository).findResDTOByAnfitrionId(anfitrionId, pageable);
+    }
+
+    @Test
+    @DisplayName("Listar por cursor devuelve 'next' solo si hay más filas y lo reutiliza como punto de partida")
+    void testListarPorHuespedPorCursor() {
+        // Arrange
+        Reserva otra = Reserva.builder()
+                .id(UUID.randomUUID())
+                .huesped(huespedMock)
+                .alojamiento(alojamientoMock)
+                .checkIn(LocalDate.of(2025, 11, 1))
+                .checkOut(LocalDate.of(2025, 11, 3))
+                .estado(EstadoReserva.CONFIRMADA)
+                .build();
+        when(reservaRepository.findByHuespedIdKeyset(huespedId, null, null, null, null, null, Limit.of(2)))
+                .thenReturn(List.of(reservaMock, otra));
+        when(reservaRepository.findByHuespedIdKeyset(huespedId, null, null, null,
+                reservaMock.getCheckIn(), reservaId, Limit.of(2)))
+                .thenReturn(List.of(otra));
+
+        // Act
+        var primera = reservaService.listarPorHuespedPorCursor(huespedId, null, null, null, "", 1);
+        var segunda = reservaService.listarPorHuespedPorCursor(huespedId, null, null, null, primera.next(), 1);
+
+        // Assert
+        assertEquals(List.of(reservaId), primera.content().stream().map(r -> r.id()).toList());
+        assertNotNull(primera.next());
+        assertEquals(List.of(otra.getId()), segunda.content().stream().map(r -> r.id()).toList());
+        assertNull(segunda.next());
+    }
+
+    @Test
+    @DisplayName("Un cursor malformado se rechaza con IllegalArgumentException")
+    void testListarPorCursorInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> reservaService.listarPorAnfitrionPorCursor(UUID.randomUUID(), "no-es-un-cursor", 10));
+        verifyNoInteractions(reservaRepository);
     }
 
     // ========== PRUEBAS DE ACTUALIZACIÓN ==========
@@ -291,7 +405,7 @@ class ReservaServiceUnitTest {
         LocalDate nuevoCheckOut = LocalDate.of(2025, 12, 5);
 
         when(reservaRepository.findById(reservaId)).thenReturn(Optional.of(reservaMock));
-        when(reservaRepository.existsTraslape(alojamientoId, nuevoCheckIn, nuevoCheckOut))
+        when(reservaRepository.existsTraslapeExcluyendo(alojamientoId, nuevoCheckIn, nuevoCheckOut, reservaId))
                 .thenReturn(false);
         when(reservaRepository.save(any(Reserva.class))).thenReturn(reservaMock);
         when(reservaRepository.findByIdWithFotos(reservaId)).thenReturn(Optional.of(reservaMock));
@@ -303,7 +417,8 @@ class ReservaServiceUnitTest {
 
         // Assert
         assertNotNull(resultado);
-        verify(reservaRepository).existsTraslape(alojamientoId, nuevoCheckIn, nuevoCheckOut);
+        verify(reservaRepository).existsTraslapeExcluyendo(alojamientoId, nuevoCheckIn, nuevoCheckOut, reservaId);
+        verify(reservaRepository, never()).existsTraslape(any(), any(), any());
         verify(reservaRepository).save(any(Reserva.class));
     }
 
@@ -357,6 +472,20 @@ class ReservaServiceUnitTest {
         verify(reservaRepository).save(any(Reserva.class));
     }
 
+    @Test
+    @DisplayName("Cancelar reserva: un fallo al encolar el correo se propaga (revierte la transacción)")
+    void testCancelarReservaPropagaFalloDeBandeja() {
+        // Arrange
+        reservaMock.setCheckIn(LocalDate.now().plusDays(3));
+        when(reservaRepository.findById(reservaId)).thenReturn(Optional.of(reservaMock));
+        when(reservaRepository.save(any(Reserva.class))).thenReturn(reservaMock);
+        doThrow(new IllegalStateException("outbox caído")).when(bandejaSalida).encolar(any());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> reservaService.cancelar(reservaId));
+        verify(recordatorioService, never()).cancelarRecordatoriosDeReserva(any());
+    }
+
     @Test
     @DisplayName("Cancelar reserva ya cancelada es idempotente")
     void testCancelarReservaYaCanceladaEsIdempotente() {
@@ -447,6 +576,91 @@ class ReservaServiceUnitTest {
         assertNotNull(resultado);
         assertEquals(reservaEsperada.getId(), resultado.getId());
         assertEquals(EstadoReserva.PENDIENTE, resultado.getEstado());
-        verify(reservaRepository).save(any(Reserva.class));
+        ArgumentCaptor<Reserva> guardada = ArgumentCaptor.forClass(Reserva.class);
+        verify(reservaRepository).save(guardada.capture());
+        assertEquals(new BigDecimal("180000"), guardada.getValue().getPrecioNoche());
+    }
+
+    // ========== PRUEBAS DEL CICLO DE VIDA POR LOTES ==========
+
+    @Test
+    @DisplayName("Completar finalizadas publica un solo evento por lote y encola los correos en bloque")
+    void testCompletarFinalizadasPublicaEventosYEncolaCorreos() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        LocalDate checkIn = hoy.minusDays(3);
+        LocalDate checkOut = hoy.minusDays(1);
+        reservaMock.setCheckIn(checkIn);
+        reservaMock.setCheckOut(checkOut);
+        reservaMock.setEstado(EstadoReserva.COMPLETADA);
+
+        when(reservaRepository.completarFinalizadas(hoy, 100)).thenReturn(List.<Object[]>of(
+                new Object[]{reservaId, alojamientoId, java.sql.Date.valueOf(checkIn), java.sql.Date.valueOf(checkOut)}));
+        when(reservaRepository.findParaCorreo(List.of(reservaId))).thenReturn(List.of(reservaMock));
+
+        // Act
+        int completadas = reservaService.completarFinalizadas(hoy, 100);
+
+        // Assert
+        assertEquals(1, completadas);
+        verify(eventPublisher).publishEvent(new ReservasCambiadasEvent(EstadoReserva.CONFIRMADA, EstadoReserva.COMPLETADA,
+                List.of(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                        checkIn, checkOut, EstadoReserva.CONFIRMADA, checkIn, checkOut, EstadoReserva.COMPLETADA))));
+        verify(eventPublisher, times(1)).publishEvent(any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<EmailRequest>> correos = ArgumentCaptor.forClass(Collection.class);
+        verify(bandejaSalida).encolarTodos(correos.capture());
+        assertEquals(1, correos.getValue().size());
+        assertEquals("ana@test.com", correos.getValue().iterator().next().getTo());
+        verify(bandejaSalida, never()).encolar(any());
+    }
+
+    @Test
+    @DisplayName("Expirar pendientes cancela en lote, avisa a huésped y anfitrión y cancela recordatorios")
+    void testExpirarPendientesCancelaRecordatoriosYEncolaCorreos() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        alojamientoMock.setAnfitrion(Usuario.builder()
+                .id(UUID.randomUUID())
+                .nombre("Luis")
+                .email("luis@test.com")
+                .rol(Rol.ANFITRION)
+                .build());
+        reservaMock.setCheckIn(hoy);
+        reservaMock.setCheckOut(hoy.plusDays(2));
+
+        when(reservaRepository.expirarPendientes(hoy, 100)).thenReturn(List.<Object[]>of(
+                new Object[]{reservaId, alojamientoId, hoy, hoy.plusDays(2)}));
+        when(reservaRepository.findParaCorreo(List.of(reservaId))).thenReturn(List.of(reservaMock));
+
+        // Act
+        int expiradas = reservaService.expirarPendientes(hoy, 100);
+
+        // Assert
+        assertEquals(1, expiradas);
+        verify(eventPublisher).publishEvent(new ReservasCambiadasEvent(EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA,
+                List.of(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                        hoy, hoy.plusDays(2), EstadoReserva.PENDIENTE, hoy, hoy.plusDays(2), EstadoReserva.CANCELADA))));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<EmailRequest>> correos = ArgumentCaptor.forClass(Collection.class);
+        verify(bandejaSalida).encolarTodos(correos.capture());
+        assertEquals(2, correos.getValue().size());
+        verify(recordatorioService).cancelarRecordatoriosDeReservas(List.of(reservaId));
+    }
+
+    @Test
+    @DisplayName("Un lote vacío no consulta correos ni recordatorios")
+    void testExpirarPendientesSinFilasNoHaceNadaMas() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        when(reservaRepository.expirarPendientes(hoy, 100)).thenReturn(List.of());
+
+        // Act
+        int expiradas = reservaService.expirarPendientes(hoy, 100);
+
+        // Assert
+        assertEquals(0, expiradas);
+        verify(reservaRepository, never()).findParaCorreo(any());
+        verifyNoInteractions(bandejaSalida, recordatorioService, eventPublisher);
     }
 }
@@ -0,0 +1,167 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.event.ReservaCambiadaEvent;
+import co.edu.uniquindio.gohost.event.ReservasCambiadasEvent;
+import co.edu.uniquindio.gohost.model.EstadoReserva;
+import co.edu.uniquindio.gohost.repository.AlojamientoMetricasRepository;
+import co.edu.uniquindio.gohost.service.metricas.ResumenMetricas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas UNITARIAS para ResumenMetricas.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas Unitarias - ResumenMetricas")
+class ResumenMetricasTest {
+
+    @Mock
+    private AlojamientoMetricasRepository metricasRepository;
+
+    @InjectMocks
+    private ResumenMetricas resumen;
+
+    private UUID reservaId;
+    private UUID alojamientoId;
+    private LocalDate in;
+    private LocalDate out;
+
+    @BeforeEach
+    void setUp() {
+        reservaId = UUID.randomUUID();
+        alojamientoId = UUID.randomUUID();
+        in = LocalDate.now().plusDays(10);
+        out = in.plusDays(3);
+    }
+
+    private ReservaCambiadaEvent cambio(EstadoReserva anterior, EstadoReserva nuevo) {
+        return new ReservaCambiadaEvent(reservaId, alojamientoId, in, out, anterior, in, out, nuevo);
+    }
+
+    @Test
+    @DisplayName("Reserva creada suma al total")
+    void testCreacion() {
+        // Act
+        resumen.onReservaCambiada(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                null, null, null, in, out, EstadoReserva.PENDIENTE));
+
+        // Assert
+        verify(metricasRepository).acumularReservas(reservaId, 1, 0, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Cancelación suma a canceladas sin tocar el total")
+    void testCancelacion() {
+        // Act
+        resumen.onReservaCambiada(cambio(EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA));
+
+        // Assert
+        verify(metricasRepository).acumularReservas(reservaId, 0, 0, 1, 0);
+    }
+
+    @Test
+    @DisplayName("Completar acumula las noches para ingresos; revertir las resta")
+    void testCompletarYRevertir() {
+        // Act
+        resumen.onReservaCambiada(cambio(EstadoReserva.CONFIRMADA, EstadoReserva.COMPLETADA));
+        resumen.onReservaCambiada(cambio(EstadoReserva.COMPLETADA, EstadoReserva.CANCELADA));
+
+        // Assert
+        verify(metricasRepository).acumularReservas(reservaId, 0, 1, 0, 3);
+        verify(metricasRepository).acumularReservas(reservaId, 0, -1, 1, -3);
+    }
+
+    @Test
+    @DisplayName("Cambio de fechas mueve los cubos diarios sin tocar los totales")
+    void testCambioDeFechas() {
+        // Act
+        resumen.onReservaCambiada(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                in, out, EstadoReserva.CONFIRMADA, in.plusDays(1), out.plusDays(1), EstadoReserva.CONFIRMADA));
+
+        // Assert
+        verify(metricasRepository, never()).acumularReservas(any(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(metricasRepository).acumularDias(reservaId, in, out, -1, 0, 0, -1, 0);
+        verify(metricasRepository).acumularDias(reservaId, in.plusDays(1), out.plusDays(1), 1, 0, 0, 1, 0);
+    }
+
+    @Test
+    @DisplayName("Cubos diarios: creación suma noches; cancelación las quita y cuenta la cancelación")
+    void testCubosDiarios() {
+        // Act
+        resumen.onReservaCambiada(new ReservaCambiadaEvent(reservaId, alojamientoId,
+                null, null, null, in, out, EstadoReserva.PENDIENTE));
+        resumen.onReservaCambiada(cambio(EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA));
+
+        // Assert
+        verify(metricasRepository).acumularDias(reservaId, in, out, 1, 0, 0, 1, 0);
+        verify(metricasRepository).acumularDias(reservaId, in, out, -1, 0, 0, -1, 0);
+        verify(metricasRepository).acumularDias(reservaId, in, out, 1, 1, 0, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Al arrancar carga el histórico de cubos solo si la tabla está vacía")
+    void testCargaHistorico() {
+        // Arrange
+        when(metricasRepository.existenDias()).thenReturn(false, true);
+
+        // Act
+        resumen.alIniciar();
+        resumen.alIniciar();
+
+        // Assert
+        verify(metricasRepository, times(1)).borrarDiasDesde(LocalDate.EPOCH);
+        verify(metricasRepository, times(1)).reconstruirDiasReservas(LocalDate.EPOCH);
+        verify(metricasRepository, times(1)).reconstruirDiasResenas(LocalDate.EPOCH);
+    }
+
+    @Test
+    @DisplayName("La consolidación suma los incrementos pendientes en una sola sentencia")
+    void testConsolidar() {
+        // Arrange
+        when(metricasRepository.consolidarPendientes()).thenReturn(2);
+
+        // Act
+        resumen.consolidar();
+
+        // Assert
+        verify(metricasRepository).consolidarPendientes();
+        verifyNoMoreInteractions(metricasRepository);
+    }
+
+    @Test
+    @DisplayName("Un lote se aplica con una sentencia por tabla, sin un evento por reserva")
+    void testLoteEnUnaSentenciaPorTabla() {
+        // Arrange
+        UUID otra = UUID.randomUUID();
+        ReservasCambiadasEvent completadas = new ReservasCambiadasEvent(EstadoReserva.CONFIRMADA, EstadoReserva.COMPLETADA,
+                List.of(cambio(EstadoReserva.CONFIRMADA, EstadoReserva.COMPLETADA),
+                        new ReservaCambiadaEvent(otra, alojamientoId, in, out, EstadoReserva.CONFIRMADA,
+                                in, out, EstadoReserva.COMPLETADA)));
+        ReservasCambiadasEvent expiradas = new ReservasCambiadasEvent(EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA,
+                List.of(cambio(EstadoReserva.PENDIENTE, EstadoReserva.CANCELADA)));
+
+        // Act
+        resumen.onReservasCambiadas(completadas);
+        resumen.onReservasCambiadas(expiradas);
+
+        // Assert
+        verify(metricasRepository).acumularDiasLote(List.of(reservaId, otra), 0, 1, 0, 1);
+        verify(metricasRepository).acumularReservasLote(List.of(reservaId, otra), 1, 0, 1);
+        verify(metricasRepository).acumularDiasLote(List.of(reservaId), 1, 0, -1, 0);
+        verify(metricasRepository).acumularReservasLote(List.of(reservaId), 0, 1, 0);
+        verifyNoMoreInteractions(metricasRepository);
+    }
+}
@@ -0,0 +1,97 @@
+package co.edu.uniquindio.application.services;
+
+import co.edu.uniquindio.gohost.service.bloqueos.RuedaTemporizacion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas UNITARIAS para RuedaTemporizacion (tiempo simulado en milisegundos).
+ */
+@DisplayName("Pruebas Unitarias - RuedaTemporizacion")
+class RuedaTemporizacionTest {
+
+    private static final long T0 = 1_000_000L;
+
+    @Test
+    @DisplayName("Cada clave vence en el tick de su vencimiento, no antes")
+    void testVencimientoEnOrden() {
+        // Arrange
+        RuedaTemporizacion<String> rueda = new RuedaTemporizacion<>(100, 8, T0);
+        rueda.programar("a", T0 + 250);
+        rueda.programar("b", T0 + 500);
+
+        // Act & Assert
+        assertEquals(List.of(), rueda.avanzar(T0 + 200));
+        assertEquals(List.of("a"), rueda.avanzar(T0 + 300));
+        assertEquals(List.of(), rueda.avanzar(T0 + 400));
+        assertEquals(List.of("b"), rueda.avanzar(T0 + 500));
+        assertEquals(0, rueda.tamano());
+    }
+
+    @Test
+    @DisplayName("Vencimientos más allá de una vuelta esperan las vueltas que faltan")
+    void testVariasVueltas() {
+        // Arrange: 8 ranuras x 100 ms = 800 ms por vuelta
+        RuedaTemporizacion<String> rueda = new RuedaTemporizacion<>(100, 8, T0);
+        rueda.programar("lejos", T0 + 2_050);
+
+        // Act & Assert: la ranura se visita en 500 y 1300 pero aún no vence
+        for (long t = T0 + 100; t <= T0 + 2_000; t += 100) {
+            assertEquals(List.of(), rueda.avanzar(t), "venció antes de tiempo en " + (t - T0));
+        }
+        assertEquals(List.of("lejos"), rueda.avanzar(T0 + 2_100));
+    }
+
+    @Test
+    @DisplayName("Cancelar y reprogramar")
+    void testCancelarYReprogramar() {
+        // Arrange
+        RuedaTemporizacion<String> rueda = new RuedaTemporizacion<>(100, 8, T0);
+        rueda.programar("a", T0 + 200);
+        rueda.programar("b", T0 + 200);
+
+        // Act
+        assertTrue(rueda.cancelar("a"));
+        assertFalse(rueda.cancelar("x"));
+        rueda.programar("b", T0 + 600);
+
+        // Assert
+        assertEquals(List.of(), rueda.avanzar(T0 + 300));
+        assertEquals(List.of("b"), rueda.avanzar(T0 + 600));
+    }
+
+    @Test
+    @DisplayName("Un avance atrasado más de una vuelta devuelve todo lo vencido")
+    void testAvanceAtrasado() {
+        // Arrange
+        RuedaTemporizacion<Integer> rueda = new RuedaTemporizacion<>(100, 8, T0);
+        for (int i = 1; i <= 20; i++) {
+            rueda.programar(i, T0 + i * 100L);
+        }
+
+        // Act
+        List<Integer> vencidas = rueda.avanzar(T0 + 1_500);
+
+        // Assert
+        assertEquals(15, vencidas.size());
+        assertEquals(5, rueda.tamano());
+        assertEquals(5, rueda.avanzar(T0 + 5_000).size());
+    }
+
+    @Test
+    @DisplayName("Un vencimiento ya pasado vence en el siguiente tick")
+    void testVencimientoPasado() {
+        // Arrange
+        RuedaTemporizacion<String> rueda = new RuedaTemporizacion<>(100, 8, T0);
+
+        // Act
+        rueda.programar("viejo", T0 - 5_000);
+
+        // Assert
+        assertEquals(List.of("viejo"), rueda.avanzar(T0 + 100));
+    }
+}
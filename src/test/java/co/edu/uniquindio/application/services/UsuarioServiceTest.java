@@ -5,6 +5,7 @@ import co.edu.uniquindio.gohost.model.TipoDocumento;
 import co.edu.uniquindio.gohost.model.Usuario;
 import co.edu.uniquindio.gohost.repository.UsuarioRepository;
 import co.edu.uniquindio.gohost.service.impl.UsuarioServiceImpl;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.Nested;
@@ -36,6 +37,8 @@ class UsuarioServiceTest {
     @Mock UsuarioRepository usuarioRepository;
     @Mock
     PasswordEncoder passwordEncoder;
+    @Mock
+    BandejaSalida bandejaSalida;
     @InjectMocks UsuarioServiceImpl usuarioService;
 
     private UUID usuarioId;
@@ -155,6 +158,34 @@ class UsuarioServiceTest {
             verify(usuarioRepository).save(captor.capture());
             assertEquals("$2a$10$hash", captor.getValue().getPassword());
         }
+
+        @Test
+        @DisplayName("Registrar encola la bienvenida según el rol; si falla, la excepción se propaga")
+        void registrarEncolaBienvenida() {
+            Usuario anfitrion = baseUsuarioBuilder()
+                    .email("anfitrion@gohost.test")
+                    .numeroDocumento(DOC_NEW)
+                    .password(RAW_PASS)
+                    .rol(Rol.ANFITRION)
+                    .build();
+
+            when(passwordEncoder.encode(RAW_PASS)).thenReturn(HASH);
+            when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Usuario res = usuarioService.registrar(anfitrion);
+
+            assertSame(anfitrion, res);
+            verify(bandejaSalida).encolar(argThat(m -> "anfitrion@gohost.test".equals(m.getTo())));
+
+            doThrow(new IllegalStateException("bandeja caída")).when(bandejaSalida).encolar(any());
+            Usuario huesped = baseUsuarioBuilder()
+                    .email("huesped@gohost.test")
+                    .numeroDocumento("888888888")
+                    .password(RAW_PASS)
+                    .build();
+
+            assertThrows(IllegalStateException.class, () -> usuarioService.registrar(huesped));
+        }
     }
 
     // ========== LOGIN ==========
@@ -0,0 +1,174 @@
+package co.edu.uniquindio.gohost.integration;
+
+import co.edu.uniquindio.gohost.model.Alojamiento;
+import co.edu.uniquindio.gohost.model.Direccion;
+import co.edu.uniquindio.gohost.model.Rol;
+import co.edu.uniquindio.gohost.model.Usuario;
+import co.edu.uniquindio.gohost.repository.AlojamientoRepository;
+import co.edu.uniquindio.gohost.repository.UsuarioRepository;
+import co.edu.uniquindio.gohost.service.RecordatorioService;
+import co.edu.uniquindio.gohost.service.ReservaService;
+import co.edu.uniquindio.gohost.service.mail.BandejaSalida;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de estrés contra un PostgreSQL real: muchos hilos reservan fechas aleatorias de un mismo
+ * alojamiento con {@link ReservaService#crear} (candado compartido del alojamiento, verificación
+ * previa y la restricción de exclusión de V11) y al final no debe haber ninguna pareja de reservas
+ * activas traslapadas.
+ *
+ * La base se prepara con las migraciones de Flyway del proyecto. Se ejecuta solo si existe
+ * GOHOST_STRESS_DB_URL (p. ej. jdbc:postgresql://localhost:5432/gohost_estres), con
+ * GOHOST_STRESS_DB_USER / GOHOST_STRESS_DB_PASSWORD; el usuario debe poder crear btree_gist.
+ * Los correos y recordatorios se simulan para no salir del proceso.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "GOHOST_STRESS_DB_URL", matches = ".+")
+@DisplayName("Estrés - Reservas sin traslape bajo concurrencia (PostgreSQL)")
+class ReservaTraslapeConcurrenciaIT {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaTraslapeConcurrenciaIT.class);
+
+    private static final int HILOS = 16;
+    private static final int INTENTOS_POR_HILO = 200;
+    private static final int DIAS_CALENDARIO = 60;
+
+    @DynamicPropertySource
+    static void baseDeEstres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("GOHOST_STRESS_DB_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("GOHOST_STRESS_DB_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("GOHOST_STRESS_DB_PASSWORD"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> HILOS + 4);
+    }
+
+    @Autowired private ReservaService reservaService;
+    @Autowired private UsuarioRepository usuarioRepository;
+    @Autowired private AlojamientoRepository alojamientoRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    @MockBean private BandejaSalida bandejaSalida;
+    @MockBean private RecordatorioService recordatorioService;
+
+    private Usuario anfitrion;
+    private Usuario huesped;
+    private Alojamiento alojamiento;
+
+    @BeforeEach
+    void crearDatos() {
+        anfitrion = usuarioRepository.save(usuario(Rol.ANFITRION));
+        huesped = usuarioRepository.save(usuario(Rol.HUESPED));
+        alojamiento = alojamientoRepository.save(Alojamiento.builder()
+                .titulo("Estrés de reservas")
+                .descripcion("Alojamiento de la prueba de concurrencia")
+                .direccion(Direccion.builder().ciudad("Armenia").pais("Colombia").build())
+                .precioNoche(new BigDecimal("100000"))
+                .capacidad(2)
+                .anfitrion(anfitrion)
+                .build());
+    }
+
+    @AfterEach
+    void borrarDatos() {
+        jdbc.update("DELETE FROM reserva WHERE alojamiento_id = ?", alojamiento.getId());
+        alojamientoRepository.deleteById(alojamiento.getId());
+        usuarioRepository.deleteAllById(List.of(anfitrion.getId(), huesped.getId()));
+    }
+
+    private static Usuario usuario(Rol rol) {
+        return Usuario.builder()
+                .email("estres+" + UUID.randomUUID() + "@example.com")
+                .nombre("Estrés")
+                .password("no-usado")
+                .rol(rol)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Cero reservas dobles y throughput bajo contención en un alojamiento")
+    void testSinReservasDoblesBajoContencion() throws Exception {
+        // Arrange
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        CyclicBarrier salida = new CyclicBarrier(HILOS);
+        LocalDate manana = LocalDate.now().plusDays(1);
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+
+        // Act
+        long inicio = System.nanoTime();
+        List<Future<?>> hilos = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            hilos.add(pool.submit(() -> {
+                salida.await();
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    LocalDate in = manana.plusDays(rnd.nextInt(DIAS_CALENDARIO));
+                    LocalDate out = in.plusDays(1 + rnd.nextInt(4));
+                    try {
+                        reservaService.crear(alojamiento.getId(), huesped.getId(), in, out);
+                        exitosas.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : hilos) {
+            f.get();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        pool.shutdown();
+
+        // Assert
+        int total = HILOS * INTENTOS_POR_HILO;
+        assertEquals(total, exitosas.get() + rechazadas.get());
+        assertEquals(0, contarTraslapes(), "Hay reservas activas traslapadas");
+        assertEquals(exitosas.get(), contarActivas());
+        log.info("Reservas concurrentes: {} intentos en {} s ({}/s), {} exitosas, {} rechazadas",
+                total, String.format("%.2f", segundos), Math.round(total / segundos),
+                exitosas.get(), rechazadas.get());
+    }
+
+    private long contarTraslapes() {
+        return jdbc.queryForObject("""
+                SELECT COUNT(*) FROM reserva a
+                  JOIN reserva b ON b.alojamiento_id = a.alojamiento_id AND a.id < b.id
+                                AND a.check_in < b.check_out AND b.check_in < a.check_out
+                 WHERE a.alojamiento_id = ?
+                   AND a.eliminada = false AND a.estado <> 'CANCELADA'
+                   AND b.eliminada = false AND b.estado <> 'CANCELADA'""", Long.class, alojamiento.getId());
+    }
+
+    private long contarActivas() {
+        return jdbc.queryForObject("""
+                SELECT COUNT(*) FROM reserva
+                 WHERE alojamiento_id = ? AND eliminada = false AND estado <> 'CANCELADA'""",
+                Long.class, alojamiento.getId());
+    }
+}